@@ -0,0 +1,237 @@
+package com.globalfraud.frauddetection.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.globalfraud.frauddetection.config.FraudDetectionProperties;
+import com.globalfraud.frauddetection.domain.FraudRule;
+import com.globalfraud.frauddetection.domain.RuleType;
+import com.globalfraud.frauddetection.domain.Transaction;
+import com.globalfraud.frauddetection.domain.TransactionStatus;
+import com.globalfraud.frauddetection.dto.TransactionRequest;
+import com.globalfraud.frauddetection.repository.TransactionRepository;
+import com.globalfraud.frauddetection.service.DefaultRuleEvaluator;
+import com.globalfraud.frauddetection.service.FraudDetectionService;
+import com.globalfraud.frauddetection.service.RuleSetEvaluator;
+import com.globalfraud.frauddetection.service.ScoringConcurrencyLimiter;
+import com.globalfraud.frauddetection.service.ScoringMetrics;
+import com.globalfraud.frauddetection.service.history.CustomerAggregateStore;
+import com.globalfraud.frauddetection.service.idempotency.RecentDecisionCache;
+import com.globalfraud.frauddetection.service.knownfraud.KnownFraudIndex;
+import com.globalfraud.frauddetection.service.location.PostalReferenceIndex;
+import com.globalfraud.frauddetection.service.merchant.MerchantRiskCache;
+import com.globalfraud.frauddetection.service.persistence.WriteBehindTransactionWriter;
+import com.globalfraud.frauddetection.service.rule.ActiveRuleSet;
+import com.globalfraud.frauddetection.service.rule.RuleConfigCompiler;
+import com.globalfraud.frauddetection.service.shadow.ShadowRuleEvaluator;
+import com.globalfraud.frauddetection.service.velocity.VelocityCounterEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Builds the scoring components from their production classes, wired by hand over
+ * {@link StandIns}, and the rules and inputs the benchmarks run against.
+ */
+final class Fixtures {
+    static final int CUSTOMERS = 1_000;
+    static final int MERCHANTS = 100;
+    private static final String[][] ADDRESSES = {
+            {"10001", "New York", "NY", "212"},
+            {"60601", "Chicago", "IL", "312"},
+            {"94105", "San Francisco", "CA", "415"},
+            {"98101", "Seattle", "WA", "206"}};
+
+    private Fixtures() {
+    }
+
+    /**
+     * Properties for steady-state measurements. The merchant risk staleness bound is raised so
+     * that long measurement iterations keep hitting the cache instead of drifting onto the
+     * bypass path once the pre-built transactions are older than the default bound. The recent
+     * decision cache is off because benchmarks cycle through a fixed set of transaction IDs,
+     * which would otherwise be answered from it after the first pass.
+     */
+    static FraudDetectionProperties properties() {
+        FraudDetectionProperties properties = new FraudDetectionProperties();
+        properties.getMerchantRisk().setMaxStaleness(Duration.ofDays(1));
+        properties.getIdempotency().setMaxRecentDecisions(0);
+        return properties;
+    }
+
+    static Components components(int historySize) {
+        FraudDetectionProperties properties = properties();
+        TransactionRepository repository = StandIns.transactionRepository(historySize);
+        RuleConfigCompiler compiler = new RuleConfigCompiler(new ObjectMapper());
+        VelocityCounterEngine velocityEngine = new VelocityCounterEngine(repository, properties);
+        CustomerAggregateStore customerStore = new CustomerAggregateStore(repository, properties);
+        MerchantRiskCache merchantRiskCache = new MerchantRiskCache(repository, properties);
+        PostalReferenceIndex postalReferenceIndex = new PostalReferenceIndex(properties);
+        postalReferenceIndex.load();
+        // No known-fraud files are configured, so every card fingerprint misses, as most do
+        KnownFraudIndex knownFraudIndex = new KnownFraudIndex(properties);
+        knownFraudIndex.load();
+        DefaultRuleEvaluator ruleEvaluator = new DefaultRuleEvaluator(compiler, velocityEngine,
+                customerStore, merchantRiskCache, postalReferenceIndex, knownFraudIndex);
+        return new Components(properties, repository, compiler, velocityEngine, customerStore,
+                ruleEvaluator);
+    }
+
+    /**
+     * The full scoring service over the given rules, persisting synchronously to the stand-in
+     * repository. The caller owns the returned evaluators and must shut them down.
+     */
+    static Service service(Components components, List<FraudRule> rules) {
+        ActiveRuleSet activeRuleSet =
+                new ActiveRuleSet(StandIns.fraudRuleRepository(rules), components.compiler());
+        ScoringMetrics metrics =
+                new ScoringMetrics(new SimpleMeterRegistry(), components.properties());
+        RuleSetEvaluator ruleSetEvaluator = new RuleSetEvaluator(components.ruleEvaluator(),
+                components.properties(), metrics);
+        WriteBehindTransactionWriter writer = new WriteBehindTransactionWriter(
+                components.repository(), StandIns.unusedTransactionManager(),
+                components.properties(), new SimpleMeterRegistry());
+        ShadowRuleEvaluator shadowRuleEvaluator = new ShadowRuleEvaluator(activeRuleSet,
+                components.ruleEvaluator(), StandIns.shadowDecisionRepository(), metrics,
+                components.properties(), new SimpleMeterRegistry());
+        FraudDetectionService service = new FraudDetectionService(components.repository(),
+                activeRuleSet, ruleSetEvaluator,
+                List.of(components.velocityEngine(), components.customerStore()),
+                Validation.buildDefaultValidatorFactory().getValidator(), components.properties(),
+                writer, new ScoringConcurrencyLimiter(components.properties()), metrics,
+                new RecentDecisionCache(components.properties(), new SimpleMeterRegistry()),
+                shadowRuleEvaluator);
+        return new Service(service, ruleSetEvaluator, shadowRuleEvaluator);
+    }
+
+    /**
+     * A rule of the given type with a representative configuration. Types without an
+     * implementation get an empty config and exercise the unsupported path.
+     */
+    static FraudRule rule(RuleType ruleType, int priority) {
+        FraudRule rule = new FraudRule();
+        rule.setId(UUID.randomUUID());
+        rule.setName(ruleType + "-" + priority);
+        rule.setRuleType(ruleType);
+        rule.setPriority(priority);
+        rule.setRuleConfig(switch (ruleType) {
+            case AMOUNT_THRESHOLD -> "{\"threshold\": \"5000.00\"}";
+            case VELOCITY_CHECK -> "{\"maxTransactions\": 20, \"timeWindowMinutes\": 60}";
+            case MERCHANT_RISK -> "{\"merchantRiskThreshold\": \"0.3\", \"timeWindowHours\": 24}";
+            case CUSTOMER_HISTORY -> "{\"averageTransactionThreshold\": \"3.0\"}";
+            case LOCATION_BASED -> "{\"score\": \"0.25\"}";
+            case PATTERN_MATCHING -> "{}";
+            case KEYWORD_MATCH -> "{\"fields\": [\"ADDRESS_LINE\", \"MERCHANT_DESCRIPTOR\"], "
+                    + "\"keywords\": [\"PO Box\", \"post office box\", \"casino\"]}";
+            case EXPRESSION -> "{\"expression\": \"amount > 5000 && "
+                    + "velocity(customer, 60m) > 20\"}";
+            default -> "{}";
+        });
+        return rule;
+    }
+
+    static Transaction[] transactions(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        ZonedDateTime now = ZonedDateTime.now();
+        Transaction[] transactions = new Transaction[count];
+        for (int i = 0; i < count; i++) {
+            Transaction transaction = new Transaction();
+            transaction.setId(UUID.randomUUID());
+            transaction.setCustomerId("customer-" + random.nextInt(CUSTOMERS));
+            transaction.setMerchantId("merchant-" + random.nextInt(MERCHANTS));
+            transaction.setAmount(amount(random));
+            transaction.setCurrency("USD");
+            String[] address = address(random);
+            transaction.setZipCode(address[0]);
+            transaction.setCity(address[1]);
+            transaction.setState(address[2]);
+            transaction.setAreaCode(address[3]);
+            transaction.setCardFingerprint(cardFingerprint(random));
+            transaction.setAddressLine(addressLine(random));
+            transaction.setMerchantName(transaction.getMerchantId() + " Online Services");
+            transaction.setMerchantDescriptor("SQ *" + transaction.getMerchantId().toUpperCase());
+            transaction.setTransactionTimestamp(now);
+            transaction.setStatus(TransactionStatus.PENDING);
+            transactions[i] = transaction;
+        }
+        return transactions;
+    }
+
+    /**
+     * Requests with distinct transaction IDs. The stand-in repository does not track IDs, so a
+     * benchmark may cycle through them.
+     */
+    static TransactionRequest[] requests(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        TransactionRequest[] requests = new TransactionRequest[count];
+        for (int i = 0; i < count; i++) {
+            TransactionRequest request = new TransactionRequest();
+            request.setTransactionId(UUID.randomUUID().toString());
+            request.setCustomerId("customer-" + random.nextInt(CUSTOMERS));
+            request.setMerchantId("merchant-" + random.nextInt(MERCHANTS));
+            request.setAmount(amount(random));
+            request.setCurrency("USD");
+            String[] address = address(random);
+            request.setZipCode(address[0]);
+            request.setCity(address[1]);
+            request.setState(address[2]);
+            request.setAreaCode(address[3]);
+            request.setCardFingerprint(cardFingerprint(random));
+            request.setAddressLine(addressLine(random));
+            request.setMerchantName(request.getMerchantId() + " Online Services");
+            request.setMerchantDescriptor("SQ *" + request.getMerchantId().toUpperCase());
+            requests[i] = request;
+        }
+        return requests;
+    }
+
+    /**
+     * An address from the bundled postal reference data; one in twenty has the wrong area code.
+     */
+    private static String[] address(SplittableRandom random) {
+        String[] address = ADDRESSES[random.nextInt(ADDRESSES.length)];
+        return random.nextInt(20) == 0
+                ? new String[] {address[0], address[1], address[2], "999"}
+                : address;
+    }
+
+    /**
+     * A street address; one in fifty is a PO Box.
+     */
+    private static String addressLine(SplittableRandom random) {
+        return random.nextInt(50) == 0 ? "P.O. Box " + random.nextInt(1, 10_000)
+                : random.nextInt(1, 10_000) + " Market Street, Suite " + random.nextInt(1, 500);
+    }
+
+    /**
+     * A random hex-encoded 256-bit hash, as a card fingerprint is sent.
+     */
+    static String cardFingerprint(SplittableRandom random) {
+        StringBuilder fingerprint = new StringBuilder(64);
+        for (int i = 0; i < 4; i++) {
+            fingerprint.append(HexFormat.of().toHexDigits(random.nextLong()));
+        }
+        return fingerprint.toString();
+    }
+
+    private static BigDecimal amount(SplittableRandom random) {
+        // Mostly small amounts with an occasional large one, so threshold rules trigger sometimes
+        long cents = random.nextInt(20) == 0 ? random.nextLong(500_000, 2_000_000)
+                : random.nextLong(100, 50_000);
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    record Components(FraudDetectionProperties properties, TransactionRepository repository,
+            RuleConfigCompiler compiler, VelocityCounterEngine velocityEngine,
+            CustomerAggregateStore customerStore, DefaultRuleEvaluator ruleEvaluator) {
+    }
+
+    record Service(FraudDetectionService service, RuleSetEvaluator ruleSetEvaluator,
+            ShadowRuleEvaluator shadowRuleEvaluator) {
+    }
+}
@@ -0,0 +1,77 @@
+package com.globalfraud.frauddetection.benchmark;
+
+import com.globalfraud.frauddetection.domain.FraudRule;
+import com.globalfraud.frauddetection.domain.RuleType;
+import com.globalfraud.frauddetection.dto.FraudCheckResult;
+import com.globalfraud.frauddetection.dto.TransactionRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end cost of {@code FraudDetectionService.processTransaction}: request mapping, rule
+ * snapshot lookup, rule set evaluation (including the hand-off of data-backed rules to virtual
+ * threads), result assembly, the synchronous save and the listener updates. The repository is an
+ * in-memory stand-in, so the numbers exclude database time.
+ *
+ * <p>
+ * {@code ruleCount} sweeps the size of the active rule set; rules cycle through the implemented
+ * rule types.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FraudDetectionServiceBenchmark {
+    private static final int REQUESTS = 4096;
+    private static final RuleType[] RULE_TYPES = {RuleType.AMOUNT_THRESHOLD,
+            RuleType.VELOCITY_CHECK, RuleType.MERCHANT_RISK, RuleType.CUSTOMER_HISTORY};
+
+    @Param({"1", "4", "16", "64"})
+    public int ruleCount;
+
+    private Fixtures.Service service;
+    private TransactionRequest[] requests;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<FraudRule> rules = new ArrayList<>(ruleCount);
+        for (int i = 0; i < ruleCount; i++) {
+            rules.add(Fixtures.rule(RULE_TYPES[i % RULE_TYPES.length], i));
+        }
+        service = Fixtures.service(Fixtures.components(100), rules);
+        requests = Fixtures.requests(REQUESTS, 42);
+        for (TransactionRequest request : requests) {
+            service.service().processTransaction(request);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.ruleSetEvaluator().shutdown();
+        service.shadowRuleEvaluator().shutdown();
+    }
+
+    @Benchmark
+    public FraudCheckResult processTransaction() {
+        TransactionRequest request = requests[next];
+        next = (next + 1) % REQUESTS;
+        return service.service().processTransaction(request);
+    }
+}
@@ -0,0 +1,93 @@
+package com.globalfraud.frauddetection.benchmark;
+
+import com.globalfraud.frauddetection.domain.FraudRule;
+import com.globalfraud.frauddetection.domain.RuleType;
+import com.globalfraud.frauddetection.domain.Transaction;
+import com.globalfraud.frauddetection.service.DefaultRuleEvaluator;
+import com.globalfraud.frauddetection.service.RuleOutcome;
+import com.globalfraud.frauddetection.service.velocity.SlidingWindowCounter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How the history-dependent rules scale with the number of past transactions per customer and
+ * merchant. The steady-state evaluations should stay flat across {@code historySize}; only the
+ * one-off counter hydration is expected to grow with it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HistoryScalingBenchmark {
+    private static final int TRANSACTIONS = 4096;
+
+    @Param({"10", "1000", "100000"})
+    public int historySize;
+
+    private DefaultRuleEvaluator evaluator;
+    private FraudRule velocityRule;
+    private FraudRule customerHistoryRule;
+    private Transaction[] transactions;
+    private long[] eventBuckets;
+    private int capacity;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Fixtures.Components components = Fixtures.components(historySize);
+        evaluator = components.ruleEvaluator();
+        velocityRule = Fixtures.rule(RuleType.VELOCITY_CHECK, 1);
+        customerHistoryRule = Fixtures.rule(RuleType.CUSTOMER_HISTORY, 2);
+        transactions = Fixtures.transactions(TRANSACTIONS, 42);
+        for (Transaction transaction : transactions) {
+            evaluator.evaluateRule(transaction, velocityRule);
+            evaluator.evaluateRule(transaction, customerHistoryRule);
+        }
+
+        Duration bucketWidth = components.properties().getVelocity().getBucketWidth();
+        Duration horizon = components.properties().getVelocity().getHorizon();
+        capacity = (int) (horizon.toMillis() / bucketWidth.toMillis()) + 2;
+        long newestBucket = System.currentTimeMillis() / bucketWidth.toMillis();
+        eventBuckets = new long[historySize];
+        for (int i = 0; i < historySize; i++) {
+            eventBuckets[i] = newestBucket - (long) i * (capacity - 2) / historySize;
+        }
+    }
+
+    @Benchmark
+    public RuleOutcome velocitySteadyState() {
+        return evaluator.evaluateRule(nextTransaction(), velocityRule);
+    }
+
+    @Benchmark
+    public RuleOutcome customerHistorySteadyState() {
+        return evaluator.evaluateRule(nextTransaction(), customerHistoryRule);
+    }
+
+    @Benchmark
+    public SlidingWindowCounter velocityHydration() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(capacity);
+        counter.hydrate(eventBuckets);
+        return counter;
+    }
+
+    private Transaction nextTransaction() {
+        Transaction transaction = transactions[next];
+        next = (next + 1) % TRANSACTIONS;
+        return transaction;
+    }
+}
@@ -0,0 +1,69 @@
+package com.globalfraud.frauddetection.benchmark;
+
+import com.globalfraud.frauddetection.service.knownfraud.KnownFraudSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Average time of one {@link KnownFraudSet#contains} lookup for card fingerprints in and not in
+ * sets of increasing size. Larger sizes need a correspondingly larger heap ({@code -Xmx}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class KnownFraudSetBenchmark {
+    private static final int LOOKUPS = 4096;
+
+    @Param({"1000000", "10000000", "30000000"})
+    public int size;
+
+    private KnownFraudSet set;
+    private String[] present;
+    private String[] absent;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        set = new KnownFraudSet(size);
+        SplittableRandom random = new SplittableRandom(42);
+        present = new String[LOOKUPS];
+        for (int i = 0; i < size; i++) {
+            String fingerprint = Fixtures.cardFingerprint(random);
+            set.add(fingerprint);
+            if (i < LOOKUPS) {
+                present[i] = fingerprint;
+            }
+        }
+        absent = new String[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            absent[i] = Fixtures.cardFingerprint(random);
+        }
+    }
+
+    @Benchmark
+    public boolean containsPresent() {
+        next = (next + 1) & (LOOKUPS - 1);
+        return set.contains(present[next]);
+    }
+
+    @Benchmark
+    public boolean containsAbsent() {
+        next = (next + 1) & (LOOKUPS - 1);
+        return set.contains(absent[next]);
+    }
+}
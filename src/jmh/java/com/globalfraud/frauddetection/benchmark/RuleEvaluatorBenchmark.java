@@ -0,0 +1,62 @@
+package com.globalfraud.frauddetection.benchmark;
+
+import com.globalfraud.frauddetection.domain.FraudRule;
+import com.globalfraud.frauddetection.domain.RuleType;
+import com.globalfraud.frauddetection.domain.Transaction;
+import com.globalfraud.frauddetection.service.DefaultRuleEvaluator;
+import com.globalfraud.frauddetection.service.RuleOutcome;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Steady-state cost of one {@link DefaultRuleEvaluator#evaluateRule} call per rule type, with
+ * counters, aggregates and merchant ratios already loaded. Run with the gc profiler to see the
+ * allocation rate per evaluation next to the throughput.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RuleEvaluatorBenchmark {
+    private static final int TRANSACTIONS = 4096;
+
+    @Param({"AMOUNT_THRESHOLD", "VELOCITY_CHECK", "MERCHANT_RISK", "CUSTOMER_HISTORY",
+            "LOCATION_BASED", "PATTERN_MATCHING", "KEYWORD_MATCH", "EXPRESSION"})
+    public String ruleType;
+
+    private DefaultRuleEvaluator evaluator;
+    private FraudRule rule;
+    private Transaction[] transactions;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        evaluator = Fixtures.components(100).ruleEvaluator();
+        rule = Fixtures.rule(RuleType.valueOf(ruleType), 1);
+        transactions = Fixtures.transactions(TRANSACTIONS, 42);
+        // Load every counter, aggregate and merchant ratio the measured calls will touch
+        for (Transaction transaction : transactions) {
+            evaluator.evaluateRule(transaction, rule);
+        }
+    }
+
+    @Benchmark
+    public RuleOutcome evaluateRule() {
+        Transaction transaction = transactions[next];
+        next = (next + 1) % TRANSACTIONS;
+        return evaluator.evaluateRule(transaction, rule);
+    }
+}
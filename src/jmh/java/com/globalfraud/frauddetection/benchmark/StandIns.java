@@ -0,0 +1,130 @@
+package com.globalfraud.frauddetection.benchmark;
+
+import com.globalfraud.frauddetection.domain.FraudRule;
+import com.globalfraud.frauddetection.domain.TransactionStatus;
+import com.globalfraud.frauddetection.repository.FraudRuleRepository;
+import com.globalfraud.frauddetection.repository.ShadowDecisionRepository;
+import com.globalfraud.frauddetection.repository.TransactionRepository;
+import com.globalfraud.frauddetection.repository.TransactionRepository.CustomerTotals;
+import com.globalfraud.frauddetection.repository.TransactionRepository.StatusCount;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory stand-ins for the Spring Data repositories, built as dynamic proxies so that only the
+ * queries the scoring path issues have to be implemented. Anything else throws, which keeps a
+ * benchmark from silently measuring a code path it was not written for.
+ */
+final class StandIns {
+
+    private StandIns() {
+    }
+
+    /**
+     * A transaction repository that discards writes and answers history queries as if every
+     * customer and merchant had {@code historySize} transactions within the velocity horizon.
+     */
+    static TransactionRepository transactionRepository(int historySize) {
+        ZonedDateTime now = ZonedDateTime.now();
+        List<ZonedDateTime> timestamps = new ArrayList<>(historySize);
+        for (int i = 0; i < historySize; i++) {
+            timestamps.add(now.minusSeconds((3600L * i) / Math.max(historySize, 1)));
+        }
+        List<ZonedDateTime> history = List.copyOf(timestamps);
+        CustomerTotals totals = new CustomerTotals() {
+            @Override
+            public long getTransactionCount() {
+                return historySize;
+            }
+
+            @Override
+            public BigDecimal getTotalAmount() {
+                return BigDecimal.valueOf(historySize * 100L);
+            }
+        };
+        List<StatusCount> statusCounts = List.of(statusCount(TransactionStatus.APPROVED,
+                historySize - historySize / 10L),
+                statusCount(TransactionStatus.REJECTED, historySize / 10L));
+
+        return proxy(TransactionRepository.class, Map.of(
+                "save", args -> args[0],
+                "saveAll", args -> args[0],
+                "findAllById", args -> List.of(),
+                "findById", args -> Optional.empty(),
+                "findCustomerTotals", args -> totals,
+                "findTransactionTimestampsByCustomerInTimeWindow", args -> history,
+                "findTransactionTimestampsByMerchantInTimeWindow", args -> history,
+                "countTransactionsByCustomerInTimeWindow", args -> (long) historySize,
+                "countTransactionsByMerchantInTimeWindow", args -> (long) historySize,
+                "countByStatusForMerchantInTimeWindow", args -> statusCounts));
+    }
+
+    /**
+     * A rule repository that always returns the given rules as the active rule set.
+     */
+    static FraudRuleRepository fraudRuleRepository(List<FraudRule> rules) {
+        return proxy(FraudRuleRepository.class, Map.of(
+                "findAllActiveRulesOrderedByPriority", args -> rules,
+                "findRuleContent", args -> List.of()));
+    }
+
+    /**
+     * A shadow decision repository that discards what it is asked to save.
+     */
+    static ShadowDecisionRepository shadowDecisionRepository() {
+        return proxy(ShadowDecisionRepository.class, Map.of("saveAll", args -> args[0]));
+    }
+
+    /**
+     * A transaction manager for components that need one but are not exercised in write-behind
+     * mode; any use of it fails.
+     */
+    static PlatformTransactionManager unusedTransactionManager() {
+        return proxy(PlatformTransactionManager.class, Map.of());
+    }
+
+    private static StatusCount statusCount(TransactionStatus status, long count) {
+        return new StatusCount() {
+            @Override
+            public TransactionStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public long getTransactionCount() {
+                return count;
+            }
+        };
+    }
+
+    private static <T> T proxy(Class<T> type, Map<String, Answer> answers) {
+        InvocationHandler handler = (target, method, args) -> {
+            Answer answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.answer(args);
+            }
+            return switch (method.getName()) {
+                case "toString" -> "StandIn[" + type.getSimpleName() + "]";
+                case "hashCode" -> System.identityHashCode(target);
+                case "equals" -> target == args[0];
+                default -> throw new UnsupportedOperationException(
+                        type.getSimpleName() + "." + method.getName() + " is not stubbed");
+            };
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                handler));
+    }
+
+    @FunctionalInterface
+    private interface Answer {
+        Object answer(Object[] args);
+    }
+}
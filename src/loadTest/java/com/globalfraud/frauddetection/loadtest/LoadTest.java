@@ -0,0 +1,157 @@
+package com.globalfraud.frauddetection.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.globalfraud.frauddetection.FraudDetectionApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * End-to-end load test of the fraud check endpoint.
+ *
+ * <p>
+ * Boots the application in-process (or targets {@code --url}), creates the bundled rule set and
+ * drives {@code /api/v1/fraud-detection/check} through a series of open-loop rates. Every step at
+ * or below {@code --required-rate} must meet the SLOs; faster steps probe for the knee of the
+ * latency curve and stop at the first miss. The process exits with status 1 if a required step
+ * misses its SLOs. See tests/performance/README.md.
+ */
+public final class LoadTest {
+    private static final String RULES_PATH = "/api/v1/fraud-rules";
+    private static final String RULES_RESOURCE = "/load-test-rules.json";
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ConfigurableApplicationContext context = null;
+        String baseUrl = options.url();
+        if (baseUrl == null) {
+            context = new SpringApplicationBuilder(FraudDetectionApplication.class)
+                    .profiles("local").properties("server.port=0")
+                    .run(options.applicationArgs());
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            baseUrl = "http://localhost:" + port;
+        }
+
+        boolean passed;
+        try {
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5))
+                    .executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+            if (options.loadRules()) {
+                loadRules(client, baseUrl);
+            }
+            passed = run(options, new OpenLoopDriver(client, baseUrl, options.customers(),
+                    options.merchants(), options.maxInFlight()));
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static boolean run(LoadTestOptions options, OpenLoopDriver driver)
+            throws InterruptedException, IOException {
+        System.out.printf("%8s %10s %9s %8s %9s %9s %9s %9s %9s %12s  %s%n", "target/s",
+                "scheduled", "ok/s", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms",
+                "raw p99", "", "SLO");
+
+        List<Map<String, Object>> steps = new ArrayList<>();
+        boolean passed = true;
+        Integer knee = null;
+        for (int rate : options.rates()) {
+            StepResult result = driver.run(rate, options.warmup(), options.duration());
+            List<String> violations = options.slo().violations(result);
+            boolean required = rate <= options.requiredRate();
+            System.out.printf("%8d %10d %9.1f %8d %9d %9d %9d %9d %9d %12s  %s%n", rate,
+                    result.scheduled(), result.throughput(), result.failed(),
+                    result.p50().toMillis(), result.p99().toMillis(), result.p999().toMillis(),
+                    result.max().toMillis(), result.uncorrectedP99().toMillis(),
+                    required ? "(required)" : "(probe)",
+                    violations.isEmpty() ? "met" : String.join("; ", violations));
+
+            Map<String, Object> step = new LinkedHashMap<>();
+            step.put("result", result);
+            step.put("required", required);
+            step.put("violations", violations);
+            steps.add(step);
+
+            if (violations.isEmpty()) {
+                knee = rate;
+            } else if (required) {
+                passed = false;
+            } else {
+                break;
+            }
+        }
+
+        System.out.println(knee != null
+                ? "Highest rate meeting the SLOs: " + knee + "/s"
+                : "No rate met the SLOs");
+        writeReport(options, steps, knee, passed);
+        return passed;
+    }
+
+    /**
+     * Creates every rule from the bundled rule set through the rules API, so rule validation and
+     * the active rule set refresh run exactly as in production.
+     */
+    private static void loadRules(HttpClient client, String baseUrl)
+            throws IOException, InterruptedException {
+        JsonNode rules;
+        try (InputStream in = LoadTest.class.getResourceAsStream(RULES_RESOURCE)) {
+            rules = new ObjectMapper().readTree(in);
+        }
+        for (JsonNode rule : rules) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + RULES_PATH))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(rule.toString())).build();
+            HttpResponse<String> response =
+                    client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Could not create rule "
+                        + rule.path("name").asText() + ": " + response.body());
+            }
+        }
+        System.out.printf("Loaded %d rules%n", rules.size());
+    }
+
+    private static void writeReport(LoadTestOptions options, List<Map<String, Object>> steps,
+            Integer knee, boolean passed) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("slo", options.slo());
+        report.put("requiredRate", options.requiredRate());
+        report.put("passed", passed);
+        report.put("highestRateMeetingSlo", knee);
+        report.put("steps", steps);
+
+        Path path = Path.of(options.report());
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+                .enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), report);
+        System.out.println("Report written to " + path.toAbsolutePath());
+    }
+}
@@ -0,0 +1,68 @@
+package com.globalfraud.frauddetection.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command-line options of {@link LoadTest}. Options are given as {@code --name value}; any
+ * {@code --spring.*} or {@code --fraud-detection.*} option is passed through to the embedded
+ * application instead.
+ *
+ * @param url base URL of an already running instance, or {@code null} to boot one in-process
+ * @param rates target request rates per second, run in order
+ * @param warmup time spent at each rate before measuring
+ * @param duration measured time at each rate
+ * @param customers number of distinct customer IDs to spread load over
+ * @param merchants number of distinct merchant IDs to spread load over
+ * @param maxInFlight requests allowed in flight before the driver counts further sends as dropped
+ * @param loadRules whether to create the bundled rule set before the first step
+ * @param report where to write the JSON report
+ * @param slo the objectives every required step has to meet
+ * @param requiredRate steps at or below this rate must meet the SLOs; faster steps only probe for
+ *        the knee and stop at the first miss
+ * @param applicationArgs arguments for the embedded application
+ */
+record LoadTestOptions(String url, int[] rates, Duration warmup, Duration duration, int customers,
+        int merchants, int maxInFlight, boolean loadRules, String report, SloPolicy slo,
+        int requiredRate, String[] applicationArgs) {
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        List<String> applicationArgs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.startsWith("--spring.") || arg.startsWith("--fraud-detection.")
+                    || arg.startsWith("--server.")) {
+                applicationArgs.add(arg);
+            } else if (arg.startsWith("--") && i + 1 < args.length) {
+                options.put(arg.substring(2), args[++i]);
+            } else {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+        }
+
+        SloPolicy slo = new SloPolicy(
+                Duration.ofMillis(Long.parseLong(options.getOrDefault("slo-p50-ms", "250"))),
+                Duration.ofMillis(Long.parseLong(options.getOrDefault("slo-p99-ms", "2000"))),
+                Duration.ofMillis(Long.parseLong(options.getOrDefault("slo-p999-ms", "5000"))),
+                Double.parseDouble(options.getOrDefault("slo-max-error-rate", "0.001")),
+                Double.parseDouble(options.getOrDefault("slo-min-throughput-ratio", "0.95")));
+        int[] rates = Arrays.stream(options.getOrDefault("rates", "25,500,2500,5000,10000")
+                .split(",")).mapToInt(value -> Integer.parseInt(value.trim())).toArray();
+
+        return new LoadTestOptions(options.get("url"), rates,
+                Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "15"))),
+                Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60"))),
+                Integer.parseInt(options.getOrDefault("customers", "100000")),
+                Integer.parseInt(options.getOrDefault("merchants", "2000")),
+                Integer.parseInt(options.getOrDefault("max-in-flight", "20000")),
+                Boolean.parseBoolean(options.getOrDefault("load-rules", "true")),
+                options.getOrDefault("report", "build/reports/load-test/report.json"), slo,
+                Integer.parseInt(options.getOrDefault("required-rate", "2500")),
+                applicationArgs.toArray(String[]::new));
+    }
+}
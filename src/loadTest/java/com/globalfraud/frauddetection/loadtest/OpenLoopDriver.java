@@ -0,0 +1,161 @@
+package com.globalfraud.frauddetection.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop driver for the fraud check endpoint.
+ *
+ * <p>
+ * Requests are sent on a fixed schedule regardless of how quickly earlier ones complete, the way
+ * independent clients arrive in production. Each latency is measured from the request's scheduled
+ * send time rather than from when it was actually sent, so a stalled server (or a stalled driver)
+ * is charged for every request that queued up behind the stall instead of hiding it, which is
+ * what a closed-loop driver does (coordinated omission).
+ */
+final class OpenLoopDriver {
+    private static final String CHECK_PATH = "/api/v1/fraud-detection/check";
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client;
+    private final URI checkUri;
+    private final int customers;
+    private final int merchants;
+    private final int maxInFlight;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    OpenLoopDriver(HttpClient client, String baseUrl, int customers, int merchants,
+            int maxInFlight) {
+        this.client = client;
+        this.checkUri = URI.create(baseUrl + CHECK_PATH);
+        this.customers = customers;
+        this.merchants = merchants;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Sends requests at {@code rate} per second for {@code warmup} plus {@code duration} and
+     * returns the measurements of the requests scheduled after the warm-up.
+     */
+    StepResult run(int rate, Duration warmup, Duration duration) throws InterruptedException {
+        Histogram corrected = new ConcurrentHistogram(3);
+        Histogram uncorrected = new ConcurrentHistogram(3);
+        ConcurrentMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+        LongAdder succeeded = new LongAdder();
+        long scheduled = 0;
+        long dropped = 0;
+
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        Phaser outstanding = new Phaser(1);
+        double intervalNanos = 1_000_000_000.0 / rate;
+        long start = System.nanoTime();
+        long measureStart = start + warmup.toNanos();
+        long end = measureStart + duration.toNanos();
+
+        for (long i = 0;; i++) {
+            long intended = start + (long) (i * intervalNanos);
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean measured = intended >= measureStart;
+            if (measured) {
+                scheduled++;
+            }
+            if (!inFlight.tryAcquire()) {
+                if (measured) {
+                    dropped++;
+                }
+                continue;
+            }
+
+            HttpRequest request = nextRequest();
+            outstanding.register();
+            long sent = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        long completed = System.nanoTime();
+                        inFlight.release();
+                        if (measured) {
+                            corrected.recordValue(completed - intended);
+                            uncorrected.recordValue(completed - sent);
+                            if (failure != null) {
+                                errors.computeIfAbsent(causeOf(failure), k -> new LongAdder())
+                                        .increment();
+                            } else if (response.statusCode() != 200) {
+                                errors.computeIfAbsent(String.valueOf(response.statusCode()),
+                                        k -> new LongAdder()).increment();
+                            } else {
+                                succeeded.increment();
+                            }
+                        }
+                        outstanding.arriveAndDeregister();
+                    });
+        }
+
+        try {
+            outstanding.awaitAdvanceInterruptibly(outstanding.arrive(),
+                    REQUEST_TIMEOUT.toSeconds() + 5, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            // Every request carries its own timeout, so this only guards against a hung client
+        }
+
+        Map<String, Long> errorCounts = new TreeMap<>();
+        errors.forEach((cause, count) -> errorCounts.put(cause, count.sum()));
+        return new StepResult(rate, scheduled, succeeded.sum(), dropped, errorCounts,
+                succeeded.sum() / (duration.toNanos() / 1e9), percentile(corrected, 50),
+                percentile(corrected, 99), percentile(corrected, 99.9),
+                Duration.ofNanos(corrected.getMaxValue()), percentile(uncorrected, 99));
+    }
+
+    /**
+     * A new transaction. Customers are skewed so that a fifth of them produce most of the
+     * traffic and amounts are mostly small with a long tail, which keeps the velocity, history
+     * and threshold rules firing at realistic rates.
+     */
+    private HttpRequest nextRequest() {
+        int hotCustomers = Math.max(customers / 5, 1);
+        int customer = random.nextInt(10) < 8 ? random.nextInt(hotCustomers)
+                : random.nextInt(customers);
+        double amount = Math.min(Math.exp(3.5 + 1.2 * random.nextGaussian()), 50_000);
+        String body = String.format(Locale.ROOT,
+                "{\"transactionId\":\"%s\",\"merchantId\":\"MERCHANT%05d\","
+                        + "\"customerId\":\"CUSTOMER%07d\",\"amount\":%.2f,\"currency\":\"USD\"}",
+                UUID.randomUUID(), random.nextInt(merchants), customer, Math.max(amount, 0.01));
+        return HttpRequest.newBuilder(checkUri).timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+
+    private static String causeOf(Throwable failure) {
+        Throwable cause = failure.getCause() != null ? failure.getCause() : failure;
+        return cause instanceof HttpTimeoutException ? "timeout" : "io";
+    }
+
+    private static Duration percentile(Histogram histogram, double percentile) {
+        return Duration.ofNanos(histogram.getValueAtPercentile(percentile));
+    }
+}
@@ -0,0 +1,48 @@
+package com.globalfraud.frauddetection.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service level objectives a load step is checked against. Latency objectives apply to the
+ * coordinated-omission corrected latencies. The defaults sit well inside FR-008's five second
+ * ceiling so that a miss is caught before the requirement is at risk.
+ *
+ * @param p50 ceiling for the median latency
+ * @param p99 ceiling for the 99th percentile latency
+ * @param p999 ceiling for the 99.9th percentile latency
+ * @param maxErrorRate highest tolerated share of failed or dropped requests
+ * @param minThroughputRatio lowest tolerated ratio of achieved to target throughput
+ */
+record SloPolicy(Duration p50, Duration p99, Duration p999, double maxErrorRate,
+        double minThroughputRatio) {
+
+    /**
+     * Returns a description of every objective the step missed, or an empty list.
+     */
+    List<String> violations(StepResult result) {
+        List<String> violations = new ArrayList<>();
+        latency(violations, "p50", result.p50(), p50);
+        latency(violations, "p99", result.p99(), p99);
+        latency(violations, "p99.9", result.p999(), p999);
+        if (result.errorRate() > maxErrorRate) {
+            violations.add(String.format("error rate %.4f > %.4f", result.errorRate(),
+                    maxErrorRate));
+        }
+        double throughputRatio = result.throughput() / result.targetRate();
+        if (throughputRatio < minThroughputRatio) {
+            violations.add(String.format("throughput %.1f/s is %.0f%% of target",
+                    result.throughput(), throughputRatio * 100));
+        }
+        return violations;
+    }
+
+    private static void latency(List<String> violations, String name, Duration actual,
+            Duration limit) {
+        if (actual.compareTo(limit) > 0) {
+            violations.add(String.format("%s %d ms > %d ms", name, actual.toMillis(),
+                    limit.toMillis()));
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.globalfraud.frauddetection.loadtest;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Measurements of one load step. Latencies are coordinated-omission corrected, i.e. measured
+ * from the instant the request was scheduled to be sent; {@code uncorrectedP99} is measured from
+ * the actual send and is reported only to show how far the two diverge.
+ *
+ * @param targetRate scheduled requests per second
+ * @param scheduled requests scheduled during the measured period
+ * @param succeeded requests answered with HTTP 200
+ * @param dropped requests not sent because the in-flight limit was reached
+ * @param errors failed requests by cause: HTTP status code, {@code timeout} or {@code io}
+ * @param throughput successful responses per second over the measured period
+ */
+record StepResult(int targetRate, long scheduled, long succeeded, long dropped,
+        Map<String, Long> errors, double throughput, Duration p50, Duration p99, Duration p999,
+        Duration max, Duration uncorrectedP99) {
+
+    long failed() {
+        return errors.values().stream().mapToLong(Long::longValue).sum() + dropped;
+    }
+
+    double errorRate() {
+        return scheduled == 0 ? 0 : failed() / (double) scheduled;
+    }
+}
@@ -0,0 +1,306 @@
+package com.globalfraud.frauddetection.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "fraud-detection")
+public class FraudDetectionProperties {
+
+    private Velocity velocity = new Velocity();
+
+    private CustomerHistory customerHistory = new CustomerHistory();
+
+    private MerchantRisk merchantRisk = new MerchantRisk();
+
+    private Batch batch = new Batch();
+
+    private WriteBehind writeBehind = new WriteBehind();
+
+    private Concurrency concurrency = new Concurrency();
+
+    private Scoring scoring = new Scoring();
+
+    private Streaming streaming = new Streaming();
+
+    private Backtest backtest = new Backtest();
+
+    private Metrics metrics = new Metrics();
+
+    private Idempotency idempotency = new Idempotency();
+
+    private Location location = new Location();
+
+    private KnownFraud knownFraud = new KnownFraud();
+
+    private Shadow shadow = new Shadow();
+
+    private Partitioning partitioning = new Partitioning();
+
+    @Data
+    public static class Velocity {
+        /**
+         * Width of one counter bucket; velocity counts are accurate to this granularity.
+         */
+        private Duration bucketWidth = Duration.ofMinutes(1);
+
+        /**
+         * Longest window served from memory. Longer windows fall back to a database count.
+         */
+        private Duration horizon = Duration.ofHours(1);
+    }
+
+    @Data
+    public static class CustomerHistory {
+        /**
+         * Half-life of the time-decayed average transaction amount.
+         */
+        private Duration decayHalfLife = Duration.ofDays(30);
+
+        /**
+         * Aggregates not read or updated for this long are dropped and re-hydrated on next use.
+         */
+        private Duration idleTimeout = Duration.ofHours(6);
+    }
+
+    @Data
+    public static class MerchantRisk {
+        /**
+         * How old a cached merchant rejection ratio may be before it is recomputed.
+         */
+        private Duration maxStaleness = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Batch {
+        /**
+         * Largest number of transactions accepted by one batch fraud check.
+         */
+        private int maxSize = 5000;
+    }
+
+    @Data
+    public static class WriteBehind {
+        /**
+         * Return fraud decisions before the scored transaction is persisted and write it from a
+         * background queue instead.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Maximum number of scored transactions waiting to be written.
+         */
+        private int queueCapacity = 10_000;
+
+        /**
+         * Maximum number of transactions written in one database transaction.
+         */
+        private int batchSize = 500;
+
+        /**
+         * How long the writer waits for work before re-checking for shutdown.
+         */
+        private Duration pollInterval = Duration.ofMillis(100);
+
+        /**
+         * How long a request waits for space in a full queue before it is rejected.
+         */
+        private Duration enqueueTimeout = Duration.ofMillis(200);
+
+        /**
+         * How long shutdown waits for the queue to drain.
+         */
+        private Duration shutdownTimeout = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Concurrency {
+        /**
+         * Maximum number of fraud checks running at once; zero means unlimited. Each check may
+         * hold up to {@code scoring.max-parallel-io-rules} connections while its I/O rules run, so
+         * size this to at most the connection pool size divided by that.
+         */
+        private int maxConcurrentChecks = 0;
+
+        /**
+         * How long a check waits for a free slot before it is rejected.
+         */
+        private Duration acquireTimeout = Duration.ofMillis(500);
+    }
+
+    @Data
+    public static class Scoring {
+        /**
+         * Time budget for evaluating all rules of one transaction. Rules still running when it
+         * expires are skipped. The default leaves headroom within FR-008's five-second limit for
+         * validation and persistence.
+         */
+        private Duration deadline = Duration.ofSeconds(4);
+
+        /**
+         * Evaluate rules one at a time, cheapest and most decisive first, and skip the rest once
+         * they can no longer change the decision. Off by default because I/O-bound rules then run
+         * sequentially instead of concurrently.
+         */
+        private boolean adaptiveOrdering = false;
+
+        /**
+         * Maximum number of I/O rules of one check running at once; zero means all of them. Each
+         * may take its own pooled connection, so this is how many connections one check can hold.
+         */
+        private int maxParallelIoRules = 4;
+
+        /**
+         * Run I/O rules on virtual threads instead of a pool of platform threads. Follows
+         * {@code spring.threads.virtual.enabled} by default.
+         */
+        private boolean virtualThreads = false;
+    }
+
+    @Data
+    public static class Streaming {
+        /**
+         * Number of NDJSON lines scored and persisted together; bounds the memory used per stream.
+         */
+        private int chunkSize = 200;
+
+        /**
+         * Longest NDJSON line accepted, in characters; longer lines are reported as item errors
+         * without being buffered.
+         */
+        private int maxLineLength = 65_536;
+
+        /**
+         * How long a chunk is retried while the service is overloaded before the stream is ended
+         * with an error.
+         */
+        private Duration retryTimeout = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Backtest {
+        /**
+         * Number of worker threads customers are partitioned across; zero uses one per core.
+         */
+        private int parallelism = 0;
+
+        /**
+         * History replayed before the backtest period to build windowed state without scoring.
+         */
+        private Duration warmup = Duration.ofDays(30);
+
+        /**
+         * Rows fetched per database round trip when replaying stored transactions.
+         */
+        private int fetchSize = 10_000;
+    }
+
+    @Data
+    public static class Metrics {
+        /**
+         * Whether the scoring path records per-rule and per-stage meters.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Latency buckets published for rule and stage timers, for SLO alerting.
+         */
+        private List<Duration> sloBoundaries = List.of(Duration.ofMillis(5),
+                Duration.ofMillis(10), Duration.ofMillis(25), Duration.ofMillis(50),
+                Duration.ofMillis(100), Duration.ofMillis(250), Duration.ofMillis(500),
+                Duration.ofSeconds(1), Duration.ofSeconds(2), Duration.ofSeconds(5));
+    }
+
+    @Data
+    public static class Idempotency {
+        /**
+         * How long a decision is replayed from memory for a retried transaction ID. In write-behind
+         * mode this should comfortably exceed the time a queued transaction takes to be written.
+         */
+        private Duration recentDecisionTtl = Duration.ofMinutes(10);
+
+        /**
+         * Maximum number of recent decisions held in memory; zero disables the cache.
+         */
+        private int maxRecentDecisions = 100_000;
+
+        /**
+         * Look up transaction IDs that are not in memory in the database before scoring them.
+         */
+        private boolean databaseLookup = true;
+    }
+
+    @Data
+    public static class Location {
+        /**
+         * Spring resource location of the ZIP code, city, state and area code cross-reference
+         * used by LOCATION_BASED rules, such as a licensed USPS ZIP code extract. A {@code file:}
+         * location is reloaded when it changes. Empty for none, in which case LOCATION_BASED
+         * rules do not trigger.
+         */
+        private String referenceData = "";
+    }
+
+    @Data
+    public static class KnownFraud {
+        /**
+         * Local file of known-fraud card or identifier hashes, one hex-encoded hash per line, used
+         * by PATTERN_MATCHING rules. Reloaded when it changes; empty for none.
+         */
+        private String bulkFile = "";
+
+        /**
+         * Local directory of {@code *.delta} files of hashes to add ({@code +}) or remove
+         * ({@code -}), applied in file name order without pausing scoring. Empty for none.
+         */
+        private String deltaDirectory = "";
+
+        /**
+         * Number of hashes the set is sized for up front; it grows beyond this as needed.
+         */
+        private int expectedSize = 1_000_000;
+    }
+
+    @Data
+    public static class Shadow {
+        /**
+         * Evaluate shadow rules after each decision and record what they would have decided.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Background threads evaluating shadow rules.
+         */
+        private int threads = 2;
+
+        /**
+         * Maximum number of checks waiting for shadow evaluation; further checks are not
+         * shadowed until the backlog drains.
+         */
+        private int queueCapacity = 10_000;
+    }
+
+    @Data
+    public static class Partitioning {
+        /**
+         * How long transactions stay in the database; monthly partitions that end before this
+         * are detached, archived and dropped. Only applies to a partitioned PostgreSQL table.
+         */
+        private Duration retention = Duration.ofDays(365);
+
+        /**
+         * Number of monthly partitions kept created beyond the current month.
+         */
+        private int monthsAhead = 3;
+
+        /**
+         * Local directory that expired partitions are exported to as gzipped CSV files, which
+         * backtests read for periods no longer in the database. Empty to keep expired partitions
+         * as detached tables instead.
+         */
+        private String archiveDirectory = "";
+    }
+}
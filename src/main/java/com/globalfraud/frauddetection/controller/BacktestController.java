@@ -0,0 +1,52 @@
+package com.globalfraud.frauddetection.controller;
+
+import com.globalfraud.frauddetection.dto.BacktestReport;
+import com.globalfraud.frauddetection.dto.BacktestRequest;
+import com.globalfraud.frauddetection.service.backtest.BacktestService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/backtests")
+@RequiredArgsConstructor
+@Tag(name = "Backtesting", description = "Replay historical transactions through candidate rules")
+public class BacktestController {
+
+    private final BacktestService backtestService;
+
+    @PostMapping
+    @Operation(summary = "Backtest rules against stored transactions",
+            description = "Replays stored transactions in the given period through the given "
+                    + "rules and reports rule hits and the resulting status distribution")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "Backtest completed"),
+            @ApiResponse(responseCode = "400", description = "Invalid period or rule IDs")})
+    public ResponseEntity<BacktestReport> runBacktest(
+            @Valid @RequestBody BacktestRequest request) {
+        return ResponseEntity.ok(backtestService.run(request));
+    }
+
+    @PostMapping(value = "/csv", consumes = "text/csv")
+    @Operation(summary = "Backtest rules against an exported CSV file",
+            description = "Replays the rows of an exported transactions file, ordered by "
+                    + "timestamp, through the given rules")
+    @ApiResponses({@ApiResponse(responseCode = "200", description = "Backtest completed"),
+            @ApiResponse(responseCode = "400", description = "Malformed file or invalid rule IDs")})
+    public ResponseEntity<BacktestReport> runCsvBacktest(@RequestParam List<UUID> ruleIds,
+            InputStream body) {
+        return ResponseEntity.ok(backtestService.run(ruleIds, body));
+    }
+}
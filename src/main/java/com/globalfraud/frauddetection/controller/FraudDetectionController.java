@@ -1,20 +1,28 @@
 package com.globalfraud.frauddetection.controller;
 
+import com.globalfraud.frauddetection.dto.BatchCheckItemResult;
 import com.globalfraud.frauddetection.dto.FraudCheckResult;
 import com.globalfraud.frauddetection.dto.TransactionRequest;
 import com.globalfraud.frauddetection.service.FraudDetectionService;
+import com.globalfraud.frauddetection.service.StreamingScoringService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/v1/fraud-detection")
 @RequiredArgsConstructor
@@ -22,6 +30,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class FraudDetectionController {
 
     private final FraudDetectionService fraudDetectionService;
+    private final StreamingScoringService streamingScoringService;
 
     @PostMapping("/check")
     @Operation(summary = "Check transaction for fraud",
@@ -34,4 +43,33 @@ public class FraudDetectionController {
             @Valid @RequestBody TransactionRequest request) {
         return ResponseEntity.ok(fraudDetectionService.processTransaction(request));
     }
+
+    @PostMapping("/check/batch")
+    @Operation(summary = "Check a batch of transactions for fraud",
+            description = "Analyzes up to the configured maximum number of transactions in one "
+                    + "request; invalid or duplicate items are reported per item")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Batch processed successfully"),
+            @ApiResponse(responseCode = "400", description = "Batch is too large"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")})
+    public ResponseEntity<List<BatchCheckItemResult>> checkTransactions(
+            @RequestBody List<TransactionRequest> requests) {
+        return ResponseEntity.ok(fraudDetectionService.processBatch(requests));
+    }
+
+    @PostMapping(value = "/check/stream", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Check a stream of transactions for fraud",
+            description = "Reads newline-delimited transaction JSON and writes one result line "
+                    + "per transaction as soon as it has been scored")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Stream processed; per-line errors "
+                    + "are reported in the results"),
+            @ApiResponse(responseCode = "503", description = "Service stayed overloaded before "
+                    + "the first result was written")})
+    public void checkTransactionStream(InputStream body, HttpServletResponse response)
+            throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        streamingScoringService.score(body, response.getOutputStream());
+    }
 }
@@ -2,6 +2,8 @@ package com.globalfraud.frauddetection.controller;
 
 import com.globalfraud.frauddetection.domain.FraudRule;
 import com.globalfraud.frauddetection.repository.FraudRuleRepository;
+import com.globalfraud.frauddetection.service.rule.ActiveRuleSet;
+import com.globalfraud.frauddetection.service.rule.RuleConfigCompiler;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -21,6 +23,8 @@ import java.util.UUID;
 public class FraudRuleController {
 
     private final FraudRuleRepository fraudRuleRepository;
+    private final RuleConfigCompiler ruleConfigCompiler;
+    private final ActiveRuleSet activeRuleSet;
 
     @GetMapping
     @Operation(summary = "Get all fraud rules")
@@ -43,18 +47,26 @@ public class FraudRuleController {
     @ApiResponses({@ApiResponse(responseCode = "200", description = "Rule created successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid rule data")})
     public ResponseEntity<FraudRule> createRule(@Valid @RequestBody FraudRule rule) {
-        return ResponseEntity.ok(fraudRuleRepository.save(rule));
+        ruleConfigCompiler.validate(rule);
+        FraudRule saved = fraudRuleRepository.save(rule);
+        activeRuleSet.refresh();
+        return ResponseEntity.ok(saved);
     }
 
     @PutMapping("/{id}")
     @Operation(summary = "Update an existing fraud rule")
     @ApiResponses({@ApiResponse(responseCode = "200", description = "Rule updated successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid rule data"),
             @ApiResponse(responseCode = "404", description = "Rule not found")})
     public ResponseEntity<FraudRule> updateRule(@PathVariable UUID id,
             @Valid @RequestBody FraudRule rule) {
         return fraudRuleRepository.findById(id).map(existingRule -> {
+            ruleConfigCompiler.validate(rule);
             rule.setId(id);
-            return ResponseEntity.ok(fraudRuleRepository.save(rule));
+            FraudRule saved = fraudRuleRepository.save(rule);
+            // Recompiled by the refresh, which keeps the old plan for in-flight checks
+            activeRuleSet.refresh();
+            return ResponseEntity.ok(saved);
         }).orElse(ResponseEntity.notFound().build());
     }
 
@@ -65,6 +77,8 @@ public class FraudRuleController {
     public ResponseEntity<Void> deleteRule(@PathVariable UUID id) {
         return fraudRuleRepository.findById(id).map(rule -> {
             fraudRuleRepository.deleteById(id);
+            ruleConfigCompiler.evict(id);
+            activeRuleSet.refresh();
             return ResponseEntity.noContent().<Void>build();
         }).orElse(ResponseEntity.notFound().build());
     }
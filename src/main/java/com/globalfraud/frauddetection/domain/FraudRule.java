@@ -32,6 +32,19 @@ public class FraudRule {
     @Column(name = "is_active", nullable = false)
     private boolean active = true;
 
+    /**
+     * Evaluated off the scoring path and recorded next to the decision, without affecting it.
+     */
+    @Column(name = "is_shadow", nullable = false)
+    private boolean shadow;
+
+    /**
+     * For a shadow rule, the name of the live rule it is a candidate replacement for. The live
+     * rule's score is left out of the decision the shadow rules would have made.
+     */
+    @Column(name = "replaces_rule")
+    private String replacesRule;
+
     @Column(nullable = false)
     private int priority;
 
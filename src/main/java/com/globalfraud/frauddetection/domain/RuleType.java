@@ -1,5 +1,6 @@
 package com.globalfraud.frauddetection.domain;
 
 public enum RuleType {
-    AMOUNT_THRESHOLD, VELOCITY_CHECK, LOCATION_BASED, MERCHANT_RISK, CUSTOMER_HISTORY, PATTERN_MATCHING
+    AMOUNT_THRESHOLD, VELOCITY_CHECK, LOCATION_BASED, MERCHANT_RISK, CUSTOMER_HISTORY,
+    PATTERN_MATCHING, KEYWORD_MATCH, EXPRESSION
 }
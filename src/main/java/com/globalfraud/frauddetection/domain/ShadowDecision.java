@@ -0,0 +1,63 @@
+package com.globalfraud.frauddetection.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+/**
+ * The decision a transaction would have received had the shadow rules been live, recorded next to
+ * the decision it actually received.
+ */
+@Data
+@Entity
+@Table(name = "shadow_decisions")
+public class ShadowDecision implements Persistable<UUID> {
+    @Id
+    @Column(name = "transaction_id")
+    private UUID transactionId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TransactionStatus status;
+
+    @Column(name = "risk_score")
+    private BigDecimal riskScore;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "shadow_status", nullable = false)
+    private TransactionStatus shadowStatus;
+
+    @Column(name = "shadow_risk_score")
+    private BigDecimal shadowRiskScore;
+
+    /**
+     * Names of the shadow rules that triggered, comma separated.
+     */
+    @Column(name = "triggered_rules", length = 4000)
+    private String triggeredRules;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private ZonedDateTime createdAt;
+
+    @Override
+    public UUID getId() {
+        return transactionId;
+    }
+
+    /**
+     * Shadow decisions are only ever inserted, so saving one never issues a select first.
+     */
+    @Override
+    public boolean isNew() {
+        return createdAt == null;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = ZonedDateTime.now();
+    }
+}
@@ -2,7 +2,9 @@ package com.globalfraud.frauddetection.domain;
 
 import jakarta.persistence.*;
 import lombok.Data;
-import org.hibernate.annotations.GenericGenerator;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
 
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
@@ -11,10 +13,8 @@ import java.util.UUID;
 @Data
 @Entity
 @Table(name = "transactions")
-public class Transaction {
+public class Transaction implements Persistable<UUID> {
     @Id
-    @GeneratedValue(generator = "UUID")
-    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
     private UUID id;
 
     @Column(name = "merchant_id", nullable = false)
@@ -32,6 +32,30 @@ public class Transaction {
     @Column(name = "transaction_timestamp", nullable = false)
     private ZonedDateTime transactionTimestamp;
 
+    @Column(name = "address_line", length = 200)
+    private String addressLine;
+
+    @Column(length = 100)
+    private String city;
+
+    @Column(length = 2)
+    private String state;
+
+    @Column(name = "zip_code", length = 10)
+    private String zipCode;
+
+    @Column(name = "area_code", length = 3)
+    private String areaCode;
+
+    @Column(name = "card_fingerprint", length = 128)
+    private String cardFingerprint;
+
+    @Column(name = "merchant_name", length = 200)
+    private String merchantName;
+
+    @Column(name = "merchant_descriptor", length = 200)
+    private String merchantDescriptor;
+
     @Column(name = "risk_score")
     private BigDecimal riskScore;
 
@@ -45,11 +69,31 @@ public class Transaction {
     @Column(name = "updated_at", nullable = false)
     private ZonedDateTime updatedAt;
 
+    /**
+     * Set by callers that know the id is unused so that saving issues a plain (batchable) INSERT
+     * instead of the select-then-insert of a merge.
+     */
+    @Transient
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private boolean newEntity;
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
     @PrePersist
     protected void onCreate() {
         createdAt = updatedAt = ZonedDateTime.now();
     }
 
+    @PostPersist
+    @PostLoad
+    protected void markNotNew() {
+        newEntity = false;
+    }
+
     @PreUpdate
     protected void onUpdate() {
         updatedAt = ZonedDateTime.now();
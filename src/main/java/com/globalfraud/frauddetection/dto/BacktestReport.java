@@ -0,0 +1,33 @@
+package com.globalfraud.frauddetection.dto;
+
+import com.globalfraud.frauddetection.domain.TransactionStatus;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@Builder
+public class BacktestReport {
+    private long transactionsScored;
+    private long warmupTransactions;
+    private long elapsedMillis;
+    private List<RuleHits> rules;
+    private Map<TransactionStatus, Long> statusCounts;
+    /**
+     * Stored status to the status the candidate rules would have produced, with counts.
+     */
+    private Map<TransactionStatus, Map<TransactionStatus, Long>> statusMatrix;
+    private long decisionsChanged;
+
+    @Data
+    @Builder
+    public static class RuleHits {
+        private UUID ruleId;
+        private String ruleName;
+        private long hits;
+        private double hitRate;
+    }
+}
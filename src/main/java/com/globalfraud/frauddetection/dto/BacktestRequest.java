@@ -0,0 +1,21 @@
+package com.globalfraud.frauddetection.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class BacktestRequest {
+    @NotEmpty(message = "At least one rule ID is required")
+    private List<UUID> ruleIds;
+
+    @NotNull(message = "Start of the replay period is required")
+    private ZonedDateTime from;
+
+    @NotNull(message = "End of the replay period is required")
+    private ZonedDateTime to;
+}
@@ -0,0 +1,15 @@
+package com.globalfraud.frauddetection.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class BatchCheckItemResult {
+    private long index;
+    private String transactionId;
+    private FraudCheckResult result;
+    private List<String> errors;
+}
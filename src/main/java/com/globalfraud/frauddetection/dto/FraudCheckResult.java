@@ -15,5 +15,13 @@ public class FraudCheckResult {
     private TransactionStatus status;
     private BigDecimal riskScore;
     private List<String> triggeredRules;
+
+    /**
+     * Rules not evaluated because the decision was already settled; empty unless adaptive rule
+     * ordering is enabled.
+     */
+    @Builder.Default
+    private List<SkippedRule> skippedRules = List.of();
+
     private String message;
 }
@@ -0,0 +1,11 @@
+package com.globalfraud.frauddetection.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class SkippedRule {
+    private String ruleName;
+    private String reason;
+}
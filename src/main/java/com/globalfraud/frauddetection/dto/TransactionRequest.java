@@ -2,7 +2,9 @@ package com.globalfraud.frauddetection.dto;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 import java.math.BigDecimal;
@@ -25,6 +27,38 @@ public class TransactionRequest {
 
     private ZonedDateTime transactionTimestamp;
 
+    @Size(max = 200, message = "Address line must be at most 200 characters")
+    private String addressLine;
+
+    @Size(max = 100, message = "City must be at most 100 characters")
+    private String city;
+
+    @Pattern(regexp = "[A-Za-z]{2}", message = "State must be a two-letter code")
+    private String state;
+
+    @Pattern(regexp = "\\d{5}(-\\d{4})?", message = "ZIP code must have 5 or 5+4 digits")
+    private String zipCode;
+
+    @Pattern(regexp = "\\d{3}", message = "Area code must have 3 digits")
+    private String areaCode;
+
+    /**
+     * Hex-encoded hash of the card number, checked against known fraudulent cards. Never the card
+     * number itself.
+     */
+    @Pattern(regexp = "[0-9A-Fa-f]{16,128}",
+            message = "Card fingerprint must be a hex-encoded hash of 16 to 128 digits")
+    private String cardFingerprint;
+
+    @Size(max = 200, message = "Merchant name must be at most 200 characters")
+    private String merchantName;
+
+    /**
+     * The merchant's card statement descriptor.
+     */
+    @Size(max = 200, message = "Merchant descriptor must be at most 200 characters")
+    private String merchantDescriptor;
+
     @NotBlank(message = "Transaction ID is required")
     private String transactionId;
 }
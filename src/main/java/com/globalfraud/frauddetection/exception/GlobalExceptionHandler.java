@@ -23,6 +23,35 @@ public class GlobalExceptionHandler {
         return createErrorResponse(HttpStatus.BAD_REQUEST, "Validation Error", ex.getMessage());
     }
 
+    @ExceptionHandler(InvalidRuleConfigException.class)
+    public ResponseEntity<ApiError> handleInvalidRuleConfig(InvalidRuleConfigException ex) {
+        return createErrorResponse(HttpStatus.BAD_REQUEST, "Invalid Rule Configuration",
+                ex.getMessage());
+    }
+
+    @ExceptionHandler(InvalidBatchException.class)
+    public ResponseEntity<ApiError> handleInvalidBatch(InvalidBatchException ex) {
+        return createErrorResponse(HttpStatus.BAD_REQUEST, "Invalid Batch", ex.getMessage());
+    }
+
+    @ExceptionHandler(InvalidBacktestException.class)
+    public ResponseEntity<ApiError> handleInvalidBacktest(InvalidBacktestException ex) {
+        return createErrorResponse(HttpStatus.BAD_REQUEST, "Invalid Backtest", ex.getMessage());
+    }
+
+    @ExceptionHandler(PersistenceBackpressureException.class)
+    public ResponseEntity<ApiError> handlePersistenceBackpressure(
+            PersistenceBackpressureException ex) {
+        return createErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable",
+                ex.getMessage());
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ApiError> handleServiceOverloaded(ServiceOverloadedException ex) {
+        return createErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable",
+                ex.getMessage());
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiError> handleAllUncaughtException(Exception ex) {
         return createErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Internal Server Error",
@@ -0,0 +1,12 @@
+package com.globalfraud.frauddetection.exception;
+
+public class InvalidBacktestException extends RuntimeException {
+
+    public InvalidBacktestException(String message) {
+        super(message);
+    }
+
+    public InvalidBacktestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,12 @@
+package com.globalfraud.frauddetection.exception;
+
+public class InvalidRuleConfigException extends RuntimeException {
+
+    public InvalidRuleConfigException(String message) {
+        super(message);
+    }
+
+    public InvalidRuleConfigException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,26 @@
+package com.globalfraud.frauddetection.exception;
+
+public class PersistenceBackpressureException extends RuntimeException {
+    private final boolean retryable;
+
+    public PersistenceBackpressureException(String message) {
+        this(message, true);
+    }
+
+    public PersistenceBackpressureException(String message, boolean retryable) {
+        super(message);
+        this.retryable = retryable;
+    }
+
+    public PersistenceBackpressureException(String message, Throwable cause) {
+        super(message, cause);
+        this.retryable = false;
+    }
+
+    /**
+     * Whether the same request may succeed later, e.g. once the write queue has drained.
+     */
+    public boolean isRetryable() {
+        return retryable;
+    }
+}
@@ -0,0 +1,22 @@
+package com.globalfraud.frauddetection.exception;
+
+public class ServiceOverloadedException extends RuntimeException {
+    private final boolean retryable;
+
+    public ServiceOverloadedException(String message) {
+        super(message);
+        this.retryable = true;
+    }
+
+    public ServiceOverloadedException(String message, Throwable cause) {
+        super(message, cause);
+        this.retryable = false;
+    }
+
+    /**
+     * Whether the same request may succeed later, once checks in progress have finished.
+     */
+    public boolean isRetryable() {
+        return retryable;
+    }
+}
@@ -16,4 +16,31 @@ public interface FraudRuleRepository extends JpaRepository<FraudRule, UUID> {
 
     @Query("SELECT fr FROM FraudRule fr WHERE fr.active = true ORDER BY fr.priority ASC")
     List<FraudRule> findAllActiveRulesOrderedByPriority();
+
+    @Query("SELECT fr.id AS id, fr.name AS name, fr.ruleType AS ruleType, "
+            + "fr.ruleConfig AS ruleConfig, fr.active AS active, fr.shadow AS shadow, "
+            + "fr.priority AS priority, fr.replacesRule AS replacesRule "
+            + "FROM FraudRule fr ORDER BY fr.id")
+    List<RuleContent> findRuleContent();
+
+    /**
+     * The columns of a rule that affect how transactions are scored.
+     */
+    interface RuleContent {
+        UUID getId();
+
+        String getName();
+
+        RuleType getRuleType();
+
+        String getRuleConfig();
+
+        Boolean getActive();
+
+        Boolean getShadow();
+
+        Integer getPriority();
+
+        String getReplacesRule();
+    }
 }
@@ -0,0 +1,9 @@
+package com.globalfraud.frauddetection.repository;
+
+import com.globalfraud.frauddetection.domain.ShadowDecision;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.UUID;
+
+public interface ShadowDecisionRepository extends JpaRepository<ShadowDecision, UUID> {
+}
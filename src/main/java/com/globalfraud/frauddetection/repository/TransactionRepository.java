@@ -1,27 +1,59 @@
 package com.globalfraud.frauddetection.repository;
 
 import com.globalfraud.frauddetection.domain.Transaction;
+import com.globalfraud.frauddetection.domain.TransactionStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
 import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.UUID;
 
 public interface TransactionRepository extends JpaRepository<Transaction, UUID> {
 
-    List<Transaction> findByCustomerId(String customerId);
+    @Query("SELECT t.transactionTimestamp FROM Transaction t WHERE t.customerId = :customerId "
+            + "AND t.transactionTimestamp BETWEEN :startTime AND :endTime")
+    List<ZonedDateTime> findTransactionTimestampsByCustomerInTimeWindow(
+            @Param("customerId") String customerId, @Param("startTime") ZonedDateTime startTime,
+            @Param("endTime") ZonedDateTime endTime);
 
-    List<Transaction> findByMerchantId(String merchantId);
+    @Query("SELECT t.transactionTimestamp FROM Transaction t WHERE t.merchantId = :merchantId "
+            + "AND t.transactionTimestamp BETWEEN :startTime AND :endTime")
+    List<ZonedDateTime> findTransactionTimestampsByMerchantInTimeWindow(
+            @Param("merchantId") String merchantId, @Param("startTime") ZonedDateTime startTime,
+            @Param("endTime") ZonedDateTime endTime);
 
-    @Query("SELECT t FROM Transaction t WHERE t.customerId = :customerId "
+    @Query("SELECT COUNT(t) FROM Transaction t WHERE t.customerId = :customerId "
             + "AND t.transactionTimestamp BETWEEN :startTime AND :endTime")
-    List<Transaction> findTransactionsByCustomerInTimeWindow(@Param("customerId") String customerId,
+    long countTransactionsByCustomerInTimeWindow(@Param("customerId") String customerId,
             @Param("startTime") ZonedDateTime startTime, @Param("endTime") ZonedDateTime endTime);
 
-    @Query("SELECT t FROM Transaction t WHERE t.merchantId = :merchantId "
+    @Query("SELECT COUNT(t) FROM Transaction t WHERE t.merchantId = :merchantId "
             + "AND t.transactionTimestamp BETWEEN :startTime AND :endTime")
-    List<Transaction> findTransactionsByMerchantInTimeWindow(@Param("merchantId") String merchantId,
+    long countTransactionsByMerchantInTimeWindow(@Param("merchantId") String merchantId,
             @Param("startTime") ZonedDateTime startTime, @Param("endTime") ZonedDateTime endTime);
+
+    @Query("SELECT t.status AS status, COUNT(t) AS transactionCount FROM Transaction t "
+            + "WHERE t.merchantId = :merchantId "
+            + "AND t.transactionTimestamp BETWEEN :startTime AND :endTime GROUP BY t.status")
+    List<StatusCount> countByStatusForMerchantInTimeWindow(@Param("merchantId") String merchantId,
+            @Param("startTime") ZonedDateTime startTime, @Param("endTime") ZonedDateTime endTime);
+
+    @Query("SELECT COUNT(t) AS transactionCount, SUM(t.amount) AS totalAmount "
+            + "FROM Transaction t WHERE t.customerId = :customerId")
+    CustomerTotals findCustomerTotals(@Param("customerId") String customerId);
+
+    interface StatusCount {
+        TransactionStatus getStatus();
+
+        long getTransactionCount();
+    }
+
+    interface CustomerTotals {
+        long getTransactionCount();
+
+        BigDecimal getTotalAmount();
+    }
 }
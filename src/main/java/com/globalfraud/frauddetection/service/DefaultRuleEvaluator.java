@@ -1,184 +1,203 @@
 package com.globalfraud.frauddetection.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.globalfraud.frauddetection.domain.FraudRule;
-import com.globalfraud.frauddetection.domain.RuleType;
 import com.globalfraud.frauddetection.domain.Transaction;
-import com.globalfraud.frauddetection.domain.TransactionStatus;
-import com.globalfraud.frauddetection.repository.TransactionRepository;
+import com.globalfraud.frauddetection.service.expression.Aggregates;
+import com.globalfraud.frauddetection.service.history.CustomerAggregate;
+import com.globalfraud.frauddetection.service.history.CustomerAggregateStore;
+import com.globalfraud.frauddetection.service.knownfraud.KnownFraudIndex;
+import com.globalfraud.frauddetection.service.location.PostalReferenceIndex;
+import com.globalfraud.frauddetection.service.merchant.MerchantRiskCache;
+import com.globalfraud.frauddetection.service.merchant.MerchantRiskCache.MerchantRiskFactor;
+import com.globalfraud.frauddetection.service.rule.RuleConfig;
+import com.globalfraud.frauddetection.service.rule.RuleConfigCompiler;
+import com.globalfraud.frauddetection.service.velocity.VelocityCounterEngine;
+import com.globalfraud.frauddetection.service.velocity.VelocityDimension;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
-import java.math.RoundingMode;
-
-import java.io.IOException;
-import java.math.BigDecimal;
-import java.time.ZonedDateTime;
-import java.time.temporal.ChronoUnit;
-import java.util.List;
+import java.time.Duration;
 
 @Component
 @RequiredArgsConstructor
 public class DefaultRuleEvaluator implements RuleEvaluator {
-    private final TransactionRepository transactionRepository;
-    private final ObjectMapper objectMapper;
+    private final RuleConfigCompiler ruleConfigCompiler;
+    private final VelocityCounterEngine velocityCounterEngine;
+    private final CustomerAggregateStore customerAggregateStore;
+    private final MerchantRiskCache merchantRiskCache;
+    private final PostalReferenceIndex postalReferenceIndex;
+    private final KnownFraudIndex knownFraudIndex;
 
     @Override
     public boolean evaluate(Transaction transaction, FraudRule rule) {
-        try {
-            JsonNode config = objectMapper.readTree(rule.getRuleConfig());
-
-            return switch (rule.getRuleType()) {
-                case AMOUNT_THRESHOLD -> evaluateAmountThreshold(transaction, config);
-                case VELOCITY_CHECK -> evaluateVelocityCheck(transaction, config);
-                case MERCHANT_RISK -> evaluateMerchantRisk(transaction, config);
-                case CUSTOMER_HISTORY -> evaluateCustomerHistory(transaction, config);
-                default -> false;
-            };
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to parse rule configuration", e);
-        }
+        return evaluateRule(transaction, rule).triggered();
     }
 
     @Override
     public double calculateRiskScore(Transaction transaction, FraudRule rule) {
-        try {
-            JsonNode config = objectMapper.readTree(rule.getRuleConfig());
-
-            return switch (rule.getRuleType()) {
-                case AMOUNT_THRESHOLD -> calculateAmountThresholdScore(transaction, config);
-                case VELOCITY_CHECK -> calculateVelocityScore(transaction, config);
-                case MERCHANT_RISK -> calculateMerchantRiskScore(transaction, config);
-                case CUSTOMER_HISTORY -> calculateCustomerHistoryScore(transaction, config);
-                default -> 0.0;
-            };
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to parse rule configuration", e);
-        }
+        return evaluateRule(transaction, rule).score();
     }
 
-    private boolean evaluateAmountThreshold(Transaction transaction, JsonNode config) {
-        BigDecimal threshold = new BigDecimal(config.get("threshold").asText());
-        return transaction.getAmount().compareTo(threshold) > 0;
+    @Override
+    public RuleOutcome evaluateRule(Transaction transaction, FraudRule rule) {
+        return evaluateRule(transaction, rule, TransactionFacts.none());
     }
 
-    private boolean evaluateVelocityCheck(Transaction transaction, JsonNode config) {
-        int maxTransactions = config.get("maxTransactions").asInt();
-        int timeWindowMinutes = config.get("timeWindowMinutes").asInt();
-
-        ZonedDateTime endTime = transaction.getTransactionTimestamp();
-        ZonedDateTime startTime = endTime.minus(timeWindowMinutes, ChronoUnit.MINUTES);
-
-        List<Transaction> recentTransactions =
-                transactionRepository.findTransactionsByCustomerInTimeWindow(
-                        transaction.getCustomerId(), startTime, endTime);
-
-        return recentTransactions.size() >= maxTransactions;
+    @Override
+    public RuleOutcome evaluateRule(Transaction transaction, FraudRule rule,
+            TransactionFacts facts) {
+        return switch (ruleConfigCompiler.configFor(rule)) {
+            case RuleConfig.AmountThreshold config -> evaluateAmountThreshold(transaction, config);
+            case RuleConfig.VelocityCheck config ->
+                    evaluateVelocityCheck(transaction, config, facts);
+            case RuleConfig.MerchantRisk config -> evaluateMerchantRisk(transaction, config, facts);
+            case RuleConfig.CustomerHistory config ->
+                    evaluateCustomerHistory(transaction, config, facts);
+            case RuleConfig.LocationBased config -> evaluateLocation(transaction, config);
+            case RuleConfig.PatternMatching config -> evaluatePatternMatching(transaction, config);
+            case RuleConfig.KeywordMatch config -> evaluateKeywordMatch(transaction, config);
+            case RuleConfig.Expression config -> RuleScoring.expression(
+                    config.expression().test(transaction, new LiveAggregates(facts)), config);
+            case RuleConfig.Unsupported config -> RuleOutcome.notTriggered();
+        };
     }
 
-    private boolean evaluateMerchantRisk(Transaction transaction, JsonNode config) {
-        BigDecimal merchantRiskThreshold =
-                new BigDecimal(config.get("merchantRiskThreshold").asText());
-        int timeWindowHours = config.get("timeWindowHours").asInt();
-
-        ZonedDateTime endTime = transaction.getTransactionTimestamp();
-        ZonedDateTime startTime = endTime.minus(timeWindowHours, ChronoUnit.HOURS);
-
-        List<Transaction> merchantTransactions =
-                transactionRepository.findTransactionsByMerchantInTimeWindow(
-                        transaction.getMerchantId(), startTime, endTime);
+    @Override
+    public boolean requiresIo(FraudRule rule) {
+        return switch (ruleConfigCompiler.configFor(rule)) {
+            case RuleConfig.VelocityCheck config -> true;
+            case RuleConfig.MerchantRisk config -> true;
+            case RuleConfig.CustomerHistory config -> true;
+            case RuleConfig.Expression config -> config.expression().usesAggregates();
+            default -> false;
+        };
+    }
 
-        return calculateMerchantRiskFactor(merchantTransactions)
-                .compareTo(merchantRiskThreshold) > 0;
+    /**
+     * Velocity and merchant risk rules only trigger at or above their limit, where their score is
+     * capped at 1; location, pattern, keyword and expression rules always report their
+     * configured score, the first three as additive points.
+     */
+    @Override
+    public ScoreRange scoreRange(FraudRule rule) {
+        return switch (ruleConfigCompiler.configFor(rule)) {
+            case RuleConfig.VelocityCheck config -> ScoreRange.exactly(1.0);
+            case RuleConfig.MerchantRisk config -> ScoreRange.exactly(1.0);
+            case RuleConfig.LocationBased config -> ScoreRange.additive(config.score());
+            case RuleConfig.PatternMatching config -> ScoreRange.additive(config.score());
+            case RuleConfig.KeywordMatch config -> ScoreRange.additive(config.score());
+            case RuleConfig.Expression config -> ScoreRange.exactly(config.score());
+            default -> ScoreRange.ANY;
+        };
     }
 
-    private boolean evaluateCustomerHistory(Transaction transaction, JsonNode config) {
-        BigDecimal averageTransactionThreshold =
-                new BigDecimal(config.get("averageTransactionThreshold").asText());
-        List<Transaction> customerTransactions =
-                transactionRepository.findByCustomerId(transaction.getCustomerId());
+    private RuleOutcome evaluateAmountThreshold(Transaction transaction,
+            RuleConfig.AmountThreshold config) {
+        return RuleScoring.amountThreshold(transaction.getAmount(), config);
+    }
 
-        if (customerTransactions.isEmpty()) {
-            return true;
-        }
+    private RuleOutcome evaluateVelocityCheck(Transaction transaction,
+            RuleConfig.VelocityCheck config, TransactionFacts facts) {
+        long transactionCount =
+                velocityCount(transaction, config.dimension(), config.timeWindow(), facts);
+        return RuleScoring.velocityCheck(transactionCount, config);
+    }
 
-        BigDecimal avgAmount = customerTransactions.stream().map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .divide(new BigDecimal(customerTransactions.size()), 2, BigDecimal.ROUND_HALF_UP);
+    private RuleOutcome evaluateMerchantRisk(Transaction transaction,
+            RuleConfig.MerchantRisk config, TransactionFacts facts) {
+        MerchantRiskFactor riskFactor = merchantRisk(transaction, config.timeWindow(), facts);
+        return RuleScoring.merchantRisk(riskFactor.rejectionRatioHundredths(),
+                riskFactor.transactionCount(), config);
+    }
 
-        return transaction.getAmount()
-                .compareTo(avgAmount.multiply(averageTransactionThreshold)) > 0;
+    private RuleOutcome evaluateCustomerHistory(Transaction transaction,
+            RuleConfig.CustomerHistory config, TransactionFacts facts) {
+        CustomerAggregate.Snapshot history = customerHistory(transaction, facts);
+        return RuleScoring.customerHistory(transaction.getAmount(), history, config);
     }
 
-    private double calculateAmountThresholdScore(Transaction transaction, JsonNode config) {
-        BigDecimal threshold = new BigDecimal(config.get("threshold").asText());
-        if (transaction.getAmount().compareTo(threshold) <= 0) {
-            return 0.0;
+    private RuleOutcome evaluateLocation(Transaction transaction,
+            RuleConfig.LocationBased config) {
+        if (transaction.getZipCode() == null || !postalReferenceIndex.isLoaded()) {
+            return RuleOutcome.notTriggered();
         }
-        return Math.min(1.0,
-                transaction.getAmount().divide(threshold, 2, RoundingMode.HALF_UP).doubleValue()
-                        - 1.0);
+        int mismatches = postalReferenceIndex.data().check(transaction.getZipCode(),
+                transaction.getCity(), transaction.getState(), transaction.getAreaCode());
+        return RuleScoring.location(mismatches, transaction.getZipCode(), config);
     }
 
-    private double calculateVelocityScore(Transaction transaction, JsonNode config) {
-        int maxTransactions = config.get("maxTransactions").asInt();
-        int timeWindowMinutes = config.get("timeWindowMinutes").asInt();
+    private RuleOutcome evaluatePatternMatching(Transaction transaction,
+            RuleConfig.PatternMatching config) {
+        return RuleScoring.patternMatching(
+                knownFraudIndex.contains(transaction.getCardFingerprint()), config);
+    }
 
-        ZonedDateTime endTime = transaction.getTransactionTimestamp();
-        ZonedDateTime startTime = endTime.minus(timeWindowMinutes, ChronoUnit.MINUTES);
+    private RuleOutcome evaluateKeywordMatch(Transaction transaction,
+            RuleConfig.KeywordMatch config) {
+        return RuleScoring.keywordMatch(field -> field.valueOf(transaction), config);
+    }
 
-        List<Transaction> recentTransactions =
-                transactionRepository.findTransactionsByCustomerInTimeWindow(
-                        transaction.getCustomerId(), startTime, endTime);
+    private long velocityCount(Transaction transaction, VelocityDimension dimension,
+            Duration window, TransactionFacts facts) {
+        return facts.get(new VelocityKey(dimension, window),
+                () -> velocityCounterEngine.count(dimension, dimension.keyOf(transaction),
+                        transaction.getTransactionTimestamp(), window));
+    }
 
-        return Math.min(1.0, (double) recentTransactions.size() / maxTransactions);
+    private MerchantRiskFactor merchantRisk(Transaction transaction, Duration window,
+            TransactionFacts facts) {
+        return facts.get(new MerchantRiskKey(window),
+                () -> merchantRiskCache.riskFactor(transaction.getMerchantId(), window,
+                        transaction.getTransactionTimestamp()));
     }
 
-    private double calculateMerchantRiskScore(Transaction transaction, JsonNode config) {
-        BigDecimal merchantRiskThreshold =
-                new BigDecimal(config.get("merchantRiskThreshold").asText());
-        int timeWindowHours = config.get("timeWindowHours").asInt();
+    private CustomerAggregate.Snapshot customerHistory(Transaction transaction,
+            TransactionFacts facts) {
+        return facts.get(CustomerHistoryKey.INSTANCE,
+                () -> customerAggregateStore.snapshot(transaction.getCustomerId()));
+    }
 
-        ZonedDateTime endTime = transaction.getTransactionTimestamp();
-        ZonedDateTime startTime = endTime.minus(timeWindowHours, ChronoUnit.HOURS);
+    private record VelocityKey(VelocityDimension dimension, Duration window) {
+    }
 
-        List<Transaction> merchantTransactions =
-                transactionRepository.findTransactionsByMerchantInTimeWindow(
-                        transaction.getMerchantId(), startTime, endTime);
+    private record MerchantRiskKey(Duration window) {
+    }
 
-        return Math.min(1.0, calculateMerchantRiskFactor(merchantTransactions)
-                .divide(merchantRiskThreshold, 2, RoundingMode.HALF_UP).doubleValue());
+    private enum CustomerHistoryKey {
+        INSTANCE
     }
 
-    private double calculateCustomerHistoryScore(Transaction transaction, JsonNode config) {
-        BigDecimal averageTransactionThreshold =
-                new BigDecimal(config.get("averageTransactionThreshold").asText());
-        List<Transaction> customerTransactions =
-                transactionRepository.findByCustomerId(transaction.getCustomerId());
+    /**
+     * The aggregates expression rules read, through the same lookups the built-in rules use.
+     */
+    private final class LiveAggregates implements Aggregates {
+        private final TransactionFacts facts;
 
-        if (customerTransactions.isEmpty()) {
-            return 1.0;
+        private LiveAggregates(TransactionFacts facts) {
+            this.facts = facts;
         }
 
-        BigDecimal avgAmount = customerTransactions.stream().map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .divide(new BigDecimal(customerTransactions.size()), 2, BigDecimal.ROUND_HALF_UP);
-
-        return Math.min(1.0, transaction.getAmount()
-                .divide(avgAmount.multiply(averageTransactionThreshold), 2, RoundingMode.HALF_UP)
-                .doubleValue() - 1.0);
-    }
+        @Override
+        public long velocity(VelocityDimension dimension, Transaction transaction,
+                Duration window) {
+            return velocityCount(transaction, dimension, window, facts);
+        }
 
-    private BigDecimal calculateMerchantRiskFactor(List<Transaction> transactions) {
-        if (transactions.isEmpty()) {
-            return BigDecimal.ZERO;
+        @Override
+        public double merchantRejectionRate(Transaction transaction, Duration window) {
+            return merchantRisk(transaction, window, facts).rejectionRatioHundredths() / 100.0;
         }
 
-        long rejectedCount = transactions.stream()
-                .filter(t -> t.getStatus() == TransactionStatus.REJECTED).count();
+        @Override
+        public long customerTransactionCount(Transaction transaction) {
+            return customerHistory(transaction, facts).transactionCount();
+        }
 
-        return new BigDecimal(rejectedCount).divide(new BigDecimal(transactions.size()), 2,
-                RoundingMode.HALF_UP);
+        @Override
+        public double customerAverageAmount(Transaction transaction) {
+            CustomerAggregate.Snapshot history = customerHistory(transaction, facts);
+            return history.transactionCount() == 0 ? 0.0
+                    : history.totalAmount().doubleValue() / history.transactionCount();
+        }
     }
 }
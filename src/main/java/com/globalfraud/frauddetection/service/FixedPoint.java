@@ -0,0 +1,93 @@
+package com.globalfraud.frauddetection.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Scaled-{@code long} arithmetic for the scoring core.
+ *
+ * <p>
+ * Amounts and rule thresholds are held as {@value #AMOUNT_SCALE}-decimal units, the precision of
+ * the {@code transactions.amount} column, and ratios and scores as hundredths, the precision the
+ * scoring formulas round to. Conversions from {@link BigDecimal} are exact: a value that does not
+ * fit is reported as {@link #INEXACT}, and callers then fall back to {@code BigDecimal}
+ * arithmetic, so results never differ from the decimal formulas. All methods expect non-negative
+ * values.
+ */
+public final class FixedPoint {
+    /**
+     * Decimal places of amount units.
+     */
+    public static final int AMOUNT_SCALE = 4;
+
+    /**
+     * Marker for a value that cannot be represented exactly, or an operation that would overflow.
+     */
+    public static final long INEXACT = Long.MIN_VALUE;
+
+    private FixedPoint() {
+    }
+
+    /**
+     * Converts a decimal to units of {@code 10^-scale}, or returns {@link #INEXACT} if it has more
+     * decimals than {@code scale} or does not fit in a {@code long}.
+     */
+    public static long toUnits(BigDecimal value, int scale) {
+        if (value.scale() > scale) {
+            value = value.stripTrailingZeros();
+            if (value.scale() > scale) {
+                return INEXACT;
+            }
+        }
+        try {
+            return value.movePointRight(scale).longValueExact();
+        } catch (ArithmeticException e) {
+            return INEXACT;
+        }
+    }
+
+    /**
+     * Converts a decimal to units of {@code 10^-scale}, rounding half up, or returns
+     * {@link #INEXACT} if it does not fit in a {@code long}.
+     */
+    public static long toUnitsRounded(BigDecimal value, int scale) {
+        long units = toUnits(value, scale);
+        if (units != INEXACT) {
+            return units;
+        }
+        return toUnits(value.setScale(scale, RoundingMode.HALF_UP), scale);
+    }
+
+    public static BigDecimal toDecimal(long units, int scale) {
+        return BigDecimal.valueOf(units, scale);
+    }
+
+    /**
+     * Divides and rounds half up, without the intermediate overflow of {@code (2a + b) / 2b}.
+     */
+    public static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend - quotient * divisor;
+        return remainder >= divisor - remainder ? quotient + 1 : quotient;
+    }
+
+    /**
+     * Returns {@code numerator / denominator} in hundredths, rounded half up, or {@link #INEXACT}
+     * if the intermediate product overflows.
+     */
+    public static long ratioHundredths(long numerator, long denominator) {
+        if (numerator > Long.MAX_VALUE / 100) {
+            return INEXACT;
+        }
+        return divideHalfUp(numerator * 100, denominator);
+    }
+
+    /**
+     * Multiplies two values, or returns {@link #INEXACT} if the product overflows.
+     */
+    public static long multiply(long a, long b) {
+        long high = Math.multiplyHigh(a, b);
+        long product = a * b;
+        return high == 0 && product >= 0 ? product : INEXACT;
+    }
+}
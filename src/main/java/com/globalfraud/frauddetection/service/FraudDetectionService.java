@@ -1,64 +1,392 @@
 package com.globalfraud.frauddetection.service;
 
+import com.globalfraud.frauddetection.config.FraudDetectionProperties;
 import com.globalfraud.frauddetection.domain.FraudRule;
 import com.globalfraud.frauddetection.domain.Transaction;
 import com.globalfraud.frauddetection.domain.TransactionStatus;
+import com.globalfraud.frauddetection.dto.BatchCheckItemResult;
 import com.globalfraud.frauddetection.dto.FraudCheckResult;
+import com.globalfraud.frauddetection.dto.SkippedRule;
 import com.globalfraud.frauddetection.dto.TransactionRequest;
-import com.globalfraud.frauddetection.repository.FraudRuleRepository;
+import com.globalfraud.frauddetection.exception.InvalidBatchException;
+import com.globalfraud.frauddetection.exception.ServiceOverloadedException;
 import com.globalfraud.frauddetection.repository.TransactionRepository;
+import com.globalfraud.frauddetection.service.idempotency.RecentDecisionCache;
+import com.globalfraud.frauddetection.service.persistence.WriteBehindTransactionWriter;
+import com.globalfraud.frauddetection.service.rule.ActiveRuleSet;
+import com.globalfraud.frauddetection.service.shadow.ShadowRuleEvaluator;
+import com.globalfraud.frauddetection.service.shadow.ShadowRuleEvaluator.LiveDecision;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
 import java.util.UUID;
-import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class FraudDetectionService {
     private final TransactionRepository transactionRepository;
-    private final FraudRuleRepository fraudRuleRepository;
-    private final RuleEvaluator ruleEvaluator;
+    private final ActiveRuleSet activeRuleSet;
+    private final RuleSetEvaluator ruleSetEvaluator;
+    private final List<TransactionListener> transactionListeners;
+    private final Validator validator;
+    private final FraudDetectionProperties properties;
+    private final WriteBehindTransactionWriter writeBehindWriter;
+    private final ScoringConcurrencyLimiter concurrencyLimiter;
+    private final ScoringMetrics metrics;
+    private final RecentDecisionCache recentDecisions;
+    private final ShadowRuleEvaluator shadowRuleEvaluator;
 
-    private static final BigDecimal HIGH_RISK_THRESHOLD = new BigDecimal("0.7");
-    private static final BigDecimal MEDIUM_RISK_THRESHOLD = new BigDecimal("0.3");
-
-    @Transactional
+    /**
+     * Scores a transaction and persists it. Runs without a surrounding database transaction so
+     * that a connection is held only for the individual queries and the final insert, not for
+     * the whole check.
+     *
+     * <p>
+     * Checks are idempotent by transaction ID: a retry returns the original decision, from memory
+     * or from the stored transaction, without evaluating rules or writing anything, and without
+     * taking a concurrency slot when answered from memory. Decisions replayed from the database
+     * do not list the triggered rules, which are not stored.
+     *
+     * <p>
+     * Once the transaction is persisted or queued, its decision is handed to the
+     * {@link ShadowRuleEvaluator} if there are shadow rules; that hand-off never blocks. Aggregates
+     * only shadow rules read are looked up before the transaction is persisted, so that they
+     * describe the state the decision was made in.
+     *
+     * @throws ServiceOverloadedException if too many checks are already in progress
+     */
     public FraudCheckResult processTransaction(TransactionRequest request) {
+        UUID transactionId = UUID.fromString(request.getTransactionId());
+        return recentDecisions.decide(transactionId,
+                () -> concurrencyLimiter.call(() -> checkTransaction(transactionId, request)));
+    }
+
+    /**
+     * Scores a batch of transactions against one rule snapshot and persists the scored ones with
+     * batched inserts.
+     *
+     * <p>
+     * Each request is validated individually; invalid requests, malformed transaction IDs and IDs
+     * repeated within the batch are reported per item and do not affect the rest of the batch. An
+     * item whose ID was already checked, by an earlier batch or by {@link #processTransaction},
+     * gets the original decision like a retried single check and is neither scored nor written
+     * again. Items are scored against the state as of the start of the batch, so velocity and
+     * history rules do not see earlier items of the same batch. In write-behind mode the scored
+     * transactions are queued rather than written here.
+     *
+     * @param requests the transactions to check, in submission order
+     * @return one result per request, in the same order
+     * @throws InvalidBatchException if the batch exceeds the configured maximum size
+     * @throws ServiceOverloadedException if too many checks are already in progress
+     */
+    public List<BatchCheckItemResult> processBatch(List<TransactionRequest> requests) {
+        int maxSize = properties.getBatch().getMaxSize();
+        if (requests.size() > maxSize) {
+            throw new InvalidBatchException(String.format(
+                    "Batch contains %d transactions; the maximum is %d", requests.size(), maxSize));
+        }
+        return concurrencyLimiter.call(() -> checkBatch(requests));
+    }
+
+    private FraudCheckResult checkTransaction(UUID transactionId, TransactionRequest request) {
+        if (properties.getIdempotency().isDatabaseLookup()) {
+            FraudCheckResult stored = storedDecision(transactionId);
+            if (stored != null) {
+                return stored;
+            }
+        }
+
         Transaction transaction = createTransaction(request);
-        List<FraudRule> activeRules = fraudRuleRepository.findAllActiveRulesOrderedByPriority();
+        long start = metrics.start();
+        List<FraudRule> activeRules = activeRuleSet.activeRules();
+        List<FraudRule> shadowRules = shadowRuleEvaluator.rules();
+        metrics.recordStage(ScoringMetrics.Stage.RULE_LOAD, start);
+        List<LiveDecision> liveDecisions = shadowRules.isEmpty() ? null : new ArrayList<>(1);
+        FraudCheckResult result = score(transaction, activeRules, liveDecisions);
+        if (liveDecisions != null) {
+            shadowRuleEvaluator.prepare(shadowRules, liveDecisions);
+        }
 
-        List<String> triggeredRules = new ArrayList<>();
-        BigDecimal totalRiskScore = BigDecimal.ZERO;
-        int ruleCount = 0;
-
-        for (FraudRule rule : activeRules) {
-            if (ruleEvaluator.evaluate(transaction, rule)) {
-                triggeredRules.add(rule.getName());
-                totalRiskScore = totalRiskScore.add(
-                        BigDecimal.valueOf(ruleEvaluator.calculateRiskScore(transaction, rule)));
-                ruleCount++;
+        start = metrics.start();
+        // Insert rather than merge, so that a duplicate which got past the lookups (another
+        // instance, or the lookup disabled) fails instead of overwriting the earlier decision
+        transaction.setNewEntity(true);
+        if (writeBehindWriter.isEnabled()) {
+            writeBehindWriter.enqueue(transaction);
+            notifyListeners(List.of(transaction));
+        } else {
+            try {
+                transactionRepository.save(transaction);
+            } catch (DataIntegrityViolationException e) {
+                FraudCheckResult stored = storedDecision(transactionId);
+                if (stored == null) {
+                    throw e;
+                }
+                return stored;
             }
+            afterCommit(() -> notifyListeners(List.of(transaction)));
+        }
+        metrics.recordStage(ScoringMetrics.Stage.PERSIST, start);
+        if (liveDecisions != null) {
+            shadowRuleEvaluator.submit(shadowRules, liveDecisions);
         }
 
-        BigDecimal averageRiskScore = ruleCount > 0
-                ? totalRiskScore.divide(BigDecimal.valueOf(ruleCount), 2, RoundingMode.HALF_UP)
-                : BigDecimal.ZERO;
+        return result;
+    }
 
-        TransactionStatus status = determineTransactionStatus(averageRiskScore);
-        transaction.setRiskScore(averageRiskScore);
-        transaction.setStatus(status);
+    /**
+     * The decision stored for an already persisted transaction, or null if there is none.
+     */
+    private FraudCheckResult storedDecision(UUID transactionId) {
+        return transactionRepository.findById(transactionId).map(this::storedDecision)
+                .orElse(null);
+    }
+
+    private FraudCheckResult storedDecision(Transaction stored) {
+        return FraudCheckResult.builder().transactionId(stored.getId())
+                .status(stored.getStatus()).riskScore(stored.getRiskScore())
+                .triggeredRules(List.of())
+                .message(generateResultMessage(stored.getStatus(), stored.getRiskScore()))
+                .build();
+    }
+
+    private List<BatchCheckItemResult> checkBatch(List<TransactionRequest> requests) {
+        long start = metrics.start();
+        List<FraudRule> activeRules = activeRuleSet.activeRules();
+        List<FraudRule> shadowRules = shadowRuleEvaluator.rules();
+        metrics.recordStage(ScoringMetrics.Stage.RULE_LOAD, start);
+        List<LiveDecision> liveDecisions =
+                shadowRules.isEmpty() ? null : new ArrayList<>(requests.size());
+        BatchCheckItemResult[] results = new BatchCheckItemResult[requests.size()];
+        List<Integer> undecided = new ArrayList<>(requests.size());
+        Set<UUID> batchIds = new HashSet<>();
+
+        // Retried IDs get their original decision, from memory first and then from the database
+        for (int index = 0; index < requests.size(); index++) {
+            TransactionRequest request = requests.get(index);
+            List<String> errors = validate(request);
+            if (errors.isEmpty() && !batchIds.add(UUID.fromString(request.getTransactionId()))) {
+                errors = List.of("Duplicate transaction ID");
+            }
+            if (!errors.isEmpty()) {
+                results[index] = BatchCheckItemResult.builder().index(index)
+                        .transactionId(request != null ? request.getTransactionId() : null)
+                        .errors(errors).build();
+                continue;
+            }
+            FraudCheckResult recent =
+                    recentDecisions.find(UUID.fromString(request.getTransactionId()));
+            if (recent != null) {
+                results[index] = itemResult(index, recent);
+            } else {
+                undecided.add(index);
+            }
+        }
+        Map<UUID, Transaction> stored = findStored(requests, undecided);
+
+        List<Transaction> scored = new ArrayList<>(undecided.size());
+        List<Integer> scoredIndexes = new ArrayList<>(undecided.size());
+        List<FraudCheckResult> recorded = new ArrayList<>(undecided.size());
+        for (int index : undecided) {
+            TransactionRequest request = requests.get(index);
+            Transaction previous = stored.get(UUID.fromString(request.getTransactionId()));
+            if (previous != null) {
+                results[index] = itemResult(index, storedDecision(previous));
+                continue;
+            }
+
+            Transaction transaction = createTransaction(request);
+            FraudCheckResult result = score(transaction, activeRules, liveDecisions);
+            FraudCheckResult earlier = recentDecisions.record(result);
+            if (earlier != null) {
+                // A concurrent check decided the same ID first; its decision stands
+                if (liveDecisions != null) {
+                    liveDecisions.remove(liveDecisions.size() - 1);
+                }
+                results[index] = itemResult(index, earlier);
+                continue;
+            }
+            transaction.setNewEntity(true);
+            scored.add(transaction);
+            scoredIndexes.add(index);
+            recorded.add(result);
+            results[index] = itemResult(index, result);
+        }
+        if (liveDecisions != null) {
+            shadowRuleEvaluator.prepare(shadowRules, liveDecisions);
+        }
+
+        start = metrics.start();
+        try {
+            if (writeBehindWriter.isEnabled()) {
+                writeBehindWriter.enqueueAll(scored);
+                notifyListeners(scored);
+            } else {
+                List<Transaction> inserted = insertAll(scored, scoredIndexes, results);
+                afterCommit(() -> notifyListeners(inserted));
+                if (liveDecisions != null && inserted.size() < scored.size()) {
+                    liveDecisions.removeIf(decision -> !inserted.contains(decision.transaction()));
+                }
+            }
+        } catch (RuntimeException e) {
+            recorded.forEach(recentDecisions::forget);
+            throw e;
+        }
+        metrics.recordStage(ScoringMetrics.Stage.BATCH_PERSIST, start);
+        if (liveDecisions != null) {
+            shadowRuleEvaluator.submit(shadowRules, liveDecisions);
+        }
 
-        transactionRepository.save(transaction);
+        return List.of(results);
+    }
+
+    /**
+     * Inserts the scored transactions with batched inserts. If that fails because another check
+     * stored one of the IDs after they were looked up, the whole insert has been rolled back, so
+     * the transactions are inserted one at a time instead: items whose ID is now taken get the
+     * stored decision, and any other item that fails to insert is reported as an item error.
+     *
+     * @return the transactions inserted
+     */
+    private List<Transaction> insertAll(List<Transaction> scored, List<Integer> indexes,
+            BatchCheckItemResult[] results) {
+        try {
+            transactionRepository.saveAll(scored);
+            return scored;
+        } catch (DataIntegrityViolationException e) {
+            List<Transaction> inserted = new ArrayList<>(scored.size());
+            for (int i = 0; i < scored.size(); i++) {
+                Transaction transaction = scored.get(i);
+                int index = indexes.get(i);
+                transaction.setNewEntity(true);
+                try {
+                    transactionRepository.save(transaction);
+                    inserted.add(transaction);
+                } catch (DataIntegrityViolationException conflict) {
+                    recentDecisions.forget(results[index].getResult());
+                    FraudCheckResult stored = storedDecision(transaction.getId());
+                    results[index] = stored != null ? itemResult(index, stored)
+                            : BatchCheckItemResult.builder().index(index)
+                                    .transactionId(transaction.getId().toString())
+                                    .errors(List.of("Transaction could not be saved")).build();
+                }
+            }
+            return inserted;
+        }
+    }
+
+    private static BatchCheckItemResult itemResult(int index, FraudCheckResult result) {
+        return BatchCheckItemResult.builder().index(index)
+                .transactionId(result.getTransactionId().toString()).result(result)
+                .errors(List.of()).build();
+    }
+
+    /**
+     * Scores the transaction against the live rules, adding its decision to
+     * {@code liveDecisions} for shadow evaluation unless that is null.
+     */
+    private FraudCheckResult score(Transaction transaction, List<FraudRule> activeRules,
+            List<LiveDecision> liveDecisions) {
+        long start = metrics.start();
+        RuleSetEvaluator.Evaluation evaluation =
+                ruleSetEvaluator.evaluate(transaction, activeRules);
+        List<String> triggeredRules = new ArrayList<>();
+        Map<String, RuleOutcome> triggeredOutcomes = new LinkedHashMap<>();
+        ScoreTotal total = new ScoreTotal();
+
+        for (int i = 0; i < activeRules.size(); i++) {
+            RuleOutcome outcome = evaluation.outcomes().get(i);
+            if (outcome.triggered()) {
+                triggeredRules.add(activeRules.get(i).getName());
+                triggeredOutcomes.put(activeRules.get(i).getName(), outcome);
+                total.add(outcome);
+            }
+        }
+
+        TransactionStatus status = total.status();
+        BigDecimal riskScore = total.riskScore();
+        // An incomplete evaluation must not approve a transaction on its own
+        boolean incomplete = !evaluation.timedOutRules().isEmpty();
+        if (incomplete && status == TransactionStatus.APPROVED) {
+            status = TransactionStatus.FLAGGED_FOR_REVIEW;
+        }
+        String message = generateResultMessage(status, riskScore);
+        if (incomplete) {
+            message += ". Not evaluated in time: "
+                    + evaluation.timedOutRules().stream().map(FraudRule::getName).toList();
+        }
+        List<SkippedRule> skippedRules = evaluation.skippedRules().stream()
+                .map(rule -> SkippedRule.builder().ruleName(rule.getName())
+                        .reason("Decision already settled as " + evaluation.settledStatus())
+                        .build())
+                .toList();
+        transaction.setRiskScore(riskScore);
+        transaction.setStatus(status);
+        if (liveDecisions != null) {
+            liveDecisions.add(new LiveDecision(transaction, evaluation.facts(),
+                    triggeredOutcomes, incomplete, status, riskScore));
+        }
+        metrics.recordDecision(status);
+        metrics.recordStage(ScoringMetrics.Stage.EVALUATION, start);
 
         return FraudCheckResult.builder().transactionId(transaction.getId()).status(status)
-                .riskScore(averageRiskScore).triggeredRules(triggeredRules)
-                .message(generateResultMessage(status, averageRiskScore)).build();
+                .riskScore(riskScore).triggeredRules(triggeredRules)
+                .skippedRules(skippedRules).message(message).build();
+    }
+
+    private List<String> validate(TransactionRequest request) {
+        if (request == null) {
+            return List.of("Transaction is required");
+        }
+        List<String> errors = new ArrayList<>();
+        for (ConstraintViolation<TransactionRequest> violation : validator.validate(request)) {
+            errors.add(violation.getMessage());
+        }
+        if (request.getTransactionId() != null && parseId(request.getTransactionId()) == null) {
+            errors.add("Transaction ID must be a UUID");
+        }
+        return errors;
+    }
+
+    /**
+     * The already persisted transactions among the requests at {@code indexes}, by ID.
+     */
+    private Map<UUID, Transaction> findStored(List<TransactionRequest> requests,
+            List<Integer> indexes) {
+        if (indexes.isEmpty() || !properties.getIdempotency().isDatabaseLookup()) {
+            return Map.of();
+        }
+        List<UUID> ids = indexes.stream()
+                .map(index -> UUID.fromString(requests.get(index).getTransactionId())).toList();
+        Map<UUID, Transaction> stored = new HashMap<>();
+        transactionRepository.findAllById(ids)
+                .forEach(transaction -> stored.put(transaction.getId(), transaction));
+        return stored;
+    }
+
+    private UUID parseId(String transactionId) {
+        if (transactionId == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(transactionId);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
 
     private Transaction createTransaction(TransactionRequest request) {
@@ -68,6 +396,14 @@ public class FraudDetectionService {
         transaction.setCustomerId(request.getCustomerId());
         transaction.setAmount(request.getAmount());
         transaction.setCurrency(request.getCurrency());
+        transaction.setAddressLine(request.getAddressLine());
+        transaction.setCity(request.getCity());
+        transaction.setState(request.getState());
+        transaction.setZipCode(request.getZipCode());
+        transaction.setAreaCode(request.getAreaCode());
+        transaction.setCardFingerprint(request.getCardFingerprint());
+        transaction.setMerchantName(request.getMerchantName());
+        transaction.setMerchantDescriptor(request.getMerchantDescriptor());
         transaction.setTransactionTimestamp(
                 request.getTransactionTimestamp() != null ? request.getTransactionTimestamp()
                         : ZonedDateTime.now());
@@ -75,16 +411,29 @@ public class FraudDetectionService {
         return transaction;
     }
 
-    private TransactionStatus determineTransactionStatus(BigDecimal riskScore) {
-        if (riskScore.compareTo(HIGH_RISK_THRESHOLD) >= 0) {
-            return TransactionStatus.REJECTED;
-        } else if (riskScore.compareTo(MEDIUM_RISK_THRESHOLD) >= 0) {
-            return TransactionStatus.FLAGGED_FOR_REVIEW;
-        } else {
-            return TransactionStatus.APPROVED;
+    /**
+     * Feeds persisted transactions to the in-memory scoring state. In write-behind mode this runs
+     * as soon as a transaction is queued so that the next check already sees it.
+     */
+    private void notifyListeners(List<Transaction> transactions) {
+        for (Transaction transaction : transactions) {
+            transactionListeners.forEach(listener -> listener.onTransactionSaved(transaction));
         }
     }
 
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
     private String generateResultMessage(TransactionStatus status, BigDecimal riskScore) {
         return switch (status) {
             case REJECTED -> String.format("Transaction rejected due to high risk score: %.2f",
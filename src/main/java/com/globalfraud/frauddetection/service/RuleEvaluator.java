@@ -3,8 +3,50 @@ package com.globalfraud.frauddetection.service;
 import com.globalfraud.frauddetection.domain.FraudRule;
 import com.globalfraud.frauddetection.domain.Transaction;
 
+import java.util.Map;
+
 public interface RuleEvaluator {
     boolean evaluate(Transaction transaction, FraudRule rule);
 
     double calculateRiskScore(Transaction transaction, FraudRule rule);
+
+    /**
+     * Evaluates a rule and computes its risk score in a single call. Implementations should
+     * override this to share lookups between the hit test and the score; the default delegates to
+     * {@link #evaluate} and {@link #calculateRiskScore}.
+     */
+    default RuleOutcome evaluateRule(Transaction transaction, FraudRule rule) {
+        if (!evaluate(transaction, rule)) {
+            return RuleOutcome.notTriggered();
+        }
+        return new RuleOutcome(true, calculateRiskScore(transaction, rule), Map.of());
+    }
+
+    /**
+     * Evaluates a rule, reusing the aggregates already looked up for the same transaction and
+     * recording the ones it looks up itself. The default ignores {@code facts}.
+     */
+    default RuleOutcome evaluateRule(Transaction transaction, FraudRule rule,
+            TransactionFacts facts) {
+        return evaluateRule(transaction, rule);
+    }
+
+    /**
+     * Whether evaluating the rule may block on I/O, such as a database query on a cache miss.
+     * Such rules are evaluated concurrently with the rest of the rule set; the default is
+     * {@code false}.
+     */
+    default boolean requiresIo(FraudRule rule) {
+        return false;
+    }
+
+    /**
+     * The scores the rule can report when it triggers. Used to stop evaluating a rule set once
+     * the remaining rules can no longer change the decision, so a narrower range must never
+     * exclude a score the rule can actually produce, nor call additive a rule whose outcomes are
+     * averaged; the default is {@link ScoreRange#ANY}.
+     */
+    default ScoreRange scoreRange(FraudRule rule) {
+        return ScoreRange.ANY;
+    }
 }
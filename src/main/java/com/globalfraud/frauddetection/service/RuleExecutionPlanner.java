@@ -0,0 +1,174 @@
+package com.globalfraud.frauddetection.service;
+
+import com.globalfraud.frauddetection.domain.FraudRule;
+import com.globalfraud.frauddetection.domain.TransactionStatus;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.IntStream;
+
+/**
+ * Orders a rule set by observed cost and trigger rate, and tells when the rules not yet evaluated
+ * can no longer change the decision.
+ *
+ * <p>
+ * Rules that need no I/O come first. The rest are ordered by mean evaluation time divided by
+ * trigger rate, so that cheap rules likely to settle the decision run before expensive or rarely
+ * triggering ones. Rules without observations keep their priority order ahead of observed ones,
+ * so new rules are measured promptly. Statistics are exponentially weighted and survive rule set
+ * refreshes; concurrent updates may occasionally be lost, which only blurs the estimates.
+ */
+final class RuleExecutionPlanner {
+    private static final double SMOOTHING = 0.05;
+    private static final double MIN_TRIGGER_RATE = 0.01;
+
+    private final RuleEvaluator ruleEvaluator;
+    private final ConcurrentMap<Object, RuleStatistics> statistics = new ConcurrentHashMap<>();
+
+    RuleExecutionPlanner(RuleEvaluator ruleEvaluator) {
+        this.ruleEvaluator = ruleEvaluator;
+    }
+
+    Plan plan(List<FraudRule> rules) {
+        int size = rules.size();
+        double[] rank = new double[size];
+        boolean[] requiresIo = new boolean[size];
+        long[] minUnits = new long[size];
+        long[] maxUnits = new long[size];
+        boolean[] additive = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            FraudRule rule = rules.get(i);
+            RuleStatistics observed = statisticsFor(rule);
+            rank[i] = observed == null || !observed.observed ? 0.0
+                    : observed.costNanos / Math.max(observed.triggerRate, MIN_TRIGGER_RATE);
+            requiresIo[i] = ruleEvaluator.requiresIo(rule);
+            ScoreRange range = ruleEvaluator.scoreRange(rule);
+            minUnits[i] = RuleScoring.scoreUnits(range.min());
+            maxUnits[i] = RuleScoring.scoreUnits(range.max());
+            additive[i] = range.additive();
+        }
+        int[] order = IntStream.range(0, size).boxed()
+                .sorted(Comparator.<Integer, Boolean>comparing(i -> requiresIo[i])
+                        .thenComparingDouble(i -> rank[i]))
+                .mapToInt(Integer::intValue).toArray();
+        return new Plan(order, minUnits, maxUnits, additive);
+    }
+
+    void record(FraudRule rule, long elapsedNanos, boolean triggered) {
+        Object key = keyOf(rule);
+        if (key == null) {
+            return;
+        }
+        statistics.computeIfAbsent(key, ignored -> new RuleStatistics())
+                .record(elapsedNanos, triggered);
+    }
+
+    private RuleStatistics statisticsFor(FraudRule rule) {
+        Object key = keyOf(rule);
+        return key != null ? statistics.get(key) : null;
+    }
+
+    private static Object keyOf(FraudRule rule) {
+        return rule.getId() != null ? rule.getId() : rule.getName();
+    }
+
+    /**
+     * Evaluation order for one rule set, with the score range of each rule.
+     */
+    static final class Plan {
+        private final int[] order;
+        private final long[] minUnits;
+        private final long[] maxUnits;
+        private final boolean[] additive;
+
+        private Plan(int[] order, long[] minUnits, long[] maxUnits, boolean[] additive) {
+            this.order = order;
+            this.minUnits = minUnits;
+            this.maxUnits = maxUnits;
+            this.additive = additive;
+        }
+
+        int size() {
+            return order.length;
+        }
+
+        /**
+         * Index into the rule list of the rule to evaluate at {@code step}.
+         */
+        int ruleAt(int step) {
+            return order[step];
+        }
+
+        /**
+         * Returns the decision every outcome of the rules from {@code step} on leads to, given
+         * the triggered scores so far, or null if they could still change it.
+         *
+         * <p>
+         * The averaged part of the risk score is lowest when the remaining averaged rules add
+         * their lowest possible scores in ascending order, and highest when they add their
+         * highest ones in descending order, stopping wherever that is extreme. Additive rules
+         * only raise the risk score, so the lowest reachable one adds none of them and the
+         * highest adds all. Both are rounded exactly as the final score is.
+         */
+        TransactionStatus settledStatus(int step, ScoreTotal total) {
+            int remaining = order.length - step;
+            long[] lows = new long[remaining];
+            long[] highs = new long[remaining];
+            int averaged = 0;
+            long additiveHigh = total.additiveScoreUnits();
+            for (int i = 0; i < remaining; i++) {
+                int rule = order[step + i];
+                if (additive[rule]) {
+                    additiveHigh += maxUnits[rule];
+                } else {
+                    lows[averaged] = minUnits[rule];
+                    highs[averaged] = -maxUnits[rule];
+                    averaged++;
+                }
+            }
+            Arrays.sort(lows, 0, averaged);
+            Arrays.sort(highs, 0, averaged);
+
+            long totalScoreUnits = total.averagedScoreUnits();
+            int triggeredCount = total.averagedCount();
+            long current = RuleScoring.averageScore(totalScoreUnits, triggeredCount);
+            long lowest = current;
+            long highest = current;
+            long lowTotal = totalScoreUnits;
+            long highTotal = totalScoreUnits;
+            for (int j = 0; j < averaged; j++) {
+                lowTotal += lows[j];
+                highTotal -= highs[j];
+                lowest = Math.min(lowest,
+                        RuleScoring.averageScore(lowTotal, triggeredCount + j + 1));
+                highest = Math.max(highest,
+                        RuleScoring.averageScore(highTotal, triggeredCount + j + 1));
+            }
+            TransactionStatus status = RuleScoring.status(
+                    RuleScoring.combinedScore(lowest, total.additiveScoreUnits()));
+            return status == RuleScoring.status(RuleScoring.combinedScore(highest, additiveHigh))
+                    ? status : null;
+        }
+    }
+
+    private static final class RuleStatistics {
+        private volatile boolean observed;
+        private volatile double costNanos;
+        private volatile double triggerRate;
+
+        void record(long elapsedNanos, boolean triggered) {
+            double hit = triggered ? 1.0 : 0.0;
+            if (!observed) {
+                costNanos = elapsedNanos;
+                triggerRate = hit;
+                observed = true;
+                return;
+            }
+            costNanos += SMOOTHING * (elapsedNanos - costNanos);
+            triggerRate += SMOOTHING * (hit - triggerRate);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.globalfraud.frauddetection.service;
+
+import java.util.Map;
+
+/**
+ * Result of evaluating a single rule against a transaction.
+ *
+ * @param triggered whether the rule fired
+ * @param score the rule's risk score; only meaningful to callers when {@code triggered} is true
+ * @param facts the inputs the decision was based on (counts, averages, thresholds), keyed by name
+ * @param additive whether the score is added to the average of the other triggered scores rather
+ *        than averaged with them; see {@link ScoreTotal}
+ */
+public record RuleOutcome(boolean triggered, double score, Map<String, Object> facts,
+        boolean additive) {
+
+    private static final RuleOutcome NOT_TRIGGERED = new RuleOutcome(false, 0.0, Map.of());
+
+    /**
+     * An outcome whose score is averaged with the other triggered scores.
+     */
+    public RuleOutcome(boolean triggered, double score, Map<String, Object> facts) {
+        this(triggered, score, facts, false);
+    }
+
+    public static RuleOutcome notTriggered() {
+        return NOT_TRIGGERED;
+    }
+}
@@ -0,0 +1,278 @@
+package com.globalfraud.frauddetection.service;
+
+import com.globalfraud.frauddetection.domain.TransactionStatus;
+import com.globalfraud.frauddetection.service.history.CustomerAggregate;
+import com.globalfraud.frauddetection.service.keyword.KeywordField;
+import com.globalfraud.frauddetection.service.location.PostalReferenceData;
+import com.globalfraud.frauddetection.service.rule.RuleConfig;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static com.globalfraud.frauddetection.service.FixedPoint.AMOUNT_SCALE;
+import static com.globalfraud.frauddetection.service.FixedPoint.INEXACT;
+
+/**
+ * Scoring formulas shared by live evaluation and backtesting. Each method turns the inputs a rule
+ * needs (already looked up by the caller) into a {@link RuleOutcome}, so both paths score
+ * identical inputs identically.
+ *
+ * <p>
+ * The formulas run on {@link FixedPoint} units: amounts and thresholds at
+ * {@link FixedPoint#AMOUNT_SCALE} decimals, ratios and risk scores in hundredths, rounded half up
+ * exactly as the decimal formulas do. Inputs that cannot be represented exactly are scored with
+ * {@code BigDecimal} instead, so the result is the same either way.
+ */
+public final class RuleScoring {
+    private static final long HIGH_RISK_THRESHOLD = 70;
+    private static final long MEDIUM_RISK_THRESHOLD = 30;
+    private static final long MAX_RISK_SCORE = 100;
+    private static final double SCORE_UNITS_PER_POINT = 1e9;
+    private static final long SCORE_UNITS_PER_HUNDREDTH = 10_000_000L;
+
+    private RuleScoring() {
+    }
+
+    public static RuleOutcome amountThreshold(BigDecimal amount,
+            RuleConfig.AmountThreshold config) {
+        BigDecimal threshold = config.threshold();
+        Map<String, Object> facts = Map.of("amount", amount, "threshold", threshold);
+        long amountUnits = FixedPoint.toUnits(amount, AMOUNT_SCALE);
+        long thresholdUnits = config.thresholdUnits();
+        if (amountUnits == INEXACT || thresholdUnits == INEXACT) {
+            return amountThresholdDecimal(amount, threshold, facts);
+        }
+        if (amountUnits <= thresholdUnits) {
+            return new RuleOutcome(false, 0.0, facts);
+        }
+        long ratio = FixedPoint.ratioHundredths(amountUnits, thresholdUnits);
+        if (ratio == INEXACT) {
+            return amountThresholdDecimal(amount, threshold, facts);
+        }
+        return new RuleOutcome(true, Math.min(1.0, (ratio - 100) / 100.0), facts);
+    }
+
+    public static RuleOutcome velocityCheck(long transactionCount,
+            RuleConfig.VelocityCheck config) {
+        return new RuleOutcome(transactionCount >= config.maxTransactions(),
+                Math.min(1.0, (double) transactionCount / config.maxTransactions()),
+                Map.of("transactionCount", transactionCount, "maxTransactions",
+                        config.maxTransactions(), "dimension", config.dimension(),
+                        "timeWindowMinutes", config.timeWindow().toMinutes()));
+    }
+
+    /**
+     * @param rejectionRatio the merchant's rejection ratio in hundredths, as returned by
+     *        {@link #rejectionRatio(long, long)}
+     */
+    public static RuleOutcome merchantRisk(long rejectionRatio, long transactionCount,
+            RuleConfig.MerchantRisk config) {
+        Map<String, Object> facts = Map.of("merchantRiskFactor",
+                FixedPoint.toDecimal(rejectionRatio, 2), "merchantTransactionCount",
+                transactionCount, "merchantRiskThreshold", config.merchantRiskThreshold());
+        long ratioUnits = rejectionRatio * 100;
+        long score = config.thresholdUnits() == INEXACT ? INEXACT
+                : FixedPoint.ratioHundredths(ratioUnits, config.thresholdUnits());
+        if (score == INEXACT) {
+            BigDecimal ratio = FixedPoint.toDecimal(rejectionRatio, 2);
+            return new RuleOutcome(ratio.compareTo(config.merchantRiskThreshold()) > 0,
+                    Math.min(1.0, ratio.divide(config.merchantRiskThreshold(), 2,
+                            RoundingMode.HALF_UP).doubleValue()),
+                    facts);
+        }
+        return new RuleOutcome(ratioUnits > config.thresholdUnits(),
+                Math.min(1.0, score / 100.0), facts);
+    }
+
+    public static RuleOutcome customerHistory(BigDecimal amount,
+            CustomerAggregate.Snapshot history, RuleConfig.CustomerHistory config) {
+        if (history.transactionCount() == 0) {
+            return new RuleOutcome(true, 1.0, Map.of("historyCount", 0L));
+        }
+
+        // Average in hundredths, as the decimal formula rounds it to two places. The decayed
+        // mean is a floating-point estimate to begin with and is rounded from the double directly
+        long average = config.useDecayedAverage()
+                ? Math.round(history.decayedMean() * 100)
+                : averageHundredths(history.totalAmountUnits(), history.transactionCount());
+        long amountUnits = FixedPoint.toUnits(amount, AMOUNT_SCALE);
+        // Limit and amount at AMOUNT_SCALE + 2 decimals: average (2) times multiplier (4)
+        long limit = average == INEXACT || config.thresholdUnits() == INEXACT ? INEXACT
+                : FixedPoint.multiply(average, config.thresholdUnits());
+        long scaledAmount = amountUnits == INEXACT ? INEXACT
+                : FixedPoint.multiply(amountUnits, 100);
+        long ratio = limit == INEXACT || limit == 0 || scaledAmount == INEXACT ? INEXACT
+                : FixedPoint.ratioHundredths(scaledAmount, limit);
+        if (ratio == INEXACT) {
+            return customerHistoryDecimal(amount, history, config);
+        }
+
+        return new RuleOutcome(scaledAmount > limit, Math.min(1.0, (ratio - 100) / 100.0),
+                Map.of("historyCount", history.transactionCount(), "averageAmount",
+                        FixedPoint.toDecimal(average, 2), "averageTransactionThreshold",
+                        config.averageTransactionThreshold()));
+    }
+
+    /**
+     * @param mismatches the result of {@link PostalReferenceData#check}; an unknown ZIP code only
+     *        triggers the rule if the configuration says so
+     */
+    public static RuleOutcome location(int mismatches, String zipCode,
+            RuleConfig.LocationBased config) {
+        if (!config.flagUnknownZip()) {
+            mismatches &= ~PostalReferenceData.UNKNOWN_ZIP;
+        }
+        if (mismatches == 0) {
+            return RuleOutcome.notTriggered();
+        }
+        List<String> failed = new ArrayList<>(4);
+        if ((mismatches & PostalReferenceData.UNKNOWN_ZIP) != 0) {
+            failed.add("UNKNOWN_ZIP");
+        }
+        if ((mismatches & PostalReferenceData.STATE_MISMATCH) != 0) {
+            failed.add("STATE");
+        }
+        if ((mismatches & PostalReferenceData.CITY_MISMATCH) != 0) {
+            failed.add("CITY");
+        }
+        if ((mismatches & PostalReferenceData.AREA_CODE_MISMATCH) != 0) {
+            failed.add("AREA_CODE");
+        }
+        return new RuleOutcome(true, config.score(),
+                Map.of("zipCode", zipCode, "addressMismatches", List.copyOf(failed)), true);
+    }
+
+    public static RuleOutcome patternMatching(boolean knownFraud,
+            RuleConfig.PatternMatching config) {
+        return knownFraud
+                ? new RuleOutcome(true, config.score(), Map.of("knownFraudCard", true), true)
+                : RuleOutcome.notTriggered();
+    }
+
+    /**
+     * Screens each field in one pass and collects the keywords found only once one matches.
+     *
+     * @param text the text of each field, null if there is none
+     */
+    public static RuleOutcome keywordMatch(Function<KeywordField, String> text,
+            RuleConfig.KeywordMatch config) {
+        Map<String, List<String>> matches = Map.of();
+        for (KeywordField field : config.fields()) {
+            String value = text.apply(field);
+            if (config.keywords().matches(value)) {
+                if (matches.isEmpty()) {
+                    matches = new LinkedHashMap<>();
+                }
+                matches.put(field.name(), config.keywords().findAll(value));
+            }
+        }
+        return matches.isEmpty() ? RuleOutcome.notTriggered()
+                : new RuleOutcome(true, config.score(), Map.of("matchedKeywords", matches), true);
+    }
+
+    public static RuleOutcome expression(boolean holds, RuleConfig.Expression config) {
+        return holds ? new RuleOutcome(true, config.score(),
+                Map.of("expression", config.expression().source()))
+                : RuleOutcome.notTriggered();
+    }
+
+    /**
+     * Share of rejected transactions in hundredths, rounded half up; zero when there are none.
+     */
+    public static long rejectionRatio(long rejectedCount, long totalCount) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long ratio = FixedPoint.ratioHundredths(rejectedCount, totalCount);
+        return ratio != INEXACT ? ratio
+                : FixedPoint.toUnits(new BigDecimal(rejectedCount)
+                        .divide(new BigDecimal(totalCount), 2, RoundingMode.HALF_UP), 2);
+    }
+
+    /**
+     * Converts a rule score to the integer units {@link #averageScore} sums, so that a risk score
+     * is the exact decimal average of the rule scores rather than a sum of binary fractions.
+     */
+    public static long scoreUnits(double score) {
+        return Math.round(score * SCORE_UNITS_PER_POINT);
+    }
+
+    /**
+     * Average of the triggered rules' scores in hundredths, rounded half up; zero when none
+     * triggered.
+     *
+     * @param totalScoreUnits sum of {@link #scoreUnits(double)} over the triggered rules
+     */
+    public static long averageScore(long totalScoreUnits, int triggeredCount) {
+        return triggeredCount > 0
+                ? FixedPoint.divideHalfUp(totalScoreUnits,
+                        triggeredCount * SCORE_UNITS_PER_HUNDREDTH)
+                : 0;
+    }
+
+    /**
+     * Adds additive scores to an average from {@link #averageScore}, capped at 1.
+     *
+     * @param additiveScoreUnits sum of {@link #scoreUnits(double)} over the triggered additive
+     *        rules
+     */
+    public static long combinedScore(long averageScore, long additiveScoreUnits) {
+        return Math.min(MAX_RISK_SCORE, averageScore
+                + FixedPoint.divideHalfUp(additiveScoreUnits, SCORE_UNITS_PER_HUNDREDTH));
+    }
+
+    /**
+     * The risk score reported and persisted for a score from {@link #averageScore} or
+     * {@link #combinedScore}.
+     */
+    public static BigDecimal riskScore(long averageScore, int triggeredCount) {
+        return triggeredCount > 0 ? FixedPoint.toDecimal(averageScore, 2) : BigDecimal.ZERO;
+    }
+
+    /**
+     * Maps a risk score in hundredths to a decision.
+     */
+    public static TransactionStatus status(long riskScore) {
+        if (riskScore >= HIGH_RISK_THRESHOLD) {
+            return TransactionStatus.REJECTED;
+        } else if (riskScore >= MEDIUM_RISK_THRESHOLD) {
+            return TransactionStatus.FLAGGED_FOR_REVIEW;
+        } else {
+            return TransactionStatus.APPROVED;
+        }
+    }
+
+    private static long averageHundredths(long totalUnits, long count) {
+        long divisor = FixedPoint.multiply(count, 100);
+        return divisor == INEXACT ? INEXACT : FixedPoint.divideHalfUp(totalUnits, divisor);
+    }
+
+    private static RuleOutcome amountThresholdDecimal(BigDecimal amount, BigDecimal threshold,
+            Map<String, Object> facts) {
+        if (amount.compareTo(threshold) <= 0) {
+            return new RuleOutcome(false, 0.0, facts);
+        }
+        double score = Math.min(1.0,
+                amount.divide(threshold, 2, RoundingMode.HALF_UP).doubleValue() - 1.0);
+        return new RuleOutcome(true, score, facts);
+    }
+
+    private static RuleOutcome customerHistoryDecimal(BigDecimal amount,
+            CustomerAggregate.Snapshot history, RuleConfig.CustomerHistory config) {
+        BigDecimal avgAmount = config.useDecayedAverage()
+                ? BigDecimal.valueOf(history.decayedMean()).setScale(2, RoundingMode.HALF_UP)
+                : history.totalAmount().divide(BigDecimal.valueOf(history.transactionCount()), 2,
+                        RoundingMode.HALF_UP);
+        BigDecimal limit = avgAmount.multiply(config.averageTransactionThreshold());
+
+        return new RuleOutcome(amount.compareTo(limit) > 0,
+                Math.min(1.0, amount.divide(limit, 2, RoundingMode.HALF_UP).doubleValue() - 1.0),
+                Map.of("historyCount", history.transactionCount(), "averageAmount", avgAmount,
+                        "averageTransactionThreshold", config.averageTransactionThreshold()));
+    }
+}
@@ -0,0 +1,279 @@
+package com.globalfraud.frauddetection.service;
+
+import com.globalfraud.frauddetection.config.FraudDetectionProperties;
+import com.globalfraud.frauddetection.domain.FraudRule;
+import com.globalfraud.frauddetection.domain.Transaction;
+import com.globalfraud.frauddetection.domain.TransactionStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Evaluates a transaction against a whole rule set within a latency budget.
+ *
+ * <p>
+ * Rules that {@linkplain RuleEvaluator#requiresIo(FraudRule) may block on I/O} are started
+ * concurrently, at most {@code fraud-detection.scoring.max-parallel-io-rules} at a time; the
+ * remaining rules run on the calling thread while those are in flight. The caller then waits
+ * for each outstanding rule until the shared deadline ({@code fraud-detection.scoring.deadline})
+ * expires. Rules still running at that point are cancelled and reported as timed out. Outcomes
+ * are returned in rule order, so the result does not depend on completion order. If a rule fails,
+ * the outstanding ones are cancelled and the failure is rethrown. Rules share the aggregates they
+ * look up through one {@link TransactionFacts} per transaction, which is returned with the
+ * outcomes.
+ *
+ * <p>
+ * Every I/O rule in flight may hold its own pooled connection, so one check can hold up to
+ * {@code max-parallel-io-rules} connections at once, and the connection pool must be sized for
+ * {@code fraud-detection.concurrency.max-concurrent-checks} times that. I/O rules run on virtual
+ * threads only when {@code fraud-detection.scoring.virtual-threads} is set, which follows the
+ * request execution model; otherwise they run on a pool of platform threads.
+ *
+ * <p>
+ * With {@code fraud-detection.scoring.adaptive-ordering} enabled, rules are instead evaluated one
+ * at a time in the order chosen by a {@link RuleExecutionPlanner}: in-memory rules first, then the
+ * rest by observed cost and trigger rate. Once the rules not yet evaluated can no longer change
+ * the decision they are skipped and reported, trading the concurrency of I/O rules for not
+ * running them at all when the outcome is already settled.
+ */
+@Slf4j
+@Component
+public class RuleSetEvaluator {
+    private final RuleEvaluator ruleEvaluator;
+    private final ScoringMetrics metrics;
+    private final Duration deadline;
+    private final RuleExecutionPlanner planner;
+    private final int maxParallelIoRules;
+    private final ExecutorService executor;
+
+    public RuleSetEvaluator(RuleEvaluator ruleEvaluator, FraudDetectionProperties properties,
+            ScoringMetrics metrics) {
+        this.ruleEvaluator = ruleEvaluator;
+        this.metrics = metrics;
+        this.deadline = properties.getScoring().getDeadline();
+        this.planner = properties.getScoring().isAdaptiveOrdering()
+                ? new RuleExecutionPlanner(ruleEvaluator)
+                : null;
+        this.maxParallelIoRules = properties.getScoring().getMaxParallelIoRules();
+        this.executor = properties.getScoring().isVirtualThreads()
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newCachedThreadPool(
+                        Thread.ofPlatform().name("io-rules-", 0).daemon(true).factory());
+    }
+
+    /**
+     * Evaluates every rule against the transaction.
+     *
+     * @param transaction the transaction to score
+     * @param rules the rules to evaluate, in priority order
+     * @return the outcome of each rule, aligned with {@code rules}, the rules that did not
+     *         finish before the deadline and the rules that were skipped
+     */
+    public Evaluation evaluate(Transaction transaction, List<FraudRule> rules) {
+        if (planner != null) {
+            return evaluatePlanned(transaction, rules);
+        }
+        long deadlineNanos = System.nanoTime() + deadline.toNanos();
+        RuleOutcome[] outcomes = new RuleOutcome[rules.size()];
+        List<Future<RuleOutcome>> futures = new ArrayList<>(rules.size());
+        TransactionFacts facts = new TransactionFacts();
+        Semaphore ioPermits = maxParallelIoRules > 0 ? new Semaphore(maxParallelIoRules) : null;
+
+        for (FraudRule rule : rules) {
+            futures.add(ruleEvaluator.requiresIo(rule)
+                    ? executor.submit(() -> evaluateIoRule(transaction, rule, facts, ioPermits))
+                    : null);
+        }
+        try {
+            for (int i = 0; i < rules.size(); i++) {
+                if (futures.get(i) == null) {
+                    outcomes[i] = evaluateRule(transaction, rules.get(i), facts);
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            cancelAll(futures);
+            throw e;
+        }
+
+        List<FraudRule> timedOutRules = new ArrayList<>();
+        for (int i = 0; i < rules.size(); i++) {
+            Future<RuleOutcome> future = futures.get(i);
+            if (future != null) {
+                outcomes[i] = await(future, deadlineNanos, futures);
+                if (outcomes[i] == null) {
+                    metrics.recordTimeout(rules.get(i));
+                    timedOutRules.add(rules.get(i));
+                    outcomes[i] = RuleOutcome.notTriggered();
+                }
+            }
+        }
+        if (!timedOutRules.isEmpty()) {
+            log.warn("Transaction {}: {} rules did not finish within {}", transaction.getId(),
+                    timedOutRules.size(), deadline);
+        }
+        return new Evaluation(Arrays.asList(outcomes), List.copyOf(timedOutRules), List.of(),
+                null, facts);
+    }
+
+    private Evaluation evaluatePlanned(Transaction transaction, List<FraudRule> rules) {
+        long deadlineNanos = System.nanoTime() + deadline.toNanos();
+        RuleExecutionPlanner.Plan plan = planner.plan(rules);
+        TransactionFacts facts = new TransactionFacts();
+        RuleOutcome[] outcomes = new RuleOutcome[rules.size()];
+        boolean[] timedOut = new boolean[rules.size()];
+        TransactionStatus settledStatus = null;
+        int settledAt = plan.size();
+        ScoreTotal total = new ScoreTotal();
+
+        for (int step = 0; step < plan.size(); step++) {
+            settledStatus = plan.settledStatus(step, total);
+            if (settledStatus != null) {
+                settledAt = step;
+                break;
+            }
+            int index = plan.ruleAt(step);
+            FraudRule rule = rules.get(index);
+            RuleOutcome outcome;
+            if (!ruleEvaluator.requiresIo(rule)) {
+                outcome = evaluateRule(transaction, rule, facts);
+            } else if (System.nanoTime() - deadlineNanos >= 0) {
+                outcome = null;
+            } else {
+                Future<RuleOutcome> future =
+                        executor.submit(() -> evaluateRule(transaction, rule, facts));
+                outcome = await(future, deadlineNanos, List.of(future));
+            }
+            if (outcome == null) {
+                metrics.recordTimeout(rule);
+                timedOut[index] = true;
+                outcome = RuleOutcome.notTriggered();
+            } else {
+                total.add(outcome);
+            }
+            outcomes[index] = outcome;
+        }
+
+        List<FraudRule> timedOutRules = new ArrayList<>();
+        List<FraudRule> skippedRules = new ArrayList<>();
+        for (int i = 0; i < rules.size(); i++) {
+            if (timedOut[i]) {
+                timedOutRules.add(rules.get(i));
+            } else if (outcomes[i] == null) {
+                metrics.recordSkip(rules.get(i));
+                skippedRules.add(rules.get(i));
+                outcomes[i] = RuleOutcome.notTriggered();
+            }
+        }
+        if (!timedOutRules.isEmpty()) {
+            log.warn("Transaction {}: {} rules did not finish within {}", transaction.getId(),
+                    timedOutRules.size(), deadline);
+        }
+        if (!skippedRules.isEmpty()) {
+            log.debug("Transaction {}: {} settled after {} of {} rules", transaction.getId(),
+                    settledStatus, settledAt, rules.size());
+        }
+        return new Evaluation(Arrays.asList(outcomes), List.copyOf(timedOutRules),
+                List.copyOf(skippedRules), skippedRules.isEmpty() ? null : settledStatus, facts);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Evaluates an I/O rule once one of the check's permits is free, so that the check holds no
+     * more connections than it has permits.
+     *
+     * @param permits the check's I/O permits, or null if its I/O rules are not limited
+     */
+    private RuleOutcome evaluateIoRule(Transaction transaction, FraudRule rule,
+            TransactionFacts facts, Semaphore permits) throws InterruptedException {
+        if (permits == null) {
+            return evaluateRule(transaction, rule, facts);
+        }
+        permits.acquire();
+        try {
+            return evaluateRule(transaction, rule, facts);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private RuleOutcome evaluateRule(Transaction transaction, FraudRule rule,
+            TransactionFacts facts) {
+        long start = metrics.start();
+        long planStart = planner != null ? System.nanoTime() : 0;
+        RuleOutcome outcome = ruleEvaluator.evaluateRule(transaction, rule, facts);
+        metrics.recordRule(rule, outcome, start);
+        if (planner != null) {
+            planner.record(rule, System.nanoTime() - planStart, outcome.triggered());
+        }
+        return outcome;
+    }
+
+    /**
+     * Returns the rule's outcome, or {@code null} if it did not finish before the deadline.
+     */
+    private RuleOutcome await(Future<RuleOutcome> future, long deadlineNanos,
+            List<Future<RuleOutcome>> futures) {
+        try {
+            return future.get(Math.max(0, deadlineNanos - System.nanoTime()),
+                    TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | CancellationException e) {
+            future.cancel(true);
+            return null;
+        } catch (ExecutionException e) {
+            cancelAll(futures);
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Rule evaluation failed", e.getCause());
+        } catch (InterruptedException e) {
+            cancelAll(futures);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while evaluating rules", e);
+        }
+    }
+
+    private static void cancelAll(List<Future<RuleOutcome>> futures) {
+        futures.forEach(future -> {
+            if (future != null) {
+                future.cancel(true);
+            }
+        });
+    }
+
+    /**
+     * Outcomes of a rule set evaluation.
+     *
+     * @param outcomes one outcome per rule, in rule order; rules that timed out or were skipped
+     *        are reported as not triggered
+     * @param timedOutRules the rules that did not finish before the deadline
+     * @param skippedRules the rules not evaluated because the decision was already settled, in
+     *        rule order
+     * @param settledStatus the decision the skipped rules could not change, or null if none were
+     *        skipped
+     * @param facts the aggregates the rules looked up
+     */
+    public record Evaluation(List<RuleOutcome> outcomes, List<FraudRule> timedOutRules,
+            List<FraudRule> skippedRules, TransactionStatus settledStatus,
+            TransactionFacts facts) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.globalfraud.frauddetection.service;
+
+/**
+ * Bounds of the score a rule can report when it triggers.
+ *
+ * @param min lowest possible score of a triggered outcome
+ * @param max highest possible score of a triggered outcome
+ * @param additive whether the rule's triggered outcomes are {@linkplain RuleOutcome#additive()
+ *        additive}
+ */
+public record ScoreRange(double min, double max, boolean additive) {
+
+    /**
+     * Any score from 0 to 1; the safe assumption for rules whose score varies.
+     */
+    public static final ScoreRange ANY = new ScoreRange(0.0, 1.0);
+
+    public ScoreRange(double min, double max) {
+        this(min, max, false);
+    }
+
+    public static ScoreRange exactly(double score) {
+        return new ScoreRange(score, score);
+    }
+
+    public static ScoreRange additive(double score) {
+        return new ScoreRange(score, score, true);
+    }
+}
@@ -0,0 +1,79 @@
+package com.globalfraud.frauddetection.service;
+
+import com.globalfraud.frauddetection.domain.TransactionStatus;
+
+import java.math.BigDecimal;
+
+/**
+ * Running risk score of the rules triggered for one transaction.
+ *
+ * <p>
+ * The risk score is the average of the triggered scores, plus the sum of the
+ * {@linkplain RuleOutcome#additive() additive} ones, capped at 1. Additive scores are points in
+ * the sense of FR-003: a hit never lowers the risk score, and one scoring 1 rejects the
+ * transaction whatever else triggered. Not thread-safe.
+ */
+public final class ScoreTotal {
+    private long averagedScoreUnits;
+    private int averagedCount;
+    private long additiveScoreUnits;
+    private int triggeredCount;
+
+    public ScoreTotal() {
+    }
+
+    public ScoreTotal(ScoreTotal other) {
+        this.averagedScoreUnits = other.averagedScoreUnits;
+        this.averagedCount = other.averagedCount;
+        this.additiveScoreUnits = other.additiveScoreUnits;
+        this.triggeredCount = other.triggeredCount;
+    }
+
+    /**
+     * Adds the outcome's score if it triggered.
+     */
+    public void add(RuleOutcome outcome) {
+        if (!outcome.triggered()) {
+            return;
+        }
+        if (outcome.additive()) {
+            additiveScoreUnits += RuleScoring.scoreUnits(outcome.score());
+        } else {
+            averagedScoreUnits += RuleScoring.scoreUnits(outcome.score());
+            averagedCount++;
+        }
+        triggeredCount++;
+    }
+
+    /**
+     * The risk score in hundredths, rounded half up.
+     */
+    public long score() {
+        return RuleScoring.combinedScore(
+                RuleScoring.averageScore(averagedScoreUnits, averagedCount), additiveScoreUnits);
+    }
+
+    public int triggeredCount() {
+        return triggeredCount;
+    }
+
+    public TransactionStatus status() {
+        return RuleScoring.status(score());
+    }
+
+    public BigDecimal riskScore() {
+        return RuleScoring.riskScore(score(), triggeredCount);
+    }
+
+    long averagedScoreUnits() {
+        return averagedScoreUnits;
+    }
+
+    int averagedCount() {
+        return averagedCount;
+    }
+
+    long additiveScoreUnits() {
+        return additiveScoreUnits;
+    }
+}
@@ -0,0 +1,61 @@
+package com.globalfraud.frauddetection.service;
+
+import com.globalfraud.frauddetection.config.FraudDetectionProperties;
+import com.globalfraud.frauddetection.exception.ServiceOverloadedException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Caps the number of fraud checks in flight.
+ *
+ * <p>
+ * With virtual threads every request gets its own thread, so without a cap the number of
+ * concurrent checks is bounded only by the connection pool, and excess requests queue inside
+ * Hikari until they time out. The limiter admits at most
+ * {@code fraud-detection.concurrency.max-concurrent-checks} checks, lets others wait briefly for a
+ * permit and then rejects them with a {@link ServiceOverloadedException}. A limit of zero disables
+ * it. Waiting on the semaphore does not pin virtual threads. A check can hold up to
+ * {@code fraud-detection.scoring.max-parallel-io-rules} connections while its I/O rules run, so
+ * the limit should not exceed the pool size divided by that.
+ */
+@Component
+public class ScoringConcurrencyLimiter {
+    private final Semaphore permits;
+    private final Duration acquireTimeout;
+
+    public ScoringConcurrencyLimiter(FraudDetectionProperties properties) {
+        int maxConcurrentChecks = properties.getConcurrency().getMaxConcurrentChecks();
+        this.permits = maxConcurrentChecks > 0 ? new Semaphore(maxConcurrentChecks) : null;
+        this.acquireTimeout = properties.getConcurrency().getAcquireTimeout();
+    }
+
+    /**
+     * Runs a check once a permit is available.
+     *
+     * @throws ServiceOverloadedException if no permit becomes available within the timeout
+     */
+    public <T> T call(Supplier<T> check) {
+        if (permits == null) {
+            return check.get();
+        }
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new ServiceOverloadedException(
+                        "Too many fraud checks in progress; retry later");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceOverloadedException("Interrupted while waiting to run a fraud check",
+                    e);
+        }
+        try {
+            return check.get();
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.globalfraud.frauddetection.service;
+
+import com.globalfraud.frauddetection.config.FraudDetectionProperties;
+import com.globalfraud.frauddetection.domain.FraudRule;
+import com.globalfraud.frauddetection.domain.RuleType;
+import com.globalfraud.frauddetection.domain.TransactionStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for the scoring hot path: per-rule evaluation time, trigger, timeout and skip counts and
+ * score distribution, per-stage timers and decision counts.
+ *
+ * <p>
+ * Rule meters are tagged with the rule name and {@link RuleType} only, so cardinality is bounded
+ * by the size of the rule set. Timers publish the configured SLO buckets rather than full
+ * percentile histograms. When {@code fraud-detection.metrics.enabled} is false no meters are
+ * registered and every method returns after a single branch, without reading the clock.
+ */
+@Component
+public class ScoringMetrics {
+    private static final double[] SCORE_BUCKETS =
+            {0.1, 0.2, 0.3, 0.4, 0.5, 0.6, 0.7, 0.8, 0.9, 1.0};
+
+    private final boolean enabled;
+    private final MeterRegistry meterRegistry;
+    private final Duration[] sloBoundaries;
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Map<TransactionStatus, Counter> decisions =
+            new EnumMap<>(TransactionStatus.class);
+    private final ConcurrentMap<RuleKey, RuleMeters> ruleMeters = new ConcurrentHashMap<>();
+
+    public ScoringMetrics(MeterRegistry meterRegistry, FraudDetectionProperties properties) {
+        this.enabled = properties.getMetrics().isEnabled();
+        this.meterRegistry = meterRegistry;
+        this.sloBoundaries = properties.getMetrics().getSloBoundaries().toArray(Duration[]::new);
+        if (!enabled) {
+            return;
+        }
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("fraud.scoring.stage")
+                    .description("Time spent in one stage of a fraud check")
+                    .tag("stage", stage.tagValue).serviceLevelObjectives(sloBoundaries)
+                    .register(meterRegistry));
+        }
+        for (TransactionStatus status : TransactionStatus.values()) {
+            decisions.put(status, Counter.builder("fraud.scoring.decisions")
+                    .description("Fraud check results by decision")
+                    .tag("status", status.name()).register(meterRegistry));
+        }
+    }
+
+    /**
+     * Returns a start mark for {@link #recordStage} or {@link #recordRule}, or 0 when disabled.
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public void recordStage(Stage stage, long start) {
+        if (enabled) {
+            stageTimers.get(stage).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Records one evaluation of a rule that started at {@code start}.
+     */
+    public void recordRule(FraudRule rule, RuleOutcome outcome, long start) {
+        if (!enabled) {
+            return;
+        }
+        RuleMeters meters = metersFor(rule);
+        meters.evaluation().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (outcome.triggered()) {
+            meters.triggered().increment();
+            meters.score().record(outcome.score());
+        }
+    }
+
+    /**
+     * Records a rule that was not evaluated because the decision was already settled.
+     */
+    public void recordSkip(FraudRule rule) {
+        if (enabled) {
+            metersFor(rule).skipped().increment();
+        }
+    }
+
+    /**
+     * Records a rule that was abandoned because the scoring deadline expired.
+     */
+    public void recordTimeout(FraudRule rule) {
+        if (enabled) {
+            metersFor(rule).timedOut().increment();
+        }
+    }
+
+    public void recordDecision(TransactionStatus status) {
+        if (enabled) {
+            decisions.get(status).increment();
+        }
+    }
+
+    private RuleMeters metersFor(FraudRule rule) {
+        RuleKey key = new RuleKey(rule.getName(), rule.getRuleType());
+        RuleMeters meters = ruleMeters.get(key);
+        return meters != null ? meters : ruleMeters.computeIfAbsent(key, this::register);
+    }
+
+    private RuleMeters register(RuleKey key) {
+        String name = key.name() != null ? key.name() : "unnamed";
+        String type = key.ruleType() != null ? key.ruleType().name() : "UNKNOWN";
+        return new RuleMeters(
+                Timer.builder("fraud.rule.evaluation")
+                        .description("Time taken to evaluate one rule against a transaction")
+                        .tags("rule", name, "type", type).serviceLevelObjectives(sloBoundaries)
+                        .register(meterRegistry),
+                Counter.builder("fraud.rule.triggered")
+                        .description("Evaluations in which the rule triggered")
+                        .tags("rule", name, "type", type).register(meterRegistry),
+                Counter.builder("fraud.rule.timeouts")
+                        .description("Evaluations abandoned at the scoring deadline")
+                        .tags("rule", name, "type", type).register(meterRegistry),
+                Counter.builder("fraud.rule.skipped")
+                        .description("Evaluations skipped because the decision was settled")
+                        .tags("rule", name, "type", type).register(meterRegistry),
+                DistributionSummary.builder("fraud.rule.score")
+                        .description("Risk score contributed by the rule when it triggered")
+                        .tags("rule", name, "type", type).serviceLevelObjectives(SCORE_BUCKETS)
+                        .register(meterRegistry));
+    }
+
+    /**
+     * Stages of a fraud check that are timed separately.
+     */
+    public enum Stage {
+        /** Fetching the active rule snapshot. */
+        RULE_LOAD("rule_load"),
+        /** Evaluating all rules and assembling the result for one transaction. */
+        EVALUATION("evaluation"),
+        /** Saving or enqueuing a single transaction. */
+        PERSIST("persist"),
+        /** Saving or enqueuing all scored transactions of a batch. */
+        BATCH_PERSIST("batch_persist");
+
+        private final String tagValue;
+
+        Stage(String tagValue) {
+            this.tagValue = tagValue;
+        }
+    }
+
+    private record RuleKey(String name, RuleType ruleType) {
+    }
+
+    private record RuleMeters(Timer evaluation, Counter triggered, Counter timedOut,
+            Counter skipped, DistributionSummary score) {
+    }
+}
@@ -0,0 +1,256 @@
+package com.globalfraud.frauddetection.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.globalfraud.frauddetection.config.FraudDetectionProperties;
+import com.globalfraud.frauddetection.dto.BatchCheckItemResult;
+import com.globalfraud.frauddetection.dto.TransactionRequest;
+import com.globalfraud.frauddetection.exception.PersistenceBackpressureException;
+import com.globalfraud.frauddetection.exception.ServiceOverloadedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scores an unbounded NDJSON stream of {@link TransactionRequest}s.
+ *
+ * <p>
+ * Lines are read and scored in chunks of {@code fraud-detection.streaming.chunk-size} through
+ * {@link FraudDetectionService#processBatch(List)}. Each chunk's results are written and flushed
+ * before the next chunk is read, so memory use is bounded by the chunk size regardless of the
+ * payload, and a slow database slows down reading from the client instead of buffering requests.
+ * Lines longer than {@code fraud-detection.streaming.max-line-length} are skipped without being
+ * buffered and reported as item errors naming the line number. When the service is temporarily
+ * overloaded the chunk is retried for up to {@code fraud-detection.streaming.retry-timeout}; an
+ * overload that outlasts it, or one that retrying cannot clear (the write-behind queue has been
+ * stopped for shutdown), ends the stream with that error.
+ */
+@Slf4j
+@Service
+public class StreamingScoringService {
+    private static final long RETRY_BACKOFF_MILLIS = 100;
+
+    private final FraudDetectionService fraudDetectionService;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxLineLength;
+    private final Duration retryTimeout;
+
+    public StreamingScoringService(FraudDetectionService fraudDetectionService,
+            ObjectMapper objectMapper, FraudDetectionProperties properties) {
+        this.fraudDetectionService = fraudDetectionService;
+        this.objectMapper = objectMapper;
+        int chunkSize = Math.min(properties.getStreaming().getChunkSize(),
+                properties.getBatch().getMaxSize());
+        if (properties.getWriteBehind().isEnabled()) {
+            // A chunk larger than the write queue would be rejected on every attempt
+            chunkSize = Math.min(chunkSize, properties.getWriteBehind().getQueueCapacity());
+        }
+        this.chunkSize = chunkSize;
+        this.maxLineLength = properties.getStreaming().getMaxLineLength();
+        this.retryTimeout = properties.getStreaming().getRetryTimeout();
+    }
+
+    /**
+     * Reads one transaction per line from {@code input} and writes one
+     * {@link BatchCheckItemResult} per line to {@code output}, in input order. Blank lines are
+     * skipped; {@code index} is the zero-based position among the non-blank lines. Lines that are
+     * not valid JSON are reported as item errors.
+     *
+     * @return the number of transactions read
+     * @throws IOException if reading the input or writing the output fails
+     * @throws ServiceOverloadedException if a chunk could not be admitted within the retry timeout
+     * @throws PersistenceBackpressureException if a chunk could not be queued for persistence
+     *         within the retry timeout, or the write queue has been stopped
+     */
+    public long score(InputStream input, OutputStream output) throws IOException {
+        LineReader reader = new LineReader(
+                new InputStreamReader(input, StandardCharsets.UTF_8), maxLineLength);
+        List<Line> lines = new ArrayList<>(chunkSize);
+        long offset = 0;
+
+        while (reader.next()) {
+            if (!reader.tooLong() && reader.line().isBlank()) {
+                continue;
+            }
+            lines.add(new Line(reader.lineNumber(), reader.tooLong() ? null : reader.line()));
+            if (lines.size() == chunkSize) {
+                write(scoreChunk(lines, offset), output);
+                offset += lines.size();
+                lines.clear();
+            }
+        }
+        if (!lines.isEmpty()) {
+            write(scoreChunk(lines, offset), output);
+            offset += lines.size();
+        }
+
+        log.info("Scored NDJSON stream of {} transactions", offset);
+        return offset;
+    }
+
+    private List<BatchCheckItemResult> scoreChunk(List<Line> lines, long offset)
+            throws IOException {
+        BatchCheckItemResult[] results = new BatchCheckItemResult[lines.size()];
+        List<TransactionRequest> requests = new ArrayList<>(lines.size());
+        List<Integer> positions = new ArrayList<>(lines.size());
+
+        for (int i = 0; i < lines.size(); i++) {
+            Line line = lines.get(i);
+            if (line.text() == null) {
+                results[i] = BatchCheckItemResult.builder().index(offset + i)
+                        .errors(List.of("Line " + line.number() + " exceeds the maximum length of "
+                                + maxLineLength + " characters"))
+                        .build();
+                continue;
+            }
+            try {
+                requests.add(objectMapper.readValue(line.text(), TransactionRequest.class));
+                positions.add(i);
+            } catch (JsonProcessingException e) {
+                results[i] = BatchCheckItemResult.builder().index(offset + i)
+                        .errors(List.of("Malformed JSON: " + e.getOriginalMessage())).build();
+            }
+        }
+
+        if (!requests.isEmpty()) {
+            List<BatchCheckItemResult> scored = processWithRetry(requests);
+            for (int j = 0; j < scored.size(); j++) {
+                BatchCheckItemResult result = scored.get(j);
+                int position = positions.get(j);
+                result.setIndex(offset + position);
+                results[position] = result;
+            }
+        }
+        return List.of(results);
+    }
+
+    private List<BatchCheckItemResult> processWithRetry(List<TransactionRequest> requests)
+            throws IOException {
+        long deadline = System.nanoTime() + retryTimeout.toNanos();
+        while (true) {
+            try {
+                return fraudDetectionService.processBatch(requests);
+            } catch (ServiceOverloadedException e) {
+                backOff(e, e.isRetryable(), deadline);
+            } catch (PersistenceBackpressureException e) {
+                backOff(e, e.isRetryable(), deadline);
+            }
+        }
+    }
+
+    private void backOff(RuntimeException e, boolean retryable, long deadline)
+            throws IOException {
+        if (!retryable || System.nanoTime() + RETRY_BACKOFF_MILLIS * 1_000_000 > deadline) {
+            log.warn("Ending scoring stream: {}", e.getMessage());
+            throw e;
+        }
+        log.debug("Scoring stream backing off: {}", e.getMessage());
+        try {
+            Thread.sleep(RETRY_BACKOFF_MILLIS);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while scoring stream");
+        }
+    }
+
+    private void write(List<BatchCheckItemResult> results, OutputStream output)
+            throws IOException {
+        for (BatchCheckItemResult result : results) {
+            output.write(objectMapper.writeValueAsBytes(result));
+            output.write('\n');
+        }
+        output.flush();
+    }
+
+    /**
+     * A non-blank input line and its one-based line number; {@code text} is null if the line was
+     * too long to read.
+     */
+    private record Line(long number, String text) {
+    }
+
+    /**
+     * Reads lines ending in LF or CRLF, keeping at most {@code maxLength} characters of each so
+     * that an overlong line costs no more memory than an accepted one.
+     */
+    private static final class LineReader {
+        private final Reader reader;
+        private final int maxLength;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder line = new StringBuilder();
+        private int position;
+        private int limit;
+        private long lineNumber;
+        private boolean tooLong;
+
+        private LineReader(Reader reader, int maxLength) {
+            this.reader = reader;
+            this.maxLength = maxLength;
+        }
+
+        /**
+         * Advances to the next line, returning false at the end of the input.
+         */
+        boolean next() throws IOException {
+            line.setLength(0);
+            tooLong = false;
+            boolean read = false;
+            while (true) {
+                if (position == limit) {
+                    limit = reader.read(buffer);
+                    position = 0;
+                    if (limit <= 0) {
+                        limit = 0;
+                        break;
+                    }
+                }
+                read = true;
+                char c = buffer[position++];
+                if (c == '\n') {
+                    break;
+                }
+                // One extra character leaves room for the CR of a CRLF
+                if (line.length() <= maxLength) {
+                    line.append(c);
+                } else {
+                    tooLong = true;
+                }
+            }
+            if (!read) {
+                return false;
+            }
+            int length = line.length();
+            if (length > 0 && line.charAt(length - 1) == '\r') {
+                line.setLength(length - 1);
+            }
+            if (line.length() > maxLength) {
+                tooLong = true;
+            }
+            lineNumber++;
+            return true;
+        }
+
+        String line() {
+            return line.toString();
+        }
+
+        boolean tooLong() {
+            return tooLong;
+        }
+
+        long lineNumber() {
+            return lineNumber;
+        }
+    }
+}
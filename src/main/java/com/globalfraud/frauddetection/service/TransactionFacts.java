@@ -0,0 +1,66 @@
+package com.globalfraud.frauddetection.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Aggregate lookups made while scoring one transaction, such as velocity counts and customer
+ * history, keyed by what was looked up.
+ *
+ * <p>
+ * Rules of the same transaction that need the same aggregate share one lookup, and shadow rules
+ * evaluated later see the values the live decision was based on. Safe for the concurrent rule
+ * evaluations of one transaction; the lookup runs outside any lock so that a virtual thread
+ * blocked on a database fallback does not pin its carrier, and two rules racing for the same key
+ * may both look it up, the first value winning.
+ */
+public final class TransactionFacts {
+    private static final TransactionFacts NONE = new TransactionFacts(null);
+
+    private final ConcurrentMap<Object, Object> values;
+
+    public TransactionFacts() {
+        this(new ConcurrentHashMap<>());
+    }
+
+    private TransactionFacts(ConcurrentMap<Object, Object> values) {
+        this.values = values;
+    }
+
+    /**
+     * Facts that remember nothing, for evaluating a single rule on its own.
+     */
+    public static TransactionFacts none() {
+        return NONE;
+    }
+
+    /**
+     * Returns the value recorded for {@code key}, looking it up and recording it first if needed.
+     *
+     * @param key identifies the lookup within the transaction; must implement {@code equals}
+     * @param lookup computes the value; a null result is returned but not recorded
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Supplier<T> lookup) {
+        if (values == null) {
+            return lookup.get();
+        }
+        Object value = values.get(key);
+        if (value == null) {
+            value = lookup.get();
+            Object recorded = value != null ? values.putIfAbsent(key, value) : null;
+            if (recorded != null) {
+                value = recorded;
+            }
+        }
+        return (T) value;
+    }
+
+    /**
+     * Number of values recorded.
+     */
+    public int size() {
+        return values == null ? 0 : values.size();
+    }
+}
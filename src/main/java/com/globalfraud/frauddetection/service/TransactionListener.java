@@ -0,0 +1,11 @@
+package com.globalfraud.frauddetection.service;
+
+import com.globalfraud.frauddetection.domain.Transaction;
+
+/**
+ * Callback for in-memory state derived from persisted transactions, such as velocity counters and
+ * customer aggregates. Invoked once the transaction that saved the entity has committed.
+ */
+public interface TransactionListener {
+    void onTransactionSaved(Transaction transaction);
+}
@@ -0,0 +1,495 @@
+package com.globalfraud.frauddetection.service.backtest;
+
+import com.globalfraud.frauddetection.config.FraudDetectionProperties;
+import com.globalfraud.frauddetection.domain.FraudRule;
+import com.globalfraud.frauddetection.domain.Transaction;
+import com.globalfraud.frauddetection.domain.TransactionStatus;
+import com.globalfraud.frauddetection.dto.BacktestReport;
+import com.globalfraud.frauddetection.exception.InvalidBacktestException;
+import com.globalfraud.frauddetection.service.RuleOutcome;
+import com.globalfraud.frauddetection.service.RuleScoring;
+import com.globalfraud.frauddetection.service.ScoreTotal;
+import com.globalfraud.frauddetection.service.expression.Aggregates;
+import com.globalfraud.frauddetection.service.history.CustomerAggregate;
+import com.globalfraud.frauddetection.service.knownfraud.KnownFraudIndex;
+import com.globalfraud.frauddetection.service.location.PostalReferenceIndex;
+import com.globalfraud.frauddetection.service.rule.RuleConfig;
+import com.globalfraud.frauddetection.service.rule.RuleConfigCompiler;
+import com.globalfraud.frauddetection.service.velocity.VelocityDimension;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Replays historical transactions through a candidate rule set.
+ *
+ * <p>
+ * The source is read once, in timestamp order, on the calling thread. Windowed state is rebuilt
+ * from the replayed rows instead of being queried per row: merchant-keyed state (merchant velocity
+ * and rejection ratios, which use the stored statuses) is kept by the reader, which attaches the
+ * merchant inputs of each row before handing it to one of {@code parallelism} workers chosen by
+ * customer. Each worker owns the customer velocity counters and {@link CustomerAggregate}s of its
+ * customers, so rows of one customer are replayed in order on one thread without locking. Rules
+ * are scored with {@link RuleScoring}, the same formulas the live evaluator uses, and windows use
+ * the live bucket width. Rules sharing a window share its counts. Expression rules read the same
+ * rebuilt state through {@link Aggregates}. Location and known-fraud rules use the current postal
+ * reference data and known-fraud list, so a backtest shows what today's lists would have caught.
+ * Each worker counts rule hits and a stored-versus-replayed status matrix, and the counts are
+ * merged when the source is exhausted.
+ */
+@Slf4j
+@Component
+public class BacktestEngine {
+    private static final int CHUNK_SIZE = 1024;
+    private static final int QUEUED_CHUNKS_PER_WORKER = 16;
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+
+    private final RuleConfigCompiler ruleConfigCompiler;
+    private final PostalReferenceIndex postalReferenceIndex;
+    private final KnownFraudIndex knownFraudIndex;
+    private final long bucketWidthMillis;
+    private final Duration decayHalfLife;
+    private final int parallelism;
+
+    public BacktestEngine(RuleConfigCompiler ruleConfigCompiler,
+            PostalReferenceIndex postalReferenceIndex, KnownFraudIndex knownFraudIndex,
+            FraudDetectionProperties properties) {
+        this.ruleConfigCompiler = ruleConfigCompiler;
+        this.postalReferenceIndex = postalReferenceIndex;
+        this.knownFraudIndex = knownFraudIndex;
+        this.bucketWidthMillis = properties.getVelocity().getBucketWidth().toMillis();
+        this.decayHalfLife = properties.getCustomerHistory().getDecayHalfLife();
+        int configured = properties.getBacktest().getParallelism();
+        this.parallelism = configured > 0 ? configured : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Scores every row of the source against the rules.
+     *
+     * @param rules the candidate rules, in priority order
+     * @param source the historical transactions
+     * @return hit counts per rule and the status distribution
+     * @throws com.globalfraud.frauddetection.exception.InvalidRuleConfigException if a rule's
+     *         configuration is invalid
+     * @throws InvalidBacktestException if the source cannot be read as transactions
+     */
+    public BacktestReport run(List<FraudRule> rules, BacktestSource source) {
+        RuleConfig[] configs = rules.stream()
+                .map(rule -> ruleConfigCompiler.compile(rule.getRuleType(), rule.getRuleConfig()))
+                .toArray(RuleConfig[]::new);
+        Windows windows = new Windows(configs);
+        long started = System.nanoTime();
+
+        Worker[] workers = new Worker[parallelism];
+        Thread[] threads = new Thread[parallelism];
+        for (int i = 0; i < parallelism; i++) {
+            workers[i] = new Worker(configs, windows);
+            threads[i] = new Thread(workers[i], "backtest-worker-" + i);
+            threads[i].start();
+        }
+
+        MerchantState merchantState = new MerchantState(windows);
+        List<List<WorkItem>> pending = new ArrayList<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            pending.add(new ArrayList<>(CHUNK_SIZE));
+        }
+        try {
+            source.forEachRow(row -> {
+                long bucket = bucketOf(row);
+                long[] merchantInputs = merchantState.inputsAndRecord(row, bucket);
+                int partition = Math.floorMod(row.customerId().hashCode(), parallelism);
+                List<WorkItem> chunk = pending.get(partition);
+                chunk.add(new WorkItem(row, bucket, merchantInputs));
+                if (chunk.size() == CHUNK_SIZE) {
+                    workers[partition].submit(chunk);
+                    pending.set(partition, new ArrayList<>(CHUNK_SIZE));
+                }
+            });
+        } finally {
+            for (int i = 0; i < parallelism; i++) {
+                if (!pending.get(i).isEmpty()) {
+                    workers[i].submit(pending.get(i));
+                }
+                workers[i].submit(List.of());
+            }
+            joinAll(threads);
+        }
+
+        return report(rules, workers, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private long bucketOf(BacktestRow row) {
+        return Math.floorDiv(row.timestamp().toInstant().toEpochMilli(), bucketWidthMillis);
+    }
+
+    private long windowBuckets(Duration window) {
+        return -Math.floorDiv(-window.toMillis(), bucketWidthMillis);
+    }
+
+    private BacktestReport report(List<FraudRule> rules, Worker[] workers, long elapsedMillis) {
+        long[] hits = new long[rules.size()];
+        long[][] matrix = new long[STATUSES.length][STATUSES.length];
+        long scored = 0;
+        long warmup = 0;
+        for (Worker worker : workers) {
+            if (worker.failure != null) {
+                throw new IllegalStateException("Backtest worker failed", worker.failure);
+            }
+            scored += worker.scored;
+            warmup += worker.warmup;
+            for (int i = 0; i < hits.length; i++) {
+                hits[i] += worker.hits[i];
+            }
+            for (int stored = 0; stored < STATUSES.length; stored++) {
+                for (int replayed = 0; replayed < STATUSES.length; replayed++) {
+                    matrix[stored][replayed] += worker.matrix[stored][replayed];
+                }
+            }
+        }
+
+        List<BacktestReport.RuleHits> ruleHits = new ArrayList<>(rules.size());
+        for (int i = 0; i < rules.size(); i++) {
+            ruleHits.add(BacktestReport.RuleHits.builder().ruleId(rules.get(i).getId())
+                    .ruleName(rules.get(i).getName()).hits(hits[i])
+                    .hitRate(scored > 0 ? (double) hits[i] / scored : 0.0).build());
+        }
+
+        Map<TransactionStatus, Long> statusCounts = new EnumMap<>(TransactionStatus.class);
+        Map<TransactionStatus, Map<TransactionStatus, Long>> statusMatrix =
+                new EnumMap<>(TransactionStatus.class);
+        long changed = 0;
+        for (TransactionStatus stored : STATUSES) {
+            for (TransactionStatus replayed : STATUSES) {
+                long count = matrix[stored.ordinal()][replayed.ordinal()];
+                if (count == 0) {
+                    continue;
+                }
+                statusCounts.merge(replayed, count, Long::sum);
+                statusMatrix.computeIfAbsent(stored, s -> new EnumMap<>(TransactionStatus.class))
+                        .put(replayed, count);
+                if (stored != replayed) {
+                    changed += count;
+                }
+            }
+        }
+
+        log.info("Backtest scored {} transactions against {} rules in {} ms", scored, rules.size(),
+                elapsedMillis);
+        return BacktestReport.builder().transactionsScored(scored).warmupTransactions(warmup)
+                .elapsedMillis(elapsedMillis).rules(ruleHits).statusCounts(statusCounts)
+                .statusMatrix(statusMatrix).decisionsChanged(changed).build();
+    }
+
+    private static void joinAll(Thread[] threads) {
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for backtest workers",
+                        e);
+            }
+        }
+    }
+
+    /**
+     * @param merchantInputs per merchant window slot {@code i}, at {@code 2 * i} the merchant's
+     *        transaction count in the window and at {@code 2 * i + 1} its rejected count
+     */
+    private record WorkItem(BacktestRow row, long bucket, long[] merchantInputs) {
+    }
+
+    /**
+     * The distinct windows the rules count in, each given a slot in the customer or merchant state.
+     */
+    private final class Windows {
+        private final Map<Duration, Integer> customerSlots = new HashMap<>();
+        private final Map<Duration, Integer> merchantSlots = new HashMap<>();
+        private final List<Duration> customerWindows = new ArrayList<>();
+        private final List<Duration> merchantWindows = new ArrayList<>();
+
+        /**
+         * Per rule, the slot of a velocity or merchant risk rule's window; unused for others.
+         */
+        private final int[] ruleSlots;
+
+        Windows(RuleConfig[] configs) {
+            this.ruleSlots = new int[configs.length];
+            for (int i = 0; i < configs.length; i++) {
+                switch (configs[i]) {
+                    case RuleConfig.VelocityCheck config ->
+                            ruleSlots[i] = slot(config.dimension(), config.timeWindow());
+                    case RuleConfig.MerchantRisk config ->
+                            ruleSlots[i] = slot(VelocityDimension.MERCHANT, config.timeWindow());
+                    case RuleConfig.Expression config -> config.expression().windows()
+                            .forEach((dimension, windows) -> windows
+                                    .forEach(window -> slot(dimension, window)));
+                    default -> {
+                    }
+                }
+            }
+        }
+
+        int customerSlot(Duration window) {
+            return customerSlots.get(window);
+        }
+
+        int merchantSlot(Duration window) {
+            return merchantSlots.get(window);
+        }
+
+        private int slot(VelocityDimension dimension, Duration window) {
+            boolean customer = dimension == VelocityDimension.CUSTOMER;
+            Map<Duration, Integer> slots = customer ? customerSlots : merchantSlots;
+            List<Duration> windows = customer ? customerWindows : merchantWindows;
+            return slots.computeIfAbsent(window, w -> {
+                windows.add(w);
+                return windows.size() - 1;
+            });
+        }
+    }
+
+    /**
+     * Merchant-keyed windows, owned by the reader thread.
+     */
+    private final class MerchantState {
+        private final List<Duration> windows;
+        private final Map<String, RollingCount[]> merchants = new HashMap<>();
+
+        MerchantState(Windows windows) {
+            this.windows = windows.merchantWindows;
+        }
+
+        /**
+         * Returns the merchant inputs for the row as of its own timestamp, then records the row.
+         */
+        long[] inputsAndRecord(BacktestRow row, long bucket) {
+            if (windows.isEmpty()) {
+                return null;
+            }
+            RollingCount[] counts = merchants.computeIfAbsent(row.merchantId(),
+                    merchantId -> createCounts());
+            long[] inputs = new long[counts.length];
+            boolean rejected = row.storedStatus() == TransactionStatus.REJECTED;
+            for (int i = 0; i < windows.size(); i++) {
+                inputs[2 * i] = counts[2 * i].count(bucket);
+                inputs[2 * i + 1] = counts[2 * i + 1].count(bucket);
+                counts[2 * i].add(bucket);
+                if (rejected) {
+                    counts[2 * i + 1].add(bucket);
+                }
+            }
+            return inputs;
+        }
+
+        private RollingCount[] createCounts() {
+            RollingCount[] counts = new RollingCount[windows.size() * 2];
+            for (int i = 0; i < windows.size(); i++) {
+                long buckets = windowBuckets(windows.get(i));
+                counts[2 * i] = new RollingCount(buckets);
+                counts[2 * i + 1] = new RollingCount(buckets);
+            }
+            return counts;
+        }
+    }
+
+    /**
+     * Customer-keyed state of one partition and the counts it has accumulated.
+     */
+    private final class Worker implements Runnable {
+        private final RuleConfig[] configs;
+        private final Windows windows;
+        private final boolean expressions;
+        private final BlockingQueue<List<WorkItem>> queue =
+                new ArrayBlockingQueue<>(QUEUED_CHUNKS_PER_WORKER);
+        private final Map<String, CustomerState> customers = new HashMap<>();
+        private final long[] hits;
+        private final long[][] matrix = new long[STATUSES.length][STATUSES.length];
+        private long scored;
+        private long warmup;
+        private volatile Throwable failure;
+
+        Worker(RuleConfig[] configs, Windows windows) {
+            this.configs = configs;
+            this.windows = windows;
+            this.expressions = Arrays.stream(configs)
+                    .anyMatch(config -> config instanceof RuleConfig.Expression);
+            this.hits = new long[configs.length];
+        }
+
+        /**
+         * Hands a chunk to the worker; an empty chunk marks the end of the input.
+         */
+        void submit(List<WorkItem> chunk) {
+            try {
+                queue.put(chunk);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while feeding backtest worker", e);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                List<WorkItem> chunk;
+                while (!(chunk = queue.take()).isEmpty()) {
+                    if (failure == null) {
+                        process(chunk);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void process(List<WorkItem> chunk) {
+            try {
+                for (WorkItem item : chunk) {
+                    replay(item);
+                }
+            } catch (RuntimeException | Error e) {
+                // Keep draining so that the reader never blocks on a dead worker
+                failure = e;
+            }
+        }
+
+        private void replay(WorkItem item) {
+            BacktestRow row = item.row();
+            CustomerState customer = customers.computeIfAbsent(row.customerId(),
+                    customerId -> new CustomerState(windows, row));
+            if (row.scored()) {
+                score(item, customer);
+                scored++;
+            } else {
+                warmup++;
+            }
+            customer.record(row, item.bucket());
+        }
+
+        private void score(WorkItem item, CustomerState customer) {
+            BacktestRow row = item.row();
+            Transaction transaction = expressions ? row.toTransaction() : null;
+            ScoreTotal total = new ScoreTotal();
+            for (int i = 0; i < configs.length; i++) {
+                RuleOutcome outcome = evaluate(i, item, customer, transaction);
+                if (outcome.triggered()) {
+                    hits[i]++;
+                    total.add(outcome);
+                }
+            }
+            TransactionStatus replayed = total.status();
+            matrix[row.storedStatus().ordinal()][replayed.ordinal()]++;
+        }
+
+        /**
+         * @param transaction the row as a transaction if there are expression rules, else null
+         */
+        private RuleOutcome evaluate(int rule, WorkItem item, CustomerState customer,
+                Transaction transaction) {
+            BacktestRow row = item.row();
+            int slot = windows.ruleSlots[rule];
+            return switch (configs[rule]) {
+                case RuleConfig.AmountThreshold config ->
+                        RuleScoring.amountThreshold(row.amount(), config);
+                case RuleConfig.VelocityCheck config -> RuleScoring.velocityCheck(
+                        config.dimension() == VelocityDimension.CUSTOMER
+                                ? customer.velocity[slot].count(item.bucket())
+                                : item.merchantInputs()[2 * slot],
+                        config);
+                case RuleConfig.MerchantRisk config -> RuleScoring.merchantRisk(
+                        RuleScoring.rejectionRatio(item.merchantInputs()[2 * slot + 1],
+                                item.merchantInputs()[2 * slot]),
+                        item.merchantInputs()[2 * slot], config);
+                case RuleConfig.CustomerHistory config -> RuleScoring
+                        .customerHistory(row.amount(), customer.aggregate.snapshot(), config);
+                case RuleConfig.LocationBased config -> location(row, config);
+                case RuleConfig.PatternMatching config -> RuleScoring.patternMatching(
+                        knownFraudIndex.contains(row.cardFingerprint()), config);
+                case RuleConfig.KeywordMatch config -> RuleScoring.keywordMatch(row::text, config);
+                case RuleConfig.Expression config -> RuleScoring.expression(config.expression()
+                        .test(transaction, new ReplayAggregates(item, customer)), config);
+                case RuleConfig.Unsupported config -> RuleOutcome.notTriggered();
+            };
+        }
+
+        private RuleOutcome location(BacktestRow row, RuleConfig.LocationBased config) {
+            if (row.zipCode() == null || !postalReferenceIndex.isLoaded()) {
+                return RuleOutcome.notTriggered();
+            }
+            return RuleScoring.location(postalReferenceIndex.data().check(row.zipCode(),
+                    row.city(), row.state(), row.areaCode()), row.zipCode(), config);
+        }
+
+        /**
+         * The aggregates expression rules read, from the replayed state as of the row.
+         */
+        private final class ReplayAggregates implements Aggregates {
+            private final WorkItem item;
+            private final CustomerState customer;
+
+            private ReplayAggregates(WorkItem item, CustomerState customer) {
+                this.item = item;
+                this.customer = customer;
+            }
+
+            @Override
+            public long velocity(VelocityDimension dimension, Transaction transaction,
+                    Duration window) {
+                return dimension == VelocityDimension.CUSTOMER
+                        ? customer.velocity[windows.customerSlot(window)].count(item.bucket())
+                        : item.merchantInputs()[2 * windows.merchantSlot(window)];
+            }
+
+            @Override
+            public double merchantRejectionRate(Transaction transaction, Duration window) {
+                int slot = windows.merchantSlot(window);
+                return RuleScoring.rejectionRatio(item.merchantInputs()[2 * slot + 1],
+                        item.merchantInputs()[2 * slot]) / 100.0;
+            }
+
+            @Override
+            public long customerTransactionCount(Transaction transaction) {
+                return customer.aggregate.snapshot().transactionCount();
+            }
+
+            @Override
+            public double customerAverageAmount(Transaction transaction) {
+                CustomerAggregate.Snapshot history = customer.aggregate.snapshot();
+                return history.transactionCount() == 0 ? 0.0
+                        : history.totalAmount().doubleValue() / history.transactionCount();
+            }
+        }
+    }
+
+    private final class CustomerState {
+        private final RollingCount[] velocity;
+        private final CustomerAggregate aggregate;
+
+        CustomerState(Windows windows, BacktestRow first) {
+            this.velocity = new RollingCount[windows.customerWindows.size()];
+            for (int i = 0; i < velocity.length; i++) {
+                velocity[i] = new RollingCount(windowBuckets(windows.customerWindows.get(i)));
+            }
+            this.aggregate =
+                    new CustomerAggregate(0, BigDecimal.ZERO, decayHalfLife, first.timestamp());
+        }
+
+        void record(BacktestRow row, long bucket) {
+            for (RollingCount window : velocity) {
+                window.add(bucket);
+            }
+            aggregate.add(row.amount(), row.timestamp());
+        }
+    }
+}
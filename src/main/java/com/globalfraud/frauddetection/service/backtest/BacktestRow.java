@@ -0,0 +1,56 @@
+package com.globalfraud.frauddetection.service.backtest;
+
+import com.globalfraud.frauddetection.domain.Transaction;
+import com.globalfraud.frauddetection.domain.TransactionStatus;
+import com.globalfraud.frauddetection.service.keyword.KeywordField;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+/**
+ * One historical transaction replayed by a backtest. The currency, address, card and merchant
+ * text fields are null when the source does not have them.
+ *
+ * @param storedStatus the decision recorded when the transaction was originally scored
+ * @param scored whether the row is scored and reported, or only used to warm up windowed state
+ */
+public record BacktestRow(UUID id, String customerId, String merchantId, BigDecimal amount,
+        String currency, ZonedDateTime timestamp, String addressLine, String city, String state,
+        String zipCode, String areaCode, String cardFingerprint, String merchantName,
+        String merchantDescriptor, TransactionStatus storedStatus, boolean scored) {
+
+    /**
+     * The text a keyword rule screens in {@code field}.
+     */
+    public String text(KeywordField field) {
+        return switch (field) {
+            case ADDRESS_LINE -> addressLine;
+            case MERCHANT_NAME -> merchantName;
+            case MERCHANT_DESCRIPTOR -> merchantDescriptor;
+        };
+    }
+
+    /**
+     * The row as a transaction with its stored status, for expression rules.
+     */
+    public Transaction toTransaction() {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setCustomerId(customerId);
+        transaction.setMerchantId(merchantId);
+        transaction.setAmount(amount);
+        transaction.setCurrency(currency);
+        transaction.setTransactionTimestamp(timestamp);
+        transaction.setAddressLine(addressLine);
+        transaction.setCity(city);
+        transaction.setState(state);
+        transaction.setZipCode(zipCode);
+        transaction.setAreaCode(areaCode);
+        transaction.setCardFingerprint(cardFingerprint);
+        transaction.setMerchantName(merchantName);
+        transaction.setMerchantDescriptor(merchantDescriptor);
+        transaction.setStatus(storedStatus);
+        return transaction;
+    }
+}
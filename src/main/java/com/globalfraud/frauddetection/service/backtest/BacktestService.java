@@ -0,0 +1,110 @@
+package com.globalfraud.frauddetection.service.backtest;
+
+import com.globalfraud.frauddetection.config.FraudDetectionProperties;
+import com.globalfraud.frauddetection.domain.FraudRule;
+import com.globalfraud.frauddetection.dto.BacktestReport;
+import com.globalfraud.frauddetection.dto.BacktestRequest;
+import com.globalfraud.frauddetection.exception.InvalidBacktestException;
+import com.globalfraud.frauddetection.repository.FraudRuleRepository;
+import com.globalfraud.frauddetection.service.partition.TransactionArchive;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Runs backtests of stored rules, active or not, against the {@code transactions} table, together
+ * with the {@link TransactionArchive} for months no longer in it, or an exported CSV file.
+ */
+@Service
+@RequiredArgsConstructor
+public class BacktestService {
+    private final FraudRuleRepository fraudRuleRepository;
+    private final BacktestEngine backtestEngine;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final TransactionArchive transactionArchive;
+    private final FraudDetectionProperties properties;
+
+    /**
+     * Replays the stored transactions in {@code [from, to)}. Transactions in the configured
+     * warm-up period before {@code from} are replayed to build windowed state but not scored.
+     * Archived months are read from their archive files, and the table only after the last of
+     * them, so a month archived but not yet dropped is replayed once.
+     *
+     * @throws InvalidBacktestException if the period is empty or a rule does not exist or cannot
+     *         be backtested
+     */
+    public BacktestReport run(BacktestRequest request) {
+        if (!request.getFrom().isBefore(request.getTo())) {
+            throw new InvalidBacktestException("'from' must be before 'to'");
+        }
+        List<FraudRule> rules = loadRules(request.getRuleIds());
+        FraudDetectionProperties.Backtest settings = properties.getBacktest();
+        return backtestEngine.run(rules, storedTransactions(
+                request.getFrom().minus(settings.getWarmup()), request.getFrom(), request.getTo(),
+                settings.getFetchSize()));
+    }
+
+    /**
+     * Replays an exported CSV file; see {@link CsvBacktestSource} for the expected format.
+     *
+     * @throws InvalidBacktestException if the file is malformed or a rule does not exist or
+     *         cannot be backtested
+     */
+    public BacktestReport run(List<UUID> ruleIds, InputStream csv) {
+        List<FraudRule> rules = loadRules(ruleIds);
+        BufferedReader reader =
+                new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+        return backtestEngine.run(rules, new CsvBacktestSource(reader));
+    }
+
+    private BacktestSource storedTransactions(ZonedDateTime warmupStart, ZonedDateTime from,
+            ZonedDateTime to, int fetchSize) {
+        ZoneId zone = ZoneId.systemDefault();
+        List<BacktestSource> sources = new ArrayList<>();
+        ZonedDateTime tableStart = warmupStart;
+        for (YearMonth month : transactionArchive.months()) {
+            ZonedDateTime monthStart = month.atDay(1).atStartOfDay(zone);
+            ZonedDateTime monthEnd = month.plusMonths(1).atDay(1).atStartOfDay(zone);
+            if (monthEnd.isAfter(warmupStart) && monthStart.isBefore(to)) {
+                sources.add(transactionArchive.source(month, warmupStart, from, to));
+            }
+            if (monthEnd.isAfter(tableStart)) {
+                tableStart = monthEnd;
+            }
+        }
+        if (tableStart.isBefore(to)) {
+            sources.add(new JdbcBacktestSource(jdbcTemplate, transactionManager, tableStart, from,
+                    to, fetchSize));
+        }
+        return sink -> sources.forEach(source -> source.forEachRow(sink));
+    }
+
+    private List<FraudRule> loadRules(List<UUID> ruleIds) {
+        if (ruleIds == null || ruleIds.isEmpty()) {
+            throw new InvalidBacktestException("At least one rule ID is required");
+        }
+        Set<UUID> requested = new LinkedHashSet<>(ruleIds);
+        List<FraudRule> rules = fraudRuleRepository.findAllById(requested);
+        if (rules.size() != requested.size()) {
+            rules.forEach(rule -> requested.remove(rule.getId()));
+            throw new InvalidBacktestException("Unknown rule IDs: " + requested);
+        }
+        return rules.stream().sorted(Comparator.comparingInt(FraudRule::getPriority)).toList();
+    }
+}
@@ -0,0 +1,15 @@
+package com.globalfraud.frauddetection.service.backtest;
+
+import java.util.function.Consumer;
+
+/**
+ * Supplies historical transactions to a backtest, in timestamp order.
+ */
+public interface BacktestSource {
+
+    /**
+     * Streams every row to {@code sink} on the calling thread. Rows should be ordered by
+     * timestamp; out-of-order rows are replayed as they arrive, as the live engine would.
+     */
+    void forEachRow(Consumer<BacktestRow> sink);
+}
@@ -0,0 +1,184 @@
+package com.globalfraud.frauddetection.service.backtest;
+
+import com.globalfraud.frauddetection.domain.TransactionStatus;
+import com.globalfraud.frauddetection.exception.InvalidBacktestException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Reads an exported {@code transactions} table in CSV form. The first line is a header naming at
+ * least the columns {@code id, customer_id, merchant_id, amount, transaction_timestamp, status}
+ * in any order; timestamps are ISO-8601 with an offset. The columns {@code address_line, city,
+ * state, zip_code, area_code, card_fingerprint, merchant_name, merchant_descriptor, currency} are
+ * read when present, and empty values are null. Values containing commas, quotes or line breaks are
+ * enclosed in double quotes, with quotes doubled. Unless a period is given every row is scored.
+ */
+public class CsvBacktestSource implements BacktestSource {
+    private static final List<String> REQUIRED_COLUMNS = List.of("id", "customer_id",
+            "merchant_id", "amount", "transaction_timestamp", "status");
+    private static final List<String> OPTIONAL_COLUMNS = List.of("address_line", "city",
+            "state", "zip_code", "area_code", "card_fingerprint", "merchant_name",
+            "merchant_descriptor", "currency");
+
+    private final BufferedReader reader;
+    private final ZonedDateTime warmupStart;
+    private final ZonedDateTime from;
+    private final ZonedDateTime to;
+
+    public CsvBacktestSource(BufferedReader reader) {
+        this(reader, null, null, null);
+    }
+
+    /**
+     * Reads only the rows in {@code [warmupStart, to)}, scoring those from {@code from} on.
+     */
+    public CsvBacktestSource(BufferedReader reader, ZonedDateTime warmupStart, ZonedDateTime from,
+            ZonedDateTime to) {
+        this.reader = reader;
+        this.warmupStart = warmupStart;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public void forEachRow(Consumer<BacktestRow> sink) {
+        try {
+            String header = reader.readLine();
+            if (header == null) {
+                return;
+            }
+            int[] columns = columnIndexes(header);
+
+            String line;
+            long lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                long rowLine = lineNumber;
+                List<String> values = split(line);
+                while (values == null) {
+                    String next = reader.readLine();
+                    if (next == null) {
+                        throw new InvalidBacktestException(
+                                "Unterminated quoted value in CSV row at line " + rowLine);
+                    }
+                    lineNumber++;
+                    line = line + "\n" + next;
+                    values = split(line);
+                }
+                if (!line.isBlank()) {
+                    BacktestRow row = parse(values, columns, rowLine);
+                    if (inPeriod(row.timestamp())) {
+                        sink.accept(row);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read backtest input", e);
+        }
+    }
+
+    private static int[] columnIndexes(String header) {
+        List<String> values = split(header);
+        if (values == null) {
+            throw new InvalidBacktestException("CSV header has an unterminated quoted value");
+        }
+        List<String> names = values.stream().map(name -> name.trim().toLowerCase()).toList();
+        int required = REQUIRED_COLUMNS.size();
+        int[] columns = new int[required + OPTIONAL_COLUMNS.size()];
+        for (int i = 0; i < required; i++) {
+            columns[i] = names.indexOf(REQUIRED_COLUMNS.get(i));
+            if (columns[i] < 0) {
+                throw new InvalidBacktestException(
+                        "CSV header is missing column '" + REQUIRED_COLUMNS.get(i) + "'");
+            }
+        }
+        for (int i = 0; i < OPTIONAL_COLUMNS.size(); i++) {
+            columns[required + i] = names.indexOf(OPTIONAL_COLUMNS.get(i));
+        }
+        return columns;
+    }
+
+    private BacktestRow parse(List<String> values, int[] columns, long lineNumber) {
+        try {
+            ZonedDateTime timestamp = ZonedDateTime.parse(value(values, columns[4]));
+            return new BacktestRow(UUID.fromString(value(values, columns[0])),
+                    value(values, columns[1]), value(values, columns[2]),
+                    new BigDecimal(value(values, columns[3])), optional(values, columns[14]),
+                    timestamp,
+                    optional(values, columns[6]), optional(values, columns[7]),
+                    optional(values, columns[8]), optional(values, columns[9]),
+                    optional(values, columns[10]), optional(values, columns[11]),
+                    optional(values, columns[12]), optional(values, columns[13]),
+                    TransactionStatus.valueOf(value(values, columns[5])),
+                    from == null || !timestamp.isBefore(from));
+        } catch (IllegalArgumentException | DateTimeParseException
+                | IndexOutOfBoundsException e) {
+            throw new InvalidBacktestException(
+                    "Invalid CSV row at line " + lineNumber + ": " + e.getMessage(), e);
+        }
+    }
+
+    private boolean inPeriod(ZonedDateTime timestamp) {
+        return (warmupStart == null || !timestamp.isBefore(warmupStart))
+                && (to == null || timestamp.isBefore(to));
+    }
+
+    private static String value(List<String> values, int column) {
+        return values.get(column).trim();
+    }
+
+    /**
+     * The value of an optional column, or null if the column is absent or the value empty.
+     */
+    private static String optional(List<String> values, int column) {
+        if (column < 0) {
+            return null;
+        }
+        String value = value(values, column);
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Splits one CSV record into its values, or returns null if it ends inside a quoted value
+     * and so continues on the next line.
+     */
+    static List<String> split(String record) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    value.append(c);
+                } else if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
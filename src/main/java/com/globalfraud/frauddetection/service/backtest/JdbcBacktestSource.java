@@ -0,0 +1,75 @@
+package com.globalfraud.frauddetection.service.backtest;
+
+import com.globalfraud.frauddetection.domain.TransactionStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Streams rows of the {@code transactions} table in timestamp order with a forward-only cursor.
+ * Rows between {@code warmupStart} and {@code from} only warm up windowed state; rows between
+ * {@code from} and {@code to} are scored. The query runs in a read-only transaction so that
+ * drivers such as PostgreSQL honour the fetch size instead of materialising the whole result.
+ */
+public class JdbcBacktestSource implements BacktestSource {
+    private static final String SQL = "SELECT id, customer_id, merchant_id, amount, currency, "
+            + "transaction_timestamp, address_line, city, state, zip_code, area_code, "
+            + "card_fingerprint, merchant_name, merchant_descriptor, status FROM transactions "
+            + "WHERE transaction_timestamp >= ? AND transaction_timestamp < ? "
+            + "ORDER BY transaction_timestamp";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ZonedDateTime warmupStart;
+    private final ZonedDateTime from;
+    private final ZonedDateTime to;
+    private final int fetchSize;
+
+    public JdbcBacktestSource(JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager, ZonedDateTime warmupStart,
+            ZonedDateTime from, ZonedDateTime to, int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.warmupStart = warmupStart;
+        this.from = from;
+        this.to = to;
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public void forEachRow(Consumer<BacktestRow> sink) {
+        ZoneId zone = ZoneId.systemDefault();
+        RowCallbackHandler handler = rs -> sink.accept(toRow(rs, zone));
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setTimestamp(1, Timestamp.from(warmupStart.toInstant()));
+            statement.setTimestamp(2, Timestamp.from(to.toInstant()));
+            return statement;
+        }, handler));
+    }
+
+    private BacktestRow toRow(ResultSet rs, ZoneId zone) throws SQLException {
+        ZonedDateTime timestamp = rs.getTimestamp("transaction_timestamp").toInstant().atZone(zone);
+        return new BacktestRow(rs.getObject("id", UUID.class), rs.getString("customer_id"),
+                rs.getString("merchant_id"), rs.getBigDecimal("amount"),
+                rs.getString("currency"), timestamp,
+                rs.getString("address_line"), rs.getString("city"), rs.getString("state"),
+                rs.getString("zip_code"), rs.getString("area_code"),
+                rs.getString("card_fingerprint"), rs.getString("merchant_name"),
+                rs.getString("merchant_descriptor"),
+                TransactionStatus.valueOf(rs.getString("status")), !timestamp.isBefore(from));
+    }
+}
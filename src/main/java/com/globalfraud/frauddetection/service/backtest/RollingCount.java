@@ -0,0 +1,74 @@
+package com.globalfraud.frauddetection.service.backtest;
+
+/**
+ * Event count over a trailing window of buckets, for events that arrive in (mostly) increasing
+ * time order. Buckets leaving the window are evicted as time advances, so adding and counting are
+ * amortised O(1). An event older than the newest bucket is counted in the newest bucket. Not
+ * thread-safe; each instance is owned by a single backtest thread.
+ */
+final class RollingCount {
+    private final long windowBuckets;
+    private long[] buckets = new long[4];
+    private int[] counts = new int[4];
+    private int head;
+    private int size;
+    private long total;
+
+    /**
+     * @param windowBuckets number of buckets before the current one that are still counted
+     */
+    RollingCount(long windowBuckets) {
+        this.windowBuckets = windowBuckets;
+    }
+
+    /**
+     * Returns the number of events in buckets {@code asOfBucket - windowBuckets} onwards.
+     */
+    long count(long asOfBucket) {
+        evictBefore(asOfBucket - windowBuckets);
+        return total;
+    }
+
+    void add(long bucket) {
+        evictBefore(bucket - windowBuckets);
+        total++;
+        if (size > 0) {
+            int newest = slot(size - 1);
+            if (buckets[newest] >= bucket) {
+                counts[newest]++;
+                return;
+            }
+        }
+        if (size == buckets.length) {
+            grow();
+        }
+        int slot = slot(size);
+        buckets[slot] = bucket;
+        counts[slot] = 1;
+        size++;
+    }
+
+    private void evictBefore(long fromBucket) {
+        while (size > 0 && buckets[head] < fromBucket) {
+            total -= counts[head];
+            head = (head + 1) % buckets.length;
+            size--;
+        }
+    }
+
+    private void grow() {
+        long[] grownBuckets = new long[buckets.length * 2];
+        int[] grownCounts = new int[counts.length * 2];
+        for (int i = 0; i < size; i++) {
+            grownBuckets[i] = buckets[slot(i)];
+            grownCounts[i] = counts[slot(i)];
+        }
+        buckets = grownBuckets;
+        counts = grownCounts;
+        head = 0;
+    }
+
+    private int slot(int offset) {
+        return (head + offset) % buckets.length;
+    }
+}
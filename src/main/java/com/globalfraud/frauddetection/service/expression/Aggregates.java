@@ -0,0 +1,29 @@
+package com.globalfraud.frauddetection.service.expression;
+
+import com.globalfraud.frauddetection.domain.Transaction;
+import com.globalfraud.frauddetection.service.velocity.VelocityDimension;
+
+import java.time.Duration;
+
+/**
+ * The windowed aggregates an expression can read, as of a transaction's timestamp.
+ */
+public interface Aggregates {
+
+    /**
+     * Number of transactions of the transaction's customer or merchant in the window.
+     */
+    long velocity(VelocityDimension dimension, Transaction transaction, Duration window);
+
+    /**
+     * Rejected share of the merchant's transactions in the window, from 0 to 1.
+     */
+    double merchantRejectionRate(Transaction transaction, Duration window);
+
+    long customerTransactionCount(Transaction transaction);
+
+    /**
+     * Mean amount of the customer's earlier transactions, or 0 if there are none.
+     */
+    double customerAverageAmount(Transaction transaction);
+}
@@ -0,0 +1,55 @@
+package com.globalfraud.frauddetection.service.expression;
+
+import com.globalfraud.frauddetection.domain.Transaction;
+import com.globalfraud.frauddetection.service.velocity.VelocityDimension;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A rule expression compiled by {@link ExpressionCompiler} into a tree of closures. Immutable and
+ * safe to share across threads.
+ */
+public final class CompiledExpression {
+    private final String source;
+    private final ExpressionCompiler.Condition condition;
+    private final boolean usesAggregates;
+    private final Map<VelocityDimension, Set<Duration>> windows;
+
+    CompiledExpression(String source, ExpressionCompiler.Condition condition,
+            boolean usesAggregates, Map<VelocityDimension, Set<Duration>> windows) {
+        this.source = source;
+        this.condition = condition;
+        this.usesAggregates = usesAggregates;
+        this.windows = windows;
+    }
+
+    public boolean test(Transaction transaction, Aggregates aggregates) {
+        return condition.test(transaction, aggregates);
+    }
+
+    /**
+     * Whether evaluation may read {@link Aggregates}, which can need I/O.
+     */
+    public boolean usesAggregates() {
+        return usesAggregates;
+    }
+
+    /**
+     * The windows of the {@code velocity} and {@code merchantRejectionRate} aggregates the
+     * expression reads, by the dimension they are counted for; a dimension with none is absent.
+     */
+    public Map<VelocityDimension, Set<Duration>> windows() {
+        return windows;
+    }
+
+    public String source() {
+        return source;
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
@@ -0,0 +1,546 @@
+package com.globalfraud.frauddetection.service.expression;
+
+import com.globalfraud.frauddetection.domain.Transaction;
+import com.globalfraud.frauddetection.service.velocity.VelocityDimension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Parses, type-checks and compiles rule expressions such as
+ * {@code amount > 5000 && velocity(customer, 10m) > 3}.
+ *
+ * <p>
+ * The language has numbers, text and conditions; transaction fields ({@code amount}, {@code hour},
+ * {@code currency}, {@code merchantId} and the other text fields); the aggregates
+ * {@code velocity(customer|merchant, window)}, {@code merchantRejectionRate(window)},
+ * {@code customerTransactionCount()} and {@code customerAverageAmount()}, with windows written as
+ * {@code 30s}, {@code 10m}, {@code 24h} or {@code 7d}; arithmetic, comparisons, {@code in (...)}
+ * over text, {@code !}, {@code &&} and {@code ||}. It has no assignment, loops or calls outside
+ * this list, so an expression always terminates and cannot reach anything else.
+ *
+ * <p>
+ * Each node compiles to a closure over its compiled children, so evaluation does no parsing or
+ * type dispatch. Numbers are {@code double}s. {@code &&} and {@code ||} evaluate an operand that
+ * reads no aggregates first, since the other may need I/O.
+ */
+public final class ExpressionCompiler {
+    private static final int MAX_LENGTH = 2_000;
+    private static final int MAX_DEPTH = 32;
+
+    private static final Map<String, Node> FIELDS = Map.ofEntries(
+            Map.entry("amount", number((t, a) -> t.getAmount().doubleValue())),
+            Map.entry("hour", number((t, a) -> t.getTransactionTimestamp().getHour())),
+            text("currency", Transaction::getCurrency),
+            text("customerId", Transaction::getCustomerId),
+            text("merchantId", Transaction::getMerchantId),
+            text("addressLine", Transaction::getAddressLine),
+            text("city", Transaction::getCity),
+            text("state", Transaction::getState),
+            text("zipCode", Transaction::getZipCode),
+            text("areaCode", Transaction::getAreaCode),
+            text("merchantName", Transaction::getMerchantName),
+            text("merchantDescriptor", Transaction::getMerchantDescriptor));
+
+    private final List<Token> tokens;
+    private final Map<VelocityDimension, Set<Duration>> windows =
+            new EnumMap<>(VelocityDimension.class);
+    private int position;
+    private int depth;
+
+    private ExpressionCompiler(String source) {
+        this.tokens = tokenize(source);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the expression is malformed, is not a condition, or
+     *         uses an unknown name or a value of the wrong type; the message gives the position
+     */
+    public static CompiledExpression compile(String source) {
+        if (source == null || source.isBlank()) {
+            throw new IllegalArgumentException("Expression is empty");
+        }
+        if (source.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException(
+                    "Expression is longer than " + MAX_LENGTH + " characters");
+        }
+        ExpressionCompiler compiler = new ExpressionCompiler(source);
+        Node root = compiler.parseOr();
+        compiler.expect(Kind.END, "end of expression");
+        if (root.type() != Type.CONDITION) {
+            throw new IllegalArgumentException(
+                    "Expression must be a condition, not " + root.type().description);
+        }
+        compiler.windows.replaceAll((dimension, windows) -> Set.copyOf(windows));
+        return new CompiledExpression(source, (Condition) root.code(), root.aggregates(),
+                Map.copyOf(compiler.windows));
+    }
+
+    @FunctionalInterface
+    interface Condition {
+        boolean test(Transaction transaction, Aggregates aggregates);
+    }
+
+    @FunctionalInterface
+    interface NumberValue {
+        double get(Transaction transaction, Aggregates aggregates);
+    }
+
+    @FunctionalInterface
+    interface TextValue {
+        String get(Transaction transaction, Aggregates aggregates);
+    }
+
+    private enum Type {
+        CONDITION("a condition"), NUMBER("a number"), TEXT("text"), WINDOW("a window"),
+        DIMENSION("customer or merchant");
+
+        private final String description;
+
+        Type(String description) {
+            this.description = description;
+        }
+    }
+
+    /**
+     * A type-checked subexpression: its type, its compiled form ({@link Condition},
+     * {@link NumberValue}, {@link TextValue}, {@link Duration} or {@link VelocityDimension}), and
+     * whether it reads aggregates.
+     */
+    private record Node(Type type, Object code, boolean aggregates) {
+        Condition condition() {
+            return (Condition) code;
+        }
+
+        NumberValue number() {
+            return (NumberValue) code;
+        }
+
+        TextValue text() {
+            return (TextValue) code;
+        }
+    }
+
+    private Node parseOr() {
+        Node left = parseAnd();
+        while (accept("||")) {
+            Node right = parseAnd();
+            require(left, Type.CONDITION, "||");
+            require(right, Type.CONDITION, "||");
+            Condition first = (left.aggregates() ? right : left).condition();
+            Condition second = (left.aggregates() ? left : right).condition();
+            left = new Node(Type.CONDITION,
+                    (Condition) (t, a) -> first.test(t, a) || second.test(t, a),
+                    left.aggregates() || right.aggregates());
+        }
+        return left;
+    }
+
+    private Node parseAnd() {
+        Node left = parseNot();
+        while (accept("&&")) {
+            Node right = parseNot();
+            require(left, Type.CONDITION, "&&");
+            require(right, Type.CONDITION, "&&");
+            Condition first = (left.aggregates() ? right : left).condition();
+            Condition second = (left.aggregates() ? left : right).condition();
+            left = new Node(Type.CONDITION,
+                    (Condition) (t, a) -> first.test(t, a) && second.test(t, a),
+                    left.aggregates() || right.aggregates());
+        }
+        return left;
+    }
+
+    private Node parseNot() {
+        if (accept("!")) {
+            enter();
+            Node operand = parseNot();
+            depth--;
+            require(operand, Type.CONDITION, "!");
+            Condition condition = operand.condition();
+            return new Node(Type.CONDITION, (Condition) (t, a) -> !condition.test(t, a),
+                    operand.aggregates());
+        }
+        return parseComparison();
+    }
+
+    private Node parseComparison() {
+        Node left = parseAdditive();
+        Token operator = peek();
+        if (operator.kind() == Kind.IDENTIFIER && operator.text().equals("in")) {
+            position++;
+            return parseIn(left, operator);
+        }
+        if (operator.kind() != Kind.OPERATOR || !isComparison(operator.text())) {
+            return left;
+        }
+        position++;
+        Node right = parseAdditive();
+        boolean aggregates = left.aggregates() || right.aggregates();
+        String op = operator.text();
+        if (left.type() == Type.NUMBER && right.type() == Type.NUMBER) {
+            NumberValue l = left.number();
+            NumberValue r = right.number();
+            Condition condition = switch (op) {
+                case "<" -> (t, a) -> l.get(t, a) < r.get(t, a);
+                case "<=" -> (t, a) -> l.get(t, a) <= r.get(t, a);
+                case ">" -> (t, a) -> l.get(t, a) > r.get(t, a);
+                case ">=" -> (t, a) -> l.get(t, a) >= r.get(t, a);
+                case "==" -> (t, a) -> l.get(t, a) == r.get(t, a);
+                default -> (t, a) -> l.get(t, a) != r.get(t, a);
+            };
+            return new Node(Type.CONDITION, condition, aggregates);
+        }
+        if (left.type() == right.type() && (op.equals("==") || op.equals("!="))
+                && (left.type() == Type.TEXT || left.type() == Type.CONDITION)) {
+            Condition equal;
+            if (left.type() == Type.TEXT) {
+                TextValue l = left.text();
+                TextValue r = right.text();
+                equal = (t, a) -> Objects.equals(l.get(t, a), r.get(t, a));
+            } else {
+                Condition l = left.condition();
+                Condition r = right.condition();
+                equal = (t, a) -> l.test(t, a) == r.test(t, a);
+            }
+            return new Node(Type.CONDITION,
+                    op.equals("==") ? equal : (Condition) (t, a) -> !equal.test(t, a), aggregates);
+        }
+        throw error(operator, String.format("Cannot compare %s with %s using '%s'",
+                left.type().description, right.type().description, op));
+    }
+
+    private Node parseIn(Node left, Token operator) {
+        require(left, Type.TEXT, "in");
+        expect(Kind.OPERATOR, "(");
+        Set<String> values = new HashSet<>();
+        do {
+            values.add(expect(Kind.STRING, "a quoted text").text());
+        } while (accept(","));
+        expect(Kind.OPERATOR, ")");
+        Set<String> members = Set.copyOf(values);
+        TextValue value = left.text();
+        return new Node(Type.CONDITION, (Condition) (t, a) -> {
+            String text = value.get(t, a);
+            return text != null && members.contains(text);
+        }, left.aggregates());
+    }
+
+    private Node parseAdditive() {
+        Node left = parseMultiplicative();
+        while (peek().kind() == Kind.OPERATOR
+                && (peek().text().equals("+") || peek().text().equals("-"))) {
+            String op = tokens.get(position++).text();
+            left = arithmetic(left, op, parseMultiplicative());
+        }
+        return left;
+    }
+
+    private Node parseMultiplicative() {
+        Node left = parseUnary();
+        while (peek().kind() == Kind.OPERATOR
+                && (peek().text().equals("*") || peek().text().equals("/"))) {
+            String op = tokens.get(position++).text();
+            left = arithmetic(left, op, parseUnary());
+        }
+        return left;
+    }
+
+    private Node arithmetic(Node left, String op, Node right) {
+        require(left, Type.NUMBER, op);
+        require(right, Type.NUMBER, op);
+        NumberValue l = left.number();
+        NumberValue r = right.number();
+        NumberValue result = switch (op) {
+            case "+" -> (t, a) -> l.get(t, a) + r.get(t, a);
+            case "-" -> (t, a) -> l.get(t, a) - r.get(t, a);
+            case "*" -> (t, a) -> l.get(t, a) * r.get(t, a);
+            default -> (t, a) -> l.get(t, a) / r.get(t, a);
+        };
+        return new Node(Type.NUMBER, result, left.aggregates() || right.aggregates());
+    }
+
+    private Node parseUnary() {
+        if (accept("-")) {
+            enter();
+            Node operand = parseUnary();
+            depth--;
+            require(operand, Type.NUMBER, "-");
+            NumberValue value = operand.number();
+            return new Node(Type.NUMBER, (NumberValue) (t, a) -> -value.get(t, a),
+                    operand.aggregates());
+        }
+        return parsePrimary();
+    }
+
+    private Node parsePrimary() {
+        Token token = tokens.get(position++);
+        switch (token.kind()) {
+            case NUMBER -> {
+                double value = token.number();
+                return new Node(Type.NUMBER, (NumberValue) (t, a) -> value, false);
+            }
+            case WINDOW -> {
+                return new Node(Type.WINDOW, token.window(), false);
+            }
+            case STRING -> {
+                String value = token.text();
+                return new Node(Type.TEXT, (TextValue) (t, a) -> value, false);
+            }
+            case IDENTIFIER -> {
+                return identifier(token);
+            }
+            case OPERATOR -> {
+                if (token.text().equals("(")) {
+                    enter();
+                    Node inner = parseOr();
+                    depth--;
+                    expect(Kind.OPERATOR, ")");
+                    return inner;
+                }
+            }
+            default -> {
+            }
+        }
+        throw error(token, "Expected a value but found " + token.describe());
+    }
+
+    private Node identifier(Token token) {
+        String name = token.text();
+        if (accept("(")) {
+            List<Node> arguments = new ArrayList<>();
+            if (!accept(")")) {
+                enter();
+                do {
+                    arguments.add(parseOr());
+                } while (accept(","));
+                depth--;
+                expect(Kind.OPERATOR, ")");
+            }
+            return function(token, arguments);
+        }
+        switch (name) {
+            case "true", "false" -> {
+                boolean value = name.equals("true");
+                return new Node(Type.CONDITION, (Condition) (t, a) -> value, false);
+            }
+            case "customer" -> {
+                return new Node(Type.DIMENSION, VelocityDimension.CUSTOMER, false);
+            }
+            case "merchant" -> {
+                return new Node(Type.DIMENSION, VelocityDimension.MERCHANT, false);
+            }
+            default -> {
+                Node field = FIELDS.get(name);
+                if (field == null) {
+                    throw error(token, "Unknown field '" + name + "'");
+                }
+                return field;
+            }
+        }
+    }
+
+    private Node function(Token token, List<Node> arguments) {
+        return switch (token.text()) {
+            case "velocity" -> {
+                arguments(token, arguments, Type.DIMENSION, Type.WINDOW);
+                VelocityDimension dimension = (VelocityDimension) arguments.get(0).code();
+                Duration window = (Duration) arguments.get(1).code();
+                windows.computeIfAbsent(dimension, d -> new HashSet<>()).add(window);
+                yield new Node(Type.NUMBER,
+                        (NumberValue) (t, a) -> a.velocity(dimension, t, window), true);
+            }
+            case "merchantRejectionRate" -> {
+                arguments(token, arguments, Type.WINDOW);
+                Duration window = (Duration) arguments.get(0).code();
+                windows.computeIfAbsent(VelocityDimension.MERCHANT, d -> new HashSet<>())
+                        .add(window);
+                yield new Node(Type.NUMBER,
+                        (NumberValue) (t, a) -> a.merchantRejectionRate(t, window), true);
+            }
+            case "customerTransactionCount" -> {
+                arguments(token, arguments);
+                yield new Node(Type.NUMBER,
+                        (NumberValue) (t, a) -> a.customerTransactionCount(t), true);
+            }
+            case "customerAverageAmount" -> {
+                arguments(token, arguments);
+                yield new Node(Type.NUMBER,
+                        (NumberValue) (t, a) -> a.customerAverageAmount(t), true);
+            }
+            default -> throw error(token, "Unknown function '" + token.text() + "'");
+        };
+    }
+
+    private void arguments(Token function, List<Node> arguments, Type... expected) {
+        if (arguments.size() != expected.length) {
+            throw error(function, String.format("%s() takes %d argument(s), not %d",
+                    function.text(), expected.length, arguments.size()));
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (arguments.get(i).type() != expected[i]) {
+                throw error(function, String.format("Argument %d of %s() must be %s, not %s",
+                        i + 1, function.text(), expected[i].description,
+                        arguments.get(i).type().description));
+            }
+        }
+    }
+
+    private void require(Node node, Type type, String operator) {
+        if (node.type() != type) {
+            throw error(tokens.get(position - 1), String.format("'%s' needs %s, not %s", operator,
+                    type.description, node.type().description));
+        }
+    }
+
+    private void enter() {
+        if (++depth > MAX_DEPTH) {
+            throw error(peek(), "Expression is nested too deeply");
+        }
+    }
+
+    private Token peek() {
+        return tokens.get(position);
+    }
+
+    private boolean accept(String operator) {
+        Token token = peek();
+        if (token.kind() == Kind.OPERATOR && token.text().equals(operator)) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private Token expect(Kind kind, String what) {
+        Token token = peek();
+        boolean operatorMatches = kind != Kind.OPERATOR || token.text().equals(what);
+        if (token.kind() != kind || !operatorMatches) {
+            throw error(token, "Expected " + (kind == Kind.OPERATOR ? "'" + what + "'" : what)
+                    + " but found " + token.describe());
+        }
+        position++;
+        return token;
+    }
+
+    private IllegalArgumentException error(Token token, String message) {
+        return new IllegalArgumentException(message + " at position " + (token.offset() + 1));
+    }
+
+    private static boolean isComparison(String operator) {
+        return switch (operator) {
+            case "<", "<=", ">", ">=", "==", "!=" -> true;
+            default -> false;
+        };
+    }
+
+    private static Node number(NumberValue value) {
+        return new Node(Type.NUMBER, value, false);
+    }
+
+    private static Map.Entry<String, Node> text(String name,
+            Function<Transaction, String> getter) {
+        return Map.entry(name, new Node(Type.TEXT, (TextValue) (t, a) -> getter.apply(t), false));
+    }
+
+    private enum Kind {
+        NUMBER, WINDOW, STRING, IDENTIFIER, OPERATOR, END
+    }
+
+    private record Token(Kind kind, String text, double number, Duration window, int offset) {
+        String describe() {
+            return kind == Kind.END ? "the end" : "'" + text + "'";
+        }
+    }
+
+    private static List<Token> tokenize(String source) {
+        List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            int start = i;
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (Character.isDigit(c) || (c == '.' && i + 1 < source.length()
+                    && Character.isDigit(source.charAt(i + 1)))) {
+                while (i < source.length()
+                        && (Character.isDigit(source.charAt(i)) || source.charAt(i) == '.')) {
+                    i++;
+                }
+                String digits = source.substring(start, i);
+                double value;
+                try {
+                    value = Double.parseDouble(digits);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException(
+                            "Malformed number '" + digits + "' at position " + (start + 1));
+                }
+                int end = i;
+                while (end < source.length() && Character.isLetter(source.charAt(end))) {
+                    end++;
+                }
+                if (end > i) {
+                    String unit = source.substring(i, end);
+                    tokens.add(new Token(Kind.WINDOW, source.substring(start, end), value,
+                            window(value, unit, start), start));
+                    i = end;
+                } else {
+                    tokens.add(new Token(Kind.NUMBER, digits, value, null, start));
+                }
+            } else if (Character.isLetter(c) || c == '_') {
+                while (i < source.length() && (Character.isLetterOrDigit(source.charAt(i))
+                        || source.charAt(i) == '_')) {
+                    i++;
+                }
+                tokens.add(new Token(Kind.IDENTIFIER, source.substring(start, i), 0, null, start));
+            } else if (c == '\'' || c == '"') {
+                int close = source.indexOf(c, i + 1);
+                if (close < 0) {
+                    throw new IllegalArgumentException(
+                            "Unterminated text at position " + (start + 1));
+                }
+                tokens.add(new Token(Kind.STRING, source.substring(i + 1, close), 0, null, start));
+                i = close + 1;
+            } else {
+                String two = i + 1 < source.length() ? source.substring(i, i + 2) : "";
+                String operator = switch (two) {
+                    case "&&", "||", "<=", ">=", "==", "!=" -> two;
+                    default -> "<>!+-*/(),".indexOf(c) >= 0 ? String.valueOf(c) : null;
+                };
+                if (operator == null) {
+                    throw new IllegalArgumentException(
+                            "Unexpected character '" + c + "' at position " + (start + 1));
+                }
+                tokens.add(new Token(Kind.OPERATOR, operator, 0, null, start));
+                i += operator.length();
+            }
+        }
+        tokens.add(new Token(Kind.END, "", 0, null, source.length()));
+        return tokens;
+    }
+
+    private static Duration window(double value, String unit, int start) {
+        if (value != Math.rint(value) || value <= 0) {
+            throw new IllegalArgumentException(
+                    "Window must be a positive whole number at position " + (start + 1));
+        }
+        long amount = (long) value;
+        return switch (unit.toLowerCase(Locale.ROOT)) {
+            case "s" -> Duration.ofSeconds(amount);
+            case "m" -> Duration.ofMinutes(amount);
+            case "h" -> Duration.ofHours(amount);
+            case "d" -> Duration.ofDays(amount);
+            default -> throw new IllegalArgumentException(String.format(
+                    "Unknown window unit '%s' at position %d; use s, m, h or d", unit,
+                    start + 1));
+        };
+    }
+}
@@ -0,0 +1,98 @@
+package com.globalfraud.frauddetection.service.history;
+
+import com.globalfraud.frauddetection.service.FixedPoint;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+
+/**
+ * Running transaction aggregate for one customer: lifetime count and sum, plus a time-decayed
+ * mean that weights recent amounts more heavily. The sum is kept in {@link FixedPoint} amount
+ * units. Updates are O(1); all methods are synchronized.
+ */
+public final class CustomerAggregate {
+    private static final double UNITS_PER_AMOUNT = Math.pow(10, FixedPoint.AMOUNT_SCALE);
+
+    private final double decayMillis;
+
+    private long transactionCount;
+    private long totalAmountUnits;
+    private double decayedWeightedSum;
+    private double decayedWeight;
+    private long lastTimestampMillis;
+    private volatile long lastAccessMillis;
+
+    /**
+     * @param transactionCount number of transactions already persisted for the customer
+     * @param totalAmount sum of their amounts
+     * @param decayHalfLife half-life of the decayed mean
+     * @param seededAt instant the seed values were read
+     */
+    public CustomerAggregate(long transactionCount, BigDecimal totalAmount, Duration decayHalfLife,
+            ZonedDateTime seededAt) {
+        this.decayMillis = decayHalfLife.toMillis() / Math.log(2);
+        this.transactionCount = transactionCount;
+        this.totalAmountUnits = toUnits(totalAmount);
+        this.lastTimestampMillis = seededAt.toInstant().toEpochMilli();
+        if (transactionCount > 0) {
+            this.decayedWeight = 1.0;
+            this.decayedWeightedSum = totalAmount.doubleValue() / transactionCount;
+        }
+        touch();
+    }
+
+    /**
+     * Adds one persisted transaction to the aggregate. Amounts with more decimals than the
+     * database stores are rounded the way the column rounds them.
+     */
+    public synchronized void add(BigDecimal amount, ZonedDateTime timestamp) {
+        long amountUnits = toUnits(amount);
+        transactionCount++;
+        totalAmountUnits = Math.addExact(totalAmountUnits, amountUnits);
+
+        long timestampMillis = timestamp.toInstant().toEpochMilli();
+        double decay = timestampMillis > lastTimestampMillis
+                ? Math.exp(-(timestampMillis - lastTimestampMillis) / decayMillis)
+                : 1.0;
+        decayedWeightedSum = decayedWeightedSum * decay
+                + (double) amountUnits / UNITS_PER_AMOUNT;
+        decayedWeight = decayedWeight * decay + 1.0;
+        lastTimestampMillis = Math.max(lastTimestampMillis, timestampMillis);
+        touch();
+    }
+
+    public synchronized Snapshot snapshot() {
+        touch();
+        return new Snapshot(transactionCount, totalAmountUnits,
+                decayedWeight > 0 ? decayedWeightedSum / decayedWeight : 0.0);
+    }
+
+    long lastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    private void touch() {
+        lastAccessMillis = System.currentTimeMillis();
+    }
+
+    private static long toUnits(BigDecimal amount) {
+        long units = FixedPoint.toUnitsRounded(amount, FixedPoint.AMOUNT_SCALE);
+        if (units == FixedPoint.INEXACT) {
+            throw new ArithmeticException("Amount out of range: " + amount);
+        }
+        return units;
+    }
+
+    /**
+     * Point-in-time view of the aggregate.
+     *
+     * @param totalAmountUnits sum of the amounts in {@link FixedPoint} amount units
+     */
+    public record Snapshot(long transactionCount, long totalAmountUnits, double decayedMean) {
+
+        public BigDecimal totalAmount() {
+            return FixedPoint.toDecimal(totalAmountUnits, FixedPoint.AMOUNT_SCALE);
+        }
+    }
+}
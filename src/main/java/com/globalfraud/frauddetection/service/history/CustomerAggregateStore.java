@@ -0,0 +1,141 @@
+package com.globalfraud.frauddetection.service.history;
+
+import com.globalfraud.frauddetection.config.FraudDetectionProperties;
+import com.globalfraud.frauddetection.domain.Transaction;
+import com.globalfraud.frauddetection.repository.TransactionRepository;
+import com.globalfraud.frauddetection.repository.TransactionRepository.CustomerTotals;
+import com.globalfraud.frauddetection.service.TransactionListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Incrementally maintained {@link CustomerAggregate}s keyed by customer id.
+ *
+ * <p>
+ * An aggregate is hydrated lazily with a single COUNT/SUM query the first time a customer is
+ * scored and is then updated from {@link #onTransactionSaved(Transaction)}, so the
+ * CUSTOMER_HISTORY rule costs O(1) regardless of how long the customer's history is. Transactions
+ * of customers without a loaded aggregate are not tracked; the next hydration picks them up from
+ * the database. Transactions saved while a customer's aggregate is being loaded are held and
+ * applied to it once it is published, so the load cannot drop them; one the query also counted is
+ * counted twice. Aggregates idle for longer than the configured timeout are evicted.
+ */
+@Component
+public class CustomerAggregateStore implements TransactionListener {
+    private final TransactionRepository transactionRepository;
+    private final Duration decayHalfLife;
+    private final Duration idleTimeout;
+    private final ConcurrentMap<String, CustomerAggregate> aggregates = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, PendingUpdates> loading = new ConcurrentHashMap<>();
+
+    public CustomerAggregateStore(TransactionRepository transactionRepository,
+            FraudDetectionProperties properties) {
+        this.transactionRepository = transactionRepository;
+        this.decayHalfLife = properties.getCustomerHistory().getDecayHalfLife();
+        this.idleTimeout = properties.getCustomerHistory().getIdleTimeout();
+    }
+
+    /**
+     * Returns the current aggregate for a customer, loading it from the database if needed. The
+     * query runs outside the map's bin lock so that it does not block other customers or pin a
+     * virtual thread; if two callers race, the first published aggregate wins.
+     */
+    public CustomerAggregate.Snapshot snapshot(String customerId) {
+        CustomerAggregate aggregate = aggregates.get(customerId);
+        if (aggregate == null) {
+            PendingUpdates pending = loading.computeIfAbsent(customerId,
+                    id -> new PendingUpdates());
+            CustomerAggregate loaded;
+            try {
+                loaded = load(customerId);
+            } catch (RuntimeException e) {
+                pending.abandon(customerId);
+                throw e;
+            }
+            aggregate = pending.publish(customerId, loaded);
+        }
+        return aggregate.snapshot();
+    }
+
+    @Override
+    public void onTransactionSaved(Transaction transaction) {
+        PendingUpdates pending = loading.get(transaction.getCustomerId());
+        if (pending != null && pending.offer(transaction)) {
+            return;
+        }
+        CustomerAggregate aggregate = aggregates.get(transaction.getCustomerId());
+        if (aggregate != null) {
+            add(aggregate, transaction);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${fraud-detection.customer-history.eviction-interval-ms:300000}")
+    public void evictIdleAggregates() {
+        long cutoff = System.currentTimeMillis() - idleTimeout.toMillis();
+        aggregates.values().removeIf(aggregate -> aggregate.lastAccessMillis() < cutoff);
+    }
+
+    private CustomerAggregate load(String customerId) {
+        CustomerTotals totals = transactionRepository.findCustomerTotals(customerId);
+        long count = totals != null ? totals.getTransactionCount() : 0;
+        BigDecimal total = totals != null && totals.getTotalAmount() != null
+                ? totals.getTotalAmount()
+                : BigDecimal.ZERO;
+        return new CustomerAggregate(count, total, decayHalfLife, ZonedDateTime.now());
+    }
+
+    private static void add(CustomerAggregate aggregate, Transaction transaction) {
+        aggregate.add(transaction.getAmount(), transaction.getTransactionTimestamp());
+    }
+
+    /**
+     * Transactions saved while a customer's aggregate loads, until it is published.
+     */
+    private final class PendingUpdates {
+        private final List<Transaction> transactions = new ArrayList<>();
+        private boolean closed;
+
+        /**
+         * Holds the transaction, or returns false if the aggregate has already been published.
+         */
+        synchronized boolean offer(Transaction transaction) {
+            if (closed) {
+                return false;
+            }
+            transactions.add(transaction);
+            return true;
+        }
+
+        /**
+         * Publishes the loaded aggregate with the held transactions applied, unless another
+         * aggregate was published first, and returns the published one.
+         */
+        synchronized CustomerAggregate publish(String customerId, CustomerAggregate loaded) {
+            CustomerAggregate aggregate = aggregates.putIfAbsent(customerId, loaded);
+            if (aggregate == null) {
+                aggregate = loaded;
+                transactions.forEach(transaction -> add(loaded, transaction));
+            }
+            close(customerId);
+            return aggregate;
+        }
+
+        synchronized void abandon(String customerId) {
+            close(customerId);
+        }
+
+        private void close(String customerId) {
+            closed = true;
+            transactions.clear();
+            loading.remove(customerId, this);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.globalfraud.frauddetection.service.idempotency;
+
+import com.globalfraud.frauddetection.config.FraudDetectionProperties;
+import com.globalfraud.frauddetection.dto.FraudCheckResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Recent fraud decisions by transaction ID, so that a retried check returns the original decision
+ * instead of scoring the transaction again.
+ *
+ * <p>
+ * Lookups are single-flight: a retry that arrives while the original check is still running waits
+ * for its result instead of starting a second check. Entries are never refreshed, so insertion
+ * order is also age order and eviction only ever drops the oldest entries: those older than the
+ * configured time to live, and beyond that as many as needed to stay within the size bound.
+ */
+@Component
+public class RecentDecisionCache {
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final ConcurrentMap<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final Counter hits;
+
+    public RecentDecisionCache(FraudDetectionProperties properties, MeterRegistry meterRegistry) {
+        FraudDetectionProperties.Idempotency settings = properties.getIdempotency();
+        this.ttlMillis = settings.getRecentDecisionTtl().toMillis();
+        this.maxEntries = settings.getMaxRecentDecisions();
+
+        Gauge.builder("fraud.idempotency.cache.size", entries, Map::size)
+                .description("Recent fraud decisions held for retried transaction IDs")
+                .register(meterRegistry);
+        this.hits = Counter.builder("fraud.idempotency.cache.hits")
+                .description("Retried checks answered with a recent decision")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the recent decision for {@code transactionId}, or runs {@code check} to make one.
+     * A failed check is not cached; callers waiting on it receive the same exception.
+     */
+    public FraudCheckResult decide(UUID transactionId, Supplier<FraudCheckResult> check) {
+        if (maxEntries <= 0) {
+            return check.get();
+        }
+        long now = System.currentTimeMillis();
+        while (true) {
+            Entry current = entries.get(transactionId);
+            if (current == null || isExpired(current, now)) {
+                Entry created = new Entry(transactionId, new CompletableFuture<>(), now);
+                boolean claimed = current == null
+                        ? entries.putIfAbsent(transactionId, created) == null
+                        : entries.replace(transactionId, current, created);
+                if (claimed) {
+                    insertionOrder.add(created);
+                    evict(now);
+                    return run(created, check);
+                }
+                continue;
+            }
+            if (current.decision().isCompletedExceptionally()) {
+                entries.remove(transactionId, current);
+                continue;
+            }
+            hits.increment();
+            return await(current.decision());
+        }
+    }
+
+    /**
+     * The recent decision for {@code transactionId}, waiting for one still being made, or null if
+     * there is none.
+     */
+    public FraudCheckResult find(UUID transactionId) {
+        if (maxEntries <= 0) {
+            return null;
+        }
+        Entry current = entries.get(transactionId);
+        if (current == null || isExpired(current, System.currentTimeMillis())) {
+            return null;
+        }
+        FraudCheckResult decision = awaitQuietly(current.decision());
+        if (decision != null) {
+            hits.increment();
+        }
+        return decision;
+    }
+
+    /**
+     * Records a decision made outside {@link #decide}, such as one item of a batch check, unless
+     * another decision for the same transaction ID was made first.
+     *
+     * @return the earlier decision, waiting for one still being made, or null if {@code result}
+     *         was recorded
+     */
+    public FraudCheckResult record(FraudCheckResult result) {
+        if (maxEntries <= 0) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        Entry entry = new Entry(result.getTransactionId(),
+                CompletableFuture.completedFuture(result), now);
+        while (true) {
+            Entry current = entries.get(entry.transactionId());
+            if (current == null || isExpired(current, now)
+                    || current.decision().isCompletedExceptionally()) {
+                boolean claimed = current == null
+                        ? entries.putIfAbsent(entry.transactionId(), entry) == null
+                        : entries.replace(entry.transactionId(), current, entry);
+                if (claimed) {
+                    insertionOrder.add(entry);
+                    evict(now);
+                    return null;
+                }
+                continue;
+            }
+            FraudCheckResult earlier = awaitQuietly(current.decision());
+            if (earlier != null) {
+                hits.increment();
+                return earlier;
+            }
+        }
+    }
+
+    /**
+     * Drops a decision recorded with {@link #record} that could not be persisted after all.
+     */
+    public void forget(FraudCheckResult result) {
+        entries.computeIfPresent(result.getTransactionId(),
+                (transactionId, entry) -> entry.decision().getNow(null) == result ? null : entry);
+    }
+
+    private FraudCheckResult run(Entry entry, Supplier<FraudCheckResult> check) {
+        try {
+            FraudCheckResult result = check.get();
+            entry.decision().complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            entries.remove(entry.transactionId(), entry);
+            entry.decision().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private FraudCheckResult await(CompletableFuture<FraudCheckResult> decision) {
+        try {
+            return decision.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * The decision once made, or null if its check failed.
+     */
+    private FraudCheckResult awaitQuietly(CompletableFuture<FraudCheckResult> decision) {
+        try {
+            return decision.join();
+        } catch (CompletionException | CancellationException e) {
+            return null;
+        }
+    }
+
+    private void evict(long now) {
+        Entry oldest;
+        while ((oldest = insertionOrder.peek()) != null
+                && (isExpired(oldest, now) || entries.size() > maxEntries)) {
+            if (insertionOrder.remove(oldest)) {
+                entries.remove(oldest.transactionId(), oldest);
+            }
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.createdAtMillis() > ttlMillis;
+    }
+
+    private record Entry(UUID transactionId, CompletableFuture<FraudCheckResult> decision,
+            long createdAtMillis) {
+    }
+}
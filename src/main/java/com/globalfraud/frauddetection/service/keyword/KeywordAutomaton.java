@@ -0,0 +1,238 @@
+package com.globalfraud.frauddetection.service.keyword;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Immutable Aho-Corasick automaton that finds every keyword of a list in one pass over a text.
+ *
+ * <p>
+ * Keywords and text are normalized alike: letters are lower-cased, periods and apostrophes are
+ * dropped, and any run of other characters becomes one space, so {@code "P.O.  Box"} reads as
+ * {@code "po box"}. With whole-word matching a keyword only matches between word boundaries. The
+ * goto and failure functions are flattened into one transition table over the characters that
+ * occur in keywords, so each text character costs two array reads, and {@link #matches} allocates
+ * nothing.
+ */
+public final class KeywordAutomaton {
+    private static final char SPACE = ' ';
+    private static final long MAX_TABLE_SIZE = 1L << 24;
+
+    private final String[] keywords;
+    private final char[] classOf;
+    private final int classCount;
+    private final int[] transitions;
+    /** Keyword ending at a state, or -1. */
+    private final int[] keywordAt;
+    /** Nearest state on the failure chain, excluding the state itself, ending a keyword, or 0. */
+    private final int[] outputLink;
+
+    private KeywordAutomaton(String[] keywords, char[] classOf, int classCount, int[] transitions,
+            int[] keywordAt, int[] outputLink) {
+        this.keywords = keywords;
+        this.classOf = classOf;
+        this.classCount = classCount;
+        this.transitions = transitions;
+        this.keywordAt = keywordAt;
+        this.outputLink = outputLink;
+    }
+
+    /**
+     * Builds the automaton. Keywords that normalize to the same text are matched once, reported
+     * as the first of them.
+     *
+     * @throws IllegalArgumentException if a keyword has no letters or digits, or the keywords are
+     *         too many to compile
+     */
+    public static KeywordAutomaton compile(List<String> keywords, boolean wholeWords) {
+        Map<String, String> byPattern = new LinkedHashMap<>();
+        for (String keyword : keywords) {
+            String pattern = normalize(keyword);
+            if (pattern.isEmpty()) {
+                throw new IllegalArgumentException(
+                        "Keyword '" + keyword + "' has no letters or digits");
+            }
+            byPattern.putIfAbsent(wholeWords ? SPACE + pattern + SPACE : pattern, keyword);
+        }
+
+        char[] classOf = new char[Character.MAX_VALUE + 1];
+        int classCount = 1;
+        List<Map<Character, Integer>> trie = new ArrayList<>();
+        List<Integer> terminal = new ArrayList<>();
+        trie.add(new HashMap<>());
+        terminal.add(-1);
+        int index = 0;
+        for (String pattern : byPattern.keySet()) {
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                if (classOf[c] == 0) {
+                    classOf[c] = (char) classCount++;
+                }
+                Integer next = trie.get(state).get(c);
+                if (next == null) {
+                    next = trie.size();
+                    trie.get(state).put(c, next);
+                    trie.add(new HashMap<>());
+                    terminal.add(-1);
+                }
+                state = next;
+            }
+            terminal.set(state, index++);
+        }
+
+        int states = trie.size();
+        int width = classCount;
+        if ((long) states * width > MAX_TABLE_SIZE) {
+            throw new IllegalArgumentException(String.format(
+                    "Keywords need %d states over %d characters, too many to compile", states,
+                    width));
+        }
+        int[] transitions = new int[states * width];
+        int[] failure = new int[states];
+        int[] keywordAt = terminal.stream().mapToInt(Integer::intValue).toArray();
+        int[] outputLink = new int[states];
+        // Breadth-first, so a state's failure target is complete before the state itself
+        Queue<Integer> queue = new ArrayDeque<>();
+        trie.get(0).forEach((c, next) -> {
+            transitions[classOf[c]] = next;
+            queue.add(next);
+        });
+        while (!queue.isEmpty()) {
+            int state = queue.remove();
+            int fallback = failure[state];
+            System.arraycopy(transitions, fallback * width, transitions, state * width, width);
+            outputLink[state] = keywordAt[fallback] >= 0 ? fallback : outputLink[fallback];
+            trie.get(state).forEach((c, next) -> {
+                failure[next] = transitions[fallback * width + classOf[c]];
+                transitions[state * width + classOf[c]] = next;
+                queue.add(next);
+            });
+        }
+        return new KeywordAutomaton(byPattern.values().toArray(String[]::new), classOf, width,
+                transitions, keywordAt, outputLink);
+    }
+
+    /**
+     * Number of distinct keywords.
+     */
+    public int size() {
+        return keywords.length;
+    }
+
+    /**
+     * Whether any keyword occurs in the text. Allocates nothing.
+     */
+    public boolean matches(CharSequence text) {
+        return text != null && scan(text, null);
+    }
+
+    /**
+     * The keywords occurring in the text, each once, in keyword list order.
+     */
+    public List<String> findAll(CharSequence text) {
+        if (text == null) {
+            return List.of();
+        }
+        boolean[] found = new boolean[keywords.length];
+        if (!scan(text, found)) {
+            return List.of();
+        }
+        List<String> matched = new ArrayList<>();
+        for (int i = 0; i < found.length; i++) {
+            if (found[i]) {
+                matched.add(keywords[i]);
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Runs the normalized text through the automaton, framed by spaces so that whole-word keywords
+     * can match at either end, and stops at the first match unless {@code found} is given.
+     */
+    private boolean scan(CharSequence text, boolean[] found) {
+        boolean matched = false;
+        int state = step(0, SPACE);
+        boolean afterSpace = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (isDropped(c)) {
+                continue;
+            }
+            if (isSeparator(c)) {
+                if (!afterSpace) {
+                    state = step(state, SPACE);
+                    matched |= report(state, found);
+                    afterSpace = true;
+                }
+            } else {
+                state = step(state, Character.toLowerCase(c));
+                matched |= report(state, found);
+                afterSpace = false;
+            }
+            if (matched && found == null) {
+                return true;
+            }
+        }
+        if (!afterSpace) {
+            matched |= report(step(state, SPACE), found);
+        }
+        return matched;
+    }
+
+    private int step(int state, char c) {
+        return transitions[state * classCount + classOf[c]];
+    }
+
+    private boolean report(int state, boolean[] found) {
+        int output = keywordAt[state] >= 0 ? state : outputLink[state];
+        if (output == 0) {
+            return false;
+        }
+        for (; found != null && output != 0; output = outputLink[output]) {
+            found[keywordAt[output]] = true;
+        }
+        return true;
+    }
+
+    /**
+     * Normalizes a keyword as {@link #scan} normalizes text, without the framing spaces.
+     */
+    static String normalize(String value) {
+        StringBuilder normalized = new StringBuilder(value.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (isSeparator(c)) {
+                pendingSpace = !normalized.isEmpty();
+            } else if (!isDropped(c)) {
+                if (pendingSpace) {
+                    normalized.append(SPACE);
+                    pendingSpace = false;
+                }
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static boolean isDropped(char c) {
+        return c == '.' || c == '\'';
+    }
+
+    private static boolean isSeparator(char c) {
+        return !Character.isLetterOrDigit(c) && !isDropped(c);
+    }
+
+    @Override
+    public String toString() {
+        return "KeywordAutomaton" + Arrays.toString(keywords);
+    }
+}
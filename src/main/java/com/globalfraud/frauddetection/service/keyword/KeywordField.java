@@ -0,0 +1,24 @@
+package com.globalfraud.frauddetection.service.keyword;
+
+import com.globalfraud.frauddetection.domain.Transaction;
+
+import java.util.function.Function;
+
+/**
+ * Transaction text a keyword rule screens.
+ */
+public enum KeywordField {
+    ADDRESS_LINE(Transaction::getAddressLine),
+    MERCHANT_NAME(Transaction::getMerchantName),
+    MERCHANT_DESCRIPTOR(Transaction::getMerchantDescriptor);
+
+    private final Function<Transaction, String> valueExtractor;
+
+    KeywordField(Function<Transaction, String> valueExtractor) {
+        this.valueExtractor = valueExtractor;
+    }
+
+    public String valueOf(Transaction transaction) {
+        return valueExtractor.apply(transaction);
+    }
+}
@@ -0,0 +1,64 @@
+package com.globalfraud.frauddetection.service.knownfraud;
+
+/**
+ * Key parsing and hash mixing shared by the known-fraud structures.
+ */
+final class Hashing {
+    private static final int MAX_TABLE_SIZE = 1 << 30;
+
+    private Hashing() {
+    }
+
+    /**
+     * The murmur3 64-bit finalizer, which spreads every input bit over the whole result.
+     */
+    static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    /**
+     * The smallest power of two at least {@code required} and {@code minimum}, capped at 2^30.
+     */
+    static int tableSize(double required, int minimum) {
+        int size = minimum;
+        while (size < required && size < MAX_TABLE_SIZE) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    /**
+     * Parses the leading 64 bits of a hexadecimal hash without allocating. Surrounding spaces are
+     * ignored; at least 16 hex digits are required, and any further digits are checked but not
+     * used.
+     *
+     * @throws IllegalArgumentException if the value is not such a hash
+     */
+    static long key(CharSequence value, int start, int end) {
+        while (start < end && value.charAt(start) == ' ') {
+            start++;
+        }
+        while (end > start && value.charAt(end - 1) == ' ') {
+            end--;
+        }
+        if (end - start < 16) {
+            throw new IllegalArgumentException("Expected at least 16 hex digits");
+        }
+        long key = 0;
+        for (int i = start; i < end; i++) {
+            int digit = Character.digit(value.charAt(i), 16);
+            if (digit < 0) {
+                throw new IllegalArgumentException("Not a hex digit: " + value.charAt(i));
+            }
+            if (i < start + 16) {
+                key = key << 4 | digit;
+            }
+        }
+        return key;
+    }
+}
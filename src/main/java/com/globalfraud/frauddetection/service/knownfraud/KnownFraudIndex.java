@@ -0,0 +1,175 @@
+package com.globalfraud.frauddetection.service.knownfraud;
+
+import com.globalfraud.frauddetection.config.FraudDetectionProperties;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * The known-fraud hashes used by PATTERN_MATCHING rules, bulk loaded from
+ * {@code fraud-detection.known-fraud.bulk-file} and updated from delta files.
+ *
+ * <p>
+ * New {@code *.delta} files in {@code fraud-detection.known-fraud.delta-directory} are applied to
+ * the live {@link KnownFraudSet} in file name order, each once, while lookups continue. When the
+ * bulk file changes a new set is built from it off to the side, every delta file present is applied
+ * to it again, and it is swapped in; deltas folded into a new bulk file should be deleted. A load
+ * that fails keeps the previous set.
+ */
+@Slf4j
+@Component
+public class KnownFraudIndex {
+    private static final String DELTA_SUFFIX = ".delta";
+
+    private final Path bulkFile;
+    private final Path deltaDirectory;
+    private final int expectedSize;
+    private final ReentrantLock updateLock = new ReentrantLock();
+
+    private volatile KnownFraudSet set;
+    private volatile long loadedModified = -1;
+    private String lastDelta = "";
+
+    public KnownFraudIndex(FraudDetectionProperties properties) {
+        FraudDetectionProperties.KnownFraud config = properties.getKnownFraud();
+        this.bulkFile = config.getBulkFile().isBlank() ? null : Path.of(config.getBulkFile());
+        this.deltaDirectory = config.getDeltaDirectory().isBlank() ? null
+                : Path.of(config.getDeltaDirectory());
+        this.expectedSize = config.getExpectedSize();
+        this.set = new KnownFraudSet(16);
+    }
+
+    @PostConstruct
+    public void load() {
+        try {
+            reload();
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Known-fraud hashes {} could not be loaded; PATTERN_MATCHING rules will not "
+                    + "trigger until they are: {}", bulkFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Whether the identifier whose hex-encoded hash is given is a known fraud one.
+     */
+    public boolean contains(String hash) {
+        return set.contains(hash);
+    }
+
+    public int size() {
+        return set.size();
+    }
+
+    /**
+     * Rebuilds the set from the bulk file and all delta files, then publishes it.
+     *
+     * @throws IOException if a file cannot be read
+     * @throws IllegalArgumentException if a file is malformed
+     */
+    public void reload() throws IOException {
+        updateLock.lock();
+        try {
+            long modified = lastModified();
+            KnownFraudSet loaded;
+            if (bulkFile == null) {
+                loaded = new KnownFraudSet(expectedSize);
+            } else {
+                try (BufferedReader reader = Files.newBufferedReader(bulkFile,
+                        StandardCharsets.US_ASCII)) {
+                    loaded = KnownFraudSet.read(reader, expectedSize);
+                }
+            }
+            String applied = "";
+            for (Path delta : deltasAfter("")) {
+                apply(loaded, delta);
+                applied = delta.getFileName().toString();
+            }
+            set = loaded;
+            lastDelta = applied;
+            loadedModified = modified;
+            log.info("Loaded {} known-fraud hashes from {} and {}", loaded.size(), bulkFile,
+                    applied.isEmpty() ? "no delta files" : "delta files up to " + applied);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    /**
+     * Applies delta files not applied yet to the live set.
+     *
+     * @throws IOException if a file cannot be read
+     * @throws IllegalArgumentException if a file is malformed; the lines before the malformed one
+     *         stay applied and the file is not retried
+     */
+    public void applyNewDeltas() throws IOException {
+        updateLock.lock();
+        try {
+            for (Path delta : deltasAfter(lastDelta)) {
+                lastDelta = delta.getFileName().toString();
+                int applied = apply(set, delta);
+                log.info("Applied {} known-fraud updates from {}; {} hashes", applied, delta,
+                        set.size());
+            }
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${fraud-detection.known-fraud.check-interval-ms:10000}",
+            initialDelayString = "${fraud-detection.known-fraud.check-interval-ms:10000}")
+    public void checkForChanges() {
+        long modified = lastModified();
+        try {
+            if (modified != loadedModified) {
+                log.info("Known-fraud bulk file {} changed, reloading", bulkFile);
+                loadedModified = modified;
+                reload();
+            } else {
+                applyNewDeltas();
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Updating known-fraud hashes failed; keeping the previous ones", e);
+        }
+    }
+
+    private static int apply(KnownFraudSet target, Path delta) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(delta, StandardCharsets.US_ASCII)) {
+            return target.applyDelta(reader);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(delta + ": " + e.getMessage(), e);
+        }
+    }
+
+    private List<Path> deltasAfter(String name) throws IOException {
+        if (deltaDirectory == null || !Files.isDirectory(deltaDirectory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(deltaDirectory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(DELTA_SUFFIX))
+                    .filter(file -> file.getFileName().toString().compareTo(name) > 0)
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Modification time of the bulk file, or -1 if there is none.
+     */
+    private long lastModified() {
+        try {
+            return bulkFile != null ? Files.getLastModifiedTime(bulkFile).toMillis() : -1;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.globalfraud.frauddetection.service.knownfraud;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Set of known-fraud identifiers, each held as the leading 64 bits of its hex-encoded hash, in a
+ * {@link BlockedBloomFilter} in front of an exact {@link LongHashSet}.
+ *
+ * <p>
+ * Most identifiers looked up are not in the set, and the filter answers for nearly all of them
+ * from one cache line, far smaller than the table behind it. {@link #contains} takes no lock and
+ * allocates nothing, so lookups proceed while {@link #add} and {@link #remove} apply a delta.
+ * Writers are serialized; when the table fills up a writer builds a larger copy with a fresh filter
+ * and publishes both together. Removed keys stay in the filter until then and only cost a probe.
+ */
+public final class KnownFraudSet {
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile Tables tables;
+
+    private record Tables(BlockedBloomFilter filter, LongHashSet keys) {
+    }
+
+    public KnownFraudSet(int expectedSize) {
+        this.tables = new Tables(new BlockedBloomFilter(expectedSize),
+                new LongHashSet(expectedSize));
+    }
+
+    /**
+     * Reads a bulk file of one hex-encoded hash per line. Blank lines and lines starting with
+     * {@code #} are skipped.
+     *
+     * @throws IllegalArgumentException if a line is not a hash of at least 16 hex digits
+     */
+    public static KnownFraudSet read(BufferedReader reader, int expectedSize) throws IOException {
+        KnownFraudSet set = new KnownFraudSet(expectedSize);
+        set.apply(reader, false);
+        return set;
+    }
+
+    /**
+     * Whether the identifier whose hex-encoded hash is given is in the set. A value that is not
+     * such a hash is never in the set.
+     */
+    public boolean contains(String hash) {
+        if (hash == null) {
+            return false;
+        }
+        long key;
+        try {
+            key = Hashing.key(hash, 0, hash.length());
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        Tables current = tables;
+        return current.filter().mightContain(key) && current.keys().contains(key);
+    }
+
+    public boolean add(String hash) {
+        return add(Hashing.key(hash, 0, hash.length()));
+    }
+
+    public boolean remove(String hash) {
+        return remove(Hashing.key(hash, 0, hash.length()));
+    }
+
+    /**
+     * Applies a delta file whose lines are a hash to add, optionally prefixed with {@code +}, or a
+     * hash prefixed with {@code -} to remove. Blank lines and lines starting with {@code #} are
+     * skipped. Lines before a malformed one stay applied.
+     *
+     * @return the number of lines applied
+     * @throws IllegalArgumentException if a line is malformed
+     */
+    public int applyDelta(BufferedReader reader) throws IOException {
+        return apply(reader, true);
+    }
+
+    public int size() {
+        return tables.keys().size();
+    }
+
+    private int apply(BufferedReader reader, boolean allowRemovals) throws IOException {
+        int applied = 0;
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            char operation = line.charAt(0);
+            int start = operation == '+' || operation == '-' ? 1 : 0;
+            if (operation == '-' && !allowRemovals) {
+                throw new IllegalArgumentException("Removal in a bulk file at line " + lineNumber);
+            }
+            long key;
+            try {
+                key = Hashing.key(line, start, line.length());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(
+                        "Malformed known-fraud hash at line " + lineNumber + ": " + e.getMessage());
+            }
+            if (operation == '-') {
+                remove(key);
+            } else {
+                add(key);
+            }
+            applied++;
+        }
+        return applied;
+    }
+
+    private boolean add(long key) {
+        writeLock.lock();
+        try {
+            Tables current = tables;
+            if (!current.keys().hasRoomForOneMore()) {
+                LongHashSet keys = current.keys().copyWithCapacity(current.keys().size() * 2);
+                BlockedBloomFilter filter = new BlockedBloomFilter(current.keys().size() * 2);
+                keys.forEach(filter::add);
+                current = new Tables(filter, keys);
+                tables = current;
+            }
+            // Filter bits first, so a reader that can see the key also passes the filter
+            current.filter().add(key);
+            return current.keys().add(key);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private boolean remove(long key) {
+        writeLock.lock();
+        try {
+            return tables.keys().remove(key);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
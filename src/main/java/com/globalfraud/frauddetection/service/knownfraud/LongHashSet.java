@@ -0,0 +1,156 @@
+package com.globalfraud.frauddetection.service.knownfraud;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.LongConsumer;
+
+/**
+ * Open-addressing set of {@code long} keys in a single primitive array, with linear probing.
+ *
+ * <p>
+ * Readers never lock: slots are written with release and read with acquire semantics, so a
+ * {@link #contains} running during an {@link #add} or {@link #remove} sees the key either before
+ * or after the change, never a torn value. Writes must be serialized by the caller. Removal leaves
+ * a tombstone so that probe chains stay intact for concurrent readers; tombstones are dropped when
+ * the owner rebuilds the set with {@link #copyWithCapacity}.
+ */
+final class LongHashSet {
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final long EMPTY = 0;
+    private static final long TOMBSTONE = 1;
+    private static final double MAX_LOAD = 0.75;
+
+    private final long[] slots;
+    private final int mask;
+    // The two keys that collide with the slot markers are kept out of the table
+    private volatile boolean containsEmpty;
+    private volatile boolean containsTombstone;
+    private int size;
+    private int tombstones;
+
+    LongHashSet(int expectedSize) {
+        int capacity = Hashing.tableSize(expectedSize / MAX_LOAD, 16);
+        this.slots = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    boolean contains(long key) {
+        if (key == EMPTY) {
+            return containsEmpty;
+        }
+        if (key == TOMBSTONE) {
+            return containsTombstone;
+        }
+        for (int i = index(key);; i = (i + 1) & mask) {
+            long slot = (long) SLOTS.getAcquire(slots, i);
+            if (slot == key) {
+                return true;
+            }
+            if (slot == EMPTY) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Adds a key; the caller must first check {@link #hasRoomForOneMore()}.
+     *
+     * @return whether the key was added
+     */
+    boolean add(long key) {
+        if (key == EMPTY || key == TOMBSTONE) {
+            boolean added = key == EMPTY ? !containsEmpty : !containsTombstone;
+            if (key == EMPTY) {
+                containsEmpty = true;
+            } else {
+                containsTombstone = true;
+            }
+            size += added ? 1 : 0;
+            return added;
+        }
+        int reusable = -1;
+        for (int i = index(key);; i = (i + 1) & mask) {
+            long slot = slots[i];
+            if (slot == key) {
+                return false;
+            }
+            if (slot == TOMBSTONE && reusable < 0) {
+                reusable = i;
+            } else if (slot == EMPTY) {
+                if (reusable >= 0) {
+                    tombstones--;
+                }
+                SLOTS.setRelease(slots, reusable >= 0 ? reusable : i, key);
+                size++;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return whether the key was present
+     */
+    boolean remove(long key) {
+        if (key == EMPTY || key == TOMBSTONE) {
+            boolean removed = key == EMPTY ? containsEmpty : containsTombstone;
+            if (key == EMPTY) {
+                containsEmpty = false;
+            } else {
+                containsTombstone = false;
+            }
+            size -= removed ? 1 : 0;
+            return removed;
+        }
+        for (int i = index(key);; i = (i + 1) & mask) {
+            long slot = slots[i];
+            if (slot == key) {
+                SLOTS.setRelease(slots, i, TOMBSTONE);
+                size--;
+                tombstones++;
+                return true;
+            }
+            if (slot == EMPTY) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Whether one more key can be added without exceeding the maximum load, counting tombstones.
+     */
+    boolean hasRoomForOneMore() {
+        return size + tombstones + 1 <= slots.length * MAX_LOAD;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * A new set with room for {@code expectedSize} keys holding this set's keys, without
+     * tombstones.
+     */
+    LongHashSet copyWithCapacity(int expectedSize) {
+        LongHashSet copy = new LongHashSet(Math.max(expectedSize, size));
+        forEach(copy::add);
+        return copy;
+    }
+
+    void forEach(LongConsumer action) {
+        if (containsEmpty) {
+            action.accept(EMPTY);
+        }
+        if (containsTombstone) {
+            action.accept(TOMBSTONE);
+        }
+        for (long slot : slots) {
+            if (slot != EMPTY && slot != TOMBSTONE) {
+                action.accept(slot);
+            }
+        }
+    }
+
+    private int index(long key) {
+        return (int) Hashing.mix(key) & mask;
+    }
+}
@@ -0,0 +1,261 @@
+package com.globalfraud.frauddetection.service.location;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Immutable cross-reference of US ZIP codes to their state, accepted city names and telephone area
+ * codes, packed into primitive arrays indexed by the five-digit ZIP.
+ *
+ * <p>
+ * Each ZIP's city name hashes and area codes are stored as a sorted slice of one shared array,
+ * delimited by an offsets array, so a lookup is two array reads and a short search. City names
+ * are compared by a 64-bit hash of their letters and digits, upper-cased, which ignores case,
+ * spacing and punctuation. {@link #check} allocates nothing.
+ */
+public final class PostalReferenceData {
+    /** The ZIP code is malformed or not in the reference data. */
+    public static final int UNKNOWN_ZIP = 1;
+    /** The state is not the ZIP code's state. */
+    public static final int STATE_MISMATCH = 1 << 1;
+    /** The city is not a name accepted for the ZIP code. */
+    public static final int CITY_MISMATCH = 1 << 2;
+    /** The area code is not one serving the ZIP code. */
+    public static final int AREA_CODE_MISMATCH = 1 << 3;
+
+    private static final int ZIP_COUNT = 100_000;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    static final PostalReferenceData EMPTY = new PostalReferenceData(new short[ZIP_COUNT],
+            new int[ZIP_COUNT + 1], new long[0], new int[ZIP_COUNT + 1], new short[0], 0);
+
+    private final short[] stateByZip;
+    private final int[] cityOffsets;
+    private final long[] cityHashes;
+    private final int[] areaCodeOffsets;
+    private final short[] areaCodes;
+    private final int zipCount;
+
+    private PostalReferenceData(short[] stateByZip, int[] cityOffsets, long[] cityHashes,
+            int[] areaCodeOffsets, short[] areaCodes, int zipCount) {
+        this.stateByZip = stateByZip;
+        this.cityOffsets = cityOffsets;
+        this.cityHashes = cityHashes;
+        this.areaCodeOffsets = areaCodeOffsets;
+        this.areaCodes = areaCodes;
+        this.zipCount = zipCount;
+    }
+
+    /**
+     * Reads CSV rows of {@code zip_code,city,state,area_code} after a header line. A ZIP code may
+     * appear on several rows to list several city names or area codes; the area code may be
+     * empty.
+     *
+     * @throws IllegalArgumentException if a row is malformed or gives a ZIP code two states
+     */
+    public static PostalReferenceData read(BufferedReader reader) throws IOException {
+        Map<Integer, Short> states = new TreeMap<>();
+        Map<Integer, TreeSet<Long>> cities = new TreeMap<>();
+        Map<Integer, TreeSet<Short>> areas = new TreeMap<>();
+
+        String line = reader.readLine();
+        int lineNumber = 1;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] fields = line.split(",", -1);
+            int zip = fields.length == 4 ? zip(fields[0]) : -1;
+            short state = fields.length == 4 ? state(fields[2]) : 0;
+            short areaCode = fields.length == 4 ? areaCode(fields[3]) : 0;
+            if (zip < 0 || state == 0 || fields[1].isBlank()
+                    || (areaCode == 0 && !fields[3].isBlank())) {
+                throw new IllegalArgumentException("Malformed postal reference row " + lineNumber);
+            }
+            Short previous = states.putIfAbsent(zip, state);
+            if (previous != null && previous != state) {
+                throw new IllegalArgumentException(String.format(
+                        "ZIP code %s has more than one state (row %d)", fields[0], lineNumber));
+            }
+            cities.computeIfAbsent(zip, ignored -> new TreeSet<>()).add(cityHash(fields[1]));
+            if (areaCode != 0) {
+                areas.computeIfAbsent(zip, ignored -> new TreeSet<>()).add(areaCode);
+            }
+        }
+
+        short[] stateByZip = new short[ZIP_COUNT];
+        states.forEach((zip, state) -> stateByZip[zip] = state);
+        List<Long> cityValues = new ArrayList<>();
+        int[] cityOffsets = offsets(cities, cityValues);
+        List<Short> areaValues = new ArrayList<>();
+        int[] areaCodeOffsets = offsets(areas, areaValues);
+
+        long[] cityHashes = cityValues.stream().mapToLong(Long::longValue).toArray();
+        short[] areaCodes = new short[areaValues.size()];
+        for (int i = 0; i < areaCodes.length; i++) {
+            areaCodes[i] = areaValues.get(i);
+        }
+        return new PostalReferenceData(stateByZip, cityOffsets, cityHashes, areaCodeOffsets,
+                areaCodes, states.size());
+    }
+
+    /**
+     * Number of ZIP codes in the reference data.
+     */
+    public int size() {
+        return zipCount;
+    }
+
+    /**
+     * Cross-references an address. Null or blank fields other than the ZIP code are not checked.
+     *
+     * @return a bit set of {@link #UNKNOWN_ZIP}, {@link #STATE_MISMATCH}, {@link #CITY_MISMATCH}
+     *         and {@link #AREA_CODE_MISMATCH}; zero if the address is consistent
+     */
+    public int check(String zipCode, String city, String state, String areaCode) {
+        int zip = zip(zipCode);
+        if (zip < 0 || stateByZip[zip] == 0) {
+            return UNKNOWN_ZIP;
+        }
+        int mismatches = 0;
+        if (isPresent(state) && state(state) != stateByZip[zip]) {
+            mismatches |= STATE_MISMATCH;
+        }
+        if (isPresent(city) && Arrays.binarySearch(cityHashes, cityOffsets[zip],
+                cityOffsets[zip + 1], cityHash(city)) < 0) {
+            mismatches |= CITY_MISMATCH;
+        }
+        if (isPresent(areaCode) && areaCodeOffsets[zip] < areaCodeOffsets[zip + 1]
+                && Arrays.binarySearch(areaCodes, areaCodeOffsets[zip],
+                        areaCodeOffsets[zip + 1], areaCode(areaCode)) < 0) {
+            mismatches |= AREA_CODE_MISMATCH;
+        }
+        return mismatches;
+    }
+
+    private static <T> int[] offsets(Map<Integer, TreeSet<T>> byZip, List<T> values) {
+        int[] offsets = new int[ZIP_COUNT + 1];
+        for (int zip = 0; zip < ZIP_COUNT; zip++) {
+            offsets[zip] = values.size();
+            TreeSet<T> entries = byZip.get(zip);
+            if (entries != null) {
+                values.addAll(entries);
+            }
+        }
+        offsets[ZIP_COUNT] = values.size();
+        return offsets;
+    }
+
+    private static boolean isPresent(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    /**
+     * Parses a five-digit ZIP code, optionally followed by {@code -} and four digits, or returns
+     * -1.
+     */
+    private static int zip(String value) {
+        if (value == null) {
+            return -1;
+        }
+        int start = firstNonSpace(value);
+        int end = lastNonSpace(value, start);
+        int length = end - start;
+        if (length != 5 && !(length == 10 && value.charAt(start + 5) == '-')) {
+            return -1;
+        }
+        int zip = 0;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (i == start + 5) {
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            if (i < start + 5) {
+                zip = zip * 10 + (c - '0');
+            }
+        }
+        return zip;
+    }
+
+    /**
+     * Packs a two-letter state code into {@code 1..676}, or returns 0 if it is not two letters.
+     */
+    private static short state(String value) {
+        int start = firstNonSpace(value);
+        if (lastNonSpace(value, start) - start != 2) {
+            return 0;
+        }
+        int first = Character.toUpperCase(value.charAt(start)) - 'A';
+        int second = Character.toUpperCase(value.charAt(start + 1)) - 'A';
+        if (first < 0 || first >= 26 || second < 0 || second >= 26) {
+            return 0;
+        }
+        return (short) (first * 26 + second + 1);
+    }
+
+    /**
+     * Parses a three-digit area code, or returns 0.
+     */
+    private static short areaCode(String value) {
+        int start = firstNonSpace(value);
+        int end = lastNonSpace(value, start);
+        if (end - start != 3) {
+            return 0;
+        }
+        int code = 0;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return 0;
+            }
+            code = code * 10 + (c - '0');
+        }
+        return (short) code;
+    }
+
+    private static int firstNonSpace(String value) {
+        int start = 0;
+        while (start < value.length() && value.charAt(start) == ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    /**
+     * Returns the end (exclusive) of {@code value} without trailing spaces, not before
+     * {@code start}.
+     */
+    private static int lastNonSpace(String value, int start) {
+        int end = value.length();
+        while (end > start && value.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * FNV-1a over the upper-cased letters and digits of a city name.
+     */
+    static long cityHash(String city) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < city.length(); i++) {
+            char c = city.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                hash ^= Character.toUpperCase(c);
+                hash *= FNV_PRIME;
+            }
+        }
+        return hash;
+    }
+}
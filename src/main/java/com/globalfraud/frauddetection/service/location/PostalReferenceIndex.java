@@ -0,0 +1,120 @@
+package com.globalfraud.frauddetection.service.location;
+
+import com.globalfraud.frauddetection.config.FraudDetectionProperties;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The postal reference data used by LOCATION_BASED rules, loaded from
+ * {@code fraud-detection.location.reference-data} at startup. No data is shipped with the
+ * application; without a configured location the rules do not trigger.
+ *
+ * <p>
+ * Readers use the current {@link PostalReferenceData} snapshot without locking. {@link #reload()}
+ * builds a new snapshot and swaps it in, and a periodic check reloads a file-system resource when
+ * its modification time changes, so the data can be updated without a restart. A load that fails
+ * keeps the previous snapshot. Until data has been loaded, {@link #isLoaded()} is false and rules
+ * do not trigger.
+ */
+@Slf4j
+@Component
+public class PostalReferenceIndex {
+    private final Resource resource;
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    private volatile PostalReferenceData data = PostalReferenceData.EMPTY;
+    private volatile long loadedModified = -1;
+
+    public PostalReferenceIndex(FraudDetectionProperties properties) {
+        String referenceData = properties.getLocation().getReferenceData();
+        this.resource = referenceData.isBlank() ? null
+                : new DefaultResourceLoader().getResource(referenceData);
+    }
+
+    @PostConstruct
+    public void load() {
+        if (resource == null) {
+            log.info("No postal reference data configured; LOCATION_BASED rules will not trigger");
+            return;
+        }
+        try {
+            reload();
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Postal reference data {} could not be loaded; LOCATION_BASED rules will not "
+                    + "trigger until it is: {}", resource, e.getMessage());
+        }
+    }
+
+    public PostalReferenceData data() {
+        return data;
+    }
+
+    public boolean isLoaded() {
+        return data != PostalReferenceData.EMPTY;
+    }
+
+    /**
+     * Reads the reference data and publishes it. Uses a lock rather than {@code synchronized} so
+     * that a virtual thread blocked on the read does not pin its carrier.
+     *
+     * @throws IOException if the resource cannot be read
+     * @throws IllegalArgumentException if the resource is malformed
+     * @throws IllegalStateException if no reference data is configured
+     */
+    public void reload() throws IOException {
+        if (resource == null) {
+            throw new IllegalStateException("No postal reference data is configured");
+        }
+        reloadLock.lock();
+        try {
+            long modified = lastModified();
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+                data = PostalReferenceData.read(reader);
+            }
+            loadedModified = modified;
+            log.info("Loaded postal reference data for {} ZIP codes from {}", data.size(),
+                    resource);
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${fraud-detection.location.reload-check-interval-ms:60000}",
+            initialDelayString = "${fraud-detection.location.reload-check-interval-ms:60000}")
+    public void checkForChanges() {
+        long modified = lastModified();
+        if (modified < 0 || modified == loadedModified) {
+            return;
+        }
+        log.info("Postal reference data {} changed, reloading", resource);
+        try {
+            reload();
+        } catch (IOException | IllegalArgumentException e) {
+            loadedModified = modified;
+            log.error("Reloading postal reference data {} failed; keeping the previous data",
+                    resource, e);
+        }
+    }
+
+    /**
+     * Modification time of a file-system resource, or -1 for resources that cannot change.
+     */
+    private long lastModified() {
+        try {
+            return resource != null && resource.isFile() ? resource.lastModified() : -1;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.globalfraud.frauddetection.service.merchant;
+
+import com.globalfraud.frauddetection.config.FraudDetectionProperties;
+import com.globalfraud.frauddetection.domain.TransactionStatus;
+import com.globalfraud.frauddetection.repository.TransactionRepository;
+import com.globalfraud.frauddetection.repository.TransactionRepository.StatusCount;
+import com.globalfraud.frauddetection.service.FixedPoint;
+import com.globalfraud.frauddetection.service.RuleScoring;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Per-merchant cache of the rejection ratio used by MERCHANT_RISK rules.
+ *
+ * <p>
+ * Entries are keyed by merchant and window length and are recomputed once they are older than the
+ * configured staleness bound. Computation is single-flight: when an entry is missing, concurrent
+ * callers for the same key wait for one query instead of each issuing their own; when an entry is
+ * stale, one caller refreshes it while the others keep using the previous value. Transactions
+ * whose timestamp is further from the current time than the staleness bound bypass the cache.
+ */
+@Component
+public class MerchantRiskCache {
+    private final TransactionRepository transactionRepository;
+    private final long maxStalenessMillis;
+    private final ConcurrentMap<Key, CompletableFuture<MerchantRiskFactor>> entries =
+            new ConcurrentHashMap<>();
+
+    public MerchantRiskCache(TransactionRepository transactionRepository,
+            FraudDetectionProperties properties) {
+        this.transactionRepository = transactionRepository;
+        this.maxStalenessMillis = properties.getMerchantRisk().getMaxStaleness().toMillis();
+    }
+
+    /**
+     * Returns the merchant's rejection ratio over the window ending at {@code asOf}.
+     *
+     * @param merchantId the merchant to look up
+     * @param window length of the window
+     * @param asOf end of the window; values cached for the current time are reused when
+     *        {@code asOf} is within the staleness bound of it
+     */
+    public MerchantRiskFactor riskFactor(String merchantId, Duration window, ZonedDateTime asOf) {
+        long now = System.currentTimeMillis();
+        if (Math.abs(asOf.toInstant().toEpochMilli() - now) > maxStalenessMillis) {
+            return compute(merchantId, window, asOf);
+        }
+
+        Key key = new Key(merchantId, window);
+        while (true) {
+            CompletableFuture<MerchantRiskFactor> current = entries.get(key);
+            if (current == null) {
+                CompletableFuture<MerchantRiskFactor> created = new CompletableFuture<>();
+                current = entries.putIfAbsent(key, created);
+                if (current == null) {
+                    return load(key, created, asOf);
+                }
+            }
+
+            if (current.isCompletedExceptionally()) {
+                entries.remove(key, current);
+                continue;
+            }
+            if (!current.isDone()) {
+                return await(current);
+            }
+
+            MerchantRiskFactor cached = current.join();
+            if (now - cached.computedAtMillis() <= maxStalenessMillis) {
+                return cached;
+            }
+            CompletableFuture<MerchantRiskFactor> refreshed = new CompletableFuture<>();
+            if (entries.replace(key, current, refreshed)) {
+                return load(key, refreshed, asOf);
+            }
+            return cached;
+        }
+    }
+
+    /**
+     * Drops entries that have not been refreshed for several staleness periods.
+     */
+    @Scheduled(fixedDelayString = "${fraud-detection.merchant-risk.eviction-interval-ms:60000}")
+    public void evictExpired() {
+        long cutoff = System.currentTimeMillis() - 4 * maxStalenessMillis;
+        entries.entrySet().removeIf(entry -> {
+            CompletableFuture<MerchantRiskFactor> future = entry.getValue();
+            return future.isDone() && !future.isCompletedExceptionally()
+                    && future.join().computedAtMillis() < cutoff;
+        });
+    }
+
+    private MerchantRiskFactor await(CompletableFuture<MerchantRiskFactor> inFlight) {
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private MerchantRiskFactor load(Key key, CompletableFuture<MerchantRiskFactor> future,
+            ZonedDateTime asOf) {
+        try {
+            MerchantRiskFactor riskFactor = compute(key.merchantId(), key.window(), asOf);
+            future.complete(riskFactor);
+            return riskFactor;
+        } catch (RuntimeException e) {
+            entries.remove(key, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private MerchantRiskFactor compute(String merchantId, Duration window, ZonedDateTime asOf) {
+        List<StatusCount> histogram = transactionRepository
+                .countByStatusForMerchantInTimeWindow(merchantId, asOf.minus(window), asOf);
+
+        long totalCount = 0;
+        long rejectedCount = 0;
+        for (StatusCount statusCount : histogram) {
+            totalCount += statusCount.getTransactionCount();
+            if (statusCount.getStatus() == TransactionStatus.REJECTED) {
+                rejectedCount += statusCount.getTransactionCount();
+            }
+        }
+        return new MerchantRiskFactor(RuleScoring.rejectionRatio(rejectedCount, totalCount),
+                totalCount, System.currentTimeMillis());
+    }
+
+    /**
+     * Rejected share of a merchant's transactions in a window.
+     *
+     * @param rejectionRatioHundredths the ratio in hundredths, as scored by
+     *        {@link RuleScoring#merchantRisk}
+     */
+    public record MerchantRiskFactor(long rejectionRatioHundredths, long transactionCount,
+            long computedAtMillis) {
+
+        public BigDecimal rejectionRatio() {
+            return FixedPoint.toDecimal(rejectionRatioHundredths, 2);
+        }
+    }
+
+    private record Key(String merchantId, Duration window) {
+    }
+}
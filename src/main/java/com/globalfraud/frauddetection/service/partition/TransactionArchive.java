@@ -0,0 +1,174 @@
+package com.globalfraud.frauddetection.service.partition;
+
+import com.globalfraud.frauddetection.config.FraudDetectionProperties;
+import com.globalfraud.frauddetection.service.backtest.BacktestSource;
+import com.globalfraud.frauddetection.service.backtest.CsvBacktestSource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzipped CSV files of expired monthly {@code transactions} partitions, one per month, in
+ * {@code fraud-detection.partitioning.archive-directory}.
+ *
+ * <p>
+ * A file holds every column of the partition in timestamp order under a header of column names,
+ * with timestamps ISO-8601 with the system offset, in the format {@link CsvBacktestSource} reads.
+ * It is written to a temporary file and moved into place once complete, so a file that exists is
+ * whole.
+ */
+@Component
+public class TransactionArchive {
+    private static final String PREFIX = "transactions_";
+    private static final String SUFFIX = ".csv.gz";
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final Path directory;
+
+    public TransactionArchive(FraudDetectionProperties properties) {
+        String archiveDirectory = properties.getPartitioning().getArchiveDirectory();
+        this.directory = archiveDirectory.isBlank() ? null : Path.of(archiveDirectory);
+    }
+
+    /**
+     * Whether an archive directory is configured.
+     */
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    public boolean contains(YearMonth month) {
+        return directory != null && Files.isRegularFile(file(month));
+    }
+
+    /**
+     * The archived months, oldest first.
+     */
+    public List<YearMonth> months() {
+        if (directory == null || !Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            List<YearMonth> months = new ArrayList<>();
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .forEach(name -> {
+                        try {
+                            months.add(YearMonth.parse(name.substring(PREFIX.length(),
+                                    name.length() - SUFFIX.length()), MONTH));
+                        } catch (DateTimeParseException e) {
+                            // not an archive file
+                        }
+                    });
+            months.sort(null);
+            return months;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list transaction archive " + directory, e);
+        }
+    }
+
+    /**
+     * Writes all remaining rows of {@code rows} as the archive of {@code month}, replacing any
+     * previous one.
+     *
+     * @return the number of rows written
+     */
+    public long write(YearMonth month, ResultSet rows) throws IOException, SQLException {
+        Path target = file(month);
+        Files.createDirectories(directory);
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        long count = 0;
+        try {
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(temporary)),
+                    StandardCharsets.UTF_8))) {
+                ResultSetMetaData metaData = rows.getMetaData();
+                int columns = metaData.getColumnCount();
+                for (int i = 1; i <= columns; i++) {
+                    writer.write(i > 1 ? "," : "");
+                    writer.write(quote(metaData.getColumnLabel(i).toLowerCase()));
+                }
+                writer.write('\n');
+                ZoneId zone = ZoneId.systemDefault();
+                while (rows.next()) {
+                    for (int i = 1; i <= columns; i++) {
+                        writer.write(i > 1 ? "," : "");
+                        writer.write(quote(value(rows, i, metaData.getColumnType(i), zone)));
+                    }
+                    writer.write('\n');
+                    count++;
+                }
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        return count;
+    }
+
+    /**
+     * The archived transactions of {@code month} in {@code [warmupStart, to)}, scoring those from
+     * {@code from} on.
+     */
+    public BacktestSource source(YearMonth month, ZonedDateTime warmupStart, ZonedDateTime from,
+            ZonedDateTime to) {
+        Path file = file(month);
+        return sink -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+                new CsvBacktestSource(reader, warmupStart, from, to).forEachRow(sink);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read transaction archive " + file, e);
+            }
+        };
+    }
+
+    private Path file(YearMonth month) {
+        return directory.resolve(PREFIX + month.format(MONTH) + SUFFIX);
+    }
+
+    private static String value(ResultSet rows, int column, int type, ZoneId zone)
+            throws SQLException {
+        if (type == Types.TIMESTAMP) {
+            Timestamp timestamp = rows.getTimestamp(column);
+            return timestamp == null ? ""
+                    : timestamp.toInstant().atZone(zone).toOffsetDateTime().toString();
+        }
+        String value = rows.getString(column);
+        return value == null ? "" : value;
+    }
+
+    private static String quote(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,214 @@
+package com.globalfraud.frauddetection.service.partition;
+
+import com.globalfraud.frauddetection.config.FraudDetectionProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Maintains the monthly partitions of a PostgreSQL {@code transactions} table partitioned by
+ * {@code transaction_timestamp}; does nothing on other databases, such as H2, where it stays a
+ * single table.
+ *
+ * <p>
+ * Partitions for the current month and the configured number ahead are created as plain tables,
+ * filled with any of their rows that landed in {@code transactions_default}, and attached, which
+ * does not block inserts into the other partitions. Partitions that end before the retention
+ * period are detached, exported to the {@link TransactionArchive} and dropped together with their
+ * entries in {@code transaction_ids}, which keeps ids unique across partitions. Each step can be
+ * repeated: a partition found detached, or detached and archived, after a failure is finished on
+ * the next run, and without an archive directory expired partitions are kept detached.
+ */
+@Slf4j
+@Component
+public class TransactionPartitionManager {
+    private static final String PARTITION_PREFIX = "transactions_";
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final String PARTITIONED_SQL = "SELECT EXISTS (SELECT 1 "
+            + "FROM pg_partitioned_table WHERE partrelid = to_regclass('transactions'))";
+    private static final String ATTACHED_SQL = "SELECT c.relname FROM pg_inherits i "
+            + "JOIN pg_class c ON c.oid = i.inhrelid "
+            + "WHERE i.inhparent = to_regclass('transactions')";
+    private static final String DETACHED_SQL = "SELECT c.relname FROM pg_class c "
+            + "WHERE c.relkind = 'r' AND NOT c.relispartition "
+            + "AND c.relnamespace = current_schema()::regnamespace "
+            + "AND c.relname ~ '^transactions_[0-9]{4}_[0-9]{2}$'";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final TransactionArchive archive;
+    private final Duration retention;
+    private final int monthsAhead;
+    private final int fetchSize;
+
+    private volatile Boolean partitioned;
+
+    public TransactionPartitionManager(JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager, TransactionArchive archive,
+            FraudDetectionProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.archive = archive;
+        this.retention = properties.getPartitioning().getRetention();
+        this.monthsAhead = properties.getPartitioning().getMonthsAhead();
+        this.fetchSize = properties.getBacktest().getFetchSize();
+    }
+
+    @Scheduled(fixedDelayString = "${fraud-detection.partitioning.check-interval-ms:3600000}",
+            initialDelayString = "${fraud-detection.partitioning.initial-delay-ms:60000}")
+    public void maintainPartitions() {
+        try {
+            if (isPartitioned()) {
+                maintain(LocalDateTime.now());
+            }
+        } catch (RuntimeException e) {
+            log.error("Maintaining transaction partitions failed; retrying on the next run", e);
+        }
+    }
+
+    /**
+     * Creates the partitions due by {@code now} and expires those older than the retention period.
+     */
+    void maintain(LocalDateTime now) {
+        Set<YearMonth> attached = months(jdbcTemplate.queryForList(ATTACHED_SQL, String.class));
+        YearMonth current = YearMonth.from(now);
+        for (YearMonth month = current; !month.isAfter(current.plusMonths(monthsAhead));
+                month = month.plusMonths(1)) {
+            if (!attached.contains(month)) {
+                create(month);
+            }
+        }
+
+        LocalDateTime cutoff = now.minus(retention);
+        for (YearMonth month : attached) {
+            if (isExpired(month, cutoff)) {
+                jdbcTemplate.execute("ALTER TABLE transactions DETACH PARTITION "
+                        + partitionName(month));
+                log.info("Detached expired transaction partition {}", partitionName(month));
+            }
+        }
+        if (archive.isEnabled()) {
+            for (YearMonth month : months(jdbcTemplate.queryForList(DETACHED_SQL, String.class))) {
+                if (isExpired(month, cutoff)) {
+                    archiveAndDrop(month);
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether the whole of {@code month} is before {@code cutoff}.
+     */
+    static boolean isExpired(YearMonth month, LocalDateTime cutoff) {
+        return !month.plusMonths(1).atDay(1).atStartOfDay().isAfter(cutoff);
+    }
+
+    static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(MONTH);
+    }
+
+    /**
+     * The month of a partition named by {@link #partitionName}, if {@code name} is one.
+     */
+    static Optional<YearMonth> monthOf(String name) {
+        if (!name.startsWith(PARTITION_PREFIX)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(YearMonth.parse(name.substring(PARTITION_PREFIX.length()), MONTH));
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+
+    private boolean isPartitioned() {
+        if (partitioned == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            partitioned = "PostgreSQL".equals(product) && Boolean.TRUE.equals(
+                    jdbcTemplate.queryForObject(PARTITIONED_SQL, Boolean.class));
+            if (!partitioned) {
+                log.info("Transactions table is not partitioned; partition maintenance is off");
+            }
+        }
+        return partitioned;
+    }
+
+    private void create(YearMonth month) {
+        String table = partitionName(month);
+        Timestamp start = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+        Timestamp end = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+        int moved = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("CREATE TABLE " + table
+                    + " (LIKE transactions INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+            int rows = jdbcTemplate.update("WITH moved AS (DELETE FROM transactions_default "
+                    + "WHERE transaction_timestamp >= ? AND transaction_timestamp < ? "
+                    + "RETURNING *) INSERT INTO " + table + " SELECT * FROM moved", start, end);
+            jdbcTemplate.execute("ALTER TABLE transactions ATTACH PARTITION " + table
+                    + " FOR VALUES FROM ('" + start + "') TO ('" + end + "')");
+            return rows;
+        });
+        log.info("Created transaction partition {}, moving {} rows from the default partition",
+                table, moved);
+    }
+
+    private void archiveAndDrop(YearMonth month) {
+        String table = partitionName(month);
+        if (!archive.contains(month)) {
+            ResultSetExtractor<Long> writer = rs -> write(month, rs);
+            long rows = readOnlyTransactionTemplate.execute(status -> jdbcTemplate.query(
+                    connection -> {
+                        PreparedStatement statement = connection.prepareStatement(
+                                "SELECT * FROM " + table + " ORDER BY transaction_timestamp",
+                                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                        statement.setFetchSize(fetchSize);
+                        return statement;
+                    }, writer));
+            log.info("Archived {} transactions of partition {}", rows, table);
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM transaction_ids i USING " + table
+                    + " p WHERE i.id = p.id");
+            jdbcTemplate.execute("DROP TABLE " + table);
+        });
+        log.info("Dropped archived transaction partition {}", table);
+    }
+
+    private long write(YearMonth month, ResultSet rows) throws SQLException {
+        try {
+            return archive.write(month, rows);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to archive " + partitionName(month), e);
+        }
+    }
+
+    private static Set<YearMonth> months(List<String> names) {
+        Set<YearMonth> months = new TreeSet<>();
+        names.forEach(name -> monthOf(name).ifPresent(months::add));
+        return months;
+    }
+}
@@ -0,0 +1,230 @@
+package com.globalfraud.frauddetection.service.persistence;
+
+import com.globalfraud.frauddetection.config.FraudDetectionProperties;
+import com.globalfraud.frauddetection.domain.Transaction;
+import com.globalfraud.frauddetection.exception.PersistenceBackpressureException;
+import com.globalfraud.frauddetection.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional write-behind persistence for scored transactions.
+ *
+ * <p>
+ * When {@code fraud-detection.write-behind.enabled} is set, callers hand scored transactions to
+ * {@link #enqueue(Transaction)} and return their decision without waiting for the insert. A single
+ * background thread drains the bounded queue and writes whatever has accumulated, up to the
+ * configured batch size, in one database transaction. A full queue blocks callers for at most the
+ * enqueue timeout and then rejects the transaction with a {@link PersistenceBackpressureException}.
+ * {@link #enqueueAll(List)} reserves space for a whole batch first, so a rejected batch leaves
+ * nothing queued and can be retried as a whole.
+ * On shutdown the queue is drained after the web server has stopped accepting requests.
+ *
+ * <p>
+ * Transactions are inserted, not merged: a transaction whose id is already stored fails to write
+ * and is counted in {@code fraud.write-behind.failed}. When a batch fails, its transactions are
+ * retried one at a time so that one bad row does not drop the rest.
+ */
+@Slf4j
+@Component
+public class WriteBehindTransactionWriter implements SmartLifecycle {
+    /**
+     * Stops after the web server's graceful shutdown so that no request enqueues after the drain.
+     */
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final FraudDetectionProperties.WriteBehind settings;
+    private final BlockingQueue<Transaction> queue = new LinkedBlockingQueue<>();
+    private final Semaphore freeSlots;
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizes;
+    private final Counter failedWrites;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public WriteBehindTransactionWriter(TransactionRepository transactionRepository,
+            PlatformTransactionManager transactionManager, FraudDetectionProperties properties,
+            MeterRegistry meterRegistry) {
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.settings = properties.getWriteBehind();
+        this.freeSlots =
+                new Semaphore(settings.isEnabled() ? settings.getQueueCapacity() : 1, true);
+
+        Gauge.builder("fraud.write-behind.queue.depth", queue, BlockingQueue::size)
+                .description("Scored transactions waiting to be persisted")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("fraud.write-behind.flush")
+                .description("Time taken to persist one batch of queued transactions")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("fraud.write-behind.batch.size")
+                .description("Transactions persisted per flush").register(meterRegistry);
+        this.failedWrites = Counter.builder("fraud.write-behind.failed")
+                .description("Queued transactions that could not be persisted")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return settings.isEnabled();
+    }
+
+    /**
+     * Queues a scored transaction for persistence, waiting up to the enqueue timeout for space.
+     *
+     * @throws PersistenceBackpressureException if the queue stays full or the writer is stopped
+     */
+    public void enqueue(Transaction transaction) {
+        enqueueAll(List.of(transaction));
+    }
+
+    /**
+     * Queues scored transactions for persistence, all or none, waiting up to the enqueue timeout
+     * for space for all of them.
+     *
+     * @throws PersistenceBackpressureException if the space does not free up in time, the batch is
+     *         larger than the queue, or the writer is stopped; nothing is queued. Only the first
+     *         is {@linkplain PersistenceBackpressureException#isRetryable() retryable}
+     */
+    public void enqueueAll(List<Transaction> transactions) {
+        if (!running) {
+            throw new PersistenceBackpressureException("Transaction writer is not running",
+                    false);
+        }
+        if (transactions.isEmpty()) {
+            return;
+        }
+        if (transactions.size() > settings.getQueueCapacity()) {
+            throw new PersistenceBackpressureException("Batch of " + transactions.size()
+                    + " transactions exceeds the write queue capacity of "
+                    + settings.getQueueCapacity(), false);
+        }
+        try {
+            if (!freeSlots.tryAcquire(transactions.size(),
+                    settings.getEnqueueTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new PersistenceBackpressureException(
+                        "Transaction write queue is full; retry later");
+            }
+            queue.addAll(transactions);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PersistenceBackpressureException(
+                    "Interrupted while waiting for the transaction write queue", e);
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!settings.isEnabled() || running) {
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::drainLoop, "transaction-writer");
+        writerThread.start();
+        log.info("Write-behind persistence started (capacity {}, batch size {})",
+                settings.getQueueCapacity(), settings.getBatchSize());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            writerThread.join(settings.getShutdownTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            log.warn("Transaction writer did not drain within {}; {} transactions not persisted",
+                    settings.getShutdownTimeout(), queue.size());
+            return;
+        }
+
+        List<Transaction> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            flush(remaining);
+        }
+        log.info("Write-behind persistence stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void drainLoop() {
+        int batchSize = settings.getBatchSize();
+        long pollMillis = settings.getPollInterval().toMillis();
+        List<Transaction> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Transaction first = queue.poll(pollMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                freeSlots.release(batch.size());
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Transaction> batch) {
+        long start = System.nanoTime();
+        try {
+            insert(batch);
+        } catch (RuntimeException e) {
+            log.warn("Batched write of {} transactions failed; retrying individually",
+                    batch.size(), e);
+            for (Transaction transaction : batch) {
+                try {
+                    insert(List.of(transaction));
+                } catch (RuntimeException retryFailure) {
+                    failedWrites.increment();
+                    log.error("Failed to persist transaction {}", transaction.getId(),
+                            retryFailure);
+                }
+            }
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batchSizes.record(batch.size());
+        }
+    }
+
+    private void insert(List<Transaction> transactions) {
+        transactions.forEach(transaction -> transaction.setNewEntity(true));
+        transactionTemplate.executeWithoutResult(
+                status -> transactionRepository.saveAll(transactions));
+    }
+}
@@ -0,0 +1,129 @@
+package com.globalfraud.frauddetection.service.rule;
+
+import com.globalfraud.frauddetection.domain.FraudRule;
+import com.globalfraud.frauddetection.repository.FraudRuleRepository;
+import com.globalfraud.frauddetection.repository.FraudRuleRepository.RuleContent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory, priority-ordered snapshot of the active fraud rules, split into the live rules that
+ * decide and the shadow rules that are only evaluated for comparison.
+ *
+ * <p>
+ * Readers get an immutable list without touching the database or taking a lock. The snapshot is
+ * rebuilt and swapped atomically when {@link #refresh()} is called after rule CRUD, and a periodic
+ * version check picks up edits made directly in the database. The version is a digest of the
+ * content of every rule rather than {@code updated_at}, which a plain SQL update leaves alone.
+ * Rule configs are compiled before the new snapshot is published, so costly plans such as keyword
+ * automata are built on the refreshing thread rather than on the scoring path.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ActiveRuleSet {
+    private final FraudRuleRepository fraudRuleRepository;
+    private final RuleConfigCompiler ruleConfigCompiler;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    /**
+     * Returns the active live rules ordered by priority. The list is immutable and must not be
+     * modified.
+     */
+    public List<FraudRule> activeRules() {
+        return current().rules();
+    }
+
+    /**
+     * Returns the active shadow rules ordered by priority. The list is immutable and must not be
+     * modified.
+     */
+    public List<FraudRule> shadowRules() {
+        return current().shadowRules();
+    }
+
+    /**
+     * Reloads the active rules from the database and publishes a new snapshot. Uses a lock rather
+     * than {@code synchronized} so that a virtual thread blocked on the query does not pin its
+     * carrier.
+     */
+    public Snapshot refresh() {
+        refreshLock.lock();
+        try {
+            Version version = currentVersion();
+            Map<Boolean, List<FraudRule>> rules = fraudRuleRepository
+                    .findAllActiveRulesOrderedByPriority().stream()
+                    .collect(Collectors.partitioningBy(FraudRule::isShadow));
+            rules.values().forEach(list -> list.forEach(ruleConfigCompiler::configFor));
+
+            Snapshot refreshed = new Snapshot(List.copyOf(rules.get(false)),
+                    List.copyOf(rules.get(true)), version);
+            snapshot.set(refreshed);
+            log.debug("Loaded {} active fraud rules and {} shadow rules",
+                    refreshed.rules().size(), refreshed.shadowRules().size());
+            return refreshed;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${fraud-detection.rules.version-check-interval-ms:30000}",
+            initialDelayString = "${fraud-detection.rules.version-check-interval-ms:30000}")
+    public void checkForChanges() {
+        Snapshot current = snapshot.get();
+        if (current != null && !current.version().equals(currentVersion())) {
+            log.info("Fraud rules changed outside the API, reloading");
+            refresh();
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot.get();
+        return current != null ? current : refresh();
+    }
+
+    private Version currentVersion() {
+        List<RuleContent> rules = fraudRuleRepository.findRuleContent();
+        MessageDigest digest = sha256();
+        for (RuleContent rule : rules) {
+            String content = String.join("\u0000", String.valueOf(rule.getId()), rule.getName(),
+                    String.valueOf(rule.getRuleType()), rule.getRuleConfig(),
+                    String.valueOf(rule.getActive()), String.valueOf(rule.getShadow()),
+                    String.valueOf(rule.getPriority()), String.valueOf(rule.getReplacesRule()));
+            digest.update(content.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+        }
+        return new Version(rules.size(), HexFormat.of().formatHex(digest.digest()));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public record Snapshot(List<FraudRule> rules, List<FraudRule> shadowRules, Version version) {
+    }
+
+    /**
+     * Identifies the content of the rule table, active and inactive rules alike.
+     */
+    public record Version(long ruleCount, String digest) {
+    }
+}
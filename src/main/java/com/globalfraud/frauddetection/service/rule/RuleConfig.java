@@ -0,0 +1,94 @@
+package com.globalfraud.frauddetection.service.rule;
+
+import com.globalfraud.frauddetection.domain.RuleType;
+import com.globalfraud.frauddetection.service.FixedPoint;
+import com.globalfraud.frauddetection.service.expression.CompiledExpression;
+import com.globalfraud.frauddetection.service.keyword.KeywordAutomaton;
+import com.globalfraud.frauddetection.service.keyword.KeywordField;
+import com.globalfraud.frauddetection.service.velocity.VelocityDimension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Typed, immutable form of a {@code rule_config} JSON document. One variant exists per
+ * {@link RuleType}; instances are produced by {@link RuleConfigCompiler} and are safe to share
+ * across threads.
+ */
+public sealed interface RuleConfig {
+
+    /**
+     * @param thresholdUnits {@code threshold} in {@link FixedPoint} amount units, or
+     *        {@link FixedPoint#INEXACT}
+     */
+    record AmountThreshold(BigDecimal threshold, long thresholdUnits) implements RuleConfig {
+        public AmountThreshold(BigDecimal threshold) {
+            this(threshold, FixedPoint.toUnits(threshold, FixedPoint.AMOUNT_SCALE));
+        }
+    }
+
+    record VelocityCheck(VelocityDimension dimension, int maxTransactions, Duration timeWindow)
+            implements RuleConfig {
+    }
+
+    /**
+     * @param thresholdUnits {@code merchantRiskThreshold} in {@link FixedPoint} amount units, or
+     *        {@link FixedPoint#INEXACT}
+     */
+    record MerchantRisk(BigDecimal merchantRiskThreshold, Duration timeWindow, long thresholdUnits)
+            implements RuleConfig {
+        public MerchantRisk(BigDecimal merchantRiskThreshold, Duration timeWindow) {
+            this(merchantRiskThreshold, timeWindow,
+                    FixedPoint.toUnits(merchantRiskThreshold, FixedPoint.AMOUNT_SCALE));
+        }
+    }
+
+    /**
+     * @param thresholdUnits {@code averageTransactionThreshold} in {@link FixedPoint} amount
+     *        units, or {@link FixedPoint#INEXACT}
+     */
+    record CustomerHistory(BigDecimal averageTransactionThreshold, boolean useDecayedAverage,
+            long thresholdUnits) implements RuleConfig {
+        public CustomerHistory(BigDecimal averageTransactionThreshold, boolean useDecayedAverage) {
+            this(averageTransactionThreshold, useDecayedAverage,
+                    FixedPoint.toUnits(averageTransactionThreshold, FixedPoint.AMOUNT_SCALE));
+        }
+    }
+
+    /**
+     * @param score the score of a transaction whose address fails the cross-reference
+     * @param flagUnknownZip whether a malformed ZIP code, or one missing from the reference data,
+     *        fails the cross-reference; only sound with complete reference data
+     */
+    record LocationBased(double score, boolean flagUnknownZip) implements RuleConfig {
+    }
+
+    /**
+     * @param score the score of a transaction whose card is a known fraudulent one
+     */
+    record PatternMatching(double score) implements RuleConfig {
+    }
+
+    /**
+     * @param fields the transaction text screened
+     * @param keywords the keyword list, compiled
+     * @param score the score of a transaction whose text contains a keyword
+     */
+    record KeywordMatch(List<KeywordField> fields, KeywordAutomaton keywords, double score)
+            implements RuleConfig {
+    }
+
+    /**
+     * @param expression the rule's condition, compiled
+     * @param score the score of a transaction the condition holds for
+     */
+    record Expression(CompiledExpression expression, double score) implements RuleConfig {
+    }
+
+    /**
+     * Placeholder for rule types the evaluator does not implement yet; such rules never trigger.
+     */
+    record Unsupported(RuleType ruleType) implements RuleConfig {
+    }
+}
@@ -0,0 +1,339 @@
+package com.globalfraud.frauddetection.service.rule;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.globalfraud.frauddetection.domain.FraudRule;
+import com.globalfraud.frauddetection.domain.RuleType;
+import com.globalfraud.frauddetection.exception.InvalidRuleConfigException;
+import com.globalfraud.frauddetection.service.expression.CompiledExpression;
+import com.globalfraud.frauddetection.service.expression.ExpressionCompiler;
+import com.globalfraud.frauddetection.service.keyword.KeywordAutomaton;
+import com.globalfraud.frauddetection.service.keyword.KeywordField;
+import com.globalfraud.frauddetection.service.velocity.VelocityDimension;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiles {@code rule_config} JSON into {@link RuleConfig} plans.
+ *
+ * <p>
+ * {@link #compile(RuleType, String)} is used on the write path and rejects malformed configs with
+ * an {@link InvalidRuleConfigException}. {@link #configFor(FraudRule)} is used on the scoring path
+ * and returns a cached plan, recompiling only when the rule's type or config text changes. The plan
+ * a rule had before its last change is kept too, so that scoring still running against the
+ * previous rule snapshot does not rebuild it. This class is thread-safe.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RuleConfigCompiler {
+    /**
+     * FR-003's 25 points for an invalid area code, ZIP code, city and state cross-reference,
+     * added to the risk score as all FR-003 points are.
+     */
+    private static final double DEFAULT_LOCATION_SCORE = 0.25;
+
+    /**
+     * FR-003's 1000 points for a known fraudulent card: added to the risk score, which is capped
+     * at 1, it rejects the transaction whatever else triggered.
+     */
+    private static final double DEFAULT_PATTERN_SCORE = 1.0;
+
+    /**
+     * FR-003's 10 points for a PO Box address.
+     */
+    private static final double DEFAULT_KEYWORD_SCORE = 0.10;
+
+    /**
+     * Custom expressions trigger with full weight unless they say otherwise.
+     */
+    private static final double DEFAULT_EXPRESSION_SCORE = 1.0;
+
+    private static final int MAX_KEYWORDS = 100_000;
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<UUID, CompiledRule> compiledRules = new ConcurrentHashMap<>();
+
+    /**
+     * Parses and validates a rule configuration.
+     *
+     * @param ruleType the rule type the configuration belongs to
+     * @param ruleConfig the raw JSON configuration
+     * @return the compiled, immutable configuration
+     * @throws InvalidRuleConfigException if the JSON is malformed or a parameter is missing or out
+     *         of range
+     */
+    public RuleConfig compile(RuleType ruleType, String ruleConfig) {
+        if (ruleType == null) {
+            throw new InvalidRuleConfigException("Rule type is required");
+        }
+        if (ruleConfig == null || ruleConfig.isBlank()) {
+            throw new InvalidRuleConfigException("Rule configuration is required");
+        }
+
+        JsonNode config;
+        try {
+            config = objectMapper.readTree(ruleConfig);
+        } catch (JsonProcessingException e) {
+            throw new InvalidRuleConfigException("Rule configuration is not valid JSON", e);
+        }
+        if (config == null || !config.isObject()) {
+            throw new InvalidRuleConfigException("Rule configuration must be a JSON object");
+        }
+
+        return switch (ruleType) {
+            case AMOUNT_THRESHOLD -> new RuleConfig.AmountThreshold(
+                    positiveDecimal(ruleType, config, "threshold"));
+            case VELOCITY_CHECK -> new RuleConfig.VelocityCheck(
+                    velocityDimension(ruleType, config),
+                    positiveInt(ruleType, config, "maxTransactions"),
+                    Duration.ofMinutes(positiveInt(ruleType, config, "timeWindowMinutes")));
+            case MERCHANT_RISK -> new RuleConfig.MerchantRisk(
+                    positiveDecimal(ruleType, config, "merchantRiskThreshold"),
+                    Duration.ofHours(positiveInt(ruleType, config, "timeWindowHours")));
+            case CUSTOMER_HISTORY -> new RuleConfig.CustomerHistory(
+                    positiveDecimal(ruleType, config, "averageTransactionThreshold"),
+                    optionalBoolean(ruleType, config, "useDecayedAverage", false));
+            case LOCATION_BASED -> new RuleConfig.LocationBased(
+                    optionalScore(ruleType, config, "score", DEFAULT_LOCATION_SCORE),
+                    optionalBoolean(ruleType, config, "flagUnknownZip", false));
+            case PATTERN_MATCHING -> new RuleConfig.PatternMatching(
+                    optionalScore(ruleType, config, "score", DEFAULT_PATTERN_SCORE));
+            case KEYWORD_MATCH -> new RuleConfig.KeywordMatch(keywordFields(ruleType, config),
+                    keywordAutomaton(ruleType, config),
+                    optionalScore(ruleType, config, "score", DEFAULT_KEYWORD_SCORE));
+            case EXPRESSION -> new RuleConfig.Expression(expression(ruleType, config),
+                    optionalScore(ruleType, config, "score", DEFAULT_EXPRESSION_SCORE));
+            default -> new RuleConfig.Unsupported(ruleType);
+        };
+    }
+
+    /**
+     * Validates the configuration of a rule that is about to be written.
+     *
+     * @throws InvalidRuleConfigException if the configuration cannot be compiled
+     */
+    public void validate(FraudRule rule) {
+        compile(rule.getRuleType(), rule.getRuleConfig());
+    }
+
+    /**
+     * Returns the compiled configuration for a rule, compiling it at most once per distinct config.
+     * A configuration that fails to compile (for example one edited directly in the database) is
+     * logged and treated as {@link RuleConfig.Unsupported} so that scoring can proceed.
+     */
+    public RuleConfig configFor(FraudRule rule) {
+        UUID ruleId = rule.getId();
+        if (ruleId == null) {
+            return compileOrDisable(rule);
+        }
+
+        CompiledRule cached = compiledRules.get(ruleId);
+        if (cached != null && cached.matches(rule)) {
+            return cached.config();
+        }
+        if (cached != null && cached.previous() != null && cached.previous().matches(rule)) {
+            return cached.previous().config();
+        }
+
+        RuleConfig config = compileOrDisable(rule);
+        compiledRules.put(ruleId, new CompiledRule(rule.getRuleType(), rule.getRuleConfig(),
+                config, cached != null ? cached.withoutPrevious() : null));
+        return config;
+    }
+
+    /**
+     * Drops the cached plan of a rule that was updated or deleted.
+     */
+    public void evict(UUID ruleId) {
+        compiledRules.remove(ruleId);
+    }
+
+    private RuleConfig compileOrDisable(FraudRule rule) {
+        try {
+            return compile(rule.getRuleType(), rule.getRuleConfig());
+        } catch (InvalidRuleConfigException e) {
+            log.warn("Disabling rule '{}' ({}): {}", rule.getName(), rule.getId(), e.getMessage());
+            return new RuleConfig.Unsupported(rule.getRuleType());
+        }
+    }
+
+    private BigDecimal positiveDecimal(RuleType ruleType, JsonNode config, String field) {
+        JsonNode node = config.get(field);
+        if (node == null || node.isNull() || node.isContainerNode()) {
+            throw missing(ruleType, field);
+        }
+        BigDecimal value;
+        try {
+            value = new BigDecimal(node.asText());
+        } catch (NumberFormatException e) {
+            throw new InvalidRuleConfigException(String.format(
+                    "%s parameter '%s' must be a decimal number", ruleType, field), e);
+        }
+        if (value.signum() <= 0) {
+            throw new InvalidRuleConfigException(
+                    String.format("%s parameter '%s' must be positive", ruleType, field));
+        }
+        return value;
+    }
+
+    private int positiveInt(RuleType ruleType, JsonNode config, String field) {
+        JsonNode node = config.get(field);
+        if (node == null || node.isNull() || node.isContainerNode()) {
+            throw missing(ruleType, field);
+        }
+        if (!(node.isIntegralNumber() && node.canConvertToInt()) && !node.isTextual()) {
+            throw new InvalidRuleConfigException(
+                    String.format("%s parameter '%s' must be an integer", ruleType, field));
+        }
+        int value;
+        try {
+            value = node.isTextual() ? Integer.parseInt(node.asText().trim()) : node.intValue();
+        } catch (NumberFormatException e) {
+            throw new InvalidRuleConfigException(
+                    String.format("%s parameter '%s' must be an integer", ruleType, field), e);
+        }
+        if (value <= 0) {
+            throw new InvalidRuleConfigException(
+                    String.format("%s parameter '%s' must be positive", ruleType, field));
+        }
+        return value;
+    }
+
+    private double optionalScore(RuleType ruleType, JsonNode config, String field,
+            double defaultValue) {
+        JsonNode node = config.get(field);
+        if (node == null || node.isNull()) {
+            return defaultValue;
+        }
+        BigDecimal value = positiveDecimal(ruleType, config, field);
+        if (value.compareTo(BigDecimal.ONE) > 0) {
+            throw new InvalidRuleConfigException(
+                    String.format("%s parameter '%s' must not exceed 1", ruleType, field));
+        }
+        return value.doubleValue();
+    }
+
+    private boolean optionalBoolean(RuleType ruleType, JsonNode config, String field,
+            boolean defaultValue) {
+        JsonNode node = config.get(field);
+        if (node == null || node.isNull()) {
+            return defaultValue;
+        }
+        if (!node.isBoolean()) {
+            throw new InvalidRuleConfigException(
+                    String.format("%s parameter '%s' must be a boolean", ruleType, field));
+        }
+        return node.booleanValue();
+    }
+
+    private VelocityDimension velocityDimension(RuleType ruleType, JsonNode config) {
+        JsonNode node = config.get("dimension");
+        if (node == null || node.isNull()) {
+            return VelocityDimension.CUSTOMER;
+        }
+        try {
+            return VelocityDimension.valueOf(node.asText().trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRuleConfigException(String.format(
+                    "%s parameter 'dimension' must be one of %s", ruleType,
+                    Arrays.toString(VelocityDimension.values())), e);
+        }
+    }
+
+    private List<KeywordField> keywordFields(RuleType ruleType, JsonNode config) {
+        List<KeywordField> fields = new ArrayList<>();
+        for (JsonNode node : nonEmptyArray(ruleType, config, "fields")) {
+            try {
+                fields.add(KeywordField.valueOf(node.asText().trim().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidRuleConfigException(String.format(
+                        "%s parameter 'fields' must contain only %s", ruleType,
+                        Arrays.toString(KeywordField.values())), e);
+            }
+        }
+        return List.copyOf(fields);
+    }
+
+    private KeywordAutomaton keywordAutomaton(RuleType ruleType, JsonNode config) {
+        JsonNode keywords = nonEmptyArray(ruleType, config, "keywords");
+        if (keywords.size() > MAX_KEYWORDS) {
+            throw new InvalidRuleConfigException(String.format(
+                    "%s parameter 'keywords' must have at most %d entries", ruleType,
+                    MAX_KEYWORDS));
+        }
+        List<String> values = new ArrayList<>(keywords.size());
+        for (JsonNode node : keywords) {
+            if (!node.isTextual()) {
+                throw new InvalidRuleConfigException(String.format(
+                        "%s parameter 'keywords' must contain only strings", ruleType));
+            }
+            values.add(node.textValue());
+        }
+        try {
+            return KeywordAutomaton.compile(values,
+                    optionalBoolean(ruleType, config, "wholeWords", true));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRuleConfigException(
+                    String.format("%s parameter 'keywords': %s", ruleType, e.getMessage()), e);
+        }
+    }
+
+    private CompiledExpression expression(RuleType ruleType, JsonNode config) {
+        JsonNode node = config.get("expression");
+        if (node == null || node.isNull()) {
+            throw missing(ruleType, "expression");
+        }
+        if (!node.isTextual()) {
+            throw new InvalidRuleConfigException(
+                    String.format("%s parameter 'expression' must be a string", ruleType));
+        }
+        try {
+            return ExpressionCompiler.compile(node.textValue());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRuleConfigException(
+                    String.format("%s parameter 'expression': %s", ruleType, e.getMessage()), e);
+        }
+    }
+
+    private JsonNode nonEmptyArray(RuleType ruleType, JsonNode config, String field) {
+        JsonNode node = config.get(field);
+        if (node == null || node.isNull()) {
+            throw missing(ruleType, field);
+        }
+        if (!node.isArray() || node.isEmpty()) {
+            throw new InvalidRuleConfigException(
+                    String.format("%s parameter '%s' must be a non-empty array", ruleType, field));
+        }
+        return node;
+    }
+
+    private InvalidRuleConfigException missing(RuleType ruleType, String field) {
+        return new InvalidRuleConfigException(
+                String.format("%s rule configuration requires parameter '%s'", ruleType, field));
+    }
+
+    private record CompiledRule(RuleType ruleType, String source, RuleConfig config,
+            CompiledRule previous) {
+        boolean matches(FraudRule rule) {
+            return ruleType == rule.getRuleType() && Objects.equals(source, rule.getRuleConfig());
+        }
+
+        CompiledRule withoutPrevious() {
+            return new CompiledRule(ruleType, source, config, null);
+        }
+    }
+}
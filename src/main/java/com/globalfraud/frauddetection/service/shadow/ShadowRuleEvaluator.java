@@ -0,0 +1,251 @@
+package com.globalfraud.frauddetection.service.shadow;
+
+import com.globalfraud.frauddetection.config.FraudDetectionProperties;
+import com.globalfraud.frauddetection.domain.FraudRule;
+import com.globalfraud.frauddetection.domain.ShadowDecision;
+import com.globalfraud.frauddetection.domain.Transaction;
+import com.globalfraud.frauddetection.domain.TransactionStatus;
+import com.globalfraud.frauddetection.repository.ShadowDecisionRepository;
+import com.globalfraud.frauddetection.service.RuleEvaluator;
+import com.globalfraud.frauddetection.service.RuleOutcome;
+import com.globalfraud.frauddetection.service.ScoreTotal;
+import com.globalfraud.frauddetection.service.ScoringMetrics;
+import com.globalfraud.frauddetection.service.TransactionFacts;
+import com.globalfraud.frauddetection.service.rule.ActiveRuleSet;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates shadow rules off the scoring path and records the decision each checked transaction
+ * would have received had they been live.
+ *
+ * <p>
+ * {@link #submit} never blocks: the live decisions are queued for a small pool of low-priority
+ * background threads, and when the queue is full they are dropped and counted in
+ * {@code fraud.shadow.dropped}. Shadow rules run one at a time against the
+ * {@link TransactionFacts} of the live evaluation, so they see every aggregate as it was at
+ * decision time: those the live rules looked up are reused, and those only shadow rules need are
+ * looked up by {@link #prepare} before the transaction itself is recorded, which adds those
+ * lookups to the scoring path. The hypothetical decision combines the triggered live and shadow
+ * scores exactly as the live decision does, leaving out the live rules a shadow rule
+ * {@linkplain FraudRule#getReplacesRule() replaces}. A shadow rule that fails is logged, counted
+ * in {@code fraud.shadow.failed} and treated as not triggered.
+ */
+@Slf4j
+@Component
+public class ShadowRuleEvaluator {
+    private static final int MAX_TRIGGERED_RULES_LENGTH = 4000;
+
+    private final ActiveRuleSet activeRuleSet;
+    private final RuleEvaluator ruleEvaluator;
+    private final ShadowDecisionRepository shadowDecisionRepository;
+    private final ScoringMetrics metrics;
+    private final boolean enabled;
+    private final ThreadPoolExecutor executor;
+    private final Counter dropped;
+    private final Counter failed;
+    private final Counter[][] decisionCounters;
+
+    public ShadowRuleEvaluator(ActiveRuleSet activeRuleSet, RuleEvaluator ruleEvaluator,
+            ShadowDecisionRepository shadowDecisionRepository, ScoringMetrics metrics,
+            FraudDetectionProperties properties, MeterRegistry meterRegistry) {
+        FraudDetectionProperties.Shadow settings = properties.getShadow();
+        this.activeRuleSet = activeRuleSet;
+        this.ruleEvaluator = ruleEvaluator;
+        this.shadowDecisionRepository = shadowDecisionRepository;
+        this.metrics = metrics;
+        this.enabled = settings.isEnabled();
+        this.dropped = Counter.builder("fraud.shadow.dropped")
+                .description("Checks not shadowed because the shadow queue was full")
+                .register(meterRegistry);
+        this.failed = Counter.builder("fraud.shadow.failed")
+                .description("Shadow rule evaluations and shadow decision writes that failed")
+                .register(meterRegistry);
+        this.executor = new ThreadPoolExecutor(settings.getThreads(), settings.getThreads(), 0,
+                TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(settings.getQueueCapacity()),
+                Thread.ofPlatform().name("shadow-rules-", 0).daemon(true)
+                        .priority(Thread.MIN_PRIORITY).factory(),
+                (task, pool) -> dropped.increment(((ShadowTask) task).decisions.size()));
+        Gauge.builder("fraud.shadow.queue.depth", executor.getQueue(), BlockingQueue::size)
+                .description("Shadow evaluations waiting for a thread").register(meterRegistry);
+
+        TransactionStatus[] statuses = TransactionStatus.values();
+        this.decisionCounters = new Counter[statuses.length][statuses.length];
+        for (TransactionStatus status : statuses) {
+            for (TransactionStatus shadowStatus : statuses) {
+                decisionCounters[status.ordinal()][shadowStatus.ordinal()] =
+                        Counter.builder("fraud.shadow.decisions")
+                                .description("Shadowed checks by live and hypothetical decision")
+                                .tags("status", status.name(), "shadow_status",
+                                        shadowStatus.name())
+                                .register(meterRegistry);
+            }
+        }
+    }
+
+    /**
+     * The shadow rules to evaluate after each decision, ordered by priority; empty when shadow
+     * evaluation is disabled.
+     */
+    public List<FraudRule> rules() {
+        return enabled ? activeRuleSet.shadowRules() : List.of();
+    }
+
+    /**
+     * Looks up the aggregates the shadow rules read that the live rules did not, so that the
+     * shadow rules see them as of the decision. Call before the transactions are persisted or
+     * queued; a lookup that fails is left to the background evaluation.
+     *
+     * @param rules the shadow rules, as returned by {@link #rules()} before the decisions were made
+     * @param decisions the live decisions to shadow, not yet persisted
+     */
+    public void prepare(List<FraudRule> rules, List<LiveDecision> decisions) {
+        for (FraudRule rule : rules) {
+            if (!ruleEvaluator.requiresIo(rule)) {
+                continue;
+            }
+            for (LiveDecision decision : decisions) {
+                try {
+                    ruleEvaluator.evaluateRule(decision.transaction(), rule, decision.facts());
+                } catch (RuntimeException e) {
+                    log.debug("Shadow rule {} lookups failed for transaction {}", rule.getName(),
+                            decision.transaction().getId(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Queues the live decisions for evaluation against the shadow rules and returns at once,
+     * dropping them if the queue is full.
+     *
+     * @param rules the shadow rules, as returned by {@link #rules()} before the decisions were made
+     * @param decisions the live decisions to shadow, already persisted or queued for persistence
+     */
+    public void submit(List<FraudRule> rules, List<LiveDecision> decisions) {
+        if (!rules.isEmpty() && !decisions.isEmpty()) {
+            executor.execute(new ShadowTask(rules, decisions));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Evaluates the shadow rules for one live decision.
+     */
+    ShadowDecision evaluate(List<FraudRule> rules, LiveDecision decision) {
+        Set<String> replaced = new HashSet<>();
+        for (FraudRule rule : rules) {
+            if (rule.getReplacesRule() != null) {
+                replaced.add(rule.getReplacesRule());
+            }
+        }
+        ScoreTotal total = new ScoreTotal();
+        decision.triggeredRules().forEach((name, outcome) -> {
+            if (!replaced.contains(name)) {
+                total.add(outcome);
+            }
+        });
+        List<String> triggeredRules = new ArrayList<>();
+        for (FraudRule rule : rules) {
+            long start = metrics.start();
+            RuleOutcome outcome;
+            try {
+                outcome = ruleEvaluator.evaluateRule(decision.transaction(), rule,
+                        decision.facts());
+            } catch (RuntimeException e) {
+                failed.increment();
+                log.warn("Shadow rule {} failed for transaction {}", rule.getName(),
+                        decision.transaction().getId(), e);
+                continue;
+            }
+            metrics.recordRule(rule, outcome, start);
+            if (outcome.triggered()) {
+                triggeredRules.add(rule.getName());
+                total.add(outcome);
+            }
+        }
+
+        TransactionStatus shadowStatus = total.status();
+        if (decision.incomplete() && shadowStatus == TransactionStatus.APPROVED) {
+            shadowStatus = TransactionStatus.FLAGGED_FOR_REVIEW;
+        }
+        String triggered = String.join(",", triggeredRules);
+
+        ShadowDecision shadowDecision = new ShadowDecision();
+        shadowDecision.setTransactionId(decision.transaction().getId());
+        shadowDecision.setStatus(decision.status());
+        shadowDecision.setRiskScore(decision.riskScore());
+        shadowDecision.setShadowStatus(shadowStatus);
+        shadowDecision.setShadowRiskScore(total.riskScore());
+        shadowDecision.setTriggeredRules(triggered.isEmpty() ? null
+                : triggered.substring(0, Math.min(triggered.length(),
+                        MAX_TRIGGERED_RULES_LENGTH)));
+        decisionCounters[decision.status().ordinal()][shadowStatus.ordinal()].increment();
+        return shadowDecision;
+    }
+
+    private void record(List<FraudRule> rules, List<LiveDecision> decisions) {
+        List<ShadowDecision> shadowDecisions = new ArrayList<>(decisions.size());
+        for (LiveDecision decision : decisions) {
+            shadowDecisions.add(evaluate(rules, decision));
+        }
+        try {
+            shadowDecisionRepository.saveAll(shadowDecisions);
+        } catch (RuntimeException e) {
+            failed.increment(shadowDecisions.size());
+            log.warn("Failed to record {} shadow decisions", shadowDecisions.size(), e);
+        }
+    }
+
+    /**
+     * A live decision to shadow.
+     *
+     * @param transaction the scored transaction
+     * @param facts the aggregates the live rules looked up
+     * @param triggeredRules the outcomes of the triggered live rules, by rule name
+     * @param incomplete whether some live rules did not finish in time
+     * @param status the live decision
+     * @param riskScore the live risk score
+     */
+    public record LiveDecision(Transaction transaction, TransactionFacts facts,
+            Map<String, RuleOutcome> triggeredRules, boolean incomplete, TransactionStatus status,
+            BigDecimal riskScore) {
+    }
+
+    /**
+     * Queued work; a class of its own so that the rejection handler can count what it drops.
+     */
+    private final class ShadowTask implements Runnable {
+        private final List<FraudRule> rules;
+        private final List<LiveDecision> decisions;
+
+        private ShadowTask(List<FraudRule> rules, List<LiveDecision> decisions) {
+            this.rules = rules;
+            this.decisions = decisions;
+        }
+
+        @Override
+        public void run() {
+            record(rules, decisions);
+        }
+    }
+}
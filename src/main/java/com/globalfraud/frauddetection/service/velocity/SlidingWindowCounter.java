@@ -0,0 +1,138 @@
+package com.globalfraud.frauddetection.service.velocity;
+
+import java.util.Arrays;
+
+/**
+ * Time-bucketed ring buffer of event counts for a single key.
+ *
+ * <p>
+ * Buckets are identified by their absolute index ({@code epochMillis / bucketWidth}); a slot is
+ * reused once the ring wraps, so only the most recent {@code capacity} buckets are retained. Events
+ * older than the retained range are dropped. All methods are synchronized; contention is limited
+ * to concurrent transactions of the same key.
+ *
+ * <p>
+ * Events recorded between {@link #beginHydration()} and {@link #hydrate(long[])} are replayed on
+ * top of the hydrated contents, so an event the hydration query missed is not lost; one it also
+ * returned is counted twice until its bucket leaves the window.
+ */
+public final class SlidingWindowCounter {
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final long[] buckets;
+    private final int[] counts;
+    private long newestBucket = EMPTY;
+    private boolean hydrated;
+    private int hydrationsInProgress;
+    private long[] pending = new long[0];
+    private int pendingCount;
+
+    public SlidingWindowCounter(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.buckets = new long[capacity];
+        this.counts = new int[capacity];
+        Arrays.fill(buckets, EMPTY);
+    }
+
+    /**
+     * Records one event in the given bucket.
+     */
+    public synchronized void increment(long bucket) {
+        if (hydrationsInProgress > 0) {
+            if (pendingCount == pending.length) {
+                pending = Arrays.copyOf(pending, Math.max(8, pendingCount * 2));
+            }
+            pending[pendingCount++] = bucket;
+        }
+        add(bucket);
+    }
+
+    private void add(long bucket) {
+        int slot = slotOf(bucket);
+        if (buckets[slot] == bucket) {
+            counts[slot]++;
+        } else if (buckets[slot] < bucket) {
+            buckets[slot] = bucket;
+            counts[slot] = 1;
+        } else {
+            return;
+        }
+        if (bucket > newestBucket) {
+            newestBucket = bucket;
+        }
+    }
+
+    /**
+     * Returns the number of events in buckets {@code fromBucket..toBucket} inclusive.
+     */
+    public synchronized long sum(long fromBucket, long toBucket) {
+        long total = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            long bucket = buckets[i];
+            if (bucket >= fromBucket && bucket <= toBucket) {
+                total += counts[i];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Whether buckets starting at {@code fromBucket} are still retained by the ring.
+     */
+    public synchronized boolean covers(long fromBucket) {
+        return newestBucket == EMPTY || fromBucket > newestBucket - buckets.length;
+    }
+
+    /**
+     * Starts remembering recorded events until the matching {@link #hydrate(long[])}; call before
+     * querying the events to hydrate from.
+     */
+    public synchronized void beginHydration() {
+        hydrationsInProgress++;
+    }
+
+    /**
+     * Replaces the counter's contents with the given bucket indices, one entry per event, plus
+     * the events recorded since the earliest hydration in progress began.
+     */
+    public synchronized void hydrate(long[] eventBuckets) {
+        Arrays.fill(buckets, EMPTY);
+        Arrays.fill(counts, 0);
+        newestBucket = EMPTY;
+        for (long bucket : eventBuckets) {
+            add(bucket);
+        }
+        for (int i = 0; i < pendingCount; i++) {
+            add(pending[i]);
+        }
+        if (hydrationsInProgress > 0 && --hydrationsInProgress == 0) {
+            pending = new long[0];
+            pendingCount = 0;
+        }
+        hydrated = true;
+    }
+
+    /**
+     * Abandons a hydration begun with {@link #beginHydration()} whose query failed.
+     */
+    public synchronized void abortHydration() {
+        if (hydrationsInProgress > 0 && --hydrationsInProgress == 0) {
+            pending = new long[0];
+            pendingCount = 0;
+        }
+    }
+
+    public synchronized boolean isHydrated() {
+        return hydrated;
+    }
+
+    public synchronized long newestBucket() {
+        return newestBucket;
+    }
+
+    private int slotOf(long bucket) {
+        return (int) Math.floorMod(bucket, (long) buckets.length);
+    }
+}
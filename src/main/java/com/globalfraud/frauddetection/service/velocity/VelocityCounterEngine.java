@@ -0,0 +1,161 @@
+package com.globalfraud.frauddetection.service.velocity;
+
+import com.globalfraud.frauddetection.config.FraudDetectionProperties;
+import com.globalfraud.frauddetection.domain.Transaction;
+import com.globalfraud.frauddetection.repository.TransactionRepository;
+import com.globalfraud.frauddetection.service.TransactionListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-process sliding-window transaction counters, partitioned by {@link VelocityDimension}.
+ *
+ * <p>
+ * Each key owns a {@link SlidingWindowCounter} covering the configured horizon. A counter is
+ * hydrated from the database the first time it is queried and is then kept current by
+ * {@link #onTransactionSaved(Transaction)}, so steady-state queries cost O(buckets) and no
+ * database access. Counts are accurate to one bucket width and may include up to one extra bucket
+ * of history. Windows longer than the horizon, or queries for instants the ring no longer covers,
+ * fall back to a database count. Counters only see transactions recorded by this instance after
+ * hydration; those recorded while the hydration query runs are kept.
+ */
+@Slf4j
+@Component
+public class VelocityCounterEngine implements TransactionListener {
+    private final TransactionRepository transactionRepository;
+    private final long bucketWidthMillis;
+    private final Duration horizon;
+    private final int capacity;
+    private final Map<VelocityDimension, ConcurrentMap<String, SlidingWindowCounter>> counters =
+            new EnumMap<>(VelocityDimension.class);
+
+    public VelocityCounterEngine(TransactionRepository transactionRepository,
+            FraudDetectionProperties properties) {
+        this.transactionRepository = transactionRepository;
+        this.bucketWidthMillis = properties.getVelocity().getBucketWidth().toMillis();
+        this.horizon = properties.getVelocity().getHorizon();
+        if (bucketWidthMillis <= 0 || horizon.toMillis() < bucketWidthMillis) {
+            throw new IllegalArgumentException(
+                    "Velocity horizon must be at least one positive bucket width");
+        }
+        this.capacity = (int) ceilDiv(horizon.toMillis(), bucketWidthMillis) + 2;
+        for (VelocityDimension dimension : VelocityDimension.values()) {
+            counters.put(dimension, new ConcurrentHashMap<>());
+        }
+    }
+
+    @Override
+    public void onTransactionSaved(Transaction transaction) {
+        record(transaction);
+    }
+
+    /**
+     * Adds a persisted transaction to the counters of every dimension.
+     */
+    public void record(Transaction transaction) {
+        long bucket = bucketOf(transaction.getTransactionTimestamp());
+        for (VelocityDimension dimension : VelocityDimension.values()) {
+            String key = dimension.keyOf(transaction);
+            if (key != null) {
+                counters.get(dimension)
+                        .computeIfAbsent(key, k -> new SlidingWindowCounter(capacity))
+                        .increment(bucket);
+            }
+        }
+    }
+
+    /**
+     * Counts transactions for a key in the window ending at {@code asOf}.
+     *
+     * @param dimension the dimension the key belongs to
+     * @param key the customer or merchant identifier
+     * @param asOf end of the window (inclusive)
+     * @param window length of the window
+     * @return the number of recorded transactions in the window
+     */
+    public long count(VelocityDimension dimension, String key, ZonedDateTime asOf,
+            Duration window) {
+        if (window.compareTo(horizon) > 0) {
+            return countFromDatabase(dimension, key, asOf.minus(window), asOf);
+        }
+
+        SlidingWindowCounter counter = counters.get(dimension).computeIfAbsent(key,
+                k -> new SlidingWindowCounter(capacity));
+        if (!counter.isHydrated()) {
+            hydrate(dimension, key, counter, asOf);
+        }
+
+        long toBucket = bucketOf(asOf);
+        long fromBucket = toBucket - ceilDiv(window.toMillis(), bucketWidthMillis);
+        if (!counter.covers(fromBucket)) {
+            return countFromDatabase(dimension, key, asOf.minus(window), asOf);
+        }
+        return counter.sum(fromBucket, toBucket);
+    }
+
+    /**
+     * Drops counters whose newest bucket has left the horizon.
+     */
+    @Scheduled(fixedDelayString = "${fraud-detection.velocity.eviction-interval-ms:60000}")
+    public void evictIdleCounters() {
+        long oldestRetained = System.currentTimeMillis() / bucketWidthMillis - capacity;
+        counters.values().forEach(byKey -> byKey.values()
+                .removeIf(counter -> counter.newestBucket() < oldestRetained));
+    }
+
+    private void hydrate(VelocityDimension dimension, String key, SlidingWindowCounter counter,
+            ZonedDateTime asOf) {
+        ZonedDateTime now = ZonedDateTime.now(asOf.getZone());
+        ZonedDateTime start = (asOf.isBefore(now) ? asOf : now).minus(horizon);
+        ZonedDateTime end = asOf.isAfter(now) ? asOf : now;
+
+        counter.beginHydration();
+        List<ZonedDateTime> timestamps;
+        try {
+            timestamps = switch (dimension) {
+                case CUSTOMER -> transactionRepository
+                        .findTransactionTimestampsByCustomerInTimeWindow(key, start, end);
+                case MERCHANT -> transactionRepository
+                        .findTransactionTimestampsByMerchantInTimeWindow(key, start, end);
+            };
+        } catch (RuntimeException e) {
+            counter.abortHydration();
+            throw e;
+        }
+
+        long[] eventBuckets = new long[timestamps.size()];
+        for (int i = 0; i < eventBuckets.length; i++) {
+            eventBuckets[i] = bucketOf(timestamps.get(i));
+        }
+        counter.hydrate(eventBuckets);
+        log.debug("Hydrated {} velocity counter for {} with {} transactions", dimension, key,
+                eventBuckets.length);
+    }
+
+    private long countFromDatabase(VelocityDimension dimension, String key,
+            ZonedDateTime startTime, ZonedDateTime endTime) {
+        return switch (dimension) {
+            case CUSTOMER -> transactionRepository.countTransactionsByCustomerInTimeWindow(key,
+                    startTime, endTime);
+            case MERCHANT -> transactionRepository.countTransactionsByMerchantInTimeWindow(key,
+                    startTime, endTime);
+        };
+    }
+
+    private long bucketOf(ZonedDateTime timestamp) {
+        return Math.floorDiv(timestamp.toInstant().toEpochMilli(), bucketWidthMillis);
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return -Math.floorDiv(-dividend, divisor);
+    }
+}
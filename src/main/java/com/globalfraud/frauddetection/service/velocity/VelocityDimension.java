@@ -0,0 +1,22 @@
+package com.globalfraud.frauddetection.service.velocity;
+
+import com.globalfraud.frauddetection.domain.Transaction;
+
+import java.util.function.Function;
+
+/**
+ * Key a velocity counter is partitioned by.
+ */
+public enum VelocityDimension {
+    CUSTOMER(Transaction::getCustomerId), MERCHANT(Transaction::getMerchantId);
+
+    private final Function<Transaction, String> keyExtractor;
+
+    VelocityDimension(Function<Transaction, String> keyExtractor) {
+        this.keyExtractor = keyExtractor;
+    }
+
+    public String keyOf(Transaction transaction) {
+        return keyExtractor.apply(transaction);
+    }
+}
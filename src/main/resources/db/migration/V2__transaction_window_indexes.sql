@@ -0,0 +1,11 @@
+-- Composite indexes for the per-customer and per-merchant time-window queries used by the
+-- fraud rules. Status and amount are trailing key columns so counts, sums and status histograms
+-- can be answered from the index alone. They supersede the single-column indexes from V1.
+CREATE INDEX idx_transactions_customer_timestamp
+    ON transactions(customer_id, transaction_timestamp, status, amount);
+
+CREATE INDEX idx_transactions_merchant_timestamp
+    ON transactions(merchant_id, transaction_timestamp, status, amount);
+
+DROP INDEX IF EXISTS idx_transactions_customer;
+DROP INDEX IF EXISTS idx_transactions_merchant;
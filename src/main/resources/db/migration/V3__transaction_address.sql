@@ -0,0 +1,6 @@
+-- Billing address fields cross-referenced by LOCATION_BASED rules. All optional, so existing
+-- rows and clients that do not send an address are unaffected.
+ALTER TABLE transactions ADD COLUMN city VARCHAR(100);
+ALTER TABLE transactions ADD COLUMN state VARCHAR(2);
+ALTER TABLE transactions ADD COLUMN zip_code VARCHAR(10);
+ALTER TABLE transactions ADD COLUMN area_code VARCHAR(3);
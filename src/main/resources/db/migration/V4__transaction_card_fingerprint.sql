@@ -0,0 +1,3 @@
+-- Hashed card number checked against known fraudulent cards by PATTERN_MATCHING rules. Optional,
+-- like the address fields.
+ALTER TABLE transactions ADD COLUMN card_fingerprint VARCHAR(128);
@@ -0,0 +1,4 @@
+-- Free-text fields screened by KEYWORD_MATCH rules. All optional.
+ALTER TABLE transactions ADD COLUMN address_line VARCHAR(200);
+ALTER TABLE transactions ADD COLUMN merchant_name VARCHAR(200);
+ALTER TABLE transactions ADD COLUMN merchant_descriptor VARCHAR(200);
@@ -0,0 +1,19 @@
+-- Shadow rules are evaluated after the decision and only recorded, for champion/challenger trials.
+ALTER TABLE fraud_rules ADD COLUMN is_shadow BOOLEAN NOT NULL DEFAULT false;
+-- A shadow rule that is a modified copy of a live rule names it here, so that the hypothetical
+-- decision does not count both.
+ALTER TABLE fraud_rules ADD COLUMN replaces_rule VARCHAR(255);
+
+-- The decision a transaction would have received had the shadow rules been live, next to the
+-- real one. Not a foreign key: in write-behind mode the transaction may be written later.
+CREATE TABLE shadow_decisions (
+    transaction_id UUID PRIMARY KEY,
+    status VARCHAR(20) NOT NULL,
+    risk_score DECIMAL(5,2),
+    shadow_status VARCHAR(20) NOT NULL,
+    shadow_risk_score DECIMAL(5,2),
+    triggered_rules VARCHAR(4000),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_shadow_decisions_created_at ON shadow_decisions(created_at);
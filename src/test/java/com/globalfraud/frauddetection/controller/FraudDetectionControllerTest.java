@@ -2,9 +2,11 @@ package com.globalfraud.frauddetection.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.globalfraud.frauddetection.domain.TransactionStatus;
+import com.globalfraud.frauddetection.dto.BatchCheckItemResult;
 import com.globalfraud.frauddetection.dto.FraudCheckResult;
 import com.globalfraud.frauddetection.dto.TransactionRequest;
 import com.globalfraud.frauddetection.service.FraudDetectionService;
+import com.globalfraud.frauddetection.service.StreamingScoringService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -18,6 +20,7 @@ import java.util.List;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -35,6 +38,9 @@ class FraudDetectionControllerTest {
     @MockBean
     private FraudDetectionService fraudDetectionService;
 
+    @MockBean
+    private StreamingScoringService streamingScoringService;
+
     @Test
     void checkTransaction_ShouldReturnFraudCheckResult_WhenValidRequest() throws Exception {
         // Given
@@ -77,4 +83,33 @@ class FraudDetectionControllerTest {
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    void checkTransactions_ShouldReturnPerItemResults_WhenBatchSubmitted() throws Exception {
+        // Given
+        TransactionRequest request = new TransactionRequest();
+        request.setTransactionId("not-a-uuid");
+
+        when(fraudDetectionService.processBatch(any())).thenReturn(List.of(
+                BatchCheckItemResult.builder().index(0).transactionId("not-a-uuid")
+                        .errors(List.of("Transaction ID must be a UUID")).build()));
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/fraud-detection/check/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(request))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].index").value(0))
+                .andExpect(jsonPath("$[0].errors[0]").value("Transaction ID must be a UUID"));
+    }
+
+    @Test
+    void checkTransactionStream_ShouldDelegateToStreamingService() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/api/v1/fraud-detection/check/stream")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("{\"transactionId\":\"a\"}\n"))
+                .andExpect(status().isOk());
+        verify(streamingScoringService).score(any(), any());
+    }
 }
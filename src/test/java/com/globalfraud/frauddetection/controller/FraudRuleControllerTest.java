@@ -4,10 +4,13 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.globalfraud.frauddetection.domain.FraudRule;
 import com.globalfraud.frauddetection.domain.RuleType;
 import com.globalfraud.frauddetection.repository.FraudRuleRepository;
+import com.globalfraud.frauddetection.service.rule.ActiveRuleSet;
+import com.globalfraud.frauddetection.service.rule.RuleConfigCompiler;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -21,6 +24,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(FraudRuleController.class)
+@Import(RuleConfigCompiler.class)
 class FraudRuleControllerTest {
 
     @Autowired
@@ -32,6 +36,9 @@ class FraudRuleControllerTest {
     @MockBean
     private FraudRuleRepository fraudRuleRepository;
 
+    @MockBean
+    private ActiveRuleSet activeRuleSet;
+
     @Test
     void getAllRules_ShouldReturnAllRules() throws Exception {
         // Given
@@ -70,6 +77,19 @@ class FraudRuleControllerTest {
                 .andExpect(jsonPath("$.name").value("New Rule"));
     }
 
+    @Test
+    void createRule_ShouldReturnBadRequest_WhenRuleConfigIsInvalid() throws Exception {
+        // Given
+        FraudRule rule = createTestRule("Broken Rule");
+        rule.setRuleConfig("{\"threshold\": \"-5\"}");
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/fraud-rules").contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(rule))).andExpect(status().isBadRequest());
+
+        verify(fraudRuleRepository, never()).save(any());
+    }
+
     @Test
     void updateRule_ShouldReturnUpdatedRule_WhenRuleExists() throws Exception {
         // Given
@@ -109,6 +129,7 @@ class FraudRuleControllerTest {
         mockMvc.perform(delete("/api/v1/fraud-rules/{id}", id)).andExpect(status().isNoContent());
 
         verify(fraudRuleRepository).deleteById(id);
+        verify(activeRuleSet).refresh();
     }
 
     @Test
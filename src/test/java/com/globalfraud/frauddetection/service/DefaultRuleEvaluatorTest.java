@@ -1,10 +1,19 @@
 package com.globalfraud.frauddetection.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.globalfraud.frauddetection.config.FraudDetectionProperties;
 import com.globalfraud.frauddetection.domain.FraudRule;
 import com.globalfraud.frauddetection.domain.RuleType;
 import com.globalfraud.frauddetection.domain.Transaction;
-import com.globalfraud.frauddetection.repository.TransactionRepository;
+import com.globalfraud.frauddetection.service.history.CustomerAggregate;
+import com.globalfraud.frauddetection.service.history.CustomerAggregateStore;
+import com.globalfraud.frauddetection.service.knownfraud.KnownFraudIndex;
+import com.globalfraud.frauddetection.service.location.PostalReferenceIndex;
+import com.globalfraud.frauddetection.service.merchant.MerchantRiskCache;
+import com.globalfraud.frauddetection.service.merchant.MerchantRiskCache.MerchantRiskFactor;
+import com.globalfraud.frauddetection.service.rule.RuleConfigCompiler;
+import com.globalfraud.frauddetection.service.velocity.VelocityCounterEngine;
+import com.globalfraud.frauddetection.service.velocity.VelocityDimension;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,20 +21,32 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.ZonedDateTime;
-import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class DefaultRuleEvaluatorTest {
 
     @Mock
-    private TransactionRepository transactionRepository;
+    private VelocityCounterEngine velocityCounterEngine;
+
+    @Mock
+    private CustomerAggregateStore customerAggregateStore;
+
+    @Mock
+    private MerchantRiskCache merchantRiskCache;
+
+    @Mock
+    private KnownFraudIndex knownFraudIndex;
 
     private ObjectMapper objectMapper;
     private DefaultRuleEvaluator ruleEvaluator;
@@ -35,7 +56,13 @@ class DefaultRuleEvaluatorTest {
     @BeforeEach
     void setUp() {
         objectMapper = new ObjectMapper();
-        ruleEvaluator = new DefaultRuleEvaluator(transactionRepository, objectMapper);
+        FraudDetectionProperties properties = new FraudDetectionProperties();
+        properties.getLocation().setReferenceData("classpath:reference/postal-reference.csv");
+        PostalReferenceIndex postalReferenceIndex = new PostalReferenceIndex(properties);
+        postalReferenceIndex.load();
+        ruleEvaluator = new DefaultRuleEvaluator(new RuleConfigCompiler(objectMapper),
+                velocityCounterEngine, customerAggregateStore, merchantRiskCache,
+                postalReferenceIndex, knownFraudIndex);
 
         testTransaction = new Transaction();
         testTransaction.setAmount(new BigDecimal("1000.00"));
@@ -66,11 +93,8 @@ class DefaultRuleEvaluatorTest {
         testRule.setRuleType(RuleType.VELOCITY_CHECK);
         testRule.setRuleConfig("{\"maxTransactions\": 3, \"timeWindowMinutes\": 60}");
 
-        List<Transaction> recentTransactions =
-                List.of(new Transaction(), new Transaction(), new Transaction(), new Transaction());
-
-        when(transactionRepository.findTransactionsByCustomerInTimeWindow(eq("CUSTOMER001"), any(),
-                any())).thenReturn(recentTransactions);
+        when(velocityCounterEngine.count(eq(VelocityDimension.CUSTOMER), eq("CUSTOMER001"), any(),
+                eq(Duration.ofMinutes(60)))).thenReturn(4L);
 
         // When
         boolean result = ruleEvaluator.evaluate(testTransaction, testRule);
@@ -85,8 +109,8 @@ class DefaultRuleEvaluatorTest {
         testRule.setRuleType(RuleType.VELOCITY_CHECK);
         testRule.setRuleConfig("{\"maxTransactions\": 3, \"timeWindowMinutes\": 60}");
 
-        when(transactionRepository.findTransactionsByCustomerInTimeWindow(eq("CUSTOMER001"), any(),
-                any())).thenReturn(Collections.emptyList());
+        when(velocityCounterEngine.count(eq(VelocityDimension.CUSTOMER), eq("CUSTOMER001"), any(),
+                eq(Duration.ofMinutes(60)))).thenReturn(0L);
 
         // When
         boolean result = ruleEvaluator.evaluate(testTransaction, testRule);
@@ -107,4 +131,270 @@ class DefaultRuleEvaluatorTest {
         // Then
         assertThat(score).isGreaterThanOrEqualTo(0.8);
     }
+
+    @Test
+    void requiresIo_ShouldBeTrueOnlyForDataBackedRules() {
+        // Given
+        testRule.setRuleConfig("{\"threshold\": \"500.00\"}");
+        FraudRule velocityRule = new FraudRule();
+        velocityRule.setRuleType(RuleType.VELOCITY_CHECK);
+        velocityRule.setRuleConfig("{\"maxTransactions\": 3, \"timeWindowMinutes\": 60}");
+
+        // When & Then
+        assertThat(ruleEvaluator.requiresIo(testRule)).isFalse();
+        assertThat(ruleEvaluator.requiresIo(velocityRule)).isTrue();
+    }
+
+    @Test
+    void scoreRange_ShouldBeFixed_WhenTriggeredScoreIsCapped() {
+        // Given
+        testRule.setRuleConfig("{\"threshold\": \"500.00\"}");
+        FraudRule velocityRule = new FraudRule();
+        velocityRule.setRuleType(RuleType.VELOCITY_CHECK);
+        velocityRule.setRuleConfig("{\"maxTransactions\": 3, \"timeWindowMinutes\": 60}");
+
+        // When & Then
+        assertThat(ruleEvaluator.scoreRange(testRule)).isEqualTo(ScoreRange.ANY);
+        assertThat(ruleEvaluator.scoreRange(velocityRule)).isEqualTo(ScoreRange.exactly(1.0));
+    }
+
+    @Test
+    void evaluateRule_ShouldReportMismatches_WhenAddressFailsCrossReference() {
+        // Given
+        testRule.setRuleType(RuleType.LOCATION_BASED);
+        testRule.setRuleConfig("{}");
+        testTransaction.setZipCode("10001");
+        testTransaction.setCity("Boston");
+        testTransaction.setState("NY");
+        testTransaction.setAreaCode("617");
+
+        // When
+        RuleOutcome outcome = ruleEvaluator.evaluateRule(testTransaction, testRule);
+
+        // Then
+        assertThat(outcome.triggered()).isTrue();
+        assertThat(outcome.score()).isEqualTo(0.25);
+        assertThat(outcome.facts().get("addressMismatches"))
+                .isEqualTo(List.of("CITY", "AREA_CODE"));
+    }
+
+    @Test
+    void evaluateRule_ShouldFlagUnknownZip_OnlyWhenConfiguredTo() {
+        // Given
+        testRule.setRuleType(RuleType.LOCATION_BASED);
+        testRule.setRuleConfig("{}");
+        testTransaction.setZipCode("59001");
+        testTransaction.setCity("Absarokee");
+        testTransaction.setState("MT");
+        FraudRule flaggingRule = new FraudRule();
+        flaggingRule.setName("Unknown ZIP");
+        flaggingRule.setRuleType(RuleType.LOCATION_BASED);
+        flaggingRule.setRuleConfig("{\"flagUnknownZip\": true}");
+
+        // When
+        RuleOutcome lenient = ruleEvaluator.evaluateRule(testTransaction, testRule);
+        RuleOutcome flagging = ruleEvaluator.evaluateRule(testTransaction, flaggingRule);
+
+        // Then
+        assertThat(lenient.triggered()).isFalse();
+        assertThat(flagging.triggered()).isTrue();
+        assertThat(flagging.facts().get("addressMismatches")).isEqualTo(List.of("UNKNOWN_ZIP"));
+    }
+
+    @Test
+    void evaluateRule_ShouldNotTrigger_WhenAddressIsConsistent() {
+        // Given
+        testRule.setRuleType(RuleType.LOCATION_BASED);
+        testRule.setRuleConfig("{\"score\": \"0.5\"}");
+        testTransaction.setZipCode("10001-1234");
+        testTransaction.setCity("new york");
+        testTransaction.setState("ny");
+        testTransaction.setAreaCode("646");
+
+        // When
+        RuleOutcome outcome = ruleEvaluator.evaluateRule(testTransaction, testRule);
+
+        // Then
+        assertThat(outcome.triggered()).isFalse();
+        assertThat(ruleEvaluator.scoreRange(testRule)).isEqualTo(ScoreRange.additive(0.5));
+    }
+
+    @Test
+    void evaluateRule_ShouldScoreKnownFraudCard() {
+        // Given
+        String fingerprint = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+        testRule.setRuleType(RuleType.PATTERN_MATCHING);
+        testRule.setRuleConfig("{}");
+        testTransaction.setCardFingerprint(fingerprint);
+        when(knownFraudIndex.contains(fingerprint)).thenReturn(true);
+
+        // When
+        RuleOutcome outcome = ruleEvaluator.evaluateRule(testTransaction, testRule);
+
+        // Then
+        assertThat(outcome.triggered()).isTrue();
+        assertThat(outcome.score()).isEqualTo(1.0);
+        assertThat(ruleEvaluator.scoreRange(testRule)).isEqualTo(ScoreRange.additive(1.0));
+    }
+
+    @Test
+    void evaluateRule_ShouldNotTrigger_WhenCardIsNotKnownFraud() {
+        // Given
+        testRule.setRuleType(RuleType.PATTERN_MATCHING);
+        testRule.setRuleConfig("{\"score\": \"0.8\"}");
+        testTransaction.setCardFingerprint("0123456789abcdef");
+
+        // When
+        RuleOutcome outcome = ruleEvaluator.evaluateRule(testTransaction, testRule);
+
+        // Then
+        assertThat(outcome.triggered()).isFalse();
+        verify(knownFraudIndex).contains("0123456789abcdef");
+    }
+
+    @Test
+    void evaluateRule_ShouldReportKeywordsByField_WhenTextMatches() {
+        // Given
+        testRule.setRuleType(RuleType.KEYWORD_MATCH);
+        testRule.setRuleConfig("{\"fields\": [\"ADDRESS_LINE\", \"MERCHANT_DESCRIPTOR\"], "
+                + "\"keywords\": [\"PO Box\", \"casino\"], \"score\": \"0.2\"}");
+        testTransaction.setAddressLine("P.O. Box 1234");
+        testTransaction.setMerchantDescriptor("ACME*ONLINE SHOP");
+
+        // When
+        RuleOutcome outcome = ruleEvaluator.evaluateRule(testTransaction, testRule);
+
+        // Then
+        assertThat(outcome.triggered()).isTrue();
+        assertThat(outcome.score()).isEqualTo(0.2);
+        assertThat(outcome.facts().get("matchedKeywords"))
+                .isEqualTo(Map.of("ADDRESS_LINE", List.of("PO Box")));
+        assertThat(ruleEvaluator.requiresIo(testRule)).isFalse();
+    }
+
+    @Test
+    void evaluateRule_ShouldNotTrigger_WhenNoFieldContainsKeyword() {
+        // Given
+        testRule.setRuleType(RuleType.KEYWORD_MATCH);
+        testRule.setRuleConfig(
+                "{\"fields\": [\"MERCHANT_NAME\"], \"keywords\": [\"casino\"]}");
+        testTransaction.setAddressLine("Casino Road 1");
+        testTransaction.setMerchantName("Corner Bakery");
+
+        // When
+        RuleOutcome outcome = ruleEvaluator.evaluateRule(testTransaction, testRule);
+
+        // Then
+        assertThat(outcome.triggered()).isFalse();
+    }
+
+    @Test
+    void evaluateRule_ShouldEvaluateExpressionAgainstLiveAggregates() {
+        // Given
+        testRule.setRuleType(RuleType.EXPRESSION);
+        testRule.setRuleConfig("{\"expression\": \"amount >= 1000 && "
+                + "velocity(merchant, 1h) > 2 && customerAverageAmount() < amount\", "
+                + "\"score\": 0.6}");
+        when(velocityCounterEngine.count(VelocityDimension.MERCHANT, "MERCHANT001",
+                testTransaction.getTransactionTimestamp(), Duration.ofHours(1))).thenReturn(3L);
+        when(customerAggregateStore.snapshot("CUSTOMER001"))
+                .thenReturn(new CustomerAggregate.Snapshot(2, 4_000_000L, 0.0));
+
+        // When
+        RuleOutcome outcome = ruleEvaluator.evaluateRule(testTransaction, testRule);
+
+        // Then
+        assertThat(outcome.triggered()).isTrue();
+        assertThat(outcome.score()).isEqualTo(0.6);
+        assertThat(ruleEvaluator.requiresIo(testRule)).isTrue();
+    }
+
+    @Test
+    void evaluateRule_ShouldShareAggregateLookups_WithinOneTransaction() {
+        // Given
+        testRule.setRuleType(RuleType.VELOCITY_CHECK);
+        testRule.setRuleConfig("{\"maxTransactions\": 3, \"timeWindowMinutes\": 60}");
+        FraudRule expressionRule = new FraudRule();
+        expressionRule.setRuleType(RuleType.EXPRESSION);
+        expressionRule.setRuleConfig("{\"expression\": \"velocity(customer, 60m) > 10\"}");
+        when(velocityCounterEngine.count(eq(VelocityDimension.CUSTOMER), eq("CUSTOMER001"), any(),
+                eq(Duration.ofMinutes(60)))).thenReturn(4L);
+        TransactionFacts facts = new TransactionFacts();
+
+        // When
+        RuleOutcome velocity = ruleEvaluator.evaluateRule(testTransaction, testRule, facts);
+        RuleOutcome expression = ruleEvaluator.evaluateRule(testTransaction, expressionRule, facts);
+
+        // Then
+        assertThat(velocity.triggered()).isTrue();
+        assertThat(expression.triggered()).isFalse();
+        assertThat(facts.size()).isEqualTo(1);
+        verify(velocityCounterEngine, times(1)).count(any(), any(), any(), any());
+    }
+
+    @Test
+    void evaluate_ShouldReturnFalse_WhenStoredConfigIsInvalid() {
+        // Given
+        testRule.setRuleConfig("{\"threshold\": \"not-a-number\"}");
+
+        // When
+        boolean result = ruleEvaluator.evaluate(testTransaction, testRule);
+
+        // Then
+        assertThat(result).isFalse();
+    }
+
+    @Test
+    void evaluateRule_ShouldCountOnceWithoutDatabase_WhenVelocityRuleTriggers() {
+        // Given
+        testRule.setRuleType(RuleType.VELOCITY_CHECK);
+        testRule.setRuleConfig("{\"maxTransactions\": 2, \"timeWindowMinutes\": 60}");
+
+        when(velocityCounterEngine.count(eq(VelocityDimension.CUSTOMER), eq("CUSTOMER001"), any(),
+                eq(Duration.ofMinutes(60)))).thenReturn(2L);
+
+        // When
+        RuleOutcome outcome = ruleEvaluator.evaluateRule(testTransaction, testRule);
+
+        // Then
+        assertThat(outcome.triggered()).isTrue();
+        assertThat(outcome.score()).isEqualTo(1.0);
+        assertThat(outcome.facts()).containsEntry("transactionCount", 2L);
+        verify(velocityCounterEngine, times(1)).count(any(), any(), any(), any());
+    }
+
+    @Test
+    void evaluateCustomerHistory_ShouldReturnTrue_WhenAmountFarAboveAverage() {
+        // Given
+        testRule.setRuleType(RuleType.CUSTOMER_HISTORY);
+        testRule.setRuleConfig("{\"averageTransactionThreshold\": \"3\"}");
+
+        when(customerAggregateStore.snapshot("CUSTOMER001")).thenReturn(
+                new CustomerAggregate.Snapshot(4, 4_000_000, 100.0));
+
+        // When
+        RuleOutcome outcome = ruleEvaluator.evaluateRule(testTransaction, testRule);
+
+        // Then
+        assertThat(outcome.triggered()).isTrue();
+        assertThat(outcome.facts()).containsEntry("historyCount", 4L);
+    }
+
+    @Test
+    void evaluateMerchantRisk_ShouldReturnTrue_WhenRejectionRatioAboveThreshold() {
+        // Given
+        testRule.setRuleType(RuleType.MERCHANT_RISK);
+        testRule.setRuleConfig("{\"merchantRiskThreshold\": \"0.2\", \"timeWindowHours\": 24}");
+
+        when(merchantRiskCache.riskFactor(eq("MERCHANT001"), eq(Duration.ofHours(24)), any()))
+                .thenReturn(new MerchantRiskFactor(40, 50,
+                        System.currentTimeMillis()));
+
+        // When
+        RuleOutcome outcome = ruleEvaluator.evaluateRule(testTransaction, testRule);
+
+        // Then
+        assertThat(outcome.triggered()).isTrue();
+        assertThat(outcome.score()).isEqualTo(1.0);
+    }
 }
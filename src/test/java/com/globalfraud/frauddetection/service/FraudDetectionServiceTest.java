@@ -1,26 +1,44 @@
 package com.globalfraud.frauddetection.service;
 
+import com.globalfraud.frauddetection.config.FraudDetectionProperties;
 import com.globalfraud.frauddetection.domain.FraudRule;
 import com.globalfraud.frauddetection.domain.Transaction;
 import com.globalfraud.frauddetection.domain.TransactionStatus;
+import com.globalfraud.frauddetection.dto.BatchCheckItemResult;
 import com.globalfraud.frauddetection.dto.FraudCheckResult;
 import com.globalfraud.frauddetection.dto.TransactionRequest;
-import com.globalfraud.frauddetection.repository.FraudRuleRepository;
+import com.globalfraud.frauddetection.exception.InvalidBatchException;
 import com.globalfraud.frauddetection.repository.TransactionRepository;
+import com.globalfraud.frauddetection.service.idempotency.RecentDecisionCache;
+import com.globalfraud.frauddetection.service.persistence.WriteBehindTransactionWriter;
+import com.globalfraud.frauddetection.service.rule.ActiveRuleSet;
+import com.globalfraud.frauddetection.service.shadow.ShadowRuleEvaluator;
+import com.globalfraud.frauddetection.service.shadow.ShadowRuleEvaluator.LiveDecision;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,22 +48,44 @@ class FraudDetectionServiceTest {
     private TransactionRepository transactionRepository;
 
     @Mock
-    private FraudRuleRepository fraudRuleRepository;
+    private ActiveRuleSet activeRuleSet;
 
     @Mock
     private RuleEvaluator ruleEvaluator;
 
+    @Mock
+    private TransactionListener transactionListener;
+
+    @Mock
+    private WriteBehindTransactionWriter writeBehindWriter;
+
+    @Mock
+    private ShadowRuleEvaluator shadowRuleEvaluator;
+
     @Captor
     private ArgumentCaptor<Transaction> transactionCaptor;
 
+    @Captor
+    private ArgumentCaptor<List<Transaction>> batchCaptor;
+
+    @Captor
+    private ArgumentCaptor<List<LiveDecision>> decisionCaptor;
+
     private FraudDetectionService fraudDetectionService;
     private TransactionRequest testRequest;
     private List<FraudRule> testRules;
 
     @BeforeEach
     void setUp() {
+        FraudDetectionProperties properties = new FraudDetectionProperties();
+        ScoringMetrics metrics = new ScoringMetrics(new SimpleMeterRegistry(), properties);
         fraudDetectionService = new FraudDetectionService(transactionRepository,
-                fraudRuleRepository, ruleEvaluator);
+                activeRuleSet, new RuleSetEvaluator(ruleEvaluator, properties, metrics),
+                List.of(transactionListener),
+                Validation.buildDefaultValidatorFactory().getValidator(), properties,
+                writeBehindWriter, new ScoringConcurrencyLimiter(properties), metrics,
+                new RecentDecisionCache(properties, new SimpleMeterRegistry()),
+                shadowRuleEvaluator);
 
         testRequest = new TransactionRequest();
         testRequest.setMerchantId("MERCHANT001");
@@ -53,6 +93,7 @@ class FraudDetectionServiceTest {
         testRequest.setAmount(new BigDecimal("1000.00"));
         testRequest.setCurrency("USD");
         testRequest.setTransactionTimestamp(ZonedDateTime.now());
+        testRequest.setTransactionId(UUID.randomUUID().toString());
 
         FraudRule rule1 = new FraudRule();
         rule1.setName("High Amount Rule");
@@ -64,8 +105,9 @@ class FraudDetectionServiceTest {
     @Test
     void processTransaction_ShouldApproveTransaction_WhenNoRulesTriggered() {
         // Given
-        when(fraudRuleRepository.findAllActiveRulesOrderedByPriority()).thenReturn(testRules);
-        when(ruleEvaluator.evaluate(any(), any())).thenReturn(false);
+        when(activeRuleSet.activeRules()).thenReturn(testRules);
+        when(ruleEvaluator.evaluateRule(any(), any(), any()))
+                .thenReturn(RuleOutcome.notTriggered());
         when(transactionRepository.save(any())).thenAnswer(i -> i.getArguments()[0]);
 
         // When
@@ -79,14 +121,15 @@ class FraudDetectionServiceTest {
         verify(transactionRepository).save(transactionCaptor.capture());
         Transaction savedTransaction = transactionCaptor.getValue();
         assertThat(savedTransaction.getStatus()).isEqualTo(TransactionStatus.APPROVED);
+        verify(transactionListener).onTransactionSaved(savedTransaction);
     }
 
     @Test
     void processTransaction_ShouldRejectTransaction_WhenHighRiskRulesTriggered() {
         // Given
-        when(fraudRuleRepository.findAllActiveRulesOrderedByPriority()).thenReturn(testRules);
-        when(ruleEvaluator.evaluate(any(), any())).thenReturn(true);
-        when(ruleEvaluator.calculateRiskScore(any(), any())).thenReturn(0.9);
+        when(activeRuleSet.activeRules()).thenReturn(testRules);
+        when(ruleEvaluator.evaluateRule(any(), any(), any()))
+                .thenReturn(new RuleOutcome(true, 0.9, Map.of()));
         when(transactionRepository.save(any())).thenAnswer(i -> i.getArguments()[0]);
 
         // When
@@ -105,9 +148,9 @@ class FraudDetectionServiceTest {
     @Test
     void processTransaction_ShouldFlagForReview_WhenMediumRiskRulesTriggered() {
         // Given
-        when(fraudRuleRepository.findAllActiveRulesOrderedByPriority()).thenReturn(testRules);
-        when(ruleEvaluator.evaluate(any(), any())).thenReturn(true);
-        when(ruleEvaluator.calculateRiskScore(any(), any())).thenReturn(0.5);
+        when(activeRuleSet.activeRules()).thenReturn(testRules);
+        when(ruleEvaluator.evaluateRule(any(), any(), any()))
+                .thenReturn(new RuleOutcome(true, 0.5, Map.of()));
         when(transactionRepository.save(any())).thenAnswer(i -> i.getArguments()[0]);
 
         // When
@@ -122,4 +165,247 @@ class FraudDetectionServiceTest {
         Transaction savedTransaction = transactionCaptor.getValue();
         assertThat(savedTransaction.getStatus()).isEqualTo(TransactionStatus.FLAGGED_FOR_REVIEW);
     }
+
+    @Test
+    void processTransaction_ShouldReject_WhenKnownFraudCardTriggersWithLowRiskRules() {
+        // Given
+        FraudRule knownFraudCard = new FraudRule();
+        knownFraudCard.setName("Known Fraud Card");
+        when(activeRuleSet.activeRules()).thenReturn(
+                List.of(testRules.get(0), testRules.get(1), knownFraudCard));
+        when(ruleEvaluator.evaluateRule(any(), eq(testRules.get(0)), any()))
+                .thenReturn(new RuleOutcome(true, 0.1, Map.of()));
+        when(ruleEvaluator.evaluateRule(any(), eq(testRules.get(1)), any()))
+                .thenReturn(new RuleOutcome(true, 0.2, Map.of()));
+        when(ruleEvaluator.evaluateRule(any(), eq(knownFraudCard), any()))
+                .thenReturn(new RuleOutcome(true, 1.0, Map.of(), true));
+        when(transactionRepository.save(any())).thenAnswer(i -> i.getArguments()[0]);
+
+        // When
+        FraudCheckResult result = fraudDetectionService.processTransaction(testRequest);
+
+        // Then
+        assertThat(result.getStatus()).isEqualTo(TransactionStatus.REJECTED);
+        assertThat(result.getRiskScore()).isEqualByComparingTo("1.00");
+        assertThat(result.getTriggeredRules()).hasSize(3);
+    }
+
+    @Test
+    void processTransaction_ShouldQueueTransaction_WhenWriteBehindEnabled() {
+        // Given
+        when(activeRuleSet.activeRules()).thenReturn(testRules);
+        when(ruleEvaluator.evaluateRule(any(), any(), any()))
+                .thenReturn(RuleOutcome.notTriggered());
+        when(writeBehindWriter.isEnabled()).thenReturn(true);
+
+        // When
+        FraudCheckResult result = fraudDetectionService.processTransaction(testRequest);
+
+        // Then
+        assertThat(result.getStatus()).isEqualTo(TransactionStatus.APPROVED);
+        verify(writeBehindWriter).enqueue(transactionCaptor.capture());
+        verify(transactionListener).onTransactionSaved(transactionCaptor.getValue());
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    void processTransaction_ShouldHandLiveDecisionToShadowRules_AfterPersisting() {
+        // Given
+        FraudRule shadowRule = new FraudRule();
+        shadowRule.setName("Challenger Rule");
+        shadowRule.setShadow(true);
+        when(activeRuleSet.activeRules()).thenReturn(testRules);
+        when(shadowRuleEvaluator.rules()).thenReturn(List.of(shadowRule));
+        when(ruleEvaluator.evaluateRule(any(), any(), any()))
+                .thenReturn(new RuleOutcome(true, 0.5, Map.of()));
+        when(transactionRepository.save(any())).thenAnswer(i -> i.getArguments()[0]);
+
+        // When
+        FraudCheckResult result = fraudDetectionService.processTransaction(testRequest);
+
+        // Then
+        assertThat(result.getStatus()).isEqualTo(TransactionStatus.FLAGGED_FOR_REVIEW);
+        assertThat(result.getTriggeredRules()).containsExactly("High Amount Rule", "Velocity Rule");
+        InOrder inOrder = inOrder(transactionRepository, shadowRuleEvaluator);
+        inOrder.verify(shadowRuleEvaluator).prepare(eq(List.of(shadowRule)), anyList());
+        inOrder.verify(transactionRepository).save(any());
+        inOrder.verify(shadowRuleEvaluator)
+                .submit(eq(List.of(shadowRule)), decisionCaptor.capture());
+        assertThat(decisionCaptor.getValue()).singleElement().satisfies(decision -> {
+            assertThat(decision.transaction().getId().toString())
+                    .isEqualTo(testRequest.getTransactionId());
+            assertThat(decision.triggeredRules())
+                    .containsOnlyKeys("High Amount Rule", "Velocity Rule");
+            assertThat(decision.status()).isEqualTo(TransactionStatus.FLAGGED_FOR_REVIEW);
+            assertThat(decision.facts()).isNotNull();
+        });
+    }
+
+    @Test
+    void processTransaction_ShouldReturnOriginalDecision_WhenTransactionIdIsRetried() {
+        // Given
+        when(activeRuleSet.activeRules()).thenReturn(testRules);
+        when(ruleEvaluator.evaluateRule(any(), any(), any()))
+                .thenReturn(new RuleOutcome(true, 0.9, Map.of()));
+        when(transactionRepository.save(any())).thenAnswer(i -> i.getArguments()[0]);
+        FraudCheckResult original = fraudDetectionService.processTransaction(testRequest);
+
+        // When
+        FraudCheckResult retried = fraudDetectionService.processTransaction(testRequest);
+
+        // Then
+        assertThat(retried).isEqualTo(original);
+        verify(ruleEvaluator, times(2)).evaluateRule(any(), any(), any());
+        verify(transactionRepository).save(transactionCaptor.capture());
+        assertThat(transactionCaptor.getValue().isNew()).isTrue();
+        verify(transactionRepository).findById(any());
+    }
+
+    @Test
+    void processTransaction_ShouldReturnStoredDecision_WhenTransactionAlreadyPersisted() {
+        // Given
+        Transaction stored = new Transaction();
+        stored.setId(UUID.fromString(testRequest.getTransactionId()));
+        stored.setStatus(TransactionStatus.REJECTED);
+        stored.setRiskScore(new BigDecimal("0.85"));
+        when(transactionRepository.findById(stored.getId())).thenReturn(Optional.of(stored));
+
+        // When
+        FraudCheckResult result = fraudDetectionService.processTransaction(testRequest);
+
+        // Then
+        assertThat(result.getTransactionId()).isEqualTo(stored.getId());
+        assertThat(result.getStatus()).isEqualTo(TransactionStatus.REJECTED);
+        assertThat(result.getRiskScore()).isEqualByComparingTo("0.85");
+        verifyNoInteractions(activeRuleSet, ruleEvaluator, transactionListener);
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    void processBatch_ShouldScoreValidItemsAndReportInvalidOnes() {
+        // Given
+        TransactionRequest invalid = new TransactionRequest();
+        invalid.setTransactionId("not-a-uuid");
+        TransactionRequest existing = copyWithId(testRequest, UUID.randomUUID().toString());
+        TransactionRequest repeated = copyWithId(testRequest, testRequest.getTransactionId());
+        Transaction stored = new Transaction();
+        stored.setId(UUID.fromString(existing.getTransactionId()));
+        stored.setStatus(TransactionStatus.REJECTED);
+        stored.setRiskScore(new BigDecimal("0.85"));
+
+        when(activeRuleSet.activeRules()).thenReturn(testRules);
+        when(ruleEvaluator.evaluateRule(any(), any(), any()))
+                .thenReturn(RuleOutcome.notTriggered());
+        when(transactionRepository.findAllById(any())).thenReturn(List.of(stored));
+
+        // When
+        List<BatchCheckItemResult> results = fraudDetectionService
+                .processBatch(List.of(testRequest, invalid, existing, repeated));
+
+        // Then
+        assertThat(results).extracting(BatchCheckItemResult::getIndex)
+                .containsExactly(0L, 1L, 2L, 3L);
+        assertThat(results.get(0).getResult().getStatus()).isEqualTo(TransactionStatus.APPROVED);
+        assertThat(results.get(0).getErrors()).isEmpty();
+        assertThat(results.get(1).getErrors()).contains("Merchant ID is required",
+                "Transaction ID must be a UUID");
+        assertThat(results.get(2).getErrors()).isEmpty();
+        assertThat(results.get(2).getResult().getStatus()).isEqualTo(TransactionStatus.REJECTED);
+        assertThat(results.get(2).getResult().getRiskScore()).isEqualByComparingTo("0.85");
+        assertThat(results.get(3).getErrors()).containsExactly("Duplicate transaction ID");
+
+        verify(transactionRepository).saveAll(batchCaptor.capture());
+        assertThat(batchCaptor.getValue()).singleElement().satisfies(transaction -> {
+            assertThat(transaction.isNew()).isTrue();
+            assertThat(transaction.getStatus()).isEqualTo(TransactionStatus.APPROVED);
+        });
+        verify(transactionListener).onTransactionSaved(batchCaptor.getValue().get(0));
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    void processBatch_ShouldReturnOriginalDecision_WhenIdWasCheckedButNotYetWritten() {
+        // Given
+        when(activeRuleSet.activeRules()).thenReturn(testRules);
+        when(ruleEvaluator.evaluateRule(any(), any(), any()))
+                .thenReturn(new RuleOutcome(true, 0.9, Map.of()));
+        when(writeBehindWriter.isEnabled()).thenReturn(true);
+        FraudCheckResult original = fraudDetectionService.processTransaction(testRequest);
+
+        // When
+        List<BatchCheckItemResult> results =
+                fraudDetectionService.processBatch(List.of(testRequest));
+
+        // Then
+        assertThat(results).singleElement().satisfies(item -> {
+            assertThat(item.getErrors()).isEmpty();
+            assertThat(item.getResult()).isEqualTo(original);
+        });
+        verify(ruleEvaluator, times(2)).evaluateRule(any(), any(), any());
+        verify(writeBehindWriter).enqueue(any());
+        verify(writeBehindWriter).enqueueAll(List.of());
+        verify(transactionRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void processBatch_ShouldReturnStoredDecision_WhenIdIsInsertedConcurrently() {
+        // Given
+        TransactionRequest raced = copyWithId(testRequest, UUID.randomUUID().toString());
+        Transaction stored = new Transaction();
+        stored.setId(UUID.fromString(raced.getTransactionId()));
+        stored.setStatus(TransactionStatus.REJECTED);
+        stored.setRiskScore(new BigDecimal("0.85"));
+
+        when(activeRuleSet.activeRules()).thenReturn(testRules);
+        when(ruleEvaluator.evaluateRule(any(), any(), any()))
+                .thenReturn(RuleOutcome.notTriggered());
+        when(transactionRepository.saveAll(any()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(transactionRepository.save(any())).thenAnswer(invocation -> {
+            Transaction transaction = invocation.getArgument(0);
+            if (transaction.getId().equals(stored.getId())) {
+                throw new DataIntegrityViolationException("duplicate key");
+            }
+            return transaction;
+        });
+        when(transactionRepository.findById(stored.getId())).thenReturn(Optional.of(stored));
+
+        // When
+        List<BatchCheckItemResult> results =
+                fraudDetectionService.processBatch(List.of(testRequest, raced));
+
+        // Then
+        assertThat(results).extracting(item -> item.getResult().getStatus())
+                .containsExactly(TransactionStatus.APPROVED, TransactionStatus.REJECTED);
+        assertThat(results).allSatisfy(item -> assertThat(item.getErrors()).isEmpty());
+        verify(transactionRepository, times(2)).save(transactionCaptor.capture());
+        assertThat(transactionCaptor.getAllValues()).allMatch(Transaction::isNew);
+        verify(transactionListener).onTransactionSaved(transactionCaptor.getAllValues().get(0));
+        verifyNoMoreInteractions(transactionListener);
+        assertThat(fraudDetectionService.processTransaction(raced).getStatus())
+                .isEqualTo(TransactionStatus.REJECTED);
+    }
+
+    @Test
+    void processBatch_ShouldThrow_WhenBatchExceedsMaximumSize() {
+        // Given
+        List<TransactionRequest> requests =
+                new ArrayList<>(Collections.nCopies(5001, testRequest));
+
+        // When & Then
+        assertThatThrownBy(() -> fraudDetectionService.processBatch(requests))
+                .isInstanceOf(InvalidBatchException.class);
+        verifyNoInteractions(transactionRepository, ruleEvaluator);
+    }
+
+    private static TransactionRequest copyWithId(TransactionRequest source, String transactionId) {
+        TransactionRequest copy = new TransactionRequest();
+        copy.setMerchantId(source.getMerchantId());
+        copy.setCustomerId(source.getCustomerId());
+        copy.setAmount(source.getAmount());
+        copy.setCurrency(source.getCurrency());
+        copy.setTransactionTimestamp(source.getTransactionTimestamp());
+        copy.setTransactionId(transactionId);
+        return copy;
+    }
 }
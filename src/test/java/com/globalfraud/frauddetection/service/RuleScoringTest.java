@@ -0,0 +1,114 @@
+package com.globalfraud.frauddetection.service;
+
+import com.globalfraud.frauddetection.domain.TransactionStatus;
+import com.globalfraud.frauddetection.service.history.CustomerAggregate;
+import com.globalfraud.frauddetection.service.rule.RuleConfig;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RuleScoringTest {
+
+    @Test
+    void amountThreshold_ShouldMatchDecimalFormula_ForRandomAmounts() {
+        // Given
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 100_000; i++) {
+            BigDecimal amount = BigDecimal.valueOf(random.nextLong(1, 100_000_000),
+                    random.nextInt(5));
+            BigDecimal threshold = BigDecimal.valueOf(random.nextLong(1, 1_000_000),
+                    random.nextInt(5));
+
+            // When
+            RuleOutcome outcome = RuleScoring.amountThreshold(amount,
+                    new RuleConfig.AmountThreshold(threshold));
+
+            // Then
+            boolean triggered = amount.compareTo(threshold) > 0;
+            double score = triggered ? Math.min(1.0,
+                    amount.divide(threshold, 2, RoundingMode.HALF_UP).doubleValue() - 1.0) : 0.0;
+            assertThat(outcome.triggered()).isEqualTo(triggered);
+            assertThat(outcome.score()).isCloseTo(score, within(1e-12));
+        }
+    }
+
+    @Test
+    void customerHistory_ShouldMatchDecimalFormula_ForRandomHistories() {
+        // Given
+        SplittableRandom random = new SplittableRandom(11);
+        for (int i = 0; i < 100_000; i++) {
+            BigDecimal amount = BigDecimal.valueOf(random.nextLong(1, 100_000_000), 4);
+            long count = random.nextLong(1, 1_000);
+            long totalUnits = random.nextLong(count * 100, 10_000_000_000L);
+            BigDecimal multiplier = BigDecimal.valueOf(random.nextInt(1, 1_000),
+                    random.nextInt(3));
+            CustomerAggregate.Snapshot history =
+                    new CustomerAggregate.Snapshot(count, totalUnits, 0.0);
+
+            // When
+            RuleOutcome outcome = RuleScoring.customerHistory(amount, history,
+                    new RuleConfig.CustomerHistory(multiplier, false));
+
+            // Then
+            BigDecimal limit = history.totalAmount()
+                    .divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP)
+                    .multiply(multiplier);
+            assertThat(outcome.triggered()).isEqualTo(amount.compareTo(limit) > 0);
+            assertThat(outcome.score()).isCloseTo(Math.min(1.0,
+                    amount.divide(limit, 2, RoundingMode.HALF_UP).doubleValue() - 1.0),
+                    within(1e-12));
+        }
+    }
+
+    @Test
+    void amountThreshold_ShouldFallBackToDecimal_WhenAmountHasMoreDecimalsThanUnits() {
+        // Given
+        RuleConfig.AmountThreshold config =
+                new RuleConfig.AmountThreshold(new BigDecimal("100.00"));
+
+        // When
+        RuleOutcome outcome = RuleScoring.amountThreshold(new BigDecimal("150.004999"), config);
+
+        // Then
+        assertThat(outcome.triggered()).isTrue();
+        assertThat(outcome.score()).isCloseTo(0.5, within(1e-12));
+    }
+
+    @Test
+    void merchantRisk_ShouldCompareRatioWithThreshold() {
+        // Given
+        RuleConfig.MerchantRisk config =
+                new RuleConfig.MerchantRisk(new BigDecimal("0.3"), Duration.ofHours(24));
+
+        // When
+        RuleOutcome outcome = RuleScoring.merchantRisk(RuleScoring.rejectionRatio(2, 5), 5,
+                config);
+
+        // Then
+        assertThat(outcome.triggered()).isTrue();
+        assertThat(outcome.score()).isEqualTo(1.0);
+        assertThat(outcome.facts().get("merchantRiskFactor")).isEqualTo(new BigDecimal("0.40"));
+    }
+
+    @Test
+    void averageScore_ShouldRoundExactDecimalAverageHalfUp() {
+        // Given: 1/3 and 1/6 average to exactly 0.25
+        long total = RuleScoring.scoreUnits(1.0 / 3) + RuleScoring.scoreUnits(1.0 / 6);
+
+        // When
+        long average = RuleScoring.averageScore(total, 2);
+
+        // Then
+        assertThat(average).isEqualTo(13);
+        assertThat(RuleScoring.riskScore(average, 2)).isEqualTo(new BigDecimal("0.13"));
+        assertThat(RuleScoring.status(average)).isEqualTo(TransactionStatus.APPROVED);
+        assertThat(RuleScoring.status(70)).isEqualTo(TransactionStatus.REJECTED);
+        assertThat(RuleScoring.riskScore(0, 0)).isEqualTo(BigDecimal.ZERO);
+    }
+}
@@ -0,0 +1,256 @@
+package com.globalfraud.frauddetection.service;
+
+import com.globalfraud.frauddetection.config.FraudDetectionProperties;
+import com.globalfraud.frauddetection.domain.FraudRule;
+import com.globalfraud.frauddetection.domain.Transaction;
+import com.globalfraud.frauddetection.domain.TransactionStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RuleSetEvaluatorTest {
+
+    private final CountDownLatch allStarted = new CountDownLatch(3);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private FraudDetectionProperties properties;
+    private RuleSetEvaluator ruleSetEvaluator;
+
+    @BeforeEach
+    void setUp() {
+        properties = new FraudDetectionProperties();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ruleSetEvaluator.shutdown();
+    }
+
+    @Test
+    void evaluate_ShouldRunIoRulesConcurrentlyAndKeepRuleOrder() {
+        // Given
+        ruleSetEvaluator = new RuleSetEvaluator(new StubEvaluator(), properties, metrics());
+        List<FraudRule> rules = List.of(rule("slow-1"), rule("inline"), rule("slow-2"),
+                rule("slow-3"));
+
+        // When
+        RuleSetEvaluator.Evaluation evaluation =
+                ruleSetEvaluator.evaluate(new Transaction(), rules);
+
+        // Then
+        assertThat(evaluation.timedOutRules()).isEmpty();
+        assertThat(evaluation.outcomes()).extracting(outcome -> outcome.facts().get("rule"))
+                .containsExactly("slow-1", "inline", "slow-2", "slow-3");
+    }
+
+    @Test
+    void evaluate_ShouldReportRulesStillRunning_WhenDeadlineExpires() {
+        // Given
+        properties.getScoring().setDeadline(Duration.ofMillis(50));
+        ruleSetEvaluator = new RuleSetEvaluator(new StubEvaluator(), properties, metrics());
+        FraudRule hanging = rule("hanging");
+
+        // When
+        RuleSetEvaluator.Evaluation evaluation =
+                ruleSetEvaluator.evaluate(new Transaction(), List.of(rule("inline"), hanging));
+
+        // Then
+        assertThat(evaluation.timedOutRules()).containsExactly(hanging);
+        assertThat(evaluation.outcomes().get(0).triggered()).isTrue();
+        assertThat(evaluation.outcomes().get(1).triggered()).isFalse();
+        assertThat(meterRegistry.get("fraud.rule.timeouts").tag("rule", "hanging").counter()
+                .count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("fraud.rule.triggered").tag("rule", "inline").counter()
+                .count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void evaluate_ShouldRethrowRuleFailure() {
+        // Given
+        ruleSetEvaluator = new RuleSetEvaluator(new StubEvaluator(), properties, metrics());
+
+        // When & Then
+        assertThatThrownBy(() -> ruleSetEvaluator.evaluate(new Transaction(),
+                List.of(rule("failing"))))
+                .isInstanceOf(IllegalStateException.class).hasMessage("lookup failed");
+    }
+
+    @Test
+    void evaluate_ShouldCapIoRulesInFlight_AtMaxParallelIoRules() {
+        // Given
+        properties.getScoring().setMaxParallelIoRules(2);
+        ruleSetEvaluator = new RuleSetEvaluator(new StubEvaluator(), properties, metrics());
+        List<FraudRule> rules = List.of(rule("counted-1"), rule("counted-2"), rule("counted-3"),
+                rule("counted-4"), rule("counted-5"));
+
+        // When
+        RuleSetEvaluator.Evaluation evaluation =
+                ruleSetEvaluator.evaluate(new Transaction(), rules);
+
+        // Then
+        assertThat(evaluation.timedOutRules()).isEmpty();
+        assertThat(evaluation.outcomes()).allMatch(RuleOutcome::triggered);
+        assertThat(maxInFlight.get()).isEqualTo(2);
+    }
+
+    @Test
+    void evaluate_ShouldRunIoRulesOnVirtualThreads_OnlyWhenEnabled() {
+        // Given
+        ruleSetEvaluator = new RuleSetEvaluator(new StubEvaluator(), properties, metrics());
+        properties.getScoring().setVirtualThreads(true);
+        RuleSetEvaluator virtualEvaluator =
+                new RuleSetEvaluator(new StubEvaluator(), properties, metrics());
+
+        // When
+        RuleSetEvaluator.Evaluation platform =
+                ruleSetEvaluator.evaluate(new Transaction(), List.of(rule("thread")));
+        RuleSetEvaluator.Evaluation virtual =
+                virtualEvaluator.evaluate(new Transaction(), List.of(rule("thread")));
+        virtualEvaluator.shutdown();
+
+        // Then
+        assertThat(platform.outcomes().get(0).facts()).containsEntry("virtual", false);
+        assertThat(virtual.outcomes().get(0).facts()).containsEntry("virtual", true);
+    }
+
+    @Test
+    void evaluate_ShouldRunInMemoryRulesFirstAndSkipTheRest_WhenDecisionIsSettled() {
+        // Given
+        properties.getScoring().setAdaptiveOrdering(true);
+        ruleSetEvaluator = new RuleSetEvaluator(new StubEvaluator(), properties, metrics());
+        FraudRule capped1 = rule("capped-1");
+        FraudRule capped2 = rule("capped-2");
+
+        // When
+        RuleSetEvaluator.Evaluation evaluation = ruleSetEvaluator.evaluate(new Transaction(),
+                List.of(capped1, capped2, rule("inline")));
+
+        // Then
+        assertThat(evaluation.settledStatus()).isEqualTo(TransactionStatus.REJECTED);
+        assertThat(evaluation.skippedRules()).containsExactly(capped1, capped2);
+        assertThat(evaluation.outcomes()).extracting(RuleOutcome::triggered)
+                .containsExactly(false, false, true);
+        assertThat(meterRegistry.get("fraud.rule.skipped").tag("rule", "capped-1").counter()
+                .count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void evaluate_ShouldEvaluateEveryRule_WhenRemainingRulesCouldChangeDecision() {
+        // Given
+        properties.getScoring().setAdaptiveOrdering(true);
+        ruleSetEvaluator = new RuleSetEvaluator(new StubEvaluator(), properties, metrics());
+
+        // When
+        RuleSetEvaluator.Evaluation evaluation = ruleSetEvaluator.evaluate(new Transaction(),
+                List.of(rule("io"), rule("inline")));
+
+        // Then
+        assertThat(evaluation.skippedRules()).isEmpty();
+        assertThat(evaluation.settledStatus()).isNull();
+        assertThat(evaluation.outcomes()).extracting(outcome -> outcome.facts().get("rule"))
+                .containsExactly("io", "inline");
+    }
+
+    @Test
+    void evaluate_ShouldEvaluateAdditiveRule_WhenItCouldRaiseTheDecision() {
+        // Given: 0.10 averaged stays approved, but 0.25 points on top of it would flag
+        properties.getScoring().setAdaptiveOrdering(true);
+        ruleSetEvaluator = new RuleSetEvaluator(new StubEvaluator(), properties, metrics());
+
+        // When
+        RuleSetEvaluator.Evaluation evaluation = ruleSetEvaluator.evaluate(new Transaction(),
+                List.of(rule("points"), rule("inline-low")));
+
+        // Then
+        assertThat(evaluation.skippedRules()).isEmpty();
+        assertThat(evaluation.settledStatus()).isNull();
+        assertThat(evaluation.outcomes()).extracting(RuleOutcome::additive)
+                .containsExactly(true, false);
+    }
+
+    private ScoringMetrics metrics() {
+        return new ScoringMetrics(meterRegistry, properties);
+    }
+
+    private static FraudRule rule(String name) {
+        FraudRule rule = new FraudRule();
+        rule.setName(name);
+        return rule;
+    }
+
+    /**
+     * Rules named {@code slow-*} only finish once all three have started, so they can only
+     * complete when evaluated concurrently. Rules named {@code capped-*} always score 1 when they
+     * trigger, {@code inline-low} scores 0.1 and {@code points} adds 0.25. Rules named
+     * {@code counted-*} record how many of them run at once, and {@code thread} reports whether
+     * it ran on a virtual thread.
+     */
+    private class StubEvaluator implements RuleEvaluator {
+        @Override
+        public boolean evaluate(Transaction transaction, FraudRule rule) {
+            return true;
+        }
+
+        @Override
+        public double calculateRiskScore(Transaction transaction, FraudRule rule) {
+            return 1.0;
+        }
+
+        @Override
+        public RuleOutcome evaluateRule(Transaction transaction, FraudRule rule) {
+            try {
+                if (rule.getName().startsWith("slow")) {
+                    allStarted.countDown();
+                    if (!allStarted.await(5, TimeUnit.SECONDS)) {
+                        throw new IllegalStateException("rules did not run concurrently");
+                    }
+                } else if (rule.getName().startsWith("counted")) {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    Thread.sleep(20);
+                    inFlight.decrementAndGet();
+                } else if (rule.getName().equals("hanging")) {
+                    Thread.sleep(10_000);
+                } else if (rule.getName().equals("failing")) {
+                    throw new IllegalStateException("lookup failed");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return RuleOutcome.notTriggered();
+            }
+            return switch (rule.getName()) {
+                case "inline-low" -> new RuleOutcome(true, 0.1, Map.of("rule", rule.getName()));
+                case "points" -> new RuleOutcome(true, 0.25, Map.of("rule", rule.getName()), true);
+                case "thread" -> new RuleOutcome(true, 1.0,
+                        Map.of("virtual", Thread.currentThread().isVirtual()));
+                default -> new RuleOutcome(true, 1.0, Map.of("rule", rule.getName()));
+            };
+        }
+
+        @Override
+        public boolean requiresIo(FraudRule rule) {
+            return !rule.getName().startsWith("inline");
+        }
+
+        @Override
+        public ScoreRange scoreRange(FraudRule rule) {
+            return switch (rule.getName()) {
+                case "inline-low" -> ScoreRange.exactly(0.1);
+                case "points" -> ScoreRange.additive(0.25);
+                default -> rule.getName().startsWith("capped") ? ScoreRange.exactly(1.0)
+                        : ScoreRange.ANY;
+            };
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.globalfraud.frauddetection.service;
+
+import com.globalfraud.frauddetection.domain.TransactionStatus;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScoreTotalTest {
+
+    @Test
+    void status_ShouldReject_WhenKnownFraudCardTriggersAlongsideLowScores() {
+        // Given
+        ScoreTotal total = new ScoreTotal();
+        total.add(averaged(0.1));
+        total.add(averaged(0.2));
+        total.add(additive(0.10));
+
+        // When
+        total.add(additive(1.0));
+
+        // Then
+        assertThat(total.status()).isEqualTo(TransactionStatus.REJECTED);
+        assertThat(total.riskScore()).isEqualTo(new BigDecimal("1.00"));
+        assertThat(total.triggeredCount()).isEqualTo(4);
+    }
+
+    @Test
+    void score_ShouldNotDrop_WhenAdditiveRuleTriggersAlongsideOthers() {
+        // Given
+        ScoreTotal velocityOnly = new ScoreTotal();
+        velocityOnly.add(averaged(1.0));
+        ScoreTotal halfOnly = new ScoreTotal();
+        halfOnly.add(averaged(0.5));
+
+        // When
+        ScoreTotal velocityAndKeyword = new ScoreTotal(velocityOnly);
+        velocityAndKeyword.add(additive(0.10));
+        ScoreTotal halfAndLocation = new ScoreTotal(halfOnly);
+        halfAndLocation.add(additive(0.25));
+
+        // Then
+        assertThat(velocityAndKeyword.score()).isEqualTo(100);
+        assertThat(velocityAndKeyword.status()).isEqualTo(TransactionStatus.REJECTED);
+        assertThat(halfAndLocation.score()).isEqualTo(75);
+        assertThat(halfAndLocation.status()).isEqualTo(TransactionStatus.REJECTED);
+        assertThat(velocityOnly.score()).isEqualTo(100);
+        assertThat(halfOnly.score()).isEqualTo(50);
+    }
+
+    @Test
+    void score_ShouldOnlyAddPoints_WhenNoAveragedRuleTriggered() {
+        // Given
+        ScoreTotal total = new ScoreTotal();
+
+        // When
+        total.add(additive(0.25));
+        total.add(additive(0.10));
+        total.add(RuleOutcome.notTriggered());
+
+        // Then
+        assertThat(total.score()).isEqualTo(35);
+        assertThat(total.status()).isEqualTo(TransactionStatus.FLAGGED_FOR_REVIEW);
+        assertThat(new ScoreTotal().riskScore()).isEqualTo(BigDecimal.ZERO);
+    }
+
+    private static RuleOutcome averaged(double score) {
+        return new RuleOutcome(true, score, Map.of());
+    }
+
+    private static RuleOutcome additive(double score) {
+        return new RuleOutcome(true, score, Map.of(), true);
+    }
+}
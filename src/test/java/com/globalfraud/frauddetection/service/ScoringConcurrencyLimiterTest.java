@@ -0,0 +1,55 @@
+package com.globalfraud.frauddetection.service;
+
+import com.globalfraud.frauddetection.config.FraudDetectionProperties;
+import com.globalfraud.frauddetection.exception.ServiceOverloadedException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ScoringConcurrencyLimiterTest {
+
+    @Test
+    void call_ShouldRejectCheck_WhenAllPermitsAreHeld() throws Exception {
+        // Given
+        FraudDetectionProperties properties = new FraudDetectionProperties();
+        properties.getConcurrency().setMaxConcurrentChecks(1);
+        properties.getConcurrency().setAcquireTimeout(Duration.ofMillis(20));
+        ScoringConcurrencyLimiter limiter = new ScoringConcurrencyLimiter(properties);
+
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> holder = CompletableFuture.supplyAsync(() -> limiter.call(() -> {
+            running.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "first";
+        }));
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When & Then
+        assertThatThrownBy(() -> limiter.call(() -> "second"))
+                .isInstanceOf(ServiceOverloadedException.class);
+        release.countDown();
+        assertThat(holder.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+        assertThat(limiter.call(() -> "third")).isEqualTo("third");
+    }
+
+    @Test
+    void call_ShouldNotLimit_WhenMaximumIsZero() {
+        // Given
+        ScoringConcurrencyLimiter limiter =
+                new ScoringConcurrencyLimiter(new FraudDetectionProperties());
+
+        // When & Then
+        assertThat(limiter.call(() -> "result")).isEqualTo("result");
+    }
+}
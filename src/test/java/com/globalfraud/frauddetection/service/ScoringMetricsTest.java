@@ -0,0 +1,78 @@
+package com.globalfraud.frauddetection.service;
+
+import com.globalfraud.frauddetection.config.FraudDetectionProperties;
+import com.globalfraud.frauddetection.domain.FraudRule;
+import com.globalfraud.frauddetection.domain.RuleType;
+import com.globalfraud.frauddetection.domain.TransactionStatus;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScoringMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void recordRule_ShouldTagMetersByRuleNameAndType() {
+        // Given
+        ScoringMetrics metrics = new ScoringMetrics(meterRegistry, new FraudDetectionProperties());
+        FraudRule rule = new FraudRule();
+        rule.setName("Large amount");
+        rule.setRuleType(RuleType.AMOUNT_THRESHOLD);
+
+        // When
+        metrics.recordRule(rule, new RuleOutcome(true, 0.8, Map.of()), metrics.start());
+        metrics.recordRule(rule, RuleOutcome.notTriggered(), metrics.start());
+
+        // Then
+        Timer evaluation = meterRegistry.get("fraud.rule.evaluation")
+                .tags("rule", "Large amount", "type", "AMOUNT_THRESHOLD").timer();
+        assertThat(evaluation.count()).isEqualTo(2);
+        assertThat(meterRegistry.get("fraud.rule.triggered").tag("rule", "Large amount")
+                .counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("fraud.rule.score").tag("rule", "Large amount").summary()
+                .totalAmount()).isEqualTo(0.8);
+    }
+
+    @Test
+    void recordStage_ShouldPublishSloBuckets() {
+        // Given
+        ScoringMetrics metrics = new ScoringMetrics(meterRegistry, new FraudDetectionProperties());
+
+        // When
+        metrics.recordStage(ScoringMetrics.Stage.EVALUATION, metrics.start());
+        metrics.recordDecision(TransactionStatus.APPROVED);
+
+        // Then
+        Timer evaluation = meterRegistry.get("fraud.scoring.stage").tag("stage", "evaluation")
+                .timer();
+        assertThat(evaluation.count()).isEqualTo(1);
+        assertThat(evaluation.takeSnapshot().histogramCounts()).hasSize(10);
+        assertThat(meterRegistry.get("fraud.scoring.decisions").tag("status", "APPROVED")
+                .counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void record_ShouldRegisterNothing_WhenDisabled() {
+        // Given
+        FraudDetectionProperties properties = new FraudDetectionProperties();
+        properties.getMetrics().setEnabled(false);
+        ScoringMetrics metrics = new ScoringMetrics(meterRegistry, properties);
+        FraudRule rule = new FraudRule();
+        rule.setName("Large amount");
+
+        // When
+        long start = metrics.start();
+        metrics.recordRule(rule, new RuleOutcome(true, 0.8, Map.of()), start);
+        metrics.recordStage(ScoringMetrics.Stage.PERSIST, start);
+        metrics.recordDecision(TransactionStatus.REJECTED);
+
+        // Then
+        assertThat(start).isZero();
+        assertThat(meterRegistry.getMeters()).isEmpty();
+    }
+}
@@ -0,0 +1,196 @@
+package com.globalfraud.frauddetection.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.globalfraud.frauddetection.config.FraudDetectionProperties;
+import com.globalfraud.frauddetection.dto.BatchCheckItemResult;
+import com.globalfraud.frauddetection.dto.TransactionRequest;
+import com.globalfraud.frauddetection.exception.PersistenceBackpressureException;
+import com.globalfraud.frauddetection.exception.ServiceOverloadedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StreamingScoringServiceTest {
+
+    @Mock
+    private FraudDetectionService fraudDetectionService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private StreamingScoringService streamingScoringService;
+
+    @BeforeEach
+    void setUp() {
+        FraudDetectionProperties properties = new FraudDetectionProperties();
+        properties.getStreaming().setChunkSize(2);
+        streamingScoringService =
+                new StreamingScoringService(fraudDetectionService, objectMapper, properties);
+    }
+
+    @Test
+    void score_ShouldWriteOneResultPerLineInInputOrder() throws Exception {
+        // Given
+        when(fraudDetectionService.processBatch(anyList())).thenAnswer(invocation -> {
+            List<TransactionRequest> requests = invocation.getArgument(0);
+            List<BatchCheckItemResult> results = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                results.add(BatchCheckItemResult.builder().index(i)
+                        .transactionId(requests.get(i).getTransactionId()).errors(List.of())
+                        .build());
+            }
+            return results;
+        });
+        String input = "{\"transactionId\":\"a\"}\n\n{not json\n{\"transactionId\":\"b\"}\n"
+                + "{\"transactionId\":\"c\"}\n";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        long count = streamingScoringService.score(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output);
+
+        // Then
+        List<JsonNode> lines = output.toString(StandardCharsets.UTF_8).lines()
+                .map(this::readTree).toList();
+        assertThat(count).isEqualTo(4);
+        assertThat(lines).extracting(line -> line.get("index").asInt())
+                .containsExactly(0, 1, 2, 3);
+        assertThat(lines).extracting(line -> line.get("transactionId").asText())
+                .containsExactly("a", "null", "b", "c");
+        assertThat(lines.get(1).get("errors").get(0).asText()).startsWith("Malformed JSON");
+        verify(fraudDetectionService, times(2)).processBatch(anyList());
+    }
+
+    @Test
+    void score_ShouldRetryChunk_WhenServiceIsOverloaded() throws Exception {
+        // Given
+        when(fraudDetectionService.processBatch(anyList()))
+                .thenThrow(new ServiceOverloadedException("busy"))
+                .thenReturn(List.of(BatchCheckItemResult.builder().index(0).errors(List.of())
+                        .build()));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        streamingScoringService.score(new ByteArrayInputStream(
+                "{\"transactionId\":\"a\"}\n".getBytes(StandardCharsets.UTF_8)), output);
+
+        // Then
+        assertThat(output.toString(StandardCharsets.UTF_8).lines()).hasSize(1);
+        verify(fraudDetectionService, times(2)).processBatch(anyList());
+    }
+
+    @Test
+    void score_ShouldEndStream_WhenWriteQueueIsStopped() {
+        // Given
+        when(fraudDetectionService.processBatch(anyList())).thenThrow(
+                new PersistenceBackpressureException("Transaction writer is not running", false));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When & Then
+        assertThatThrownBy(() -> streamingScoringService.score(new ByteArrayInputStream(
+                "{\"transactionId\":\"a\"}\n".getBytes(StandardCharsets.UTF_8)), output))
+                .isInstanceOf(PersistenceBackpressureException.class);
+        verify(fraudDetectionService).processBatch(anyList());
+        assertThat(output.size()).isZero();
+    }
+
+    @Test
+    void score_ShouldEndStream_WhenOverloadOutlastsRetryTimeout() {
+        // Given
+        FraudDetectionProperties properties = new FraudDetectionProperties();
+        properties.getStreaming().setRetryTimeout(Duration.ofMillis(250));
+        StreamingScoringService limited =
+                new StreamingScoringService(fraudDetectionService, objectMapper, properties);
+        when(fraudDetectionService.processBatch(anyList()))
+                .thenThrow(new ServiceOverloadedException("busy"));
+
+        // When & Then
+        assertThatThrownBy(() -> limited.score(new ByteArrayInputStream(
+                "{\"transactionId\":\"a\"}\n".getBytes(StandardCharsets.UTF_8)),
+                new ByteArrayOutputStream()))
+                .isInstanceOf(ServiceOverloadedException.class);
+        verify(fraudDetectionService, atMost(3)).processBatch(anyList());
+    }
+
+    @Test
+    void score_ShouldKeepChunksWithinWriteQueueCapacity_WhenWriteBehindIsEnabled()
+            throws Exception {
+        // Given
+        FraudDetectionProperties properties = new FraudDetectionProperties();
+        properties.getWriteBehind().setEnabled(true);
+        properties.getWriteBehind().setQueueCapacity(1);
+        StreamingScoringService limited =
+                new StreamingScoringService(fraudDetectionService, objectMapper, properties);
+        when(fraudDetectionService.processBatch(anyList())).thenAnswer(invocation -> {
+            List<TransactionRequest> requests = invocation.getArgument(0);
+            assertThat(requests).hasSize(1);
+            return List.of(BatchCheckItemResult.builder().errors(List.of()).build());
+        });
+
+        // When
+        long count = limited.score(new ByteArrayInputStream(
+                "{\"transactionId\":\"a\"}\n{\"transactionId\":\"b\"}\n"
+                        .getBytes(StandardCharsets.UTF_8)), new ByteArrayOutputStream());
+
+        // Then
+        assertThat(count).isEqualTo(2);
+        verify(fraudDetectionService, times(2)).processBatch(anyList());
+    }
+
+    @Test
+    void score_ShouldReportOverlongLineWithItsNumber_AndKeepReading() throws Exception {
+        // Given
+        FraudDetectionProperties properties = new FraudDetectionProperties();
+        properties.getStreaming().setMaxLineLength(40);
+        StreamingScoringService limited =
+                new StreamingScoringService(fraudDetectionService, objectMapper, properties);
+        when(fraudDetectionService.processBatch(anyList())).thenAnswer(invocation -> {
+            List<TransactionRequest> requests = invocation.getArgument(0);
+            return requests.stream().map(request -> BatchCheckItemResult.builder()
+                    .transactionId(request.getTransactionId()).errors(List.of()).build())
+                    .toList();
+        });
+        String input = "{\"transactionId\":\"a\"}\n\n{\"transactionId\":\"" + "x".repeat(100)
+                + "\"}\n{\"transactionId\":\"b\"}\r\n";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        long count = limited.score(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output);
+
+        // Then
+        List<JsonNode> lines = output.toString(StandardCharsets.UTF_8).lines()
+                .map(this::readTree).toList();
+        assertThat(count).isEqualTo(3);
+        assertThat(lines).extracting(line -> line.get("index").asLong())
+                .containsExactly(0L, 1L, 2L);
+        assertThat(lines.get(1).get("errors").get(0).asText())
+                .isEqualTo("Line 3 exceeds the maximum length of 40 characters");
+        assertThat(lines.get(2).get("transactionId").asText()).isEqualTo("b");
+    }
+
+    private JsonNode readTree(String line) {
+        try {
+            return objectMapper.readTree(line);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.globalfraud.frauddetection.service.backtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.globalfraud.frauddetection.config.FraudDetectionProperties;
+import com.globalfraud.frauddetection.domain.FraudRule;
+import com.globalfraud.frauddetection.domain.RuleType;
+import com.globalfraud.frauddetection.domain.TransactionStatus;
+import com.globalfraud.frauddetection.dto.BacktestReport;
+import com.globalfraud.frauddetection.exception.InvalidBacktestException;
+import com.globalfraud.frauddetection.service.knownfraud.KnownFraudIndex;
+import com.globalfraud.frauddetection.service.location.PostalReferenceIndex;
+import com.globalfraud.frauddetection.service.rule.RuleConfigCompiler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BacktestEngineTest {
+
+    private static final String HEADER =
+            "id,merchant_id,customer_id,amount,currency,transaction_timestamp,status\n";
+    private static final String KNOWN_FRAUD_CARD =
+            "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+    @TempDir
+    private Path directory;
+
+    private BacktestEngine backtestEngine;
+    private List<FraudRule> rules;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        FraudDetectionProperties properties = new FraudDetectionProperties();
+        properties.getBacktest().setParallelism(2);
+        properties.getLocation().setReferenceData("classpath:reference/postal-reference.csv");
+        Path bulkFile = Files.writeString(directory.resolve("known-fraud.txt"),
+                KNOWN_FRAUD_CARD + "\n");
+        properties.getKnownFraud().setBulkFile(bulkFile.toString());
+        PostalReferenceIndex postalReferenceIndex = new PostalReferenceIndex(properties);
+        postalReferenceIndex.load();
+        KnownFraudIndex knownFraudIndex = new KnownFraudIndex(properties);
+        knownFraudIndex.load();
+        backtestEngine = new BacktestEngine(new RuleConfigCompiler(new ObjectMapper()),
+                postalReferenceIndex, knownFraudIndex, properties);
+        rules = List.of(
+                rule("High Amount", RuleType.AMOUNT_THRESHOLD, "{\"threshold\": \"500.00\"}"),
+                rule("Velocity", RuleType.VELOCITY_CHECK,
+                        "{\"maxTransactions\": 2, \"timeWindowMinutes\": 60}"));
+    }
+
+    @Test
+    void run_ShouldReportRuleHitsAndStatusChanges() {
+        // Given
+        String csv = HEADER
+                + row("CUSTOMER001", "100.00", "2024-01-01T10:00:00Z")
+                + row("CUSTOMER001", "100.00", "2024-01-01T10:01:00Z")
+                + row("CUSTOMER001", "100.00", "2024-01-01T10:02:00Z")
+                + row("CUSTOMER002", "2000.00", "2024-01-01T10:03:00Z");
+
+        // When
+        BacktestReport report = backtestEngine.run(rules, source(csv));
+
+        // Then
+        assertThat(report.getTransactionsScored()).isEqualTo(4);
+        assertThat(report.getRules()).extracting(BacktestReport.RuleHits::getHits)
+                .containsExactly(1L, 1L);
+        assertThat(report.getStatusMatrix()).containsEntry(TransactionStatus.APPROVED,
+                Map.of(TransactionStatus.APPROVED, 2L, TransactionStatus.REJECTED, 2L));
+        assertThat(report.getDecisionsChanged()).isEqualTo(2);
+    }
+
+    @Test
+    void run_ShouldScoreAddressCardAndMerchantTextRules_FromOptionalColumns() {
+        // Given
+        List<FraudRule> textRules = List.of(
+                rule("Address", RuleType.LOCATION_BASED, "{}"),
+                rule("Known Card", RuleType.PATTERN_MATCHING, "{}"),
+                rule("PO Box", RuleType.KEYWORD_MATCH,
+                        "{\"fields\": [\"ADDRESS_LINE\"], \"keywords\": [\"PO Box\"]}"));
+        String csv = "id,customer_id,merchant_id,amount,transaction_timestamp,status,"
+                + "address_line,city,state,zip_code,area_code,card_fingerprint\n"
+                + UUID.randomUUID() + ",C1,M1,10.00,2024-01-01T10:00:00Z,APPROVED,"
+                + "PO Box 12,Boston,MA,02108,617,\n"
+                + UUID.randomUUID() + ",C2,M1,10.00,2024-01-01T10:01:00Z,APPROVED,"
+                + "\"1 Main St, Apt 2\",Chicago,NY,10001,212,\n"
+                + UUID.randomUUID() + ",C3,M1,10.00,2024-01-01T10:02:00Z,APPROVED,"
+                + ",,,,," + KNOWN_FRAUD_CARD + "\n";
+
+        // When
+        BacktestReport report = backtestEngine.run(textRules, source(csv));
+
+        // Then
+        assertThat(report.getRules()).extracting(BacktestReport.RuleHits::getHits)
+                .containsExactly(1L, 1L, 1L);
+        assertThat(report.getStatusMatrix()).containsEntry(TransactionStatus.APPROVED,
+                Map.of(TransactionStatus.APPROVED, 2L, TransactionStatus.REJECTED, 1L));
+    }
+
+    @Test
+    void run_ShouldScoreExpressionRules_AgainstReplayedAggregates() {
+        // Given
+        List<FraudRule> expressionRules = List.of(
+                rule("Large USD", RuleType.EXPRESSION,
+                        "{\"expression\": \"amount > 500 && currency == 'USD'\"}"),
+                rule("Busy", RuleType.EXPRESSION, "{\"expression\": \"velocity(customer, 1h) >= 2"
+                        + " && merchantRejectionRate(1h) < 0.5\", \"score\": 0.5}"));
+        String csv = HEADER
+                + row("CUSTOMER001", "100.00", "2024-01-01T10:00:00Z")
+                + row("CUSTOMER001", "100.00", "2024-01-01T10:01:00Z")
+                + row("CUSTOMER001", "100.00", "2024-01-01T10:02:00Z")
+                + row("CUSTOMER002", "2000.00", "2024-01-01T10:03:00Z");
+
+        // When
+        BacktestReport report = backtestEngine.run(expressionRules, source(csv));
+
+        // Then
+        assertThat(report.getRules()).extracting(BacktestReport.RuleHits::getHits)
+                .containsExactly(1L, 1L);
+        assertThat(report.getStatusMatrix()).containsEntry(TransactionStatus.APPROVED,
+                Map.of(TransactionStatus.APPROVED, 2L, TransactionStatus.FLAGGED_FOR_REVIEW, 1L,
+                        TransactionStatus.REJECTED, 1L));
+    }
+
+    @Test
+    void run_ShouldRejectCsvWithoutRequiredColumns() {
+        assertThatThrownBy(() -> backtestEngine.run(rules, source("id,amount\n")))
+                .isInstanceOf(InvalidBacktestException.class)
+                .hasMessageContaining("customer_id");
+    }
+
+    private static BacktestSource source(String csv) {
+        return new CsvBacktestSource(new BufferedReader(new StringReader(csv)));
+    }
+
+    private static String row(String customerId, String amount, String timestamp) {
+        return String.join(",", UUID.randomUUID().toString(), "MERCHANT001", customerId, amount,
+                "USD", timestamp, "APPROVED") + "\n";
+    }
+
+    private static FraudRule rule(String name, RuleType ruleType, String ruleConfig) {
+        FraudRule rule = new FraudRule();
+        rule.setId(UUID.randomUUID());
+        rule.setName(name);
+        rule.setRuleType(ruleType);
+        rule.setRuleConfig(ruleConfig);
+        return rule;
+    }
+}
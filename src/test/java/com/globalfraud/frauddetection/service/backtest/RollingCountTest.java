@@ -0,0 +1,37 @@
+package com.globalfraud.frauddetection.service.backtest;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RollingCountTest {
+
+    @Test
+    void count_ShouldOnlyIncludeBucketsInsideWindow() {
+        // Given
+        RollingCount rollingCount = new RollingCount(10);
+        for (long bucket = 0; bucket < 100; bucket++) {
+            rollingCount.add(bucket);
+            rollingCount.add(bucket);
+        }
+
+        // When & Then
+        assertThat(rollingCount.count(99)).isEqualTo(22);
+        assertThat(rollingCount.count(105)).isEqualTo(10);
+        assertThat(rollingCount.count(200)).isZero();
+    }
+
+    @Test
+    void add_ShouldCountLateEventInNewestBucket() {
+        // Given
+        RollingCount rollingCount = new RollingCount(5);
+        rollingCount.add(20);
+
+        // When
+        rollingCount.add(3);
+
+        // Then
+        assertThat(rollingCount.count(25)).isEqualTo(2);
+        assertThat(rollingCount.count(31)).isZero();
+    }
+}
@@ -0,0 +1,99 @@
+package com.globalfraud.frauddetection.service.expression;
+
+import com.globalfraud.frauddetection.domain.Transaction;
+import com.globalfraud.frauddetection.service.velocity.VelocityDimension;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ExpressionCompilerTest {
+
+    @Mock
+    private Aggregates aggregates;
+
+    private Transaction transaction;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new Transaction();
+        transaction.setAmount(new BigDecimal("6000.00"));
+        transaction.setCurrency("USD");
+        transaction.setState("NY");
+        transaction.setTransactionTimestamp(ZonedDateTime.parse("2026-01-01T03:15:00Z"));
+    }
+
+    @Test
+    void compile_ShouldEvaluateFieldsAndAggregates() {
+        // Given
+        CompiledExpression expression =
+                ExpressionCompiler.compile("amount > 5000 && velocity(customer, 10m) > 3");
+        when(aggregates.velocity(VelocityDimension.CUSTOMER, transaction, Duration.ofMinutes(10)))
+                .thenReturn(4L);
+
+        // When & Then
+        assertThat(expression.test(transaction, aggregates)).isTrue();
+        assertThat(expression.usesAggregates()).isTrue();
+        assertThat(expression.source()).isEqualTo("amount > 5000 && velocity(customer, 10m) > 3");
+        assertThat(expression.windows()).containsExactly(
+                Map.entry(VelocityDimension.CUSTOMER, Set.of(Duration.ofMinutes(10))));
+    }
+
+    @Test
+    void compile_ShouldSupportTextArithmeticAndNegation() {
+        // When & Then
+        assertThat(test("currency in ('USD', 'EUR') && !(state == 'CA')")).isTrue();
+        assertThat(test("(amount - 1000) / 2 == 2500 && hour < 6")).isTrue();
+        assertThat(test("city == 'Boston' || -amount >= 0")).isFalse();
+    }
+
+    @Test
+    void compile_ShouldEvaluateOperandWithoutAggregatesFirst() {
+        // Given
+        CompiledExpression expression =
+                ExpressionCompiler.compile("velocity(merchant, 1h) > 3 && amount < 100");
+
+        // When
+        boolean result = expression.test(transaction, aggregates);
+
+        // Then
+        assertThat(result).isFalse();
+        verifyNoInteractions(aggregates);
+    }
+
+    @Test
+    void compile_ShouldRejectMalformedOrMistypedExpressions() {
+        assertInvalid("amount >", "Expected a value but found the end at position 9");
+        assertInvalid("amount", "must be a condition");
+        assertInvalid("amount > 'x'", "Cannot compare a number with text");
+        assertInvalid("foo > 1", "Unknown field 'foo'");
+        assertInvalid("exec('rm') > 1", "Unknown function 'exec'");
+        assertInvalid("velocity(customer) > 1", "takes 2 argument(s)");
+        assertInvalid("velocity(customer, 10w) > 1", "Unknown window unit 'w'");
+        assertInvalid("amount > 1 1", "Expected end of expression");
+        assertInvalid("(".repeat(40) + "true" + ")".repeat(40), "nested too deeply");
+    }
+
+    private boolean test(String source) {
+        return ExpressionCompiler.compile(source).test(transaction, aggregates);
+    }
+
+    private static void assertInvalid(String source, String message) {
+        assertThatThrownBy(() -> ExpressionCompiler.compile(source))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining(message);
+    }
+}
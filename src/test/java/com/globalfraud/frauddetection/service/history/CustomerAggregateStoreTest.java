@@ -0,0 +1,81 @@
+package com.globalfraud.frauddetection.service.history;
+
+import com.globalfraud.frauddetection.config.FraudDetectionProperties;
+import com.globalfraud.frauddetection.domain.Transaction;
+import com.globalfraud.frauddetection.repository.TransactionRepository;
+import com.globalfraud.frauddetection.repository.TransactionRepository.CustomerTotals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerAggregateStoreTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private CustomerTotals customerTotals;
+
+    private CustomerAggregateStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new CustomerAggregateStore(transactionRepository, new FraudDetectionProperties());
+    }
+
+    @Test
+    void snapshot_ShouldHydrateOnceAndApplySavedTransactions() {
+        // Given
+        when(customerTotals.getTransactionCount()).thenReturn(2L);
+        when(customerTotals.getTotalAmount()).thenReturn(new BigDecimal("300.00"));
+        when(transactionRepository.findCustomerTotals("CUSTOMER001")).thenReturn(customerTotals);
+        store.snapshot("CUSTOMER001");
+
+        Transaction transaction = new Transaction();
+        transaction.setCustomerId("CUSTOMER001");
+        transaction.setAmount(new BigDecimal("100.00"));
+        transaction.setTransactionTimestamp(ZonedDateTime.now());
+
+        // When
+        store.onTransactionSaved(transaction);
+        CustomerAggregate.Snapshot snapshot = store.snapshot("CUSTOMER001");
+
+        // Then
+        assertThat(snapshot.transactionCount()).isEqualTo(3);
+        assertThat(snapshot.totalAmount()).isEqualByComparingTo("400.00");
+        verify(transactionRepository, times(1)).findCustomerTotals("CUSTOMER001");
+    }
+
+    @Test
+    void snapshot_ShouldApplyTransactionSavedWhileHydrating() {
+        // Given
+        Transaction transaction = new Transaction();
+        transaction.setCustomerId("CUSTOMER001");
+        transaction.setAmount(new BigDecimal("50.00"));
+        transaction.setTransactionTimestamp(ZonedDateTime.now());
+        when(customerTotals.getTransactionCount()).thenReturn(2L);
+        when(customerTotals.getTotalAmount()).thenReturn(new BigDecimal("300.00"));
+        when(transactionRepository.findCustomerTotals("CUSTOMER001")).thenAnswer(invocation -> {
+            store.onTransactionSaved(transaction);
+            return customerTotals;
+        });
+
+        // When
+        CustomerAggregate.Snapshot snapshot = store.snapshot("CUSTOMER001");
+
+        // Then
+        assertThat(snapshot.transactionCount()).isEqualTo(3);
+        assertThat(snapshot.totalAmount()).isEqualByComparingTo("350.00");
+    }
+}
@@ -0,0 +1,153 @@
+package com.globalfraud.frauddetection.service.idempotency;
+
+import com.globalfraud.frauddetection.config.FraudDetectionProperties;
+import com.globalfraud.frauddetection.domain.TransactionStatus;
+import com.globalfraud.frauddetection.dto.FraudCheckResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RecentDecisionCacheTest {
+
+    @Test
+    void decide_ShouldRunCheckOnce_WhenConcurrentRetriesArrive() throws Exception {
+        // Given
+        RecentDecisionCache cache = cache(new FraudDetectionProperties());
+        UUID transactionId = UUID.randomUUID();
+        AtomicInteger checks = new AtomicInteger();
+        CountDownLatch checkStarted = new CountDownLatch(1);
+        CountDownLatch releaseCheck = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<FraudCheckResult>> results = new ArrayList<>();
+        try {
+            // When
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.decide(transactionId, () -> {
+                    checks.incrementAndGet();
+                    checkStarted.countDown();
+                    awaitQuietly(releaseCheck);
+                    return result(transactionId);
+                })));
+            }
+            checkStarted.await(5, TimeUnit.SECONDS);
+            Thread.sleep(100);
+            releaseCheck.countDown();
+
+            // Then
+            for (Future<FraudCheckResult> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS).getTransactionId())
+                        .isEqualTo(transactionId);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(checks).hasValue(1);
+    }
+
+    @Test
+    void decide_ShouldRunCheckAgain_WhenPreviousCheckFailed() {
+        // Given
+        RecentDecisionCache cache = cache(new FraudDetectionProperties());
+        UUID transactionId = UUID.randomUUID();
+        assertThatThrownBy(() -> cache.decide(transactionId, () -> {
+            throw new IllegalStateException("database unavailable");
+        })).isInstanceOf(IllegalStateException.class);
+
+        // When
+        FraudCheckResult result = cache.decide(transactionId, () -> result(transactionId));
+
+        // Then
+        assertThat(result.getTransactionId()).isEqualTo(transactionId);
+    }
+
+    @Test
+    void decide_ShouldDropOldestDecisions_WhenSizeBoundIsExceeded() {
+        // Given
+        FraudDetectionProperties properties = new FraudDetectionProperties();
+        properties.getIdempotency().setMaxRecentDecisions(2);
+        RecentDecisionCache cache = cache(properties);
+        UUID first = UUID.randomUUID();
+        cache.record(result(first));
+        cache.record(result(UUID.randomUUID()));
+        cache.record(result(UUID.randomUUID()));
+        AtomicInteger checks = new AtomicInteger();
+
+        // When
+        cache.decide(first, () -> {
+            checks.incrementAndGet();
+            return result(first);
+        });
+
+        // Then
+        assertThat(checks).hasValue(1);
+    }
+
+    @Test
+    void decide_ShouldReturnRecordedDecision_WithoutRunningCheck() {
+        // Given
+        RecentDecisionCache cache = cache(new FraudDetectionProperties());
+        UUID transactionId = UUID.randomUUID();
+        FraudCheckResult recorded = result(transactionId);
+        cache.record(recorded);
+
+        // When
+        FraudCheckResult result = cache.decide(transactionId, () -> {
+            throw new AssertionError("check must not run");
+        });
+
+        // Then
+        assertThat(result).isSameAs(recorded);
+    }
+
+    @Test
+    void record_ShouldKeepEarlierDecision_AndForgetOnlyItsOwn() {
+        // Given
+        RecentDecisionCache cache = cache(new FraudDetectionProperties());
+        UUID transactionId = UUID.randomUUID();
+        FraudCheckResult earlier = result(transactionId);
+        FraudCheckResult later = result(transactionId);
+        cache.record(earlier);
+
+        // When
+        FraudCheckResult kept = cache.record(later);
+        cache.forget(later);
+
+        // Then
+        assertThat(kept).isSameAs(earlier);
+        assertThat(cache.find(transactionId)).isSameAs(earlier);
+        cache.forget(earlier);
+        assertThat(cache.find(transactionId)).isNull();
+    }
+
+    private static RecentDecisionCache cache(FraudDetectionProperties properties) {
+        return new RecentDecisionCache(properties, new SimpleMeterRegistry());
+    }
+
+    private static FraudCheckResult result(UUID transactionId) {
+        return FraudCheckResult.builder().transactionId(transactionId)
+                .status(TransactionStatus.APPROVED).riskScore(BigDecimal.ZERO)
+                .triggeredRules(List.of()).message("Transaction approved").build();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
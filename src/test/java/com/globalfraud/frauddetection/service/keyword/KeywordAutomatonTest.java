@@ -0,0 +1,61 @@
+package com.globalfraud.frauddetection.service.keyword;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeywordAutomatonTest {
+
+    private static final List<String> PO_BOX = List.of("PO Box", "P.O. Box", "post office box");
+
+    @Test
+    void matches_ShouldIgnoreCasePunctuationAndSpacing() {
+        // Given
+        KeywordAutomaton automaton = KeywordAutomaton.compile(PO_BOX, true);
+
+        // When & Then
+        assertThat(automaton.size()).isEqualTo(2);
+        assertThat(automaton.matches("P.O. Box 123")).isTrue();
+        assertThat(automaton.matches("  po   BOX#12")).isTrue();
+        assertThat(automaton.matches("Post-Office Box 7, Springfield")).isTrue();
+        assertThat(automaton.matches("123 Main St")).isFalse();
+        assertThat(automaton.matches(null)).isFalse();
+    }
+
+    @Test
+    void matches_ShouldRequireWordBoundaries_WhenWholeWords() {
+        // Given
+        KeywordAutomaton wholeWords = KeywordAutomaton.compile(List.of("casino", "bet"), true);
+        KeywordAutomaton substrings = KeywordAutomaton.compile(List.of("casino", "bet"), false);
+
+        // When & Then
+        assertThat(wholeWords.matches("Alphabet Casinos")).isFalse();
+        assertThat(wholeWords.matches("Lucky Casino!")).isTrue();
+        assertThat(substrings.matches("Alphabet Casinos")).isTrue();
+    }
+
+    @Test
+    void findAll_ShouldReportOverlappingKeywordsOnce_InListOrder() {
+        // Given
+        KeywordAutomaton automaton =
+                KeywordAutomaton.compile(List.of("he", "she", "his", "hers"), false);
+
+        // When
+        List<String> found = automaton.findAll("ushers and she, his hers");
+
+        // Then
+        assertThat(found).containsExactly("he", "she", "his", "hers");
+        assertThat(automaton.findAll("nothing here but a herd")).containsExactly("he");
+        assertThat(automaton.findAll("xyz")).isEmpty();
+    }
+
+    @Test
+    void compile_ShouldReject_WhenKeywordHasNoLettersOrDigits() {
+        assertThatThrownBy(() -> KeywordAutomaton.compile(List.of("po box", " - "), true))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("no letters or digits");
+    }
+}
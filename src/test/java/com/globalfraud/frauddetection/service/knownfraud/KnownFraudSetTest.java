@@ -0,0 +1,122 @@
+package com.globalfraud.frauddetection.service.knownfraud;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.HexFormat;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KnownFraudSetTest {
+
+    private static final String FIRST =
+            "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+    private static final String SECOND = "60303AE22B998861BCE3B28F33EEC1BE";
+
+    @Test
+    void contains_ShouldMatchOnLeading64Bits_IgnoringCaseAndSpaces() throws Exception {
+        // Given
+        KnownFraudSet set = read("# known fraud\n" + FIRST + "\n\n" + SECOND + "\n");
+
+        // When & Then
+        assertThat(set.size()).isEqualTo(2);
+        assertThat(set.contains(FIRST.toUpperCase())).isTrue();
+        assertThat(set.contains(" 60303ae22b998861 ")).isTrue();
+        assertThat(set.contains("60303ae22b998862")).isFalse();
+        assertThat(set.contains("not a hash")).isFalse();
+        assertThat(set.contains(null)).isFalse();
+    }
+
+    @Test
+    void applyDelta_ShouldAddAndRemove() throws Exception {
+        // Given
+        KnownFraudSet set = read(FIRST + "\n");
+
+        // When
+        int applied = set.applyDelta(
+                reader("-" + FIRST + "\n+" + SECOND + "\n0000000000000000\n"));
+
+        // Then
+        assertThat(applied).isEqualTo(3);
+        assertThat(set.contains(FIRST)).isFalse();
+        assertThat(set.contains(SECOND)).isTrue();
+        assertThat(set.contains("0000000000000000")).isTrue();
+        assertThat(set.size()).isEqualTo(2);
+    }
+
+    @Test
+    void read_ShouldReject_WhenLineIsMalformed() {
+        assertThatThrownBy(() -> read(FIRST + "\nabc\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("line 2");
+        assertThatThrownBy(() -> read("-" + FIRST + "\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Removal");
+    }
+
+    @Test
+    void add_ShouldGrowBeyondExpectedSize_AndKeepEveryKey() {
+        // Given
+        KnownFraudSet set = new KnownFraudSet(16);
+        SplittableRandom random = new SplittableRandom(7);
+        String[] fingerprints = new String[10_000];
+
+        // When
+        for (int i = 0; i < fingerprints.length; i++) {
+            fingerprints[i] = HexFormat.of().toHexDigits(random.nextLong());
+            set.add(fingerprints[i]);
+        }
+        for (int i = 0; i < fingerprints.length; i += 2) {
+            set.remove(fingerprints[i]);
+        }
+
+        // Then
+        assertThat(set.size()).isEqualTo(5_000);
+        for (int i = 0; i < fingerprints.length; i++) {
+            assertThat(set.contains(fingerprints[i])).isEqualTo(i % 2 == 1);
+        }
+    }
+
+    @Test
+    void contains_ShouldKeepFindingExistingKeys_WhileAnotherThreadAppliesDeltas()
+            throws Exception {
+        // Given
+        KnownFraudSet set = read(FIRST + "\n" + SECOND + "\n");
+        AtomicBoolean missed = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            SplittableRandom random = new SplittableRandom(11);
+            for (int i = 0; i < 200_000; i++) {
+                String fingerprint = HexFormat.of().toHexDigits(random.nextLong());
+                set.add(fingerprint);
+                if (i % 3 == 0) {
+                    set.remove(fingerprint);
+                }
+            }
+        });
+
+        // When
+        writer.start();
+        while (writer.isAlive()) {
+            if (!set.contains(FIRST) || !set.contains(SECOND)) {
+                missed.set(true);
+            }
+        }
+        writer.join();
+
+        // Then
+        assertThat(missed).isFalse();
+        assertThat(set.contains(FIRST)).isTrue();
+    }
+
+    private static KnownFraudSet read(String lines) throws Exception {
+        return KnownFraudSet.read(reader(lines), 16);
+    }
+
+    private static BufferedReader reader(String lines) {
+        return new BufferedReader(new StringReader(lines));
+    }
+}
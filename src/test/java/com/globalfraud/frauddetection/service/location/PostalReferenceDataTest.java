@@ -0,0 +1,83 @@
+package com.globalfraud.frauddetection.service.location;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PostalReferenceDataTest {
+
+    private static final String CSV = """
+            zip_code,city,state,area_code
+            02108,Boston,MA,617
+            02108,Boston,MA,857
+            10001,New York,NY,212
+            10001,Manhattan,NY,
+            99501,Anchorage,AK,
+            """;
+
+    @Test
+    void check_ShouldAcceptConsistentAddress_IgnoringCaseSpacingAndZipPlusFour() throws Exception {
+        // Given
+        PostalReferenceData data = read(CSV);
+
+        // When & Then
+        assertThat(data.size()).isEqualTo(3);
+        assertThat(data.check("02108", "Boston", "MA", "857")).isZero();
+        assertThat(data.check("10001-0001", " new-york ", "ny", "212")).isZero();
+        assertThat(data.check("10001", "MANHATTAN", null, null)).isZero();
+    }
+
+    @Test
+    void check_ShouldReportEachMismatch() throws Exception {
+        // Given
+        PostalReferenceData data = read(CSV);
+
+        // When
+        int mismatches = data.check("02108", "Cambridge", "NY", "212");
+
+        // Then
+        assertThat(mismatches).isEqualTo(PostalReferenceData.STATE_MISMATCH
+                | PostalReferenceData.CITY_MISMATCH | PostalReferenceData.AREA_CODE_MISMATCH);
+    }
+
+    @Test
+    void check_ShouldReportUnknownZip_WhenZipIsMissingOrMalformed() throws Exception {
+        // Given
+        PostalReferenceData data = read(CSV);
+
+        // When & Then
+        assertThat(data.check("90210", "Beverly Hills", "CA", "310"))
+                .isEqualTo(PostalReferenceData.UNKNOWN_ZIP);
+        assertThat(data.check("1000", null, null, null))
+                .isEqualTo(PostalReferenceData.UNKNOWN_ZIP);
+        assertThat(data.check("10001x1234", null, null, null))
+                .isEqualTo(PostalReferenceData.UNKNOWN_ZIP);
+    }
+
+    @Test
+    void check_ShouldSkipAreaCode_WhenZipHasNoAreaCodes() throws Exception {
+        // Given
+        PostalReferenceData data = read(CSV);
+
+        // When & Then
+        assertThat(data.check("99501", "Anchorage", "AK", "907")).isZero();
+    }
+
+    @Test
+    void read_ShouldReject_WhenZipHasTwoStates() {
+        // Given
+        String csv = CSV + "02108,Boston,NH,603\n";
+
+        // When & Then
+        assertThatThrownBy(() -> read(csv)).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("more than one state");
+    }
+
+    private static PostalReferenceData read(String csv) throws Exception {
+        return PostalReferenceData.read(new BufferedReader(new StringReader(csv)));
+    }
+}
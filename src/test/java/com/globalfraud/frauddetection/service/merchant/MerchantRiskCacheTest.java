@@ -0,0 +1,94 @@
+package com.globalfraud.frauddetection.service.merchant;
+
+import com.globalfraud.frauddetection.config.FraudDetectionProperties;
+import com.globalfraud.frauddetection.domain.TransactionStatus;
+import com.globalfraud.frauddetection.repository.TransactionRepository;
+import com.globalfraud.frauddetection.repository.TransactionRepository.StatusCount;
+import com.globalfraud.frauddetection.service.merchant.MerchantRiskCache.MerchantRiskFactor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MerchantRiskCacheTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private MerchantRiskCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new MerchantRiskCache(transactionRepository, new FraudDetectionProperties());
+    }
+
+    @Test
+    void riskFactor_ShouldQueryOnce_WhenConcurrentCallersMissTheCache() throws Exception {
+        // Given
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch releaseQuery = new CountDownLatch(1);
+        when(transactionRepository.countByStatusForMerchantInTimeWindow(eq("MERCHANT001"), any(),
+                any())).thenAnswer(invocation -> {
+                    queryStarted.countDown();
+                    releaseQuery.await(5, TimeUnit.SECONDS);
+                    return List.of(statusCount(TransactionStatus.REJECTED, 3),
+                            statusCount(TransactionStatus.APPROVED, 3));
+                });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<MerchantRiskFactor>> results = new ArrayList<>();
+        try {
+            // When
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.riskFactor("MERCHANT001",
+                        Duration.ofHours(1), ZonedDateTime.now())));
+            }
+            queryStarted.await(5, TimeUnit.SECONDS);
+            Thread.sleep(100);
+            releaseQuery.countDown();
+
+            // Then
+            for (Future<MerchantRiskFactor> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS).rejectionRatio())
+                        .isEqualByComparingTo("0.50");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(transactionRepository, times(1)).countByStatusForMerchantInTimeWindow(
+                eq("MERCHANT001"), any(), any());
+    }
+
+    private StatusCount statusCount(TransactionStatus status, long transactionCount) {
+        return new StatusCount() {
+            @Override
+            public TransactionStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public long getTransactionCount() {
+                return transactionCount;
+            }
+        };
+    }
+}
@@ -0,0 +1,92 @@
+package com.globalfraud.frauddetection.service.partition;
+
+import com.globalfraud.frauddetection.config.FraudDetectionProperties;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The PostgreSQL migrations, which partition {@code transactions}, against a real database.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class PartitionedTransactionsPostgresTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES =
+            new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionPartitionManager manager;
+
+    @BeforeAll
+    static void migrate() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(),
+                POSTGRES.getUsername(), POSTGRES.getPassword());
+        Flyway.configure().dataSource(dataSource)
+                .locations("classpath:db/migration", "classpath:db/vendor/postgresql").load()
+                .migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        FraudDetectionProperties properties = new FraudDetectionProperties();
+        manager = new TransactionPartitionManager(jdbcTemplate,
+                new DataSourceTransactionManager(dataSource), new TransactionArchive(properties),
+                properties);
+    }
+
+    @Test
+    void insert_ShouldFail_WhenTransactionIdIsReplayedWithAnotherTimestamp() {
+        // Given
+        UUID id = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+        insert(id, now);
+
+        // When & Then
+        assertThatThrownBy(() -> insert(id, now.plusDays(40)))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM transactions WHERE id = ?",
+                Long.class, id)).isEqualTo(1);
+    }
+
+    @Test
+    void maintain_ShouldKeepIdsUnique_WhenRowsMoveIntoANewPartition() {
+        // Given: a month beyond the partitions the migration created
+        LocalDateTime later = LocalDateTime.now().plusMonths(6);
+        UUID moved = UUID.randomUUID();
+        insert(moved, later);
+
+        // When
+        manager.maintain(later);
+
+        // Then
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT tableoid::regclass::text FROM transactions WHERE id = ?", String.class,
+                moved)).isEqualTo(TransactionPartitionManager.partitionName(YearMonth.from(later)));
+        assertThatThrownBy(() -> insert(moved, later.minusMonths(7)))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        UUID inserted = UUID.randomUUID();
+        insert(inserted, later);
+        assertThatThrownBy(() -> insert(inserted, later.minusMonths(7)))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    private static void insert(UUID id, LocalDateTime timestamp) {
+        jdbcTemplate.update("INSERT INTO transactions (id, merchant_id, customer_id, amount, "
+                + "currency, transaction_timestamp, status) "
+                + "VALUES (?, 'MERCHANT001', 'CUSTOMER001', 10.00, 'USD', ?, 'APPROVED')",
+                id, Timestamp.valueOf(timestamp));
+    }
+}
@@ -0,0 +1,101 @@
+package com.globalfraud.frauddetection.service.partition;
+
+import com.globalfraud.frauddetection.config.FraudDetectionProperties;
+import com.globalfraud.frauddetection.domain.TransactionStatus;
+import com.globalfraud.frauddetection.service.backtest.BacktestRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionArchiveTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2025, 3);
+
+    @TempDir
+    private Path directory;
+
+    private TransactionArchive archive;
+
+    @BeforeEach
+    void setUp() {
+        FraudDetectionProperties properties = new FraudDetectionProperties();
+        properties.getPartitioning().setArchiveDirectory(directory.toString());
+        archive = new TransactionArchive(properties);
+    }
+
+    @Test
+    void write_ShouldArchiveEveryColumn_AndSourceShouldReplayTheRequestedPeriod()
+            throws Exception {
+        // Given
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:archive");
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE transactions_2025_03 (id UUID, customer_id VARCHAR,"
+                    + " merchant_id VARCHAR, amount DECIMAL(19,4), transaction_timestamp TIMESTAMP,"
+                    + " status VARCHAR, address_line VARCHAR)");
+            statement.execute("INSERT INTO transactions_2025_03 VALUES "
+                    + "('00000000-0000-0000-0000-000000000001', 'c1', 'm1', 10.5000,"
+                    + " TIMESTAMP '2025-03-02 10:00:00', 'APPROVED', '1 Main St, \"Rear\"'),"
+                    + "('00000000-0000-0000-0000-000000000002', 'c1', 'm2', 20.0000,"
+                    + " TIMESTAMP '2025-03-15 10:00:00', 'REJECTED', 'Line one\nLine two'),"
+                    + "('00000000-0000-0000-0000-000000000003', 'c2', 'm1', 30.0000,"
+                    + " TIMESTAMP '2025-03-30 10:00:00', 'APPROVED', NULL)");
+
+            // When
+            long written;
+            try (ResultSet rows = statement.executeQuery(
+                    "SELECT * FROM transactions_2025_03 ORDER BY transaction_timestamp")) {
+                written = archive.write(MONTH, rows);
+            }
+
+            // Then
+            assertThat(written).isEqualTo(3);
+        }
+        assertThat(archive.contains(MONTH)).isTrue();
+        assertThat(archive.contains(MONTH.plusMonths(1))).isFalse();
+        assertThat(archive.months()).containsExactly(MONTH);
+        try (var files = Files.list(directory)) {
+            assertThat(files).hasSize(1);
+        }
+
+        List<BacktestRow> rows = new ArrayList<>();
+        archive.source(MONTH, at(2025, 3, 10), at(2025, 3, 20), at(2025, 4, 1))
+                .forEachRow(rows::add);
+        assertThat(rows).extracting(BacktestRow::merchantId).containsExactly("m2", "m1");
+        assertThat(rows).extracting(BacktestRow::scored).containsExactly(false, true);
+        assertThat(rows.get(0).storedStatus()).isEqualTo(TransactionStatus.REJECTED);
+        assertThat(rows).extracting(BacktestRow::addressLine)
+                .containsExactly("Line one\nLine two", null);
+        assertThat(rows.get(0).timestamp().toInstant())
+                .isEqualTo(at(2025, 3, 15).plusHours(10).toInstant());
+    }
+
+    @Test
+    void months_ShouldBeEmpty_WhenNoArchiveDirectoryIsConfigured() {
+        // Given
+        TransactionArchive disabled = new TransactionArchive(new FraudDetectionProperties());
+
+        // When & Then
+        assertThat(disabled.isEnabled()).isFalse();
+        assertThat(disabled.contains(MONTH)).isFalse();
+        assertThat(disabled.months()).isEmpty();
+    }
+
+    private static ZonedDateTime at(int year, int month, int day) {
+        return LocalDateTime.of(year, month, day, 0, 0).atZone(ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,116 @@
+package com.globalfraud.frauddetection.service.partition;
+
+import com.globalfraud.frauddetection.config.FraudDetectionProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionPartitionManagerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 18, 12, 0);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TransactionArchive archive;
+
+    private TransactionPartitionManager manager;
+
+    @BeforeEach
+    void setUp() {
+        FraudDetectionProperties properties = new FraudDetectionProperties();
+        properties.getPartitioning().setRetention(Duration.ofDays(365));
+        properties.getPartitioning().setMonthsAhead(2);
+        manager = new TransactionPartitionManager(jdbcTemplate, transactionManager, archive,
+                properties);
+    }
+
+    @Test
+    void maintain_ShouldCreateMissingMonths_AndDetachExpiredOnes() {
+        // Given
+        when(jdbcTemplate.queryForList(contains("pg_inherits"), eq(String.class))).thenReturn(
+                List.of("transactions_default", "transactions_2025_09", "transactions_2025_10",
+                        "transactions_2026_10", "transactions_2026_11"));
+
+        // When
+        manager.maintain(NOW);
+
+        // Then
+        verify(jdbcTemplate).execute(startsWith("CREATE TABLE transactions_2026_12 (LIKE"));
+        verify(jdbcTemplate).update(contains("INSERT INTO transactions_2026_12"), any(), any());
+        verify(jdbcTemplate).execute("ALTER TABLE transactions ATTACH PARTITION "
+                + "transactions_2026_12 FOR VALUES FROM ('2026-12-01 00:00:00.0') "
+                + "TO ('2027-01-01 00:00:00.0')");
+        verify(jdbcTemplate, never()).execute(startsWith("CREATE TABLE transactions_2026_11"));
+        verify(jdbcTemplate)
+                .execute("ALTER TABLE transactions DETACH PARTITION transactions_2025_09");
+        verify(jdbcTemplate, never())
+                .execute("ALTER TABLE transactions DETACH PARTITION transactions_2025_10");
+        verify(jdbcTemplate, never()).execute(startsWith("DROP TABLE"));
+    }
+
+    @Test
+    void maintain_ShouldDropDetachedPartition_OnceItIsArchived() throws Exception {
+        // Given
+        when(jdbcTemplate.queryForList(contains("pg_inherits"), eq(String.class))).thenReturn(
+                List.of("transactions_2026_10", "transactions_2026_11", "transactions_2026_12"));
+        when(archive.isEnabled()).thenReturn(true);
+        when(jdbcTemplate.queryForList(contains("relispartition"), eq(String.class)))
+                .thenReturn(List.of("transactions_2025_08", "transactions_2026_09"));
+        when(archive.contains(YearMonth.of(2025, 8))).thenReturn(true);
+
+        // When
+        manager.maintain(NOW);
+
+        // Then
+        verify(jdbcTemplate).update(
+                "DELETE FROM transaction_ids i USING transactions_2025_08 p WHERE i.id = p.id");
+        verify(jdbcTemplate).execute("DROP TABLE transactions_2025_08");
+        verify(jdbcTemplate, never()).execute("DROP TABLE transactions_2026_09");
+        verify(jdbcTemplate, never()).execute(startsWith("CREATE TABLE"));
+        verify(jdbcTemplate, never()).execute(startsWith("ALTER TABLE"));
+        verify(archive, never()).write(any(), any());
+    }
+
+    @Test
+    void isExpired_ShouldRequireTheWholeMonthToBeBeforeTheCutoff() {
+        assertThat(TransactionPartitionManager.isExpired(YearMonth.of(2025, 9),
+                LocalDateTime.of(2025, 10, 1, 0, 0))).isTrue();
+        assertThat(TransactionPartitionManager.isExpired(YearMonth.of(2025, 10),
+                LocalDateTime.of(2025, 10, 31, 23, 59))).isFalse();
+    }
+
+    @Test
+    void monthOf_ShouldOnlyAcceptMonthlyPartitionNames() {
+        assertThat(TransactionPartitionManager.monthOf("transactions_2026_02"))
+                .contains(YearMonth.of(2026, 2));
+        assertThat(TransactionPartitionManager.monthOf(
+                TransactionPartitionManager.partitionName(YearMonth.of(2024, 12))))
+                .contains(YearMonth.of(2024, 12));
+        assertThat(TransactionPartitionManager.monthOf("transactions_default")).isEmpty();
+        assertThat(TransactionPartitionManager.monthOf("shadow_decisions")).isEmpty();
+    }
+}
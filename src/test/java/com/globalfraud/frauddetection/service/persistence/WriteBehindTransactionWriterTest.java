@@ -0,0 +1,171 @@
+package com.globalfraud.frauddetection.service.persistence;
+
+import com.globalfraud.frauddetection.config.FraudDetectionProperties;
+import com.globalfraud.frauddetection.domain.Transaction;
+import com.globalfraud.frauddetection.exception.PersistenceBackpressureException;
+import com.globalfraud.frauddetection.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WriteBehindTransactionWriterTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private FraudDetectionProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private WriteBehindTransactionWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        properties = new FraudDetectionProperties();
+        properties.getWriteBehind().setEnabled(true);
+        properties.getWriteBehind().setPollInterval(Duration.ofMillis(10));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    void stop_ShouldPersistEveryQueuedTransaction() {
+        // Given
+        Set<UUID> persisted = ConcurrentHashMap.newKeySet();
+        when(transactionRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Transaction> batch = invocation.getArgument(0);
+            batch.forEach(transaction -> {
+                assertThat(transaction.isNew()).isTrue();
+                persisted.add(transaction.getId());
+            });
+            return batch;
+        });
+        writer = createWriter();
+        writer.start();
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            writer.enqueue(transaction());
+        }
+        writer.stop();
+
+        // Then
+        assertThat(persisted).hasSize(50);
+        assertThat(meterRegistry.get("fraud.write-behind.batch.size").summary().totalAmount())
+                .isEqualTo(50);
+        assertThat(meterRegistry.get("fraud.write-behind.queue.depth").gauge().value()).isZero();
+    }
+
+    @Test
+    void enqueue_ShouldRejectTransaction_WhenQueueStaysFull() throws Exception {
+        // Given
+        properties.getWriteBehind().setQueueCapacity(1);
+        properties.getWriteBehind().setEnqueueTimeout(Duration.ofMillis(20));
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(transactionRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+        writer = createWriter();
+        writer.start();
+
+        writer.enqueue(transaction());
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        writer.enqueue(transaction());
+
+        // When & Then
+        try {
+            assertThatThrownBy(() -> writer.enqueue(transaction()))
+                    .isInstanceOfSatisfying(PersistenceBackpressureException.class,
+                            e -> assertThat(e.isRetryable()).isTrue());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void enqueueAll_ShouldQueueNothing_WhenWholeBatchDoesNotFit() throws Exception {
+        // Given
+        properties.getWriteBehind().setQueueCapacity(3);
+        properties.getWriteBehind().setEnqueueTimeout(Duration.ofMillis(20));
+        Set<UUID> persisted = ConcurrentHashMap.newKeySet();
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(transactionRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            List<Transaction> batch = invocation.getArgument(0);
+            batch.forEach(transaction -> persisted.add(transaction.getId()));
+            return batch;
+        });
+        writer = createWriter();
+        writer.start();
+        writer.enqueue(transaction());
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        writer.enqueueAll(List.of(transaction(), transaction()));
+        List<Transaction> rejected = List.of(transaction(), transaction());
+
+        // When
+        try {
+            assertThatThrownBy(() -> writer.enqueueAll(rejected))
+                    .isInstanceOf(PersistenceBackpressureException.class);
+        } finally {
+            release.countDown();
+        }
+        writer.stop();
+
+        // Then
+        assertThat(persisted).hasSize(3)
+                .doesNotContain(rejected.get(0).getId(), rejected.get(1).getId());
+    }
+
+    @Test
+    void enqueue_ShouldThrow_WhenWriterIsStopped() {
+        // Given
+        writer = createWriter();
+
+        // When & Then
+        assertThatThrownBy(() -> writer.enqueue(transaction()))
+                .isInstanceOfSatisfying(PersistenceBackpressureException.class,
+                        e -> assertThat(e.isRetryable()).isFalse());
+    }
+
+    private WriteBehindTransactionWriter createWriter() {
+        return new WriteBehindTransactionWriter(transactionRepository, transactionManager,
+                properties, meterRegistry);
+    }
+
+    private static Transaction transaction() {
+        Transaction transaction = new Transaction();
+        transaction.setId(UUID.randomUUID());
+        return transaction;
+    }
+}
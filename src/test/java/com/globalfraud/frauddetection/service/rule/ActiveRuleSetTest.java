@@ -0,0 +1,136 @@
+package com.globalfraud.frauddetection.service.rule;
+
+import com.globalfraud.frauddetection.domain.FraudRule;
+import com.globalfraud.frauddetection.domain.RuleType;
+import com.globalfraud.frauddetection.repository.FraudRuleRepository;
+import com.globalfraud.frauddetection.repository.FraudRuleRepository.RuleContent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ActiveRuleSetTest {
+
+    @Mock
+    private FraudRuleRepository fraudRuleRepository;
+
+    @Mock
+    private RuleConfigCompiler ruleConfigCompiler;
+
+    private ActiveRuleSet activeRuleSet;
+
+    @BeforeEach
+    void setUp() {
+        activeRuleSet = new ActiveRuleSet(fraudRuleRepository, ruleConfigCompiler);
+    }
+
+    @Test
+    void activeRules_ShouldLoadOnce_WhenCalledRepeatedly() {
+        // Given
+        FraudRule rule = new FraudRule();
+        rule.setName("Rule");
+        when(fraudRuleRepository.findAllActiveRulesOrderedByPriority()).thenReturn(List.of(rule));
+
+        // When
+        activeRuleSet.activeRules();
+        List<FraudRule> rules = activeRuleSet.activeRules();
+
+        // Then
+        assertThat(rules).containsExactly(rule);
+        verify(fraudRuleRepository, times(1)).findAllActiveRulesOrderedByPriority();
+    }
+
+    @Test
+    void shadowRules_ShouldBeKeptOutOfTheLiveRules() {
+        // Given
+        FraudRule live = new FraudRule();
+        live.setName("Live");
+        FraudRule shadow = new FraudRule();
+        shadow.setName("Shadow");
+        shadow.setShadow(true);
+        when(fraudRuleRepository.findAllActiveRulesOrderedByPriority())
+                .thenReturn(List.of(shadow, live));
+
+        // When
+        List<FraudRule> rules = activeRuleSet.activeRules();
+        List<FraudRule> shadowRules = activeRuleSet.shadowRules();
+
+        // Then
+        assertThat(rules).containsExactly(live);
+        assertThat(shadowRules).containsExactly(shadow);
+        verify(ruleConfigCompiler).configFor(shadow);
+    }
+
+    @Test
+    void checkForChanges_ShouldReload_WhenRuleIsEditedWithoutTouchingUpdatedAt() {
+        // Given
+        UUID id = UUID.randomUUID();
+        RuleContent initial = content(id, true, "{\"threshold\": 5000}");
+        RuleContent edited = content(id, true, "{\"threshold\": 500}");
+        when(fraudRuleRepository.findRuleContent())
+                .thenReturn(List.of(initial), List.of(edited), List.of(edited));
+        when(fraudRuleRepository.findAllActiveRulesOrderedByPriority()).thenReturn(List.of());
+        activeRuleSet.activeRules();
+
+        // When
+        activeRuleSet.checkForChanges();
+
+        // Then
+        verify(fraudRuleRepository, times(2)).findAllActiveRulesOrderedByPriority();
+    }
+
+    @Test
+    void checkForChanges_ShouldReload_WhenRuleIsDeactivated() {
+        // Given
+        UUID id = UUID.randomUUID();
+        when(fraudRuleRepository.findRuleContent()).thenReturn(
+                List.of(content(id, true, "{}")), List.of(content(id, false, "{}")), List.of());
+        when(fraudRuleRepository.findAllActiveRulesOrderedByPriority()).thenReturn(List.of());
+        activeRuleSet.activeRules();
+
+        // When
+        activeRuleSet.checkForChanges();
+
+        // Then
+        verify(fraudRuleRepository, times(2)).findAllActiveRulesOrderedByPriority();
+    }
+
+    @Test
+    void checkForChanges_ShouldNotReload_WhenRulesAreUnchanged() {
+        // Given
+        UUID id = UUID.randomUUID();
+        when(fraudRuleRepository.findRuleContent()).thenReturn(
+                List.of(content(id, true, "{}")), List.of(content(id, true, "{}")));
+        when(fraudRuleRepository.findAllActiveRulesOrderedByPriority()).thenReturn(List.of());
+        activeRuleSet.activeRules();
+
+        // When
+        activeRuleSet.checkForChanges();
+
+        // Then
+        verify(fraudRuleRepository, times(1)).findAllActiveRulesOrderedByPriority();
+    }
+
+    private RuleContent content(UUID id, boolean active, String ruleConfig) {
+        RuleContent content = mock(RuleContent.class);
+        when(content.getId()).thenReturn(id);
+        when(content.getName()).thenReturn("Rule");
+        when(content.getRuleType()).thenReturn(RuleType.AMOUNT_THRESHOLD);
+        when(content.getRuleConfig()).thenReturn(ruleConfig);
+        when(content.getActive()).thenReturn(active);
+        when(content.getShadow()).thenReturn(false);
+        when(content.getPriority()).thenReturn(1);
+        return content;
+    }
+}
@@ -0,0 +1,177 @@
+package com.globalfraud.frauddetection.service.rule;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.globalfraud.frauddetection.domain.FraudRule;
+import com.globalfraud.frauddetection.domain.RuleType;
+import com.globalfraud.frauddetection.exception.InvalidRuleConfigException;
+import com.globalfraud.frauddetection.service.keyword.KeywordField;
+import com.globalfraud.frauddetection.service.velocity.VelocityDimension;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RuleConfigCompilerTest {
+
+    private RuleConfigCompiler compiler;
+
+    @BeforeEach
+    void setUp() {
+        compiler = new RuleConfigCompiler(new ObjectMapper());
+    }
+
+    @Test
+    void compile_ShouldReturnTypedConfig_WhenVelocityConfigIsValid() {
+        // When
+        RuleConfig config = compiler.compile(RuleType.VELOCITY_CHECK,
+                "{\"maxTransactions\": 3, \"timeWindowMinutes\": \"60\"}");
+
+        // Then
+        assertThat(config).isEqualTo(new RuleConfig.VelocityCheck(VelocityDimension.CUSTOMER, 3,
+                Duration.ofMinutes(60)));
+    }
+
+    @Test
+    void compile_ShouldReadDimension_WhenVelocityConfigNamesOne() {
+        // When
+        RuleConfig config = compiler.compile(RuleType.VELOCITY_CHECK,
+                "{\"dimension\": \"merchant\", \"maxTransactions\": 50, \"timeWindowMinutes\": 5}");
+
+        // Then
+        assertThat(((RuleConfig.VelocityCheck) config).dimension())
+                .isEqualTo(VelocityDimension.MERCHANT);
+    }
+
+    @Test
+    void compile_ShouldThrow_WhenParameterIsMissing() {
+        assertThatThrownBy(() -> compiler.compile(RuleType.MERCHANT_RISK,
+                "{\"merchantRiskThreshold\": \"0.5\"}"))
+                .isInstanceOf(InvalidRuleConfigException.class)
+                .hasMessageContaining("timeWindowHours");
+    }
+
+    @Test
+    void compile_ShouldDefaultLocationScore_AndRejectScoreAboveOne() {
+        // When
+        RuleConfig config = compiler.compile(RuleType.LOCATION_BASED, "{}");
+
+        // Then
+        assertThat(config).isEqualTo(new RuleConfig.LocationBased(0.25, false));
+        assertThat(compiler.compile(RuleType.LOCATION_BASED, "{\"flagUnknownZip\": true}"))
+                .isEqualTo(new RuleConfig.LocationBased(0.25, true));
+        assertThatThrownBy(() -> compiler.compile(RuleType.LOCATION_BASED, "{\"score\": 1.5}"))
+                .isInstanceOf(InvalidRuleConfigException.class)
+                .hasMessageContaining("must not exceed 1");
+    }
+
+    @Test
+    void compile_ShouldDefaultPatternMatchingToFullScore() {
+        // When
+        RuleConfig config = compiler.compile(RuleType.PATTERN_MATCHING, "{}");
+
+        // Then
+        assertThat(config).isEqualTo(new RuleConfig.PatternMatching(1.0));
+    }
+
+    @Test
+    void compile_ShouldThrow_WhenJsonIsMalformed() {
+        assertThatThrownBy(() -> compiler.compile(RuleType.AMOUNT_THRESHOLD, "{threshold"))
+                .isInstanceOf(InvalidRuleConfigException.class);
+    }
+
+    @Test
+    void configFor_ShouldRecompile_WhenRuleConfigChanges() {
+        // Given
+        FraudRule rule = new FraudRule();
+        rule.setId(UUID.randomUUID());
+        rule.setRuleType(RuleType.AMOUNT_THRESHOLD);
+        rule.setRuleConfig("{\"threshold\": \"500.00\"}");
+        RuleConfig first = compiler.configFor(rule);
+
+        // When
+        rule.setRuleConfig("{\"threshold\": \"750.00\"}");
+        RuleConfig second = compiler.configFor(rule);
+
+        // Then
+        assertThat(compiler.configFor(rule)).isSameAs(second);
+        assertThat(first).isEqualTo(new RuleConfig.AmountThreshold(new BigDecimal("500.00")));
+        assertThat(second).isEqualTo(new RuleConfig.AmountThreshold(new BigDecimal("750.00")));
+    }
+
+    @Test
+    void configFor_ShouldKeepPreviousPlan_ForRulesFromTheOlderSnapshot() {
+        // Given
+        FraudRule older = new FraudRule();
+        older.setId(UUID.randomUUID());
+        older.setRuleType(RuleType.KEYWORD_MATCH);
+        older.setRuleConfig("{\"fields\": [\"ADDRESS_LINE\"], \"keywords\": [\"po box\"]}");
+        FraudRule newer = new FraudRule();
+        newer.setId(older.getId());
+        newer.setRuleType(RuleType.KEYWORD_MATCH);
+        newer.setRuleConfig("{\"fields\": [\"ADDRESS_LINE\"], \"keywords\": [\"casino\"]}");
+        RuleConfig first = compiler.configFor(older);
+
+        // When
+        RuleConfig second = compiler.configFor(newer);
+
+        // Then
+        assertThat(compiler.configFor(older)).isSameAs(first);
+        assertThat(compiler.configFor(newer)).isSameAs(second);
+    }
+
+    @Test
+    void compile_ShouldBuildKeywordMatch_WithDefaults() {
+        // When
+        RuleConfig config = compiler.compile(RuleType.KEYWORD_MATCH,
+                "{\"fields\": [\"address_line\", \"MERCHANT_NAME\"], "
+                        + "\"keywords\": [\"PO Box\", \"P.O. Box\", \"casino\"]}");
+
+        // Then
+        assertThat(config).isInstanceOfSatisfying(RuleConfig.KeywordMatch.class, keyword -> {
+            assertThat(keyword.fields())
+                    .containsExactly(KeywordField.ADDRESS_LINE, KeywordField.MERCHANT_NAME);
+            assertThat(keyword.keywords().size()).isEqualTo(2);
+            assertThat(keyword.keywords().matches("Casino Royale")).isTrue();
+            assertThat(keyword.score()).isEqualTo(0.10);
+        });
+    }
+
+    @Test
+    void compile_ShouldRejectKeywordMatch_WhenListsAreMissingOrInvalid() {
+        assertThatThrownBy(() -> compiler.compile(RuleType.KEYWORD_MATCH,
+                "{\"fields\": [\"ADDRESS_LINE\"], \"keywords\": []}"))
+                .isInstanceOf(InvalidRuleConfigException.class)
+                .hasMessageContaining("non-empty array");
+        assertThatThrownBy(() -> compiler.compile(RuleType.KEYWORD_MATCH,
+                "{\"fields\": [\"IBAN\"], \"keywords\": [\"x\"]}"))
+                .isInstanceOf(InvalidRuleConfigException.class)
+                .hasMessageContaining("'fields'");
+        assertThatThrownBy(() -> compiler.compile(RuleType.KEYWORD_MATCH,
+                "{\"fields\": [\"ADDRESS_LINE\"], \"keywords\": [\"--\"]}"))
+                .isInstanceOf(InvalidRuleConfigException.class)
+                .hasMessageContaining("no letters or digits");
+    }
+
+    @Test
+    void compile_ShouldBuildExpression_AndRejectOneThatIsNotACondition() {
+        // When
+        RuleConfig config = compiler.compile(RuleType.EXPRESSION,
+                "{\"expression\": \"amount > 5000 && velocity(customer, 10m) > 3\"}");
+
+        // Then
+        assertThat(config).isInstanceOfSatisfying(RuleConfig.Expression.class, expression -> {
+            assertThat(expression.expression().usesAggregates()).isTrue();
+            assertThat(expression.score()).isEqualTo(1.0);
+        });
+        assertThatThrownBy(() -> compiler.compile(RuleType.EXPRESSION,
+                "{\"expression\": \"amount + 1\"}"))
+                .isInstanceOf(InvalidRuleConfigException.class)
+                .hasMessageContaining("EXPRESSION parameter 'expression': Expression must be a "
+                        + "condition");
+    }
+}
@@ -0,0 +1,210 @@
+package com.globalfraud.frauddetection.service.shadow;
+
+import com.globalfraud.frauddetection.config.FraudDetectionProperties;
+import com.globalfraud.frauddetection.domain.FraudRule;
+import com.globalfraud.frauddetection.domain.ShadowDecision;
+import com.globalfraud.frauddetection.domain.Transaction;
+import com.globalfraud.frauddetection.domain.TransactionStatus;
+import com.globalfraud.frauddetection.repository.ShadowDecisionRepository;
+import com.globalfraud.frauddetection.service.RuleEvaluator;
+import com.globalfraud.frauddetection.service.RuleOutcome;
+import com.globalfraud.frauddetection.service.ScoringMetrics;
+import com.globalfraud.frauddetection.service.TransactionFacts;
+import com.globalfraud.frauddetection.service.rule.ActiveRuleSet;
+import com.globalfraud.frauddetection.service.shadow.ShadowRuleEvaluator.LiveDecision;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ShadowRuleEvaluatorTest {
+
+    @Mock
+    private ActiveRuleSet activeRuleSet;
+
+    @Mock
+    private RuleEvaluator ruleEvaluator;
+
+    @Mock
+    private ShadowDecisionRepository shadowDecisionRepository;
+
+    private FraudDetectionProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private ShadowRuleEvaluator shadowRuleEvaluator;
+
+    @BeforeEach
+    void setUp() {
+        properties = new FraudDetectionProperties();
+        properties.getShadow().setThreads(1);
+        properties.getShadow().setQueueCapacity(1);
+        meterRegistry = new SimpleMeterRegistry();
+        shadowRuleEvaluator = new ShadowRuleEvaluator(activeRuleSet, ruleEvaluator,
+                shadowDecisionRepository, new ScoringMetrics(meterRegistry, properties),
+                properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        shadowRuleEvaluator.shutdown();
+    }
+
+    @Test
+    void evaluate_ShouldAverageShadowScoresWithLiveScores_AndIgnoreFailingRules() {
+        // Given
+        FraudRule challenger = rule("Challenger");
+        FraudRule failing = rule("Failing");
+        FraudRule quiet = rule("Quiet");
+        LiveDecision decision = liveDecision(0.2);
+        when(ruleEvaluator.evaluateRule(decision.transaction(), challenger, decision.facts()))
+                .thenReturn(new RuleOutcome(true, 0.9, Map.of()));
+        when(ruleEvaluator.evaluateRule(decision.transaction(), failing, decision.facts()))
+                .thenThrow(new IllegalStateException("lookup failed"));
+        when(ruleEvaluator.evaluateRule(decision.transaction(), quiet, decision.facts()))
+                .thenReturn(RuleOutcome.notTriggered());
+
+        // When
+        ShadowDecision shadowDecision =
+                shadowRuleEvaluator.evaluate(List.of(challenger, failing, quiet), decision);
+
+        // Then
+        assertThat(shadowDecision.getTransactionId()).isEqualTo(decision.transaction().getId());
+        assertThat(shadowDecision.getStatus()).isEqualTo(TransactionStatus.APPROVED);
+        assertThat(shadowDecision.getRiskScore()).isEqualByComparingTo("0.20");
+        assertThat(shadowDecision.getShadowStatus())
+                .isEqualTo(TransactionStatus.FLAGGED_FOR_REVIEW);
+        assertThat(shadowDecision.getShadowRiskScore()).isEqualByComparingTo("0.55");
+        assertThat(shadowDecision.getTriggeredRules()).isEqualTo("Challenger");
+        assertThat(meterRegistry.counter("fraud.shadow.failed").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("fraud.shadow.decisions", "status", "APPROVED",
+                "shadow_status", "FLAGGED_FOR_REVIEW").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void evaluate_ShouldLeaveOutLiveRule_ThatShadowRuleReplaces() {
+        // Given
+        FraudRule challenger = rule("Challenger");
+        challenger.setReplacesRule("Champion");
+        LiveDecision decision = liveDecision(0.8);
+        when(ruleEvaluator.evaluateRule(decision.transaction(), challenger, decision.facts()))
+                .thenReturn(new RuleOutcome(true, 0.2, Map.of()));
+
+        // When
+        ShadowDecision shadowDecision = shadowRuleEvaluator.evaluate(List.of(challenger), decision);
+
+        // Then
+        assertThat(shadowDecision.getShadowRiskScore()).isEqualByComparingTo("0.20");
+        assertThat(shadowDecision.getShadowStatus()).isEqualTo(TransactionStatus.APPROVED);
+    }
+
+    @Test
+    void prepare_ShouldLookUpShadowOnlyAggregates_BeforeTheTransactionIsRecorded() {
+        // Given
+        FraudRule velocity = rule("Velocity Challenger");
+        FraudRule keyword = rule("Keyword Challenger");
+        LiveDecision decision = liveDecision(0.0);
+        AtomicLong recorded = new AtomicLong();
+        when(ruleEvaluator.requiresIo(velocity)).thenReturn(true);
+        when(ruleEvaluator.requiresIo(keyword)).thenReturn(false);
+        when(ruleEvaluator.evaluateRule(decision.transaction(), velocity, decision.facts()))
+                .thenAnswer(invocation -> {
+                    long count = decision.facts().get("velocity", recorded::get);
+                    return count > 0 ? new RuleOutcome(true, 1.0, Map.of())
+                            : RuleOutcome.notTriggered();
+                });
+
+        // When
+        shadowRuleEvaluator.prepare(List.of(velocity, keyword), List.of(decision));
+        recorded.incrementAndGet();
+        ShadowDecision shadowDecision = shadowRuleEvaluator.evaluate(List.of(velocity), decision);
+
+        // Then
+        assertThat(shadowDecision.getShadowStatus()).isEqualTo(TransactionStatus.APPROVED);
+        verify(ruleEvaluator, never()).evaluateRule(any(), eq(keyword), any());
+    }
+
+    @Test
+    void submit_ShouldDropWithoutBlocking_WhenQueueIsFull() throws Exception {
+        // Given
+        FraudRule challenger = rule("Challenger");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(ruleEvaluator.evaluateRule(any(), eq(challenger), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return RuleOutcome.notTriggered();
+        });
+        shadowRuleEvaluator.submit(List.of(challenger), List.of(liveDecision(0.0)));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        long start = System.nanoTime();
+        shadowRuleEvaluator.submit(List.of(challenger), List.of(liveDecision(0.0)));
+        shadowRuleEvaluator.submit(List.of(challenger),
+                List.of(liveDecision(0.0), liveDecision(0.0)));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        release.countDown();
+
+        // Then
+        assertThat(elapsedMillis).isLessThan(1000);
+        assertThat(meterRegistry.counter("fraud.shadow.dropped").count()).isEqualTo(2.0);
+        verify(shadowDecisionRepository, timeout(5000).times(2)).saveAll(anyList());
+    }
+
+    @Test
+    void rules_ShouldBeEmpty_WhenShadowEvaluationIsDisabled() {
+        // Given
+        properties.getShadow().setEnabled(false);
+        ShadowRuleEvaluator disabled = new ShadowRuleEvaluator(activeRuleSet, ruleEvaluator,
+                shadowDecisionRepository, new ScoringMetrics(meterRegistry, properties),
+                properties, new SimpleMeterRegistry());
+
+        // When
+        List<FraudRule> rules = disabled.rules();
+        disabled.shutdown();
+
+        // Then
+        assertThat(rules).isEmpty();
+        verify(activeRuleSet, times(0)).shadowRules();
+    }
+
+    private static FraudRule rule(String name) {
+        FraudRule rule = new FraudRule();
+        rule.setId(UUID.randomUUID());
+        rule.setName(name);
+        rule.setShadow(true);
+        return rule;
+    }
+
+    private static LiveDecision liveDecision(double liveScore) {
+        Transaction transaction = new Transaction();
+        transaction.setId(UUID.randomUUID());
+        boolean triggered = liveScore > 0;
+        Map<String, RuleOutcome> triggeredRules = triggered
+                ? Map.of("Champion", new RuleOutcome(true, liveScore, Map.of())) : Map.of();
+        return new LiveDecision(transaction, new TransactionFacts(), triggeredRules, false,
+                TransactionStatus.APPROVED,
+                triggered ? BigDecimal.valueOf(liveScore) : BigDecimal.ZERO);
+    }
+}
@@ -0,0 +1,72 @@
+package com.globalfraud.frauddetection.service.velocity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowCounterTest {
+
+    @Test
+    void sum_ShouldCountOnlyBucketsInRange() {
+        // Given
+        SlidingWindowCounter counter = new SlidingWindowCounter(10);
+        counter.increment(100);
+        counter.increment(100);
+        counter.increment(104);
+        counter.increment(109);
+
+        // When
+        long count = counter.sum(104, 109);
+
+        // Then
+        assertThat(count).isEqualTo(2);
+    }
+
+    @Test
+    void increment_ShouldRecycleSlot_WhenRingWraps() {
+        // Given
+        SlidingWindowCounter counter = new SlidingWindowCounter(10);
+        counter.increment(100);
+
+        // When
+        counter.increment(110);
+        counter.increment(100);
+
+        // Then
+        assertThat(counter.sum(0, 200)).isEqualTo(1);
+        assertThat(counter.covers(100)).isFalse();
+        assertThat(counter.covers(101)).isTrue();
+    }
+
+    @Test
+    void hydrate_ShouldReplaceExistingCounts() {
+        // Given
+        SlidingWindowCounter counter = new SlidingWindowCounter(10);
+        counter.increment(50);
+
+        // When
+        counter.hydrate(new long[] {48, 49, 49});
+
+        // Then
+        assertThat(counter.isHydrated()).isTrue();
+        assertThat(counter.sum(40, 50)).isEqualTo(3);
+    }
+
+    @Test
+    void hydrate_ShouldKeepEventsRecordedWhileHydrationWasInProgress() {
+        // Given
+        SlidingWindowCounter counter = new SlidingWindowCounter(10);
+        counter.beginHydration();
+        counter.increment(50);
+
+        // When
+        counter.hydrate(new long[] {48, 49});
+        counter.increment(50);
+
+        // Then
+        assertThat(counter.sum(40, 50)).isEqualTo(4);
+        counter.beginHydration();
+        counter.hydrate(new long[] {48});
+        assertThat(counter.sum(40, 50)).isEqualTo(1);
+    }
+}
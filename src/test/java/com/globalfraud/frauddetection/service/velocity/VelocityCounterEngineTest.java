@@ -0,0 +1,58 @@
+package com.globalfraud.frauddetection.service.velocity;
+
+import com.globalfraud.frauddetection.config.FraudDetectionProperties;
+import com.globalfraud.frauddetection.domain.Transaction;
+import com.globalfraud.frauddetection.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class VelocityCounterEngineTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private VelocityCounterEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new VelocityCounterEngine(transactionRepository, new FraudDetectionProperties());
+    }
+
+    @Test
+    void count_ShouldKeepTransactionRecordedWhileHydrating() {
+        // Given
+        ZonedDateTime now = ZonedDateTime.now();
+        when(transactionRepository.findTransactionTimestampsByCustomerInTimeWindow(eq("c1"),
+                any(), any())).thenAnswer(invocation -> {
+                    engine.record(transaction("c1", now.minusSeconds(5)));
+                    return List.of(now.minusMinutes(10), now.minusMinutes(5));
+                });
+
+        // When
+        long count = engine.count(VelocityDimension.CUSTOMER, "c1", now, Duration.ofMinutes(30));
+
+        // Then
+        assertThat(count).isEqualTo(3);
+    }
+
+    private static Transaction transaction(String customerId, ZonedDateTime timestamp) {
+        Transaction transaction = new Transaction();
+        transaction.setCustomerId(customerId);
+        transaction.setMerchantId("m1");
+        transaction.setTransactionTimestamp(timestamp);
+        return transaction;
+    }
+}
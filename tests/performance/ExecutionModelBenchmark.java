@@ -0,0 +1,144 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Closed-loop load driver comparing the platform-thread and virtual-thread execution models.
+ *
+ * <p>
+ * Each simulated client sends fraud checks back to back for the measurement period. Run it against
+ * one instance started with {@code VIRTUAL_THREADS_ENABLED=false} and one started with
+ * {@code VIRTUAL_THREADS_ENABLED=true}; see README.md in this directory.
+ *
+ * <pre>
+ * java tests/performance/ExecutionModelBenchmark.java \
+ *     --url http://localhost:8080 --clients 25,250,2500 --warmup 10 --duration 30
+ * </pre>
+ */
+public class ExecutionModelBenchmark {
+
+    private static final String CHECK_PATH = "/api/v1/fraud-detection/check";
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = option(args, "--url", "http://localhost:8080");
+        int[] clientCounts = Arrays.stream(option(args, "--clients", "25,250,2500").split(","))
+                .mapToInt(value -> Integer.parseInt(value.trim())).toArray();
+        Duration warmup = Duration.ofSeconds(Long.parseLong(option(args, "--warmup", "10")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(option(args, "--duration", "30")));
+        int customers = Integer.parseInt(option(args, "--customers", "10000"));
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        URI uri = URI.create(baseUrl + CHECK_PATH);
+
+        System.out.printf("%8s %10s %8s %10s %9s %9s %9s%n", "clients", "requests", "errors",
+                "req/s", "p50 ms", "p95 ms", "p99 ms");
+        for (int clients : clientCounts) {
+            run(client, uri, clients, customers, warmup);
+            Result result = run(client, uri, clients, customers, duration);
+            System.out.printf("%8d %10d %8d %10.1f %9.2f %9.2f %9.2f%n", clients,
+                    result.requests(), result.errors(),
+                    result.requests() / (double) duration.toSeconds(), result.percentile(0.50),
+                    result.percentile(0.95), result.percentile(0.99));
+        }
+    }
+
+    private static Result run(HttpClient client, URI uri, int clients, int customers,
+            Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<ClientResult>> futures = new ArrayList<>(clients);
+            for (int i = 0; i < clients; i++) {
+                futures.add(executor.submit(() -> runClient(client, uri, customers, deadline)));
+            }
+
+            long[] latencies = new long[0];
+            long errors = 0;
+            for (Future<ClientResult> future : futures) {
+                ClientResult clientResult = future.get();
+                int offset = latencies.length;
+                latencies = Arrays.copyOf(latencies, offset + clientResult.count());
+                System.arraycopy(clientResult.latencies(), 0, latencies, offset,
+                        clientResult.count());
+                errors += clientResult.errors();
+            }
+            Arrays.sort(latencies);
+            return new Result(latencies, errors);
+        }
+    }
+
+    private static ClientResult runClient(HttpClient client, URI uri, int customers,
+            long deadline) {
+        long[] latencies = new long[1024];
+        int count = 0;
+        long errors = 0;
+        while (System.nanoTime() < deadline) {
+            HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body(customers))).build();
+            long start = System.nanoTime();
+            try {
+                HttpResponse<Void> response =
+                        client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() != 200) {
+                    errors++;
+                    continue;
+                }
+            } catch (Exception e) {
+                errors++;
+                continue;
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = System.nanoTime() - start;
+        }
+        return new ClientResult(latencies, count, errors);
+    }
+
+    private static String body(int customers) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return String.format("{\"transactionId\":\"%s\",\"merchantId\":\"MERCHANT%03d\","
+                + "\"customerId\":\"CUSTOMER%05d\",\"amount\":%d.%02d,\"currency\":\"USD\","
+                + "\"transactionTimestamp\":\"%s\"}", UUID.randomUUID(), random.nextInt(100),
+                random.nextInt(customers), 1 + random.nextInt(2000), random.nextInt(100),
+                ZonedDateTime.now());
+    }
+
+    private static String option(String[] args, String name, String defaultValue) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(name)) {
+                return args[i + 1];
+            }
+        }
+        return defaultValue;
+    }
+
+    private record ClientResult(long[] latencies, int count, long errors) {
+    }
+
+    private record Result(long[] sortedLatencies, long errors) {
+        long requests() {
+            return sortedLatencies.length;
+        }
+
+        double percentile(double quantile) {
+            if (sortedLatencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(quantile * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+}